@@ -0,0 +1,53 @@
+package com.github.service.accountservice;
+
+import com.github.service.accountservice.configuration.SwaggerConfiguration;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The application as benchmarks start it: no web server, an in-memory H2 database instead of MySQL, no
+ * Redis unless a benchmark starts one, no Swagger and no background reconciliation. Benchmarks run on the test classpath, so the test
+ * configurations are kept out of the scan.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = AccountServiceApplication.class,
+        excludeFilters = {
+                @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {AccountServiceApplication.class, SwaggerConfiguration.class}),
+                @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = TestConfiguration.class)})
+public class BenchmarkApplication {
+
+    public static ConfigurableApplicationContext start(String database, String... args) {
+
+        String[] defaults = {
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=sa",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--ratelimit.redis-sync.enabled=false",
+                "--reconciliation.enabled=false",
+                "--catalog.invalidation=local",
+                "--logging.level.root=WARN"
+        };
+        // A property given twice on the command line would come out as "first,second", so args replace defaults.
+        Map<String, String> arguments = new LinkedHashMap<>();
+        Stream.concat(Arrays.stream(defaults), Arrays.stream(args))
+                .forEach(arg -> arguments.put(arg.substring(0, arg.indexOf('=')), arg));
+
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.values().toArray(new String[0]));
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.service.accountservice.aspect;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import redis.embedded.RedisServer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A rate limited controller call through the aspect, so the numbers include the proxy, the request lookup
+ * and the response headers on top of the limiter itself (see RateLimiterBenchmark for the limiter alone).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitAspectBenchmark {
+
+    private static final int REDIS_PORT = 16382;
+
+    @RestController
+    public static class LimitedController {
+
+        @RateLimit(limit = Integer.MAX_VALUE, duration = 60, unit = TimeUnit.SECONDS)
+        public int limited() {
+            return 1;
+        }
+
+        public int unlimited() {
+            return 1;
+        }
+    }
+
+    @Param({"local", "redis"})
+    private String engine;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private LimitedController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        IRateLimiter rateLimiter;
+        if ("redis".equals(engine)) {
+            redisServer = new RedisServer(REDIS_PORT);
+            redisServer.start();
+            connectionFactory = new LettuceConnectionFactory("localhost", REDIS_PORT);
+            connectionFactory.afterPropertiesSet();
+            rateLimiter = new RedisRateLimiter(new StringRedisTemplate(connectionFactory));
+        } else {
+            rateLimiter = new LocalRateLimiter();
+        }
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LimitedController());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new RateLimitAspect(rateLimiter, new RateLimitMetrics(new SimpleMeterRegistry())));
+        controller = proxyFactory.getProxy();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/account/deposit");
+        request.setRemoteHost("10.0.0.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        RequestContextHolder.resetRequestAttributes();
+        if (redisServer != null) {
+            connectionFactory.destroy();
+            redisServer.stop();
+        }
+    }
+
+    @Benchmark
+    public int limited() {
+        return controller.limited();
+    }
+
+    @Benchmark
+    public int unlimited() {
+        return controller.unlimited();
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.service.accountservice.aspect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rate limit decision: the in-memory engine against the Redis engine, which makes one
+ * script call per decision (embedded Redis on loopback, so real deployments only look worse for it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int REDIS_PORT = 16379;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private LocalRateLimiter localRateLimiter;
+    private RedisRateLimiter redisRateLimiter;
+    private RateLimit rateLimit;
+    private final RateLimitDecision decision = new RateLimitDecision();
+
+    @RateLimit(limit = Integer.MAX_VALUE, duration = 60, unit = TimeUnit.SECONDS)
+    private void limited() {}
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        localRateLimiter = new LocalRateLimiter();
+        redisRateLimiter = new RedisRateLimiter(redisTemplate);
+        rateLimit = RateLimiterBenchmark.class.getDeclaredMethod("limited").getAnnotation(RateLimit.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public boolean local() {
+        localRateLimiter.acquire("/account/deposit", "10.0.0.1", rateLimit, decision);
+        return decision.isAllowed();
+    }
+
+    @Benchmark
+    public boolean redis() {
+        redisRateLimiter.acquire("/account/deposit", "10.0.0.1", rateLimit, decision);
+        return decision.isAllowed();
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.service.accountservice.aspect;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A proxied service call with and without {@link ServiceMetricsInterceptor}, timed into a Prometheus registry with
+ * a percentile histogram as the application configures it. Run with -prof gc: the timed call should allocate no
+ * more than the plain one, which pays for the proxy's method invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceMetricsBenchmark {
+
+    public static class Service {
+
+        public int call(int value) {
+            return value + 1;
+        }
+    }
+
+    @Param({"plain", "timed"})
+    private String mode;
+
+    private Service service;
+    private int value;
+
+    @Setup
+    public void setUp() {
+
+        ProxyFactory factory = new ProxyFactory(new Service());
+        factory.setProxyTargetClass(true);
+        // An advice that only passes the call on, so both modes go through the same proxy machinery.
+        factory.addAdvice((MethodInterceptor) invocation -> invocation.proceed());
+        if ("timed".equals(mode)) {
+            PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            registry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+            });
+            factory.addAdvice(0, new ServiceMetricsInterceptor(registry));
+        }
+        service = (Service) factory.getProxy();
+    }
+
+    @Benchmark
+    public int call() {
+        return service.call(value++);
+    }
+}
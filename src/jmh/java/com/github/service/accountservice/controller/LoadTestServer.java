@@ -0,0 +1,42 @@
+package com.github.service.accountservice.controller;
+
+import com.github.service.accountservice.BenchmarkApplication;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.repository.AccountRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The server side of VirtualThreadLoadBenchmark, started in a JVM of its own so the server and the clients do not
+ * share threads or file descriptors. Serves the servlet endpoints on {@code port}, with Tomcat's thread pool or with
+ * virtual threads, creates {@code accounts} accounts and prints "READY firstId lastId" once requests can come in.
+ * <p>
+ * Arguments: {@code platform|virtual port accounts}
+ */
+public class LoadTestServer {
+
+    public static void main(String[] args) {
+
+        boolean virtual = "virtual".equals(args[0]);
+        if (virtual && Arrays.stream(Thread.class.getMethods()).noneMatch(method -> method.getName().equals("ofVirtual"))) {
+            // the profile would fall back to Tomcat's pool and the comparison measure the same mode twice
+            throw new IllegalStateException("The virtual mode needs a Java 21 server, -p serverJava=/path/to/jdk-21/bin/java");
+        }
+        ConfigurableApplicationContext context = BenchmarkApplication.start("load",
+                "--spring.main.web-application-type=servlet",
+                "--server.port=" + args[1],
+                // every client is its own address, or the 20 requests a minute rate limit rejects the load
+                "--server.use-forward-headers=true",
+                "--server.tomcat.max-connections=20000",
+                "--spring.profiles.active=" + (virtual ? "virtual-threads" : "default"));
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < Integer.parseInt(args[2]); i++) {
+            accounts.add(new Account());
+        }
+        accounts = context.getBean(AccountRepository.class).saveAll(accounts);
+        System.out.println("READY " + accounts.get(0).getId() + " " + accounts.get(accounts.size() - 1).getId());
+    }
+}
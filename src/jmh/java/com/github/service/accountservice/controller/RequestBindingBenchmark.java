@@ -0,0 +1,104 @@
+package com.github.service.accountservice.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.consumes.AccountAmountRequest;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.AccountResponse;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON side of a deposit: body in, validation, response out, without the HTTP stack around it. "map" is how the
+ * controllers bound bodies before, a Map of strings checked and parsed by hand and a HashMap around the response;
+ * "typed" is the request and response classes they use now. Run with -prof gc for the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBindingBenchmark {
+
+    private static final byte[] BODY = "{\"accountId\":\"42\",\"amount\":\"100.50\"}".getBytes(StandardCharsets.UTF_8);
+    private static final List<String> REQUIRED = Arrays.asList("accountId", "amount");
+
+    @Param({"map", "typed"})
+    private String binding;
+
+    @Param({"false", "true"})
+    private boolean afterburner;
+
+    private ObjectReader mapReader;
+    private ObjectReader typedReader;
+    private ObjectWriter writer;
+    private ValidatorImp validator;
+
+    @Setup
+    public void setUp() {
+
+        // The ObjectMapper as Spring Boot configures it for the controllers.
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        if (afterburner) {
+            objectMapper.registerModule(new AfterburnerModule());
+        }
+        mapReader = objectMapper.readerFor(new TypeReference<Map<String, String>>() {});
+        typedReader = objectMapper.readerFor(AccountAmountRequest.class);
+        writer = objectMapper.writer();
+        validator = new ValidatorImp();
+    }
+
+    @Benchmark
+    public byte[] deposit() throws IOException, AccountException {
+        return "map".equals(binding) ? mapDeposit() : typedDeposit();
+    }
+
+    private byte[] mapDeposit() throws IOException, AccountException {
+
+        Map<String, String> dataMap = mapReader.readValue(BODY);
+        for (String parameter : REQUIRED) {
+            if (!dataMap.containsKey(parameter) || (dataMap.get(parameter) == null) || (dataMap.get(parameter).isEmpty())) {
+                throw new AccountException(400, ErrorMessage.NO_MANDATORY_FIELD.getMessage());
+            }
+        }
+        Integer accountId = Integer.parseInt(dataMap.get("accountId"));
+        Money amount = Money.of(new BigDecimal(dataMap.get("amount")));
+
+        Map<String, Object> resultOrders = new HashMap<>();
+        resultOrders.put("account", new AccountDto(accountId, amount));
+        return writer.writeValueAsBytes(resultOrders);
+    }
+
+    private byte[] typedDeposit() throws IOException, AccountException {
+
+        AccountAmountRequest request = typedReader.readValue(BODY);
+        validator.validate(request);
+        return writer.writeValueAsBytes(new AccountResponse(new AccountDto(request.getAccountId(), request.getAmount())));
+    }
+}
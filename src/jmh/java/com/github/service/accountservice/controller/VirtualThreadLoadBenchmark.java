@@ -0,0 +1,147 @@
+package com.github.service.accountservice.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.resources.PoolResources;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code clients} clients depositing into their own account at the same time, each on a connection of its own,
+ * against the servlet endpoints served from Tomcat's thread pool ("platform") or from virtual threads ("virtual").
+ * The score is the time until every client has its answer. The server runs in a separate JVM, which for "virtual"
+ * must be Java 21 or newer: {@code -p serverJava=/path/to/jdk-21/bin/java}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"10000"})
+    private int clients;
+
+    // "default" is the JVM running the benchmark
+    @Param({"default"})
+    private String serverJava;
+
+    private Process server;
+    private PoolResources connections;
+    private WebClient webClient;
+    private int firstAccountId;
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String java = "default".equals(serverJava)
+                ? System.getProperty("java.home") + File.separator + "bin" + File.separator + "java" : serverJava;
+        server = new ProcessBuilder(Arrays.asList(java, "-Xmx1g",
+                // Spring 5.0 defines its CGLIB proxies through ClassLoader.defineClass; Java 8 skips the option
+                "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED",
+                "-cp", System.getProperty("java.class.path"),
+                LoadTestServer.class.getName(), mode, Integer.toString(port), Integer.toString(clients)))
+                .redirectErrorStream(true)
+                .start();
+        firstAccountId = awaitReady(server);
+
+        connections = PoolResources.fixed("load", clients, TimeUnit.MINUTES.toMillis(1));
+        webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + port)
+                .clientConnector(new ReactorClientHttpConnector(options -> options.poolResources(connections)))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+
+        connections.dispose();
+        server.destroy();
+        server.waitFor(30, TimeUnit.SECONDS);
+        if (failures.get() > 0) {
+            System.out.println(failures.get() + " requests failed");
+        }
+    }
+
+    @Benchmark
+    public long deposit() {
+
+        int invocation = invocations.getAndIncrement();
+        long succeeded = Flux.range(0, clients)
+                .flatMap(client -> deposit(invocation * clients + client, firstAccountId + client), clients)
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+        failures.addAndGet(clients - succeeded);
+        return succeeded;
+    }
+
+    private Mono<Boolean> deposit(int sequence, int accountId) {
+
+        return webClient.post().uri("/account/deposit")
+                // a fresh address per request keeps every client under the endpoint's rate limit
+                .header("X-Forwarded-For", "10." + ((sequence >> 16) & 0xff) + "." + ((sequence >> 8) & 0xff) + "." + (sequence & 0xff))
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody("{\"accountId\":\"" + accountId + "\",\"amount\":\"1\"}")
+                .exchange()
+                .flatMap(response -> response.bodyToMono(String.class)
+                        .then(Mono.just(response.statusCode().is2xxSuccessful())))
+                .onErrorReturn(false);
+    }
+
+    private static int awaitReady(Process server) throws IOException, InterruptedException {
+
+        BufferedReader output = new BufferedReader(new InputStreamReader(server.getInputStream()));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith("READY ")) {
+                Thread drain = new Thread(() -> {
+                    try {
+                        output.lines().forEach(System.out::println);
+                    } catch (UncheckedIOException ex) {
+                        // the server was stopped
+                    }
+                }, "load-server-output");
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.split(" ")[1]);
+            }
+            System.out.println(line);
+        }
+        throw new IllegalStateException("Load test server exited with " + server.waitFor());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.service.accountservice.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic the money-moving paths do per operation, with the BigDecimals they used before and with
+ * {@link Money}: "deposit" is an amount read from the request, checked, added to a balance and written back out;
+ * "batch" is createTransactions folding operations into a running balance and checking each withdrawal against it.
+ * Run with -prof gc for the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String AMOUNT = "100.50";
+
+    @Param({"bigdecimal", "money"})
+    private String type;
+
+    private BigDecimal decimalBalance;
+    private BigDecimal[] decimalAmounts;
+    private Money balance;
+    private Money[] amounts;
+
+    @Setup
+    public void setUp() {
+
+        decimalBalance = new BigDecimal("1000000.00");
+        balance = Money.parse("1000000.00");
+        decimalAmounts = new BigDecimal[BATCH_SIZE];
+        amounts = new Money[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String amount = (i % 100) + "." + (i % 10) + "5";
+            decimalAmounts[i] = new BigDecimal(amount);
+            amounts[i] = Money.parse(amount);
+        }
+    }
+
+    @Benchmark
+    public String deposit() {
+
+        if ("bigdecimal".equals(type)) {
+            BigDecimal amount = new BigDecimal(AMOUNT);
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException();
+            }
+            return decimalBalance.add(amount).toString();
+        }
+        Money amount = Money.parse(AMOUNT);
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException();
+        }
+        return balance.plus(amount).toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object batch() {
+
+        if ("bigdecimal".equals(type)) {
+            BigDecimal running = decimalBalance;
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                BigDecimal change = (i % 2 == 0) ? decimalAmounts[i] : decimalAmounts[i].negate();
+                if (change.signum() < 0 && running.compareTo(decimalAmounts[i]) < 0) {
+                    continue;
+                }
+                running = running.add(change);
+            }
+            return running;
+        }
+        Money running = balance;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Money change = (i % 2 == 0) ? amounts[i] : amounts[i].negate();
+            if (change.isNegative() && running.compareTo(amounts[i]) < 0) {
+                continue;
+            }
+            running = running.plus(change);
+        }
+        return running;
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.BenchmarkApplication;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger inserts through TransactionRepository.saveAll, the way Hibernate writes them, in inserted rows per
+ * second. Runs on in-memory H2 by default; pass -p url=jdbc:mysql://... (with user and password) for MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionInsertBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param("jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1")
+    private String url;
+
+    @Param("sa")
+    private String user;
+
+    @Param("sa")
+    private String password;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private Account account;
+    private TransactionType type;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=" + url);
+        args.add("--spring.datasource.username=" + user);
+        args.add("--spring.datasource.password=" + password);
+        if (url.startsWith("jdbc:mysql")) {
+            args.add("--spring.datasource.driver-class-name=com.mysql.jdbc.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL5Dialect");
+        }
+        context = BenchmarkApplication.start("insert-bench", args.toArray(new String[0]));
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        account = context.getBean(AccountRepository.class).save(new Account());
+        type = context.getBean(TransactionTypeRepository.class).findById(1).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Transaction> saveAll() {
+
+        List<Transaction> transactions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(new Transaction(type, Money.of(1), account));
+        }
+        return transactionTemplate.execute(status -> transactionRepository.saveAll(transactions));
+    }
+}
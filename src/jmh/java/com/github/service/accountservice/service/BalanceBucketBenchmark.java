@@ -0,0 +1,81 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.BenchmarkApplication;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.TransactionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits from 16 threads into the same account, through the transactional service as the deposit endpoint
+ * calls it. With one bucket every deposit waits for the account row; with more they spread over the bucket rows,
+ * so throughput should grow with the bucket count until the pool or the ledger inserts become the limit.
+ * <p>
+ * The in-memory H2 database runs one statement at a time, which hides the row lock; its numbers only show what the
+ * buckets cost. Pass -jvmArgsAppend "-Dbench.mysql.url=jdbc:mysql://host/schema -Dbench.mysql.user=... -Dbench.mysql.password=..."
+ * in jmh.args to run against an empty MySQL schema instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class BalanceBucketBenchmark {
+
+    private static final Money AMOUNT = Money.parse("1.00");
+
+    /**
+     * account.balance-buckets.
+     */
+    @Param({"1", "4", "16"})
+    private int buckets;
+
+    private ConfigurableApplicationContext context;
+    private ITransactionService transactionService;
+    private Integer accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        String mysql = System.getProperty("bench.mysql.url");
+        context = (mysql == null)
+                ? BenchmarkApplication.start("bucket-bench-" + buckets, "--account.balance-buckets=" + buckets)
+                : BenchmarkApplication.start("bucket-bench-" + buckets, "--account.balance-buckets=" + buckets,
+                        "--spring.datasource.url=" + mysql,
+                        "--spring.datasource.driver-class-name=com.mysql.jdbc.Driver",
+                        "--spring.datasource.username=" + System.getProperty("bench.mysql.user", "root"),
+                        "--spring.datasource.password=" + System.getProperty("bench.mysql.password", ""),
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL5InnoDBDialect");
+        transactionService = context.getBean(ITransactionService.class);
+        accountId = context.getBean(IAccountService.class).createAccount().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDto deposit() throws Exception {
+        return transactionService.createTransaction(accountId, AMOUNT, TransactionTypes.DEPOSIT);
+    }
+}
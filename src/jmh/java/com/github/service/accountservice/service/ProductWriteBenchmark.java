@@ -0,0 +1,77 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.BenchmarkApplication;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.consumes.ProductCreate;
+import com.github.service.accountservice.service.contracts.IProductService;
+import com.github.service.accountservice.service.models.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product writes against a catalog of 100k products, through the real services on an in-memory H2
+ * database. Both writes check that the product name is not taken yet, which is what grows with the
+ * catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductWriteBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private IProductService productService;
+    private ProductDto updated;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        context = BenchmarkApplication.start("product-bench");
+        productService = context.getBean(IProductService.class);
+
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Seed" + i, new BigDecimal("9.99"), 10});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO product (product_name, price, product_count) VALUES (?, ?, ?)", rows);
+
+        updated = productService.findAll().get(CATALOG_SIZE / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDto create() throws Exception {
+        return productService.createProduct(new ProductCreate("Bench" + (sequence++), Money.parse("19.90"), 5));
+    }
+
+    @Benchmark
+    public ProductDto update() throws Exception {
+        updated.setCount((int) (sequence++ % 100));
+        return productService.updateProduct(updated);
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.BenchmarkApplication;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.ProductRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.contracts.IProductService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.mappers.DtoMapper;
+import com.github.service.accountservice.service.models.ProductDto;
+import com.github.service.accountservice.service.models.TransactionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The catalog and history reads, either as the services serve them (DTO projections in read-only transactions)
+ * or the way they used to: managed entities loaded in a read-write transaction, mapped to DTOs and dirty checked
+ * at commit. Run with -prof gc for the heap per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000;
+    private static final int HISTORY_SIZE = 100;
+
+    /**
+     * projection is the service, entity the previous read path.
+     */
+    @Param({"projection", "entity"})
+    private String path;
+
+    private ConfigurableApplicationContext context;
+    private IProductService productService;
+    private ITransactionService transactionService;
+    private ProductRepository productRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate readWrite;
+    private Integer accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        context = BenchmarkApplication.start("read-path-bench");
+        productService = context.getBean(IProductService.class);
+        transactionService = context.getBean(ITransactionService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Seed" + i, new BigDecimal("9.99"), 10});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (product_name, price, product_count) VALUES (?, ?, ?)", rows);
+        jdbcTemplate.update("INSERT INTO user_account (balance) VALUES (0)");
+        accountId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM user_account", Integer.class);
+
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            transactionService.createTransaction(accountId, Money.of(1), TransactionTypes.DEPOSIT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> findAll() throws Exception {
+
+        if (path.equals("entity")) {
+            return readWrite.execute(status -> DtoMapper.toProductDtos(productRepository.findAll(Sort.by("id"))));
+        }
+        return productService.findAll();
+    }
+
+    @Benchmark
+    public List<TransactionDto> getTransactionsByAccountId() throws Exception {
+
+        if (path.equals("entity")) {
+            return readWrite.execute(status -> DtoMapper.toTransactionDtos(transactionRepository.findByAccountId(accountId)));
+        }
+        return transactionService.getTransactionsByAccountId(accountId);
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.BenchmarkApplication;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.consumes.AccountOperation;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.IProductService;
+import com.github.service.accountservice.service.contracts.IStoreService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountBatchResult;
+import com.github.service.accountservice.service.models.ProductDto;
+import com.github.service.accountservice.service.models.TransactionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import redis.embedded.RedisServer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The service calls behind the busiest endpoints, through the Spring proxies (validation, transactions,
+ * aspects) on an in-memory H2 database. Redis is an embedded server, so catalog invalidations after a
+ * purchase go through pub/sub as they do in production.
+ * <p>
+ * H2 in memory never forces anything to disk, so it cannot show what the journal ledger saves on commits, nor what
+ * the guarded purchase statements save on round trips. Pass -jvmArgsAppend "-Dbench.mysql.url=jdbc:mysql://host/schema
+ * -Dbench.mysql.user=... -Dbench.mysql.password=..." in jmh.args to run against an empty MySQL schema instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int REDIS_PORT = 16381;
+    private static final int CATALOG_SIZE = 1_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final Money AMOUNT = Money.parse("1.00");
+
+    /**
+     * ledger.mode; -p ledger=database,journal compares the two.
+     */
+    @Param("database")
+    private String ledger;
+
+    private Path journalDirectory;
+    private RedisServer redisServer;
+    private ConfigurableApplicationContext context;
+    private IAccountService accountService;
+    private ITransactionService transactionService;
+    private IStoreService storeService;
+    private IProductService productService;
+    private Integer depositAccountId;
+    private Integer buyerAccountId;
+    private Integer productId;
+    private List<AccountOperation> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        journalDirectory = Files.createTempDirectory("ledger-journal");
+        List<String> args = new ArrayList<>();
+        args.add("--spring.redis.port=" + REDIS_PORT);
+        args.add("--catalog.invalidation=redis");
+        args.add("--ledger.mode=" + ledger);
+        args.add("--ledger.journal.dir=" + journalDirectory);
+        String mysql = System.getProperty("bench.mysql.url");
+        if (mysql != null) {
+            args.add("--spring.datasource.url=" + mysql);
+            args.add("--spring.datasource.driver-class-name=com.mysql.jdbc.Driver");
+            args.add("--spring.datasource.username=" + System.getProperty("bench.mysql.user", "root"));
+            args.add("--spring.datasource.password=" + System.getProperty("bench.mysql.password", ""));
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL5InnoDBDialect");
+        }
+        context = BenchmarkApplication.start("service-bench", args.toArray(new String[0]));
+
+        accountService = context.getBean(IAccountService.class);
+        transactionService = context.getBean(ITransactionService.class);
+        storeService = context.getBean(IStoreService.class);
+        productService = context.getBean(IProductService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Seed" + i, AMOUNT.toBigDecimal(), 1_000_000_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (product_name, price, product_count) VALUES (?, ?, ?)", rows);
+        jdbcTemplate.update("INSERT INTO user_account (balance) VALUES (0)");
+        jdbcTemplate.update("INSERT INTO user_account (balance) VALUES (1000000000000)");
+
+        depositAccountId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM user_account", Integer.class);
+        buyerAccountId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM user_account", Integer.class);
+        productId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM product", Integer.class);
+
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new AccountOperation((i % 2 == 0) ? depositAccountId : buyerAccountId, "DEPOSIT", AMOUNT));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        redisServer.stop();
+        FileSystemUtils.deleteRecursively(journalDirectory.toFile());
+    }
+
+    @Benchmark
+    public Account updateAccountAmount() throws Exception {
+        return accountService.updateAccountAmount(depositAccountId, AMOUNT, TransactionTypes.DEPOSIT);
+    }
+
+    @Benchmark
+    public TransactionDto createTransaction() throws Exception {
+        return transactionService.createTransaction(depositAccountId, AMOUNT, TransactionTypes.DEPOSIT);
+    }
+
+    /**
+     * Per operation, to compare with createTransaction.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public AccountBatchResult createTransactions() throws Exception {
+        return transactionService.createTransactions(batch);
+    }
+
+    @Benchmark
+    public TransactionDto buyProduct() throws Exception {
+        return storeService.buyProduct(buyerAccountId, productId);
+    }
+
+    @Benchmark
+    public List<ProductDto> findAll() throws Exception {
+        return productService.findAll();
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.service.accountservice.aspect;
+
+import javax.validation.constraints.NotNull;
+
+public interface IRateLimiter {
+
+    /**
+     * Counts one hit for the (uri, client) pair against the limit described by the annotation and
+     * writes the outcome, the remaining budget and the time until a retry can succeed into {@code decision}.
+     */
+    void acquire(@NotNull String uri, @NotNull String client, @NotNull RateLimit rateLimit, @NotNull RateLimitDecision decision);
+}
@@ -0,0 +1,13 @@
+package com.github.service.accountservice.aspect;
+
+import reactor.core.publisher.Mono;
+import javax.validation.constraints.NotNull;
+
+public interface IReactiveRateLimiter {
+
+    /**
+     * Counts one hit for the (uri, client) pair like {@link IRateLimiter#acquire}, without blocking the calling
+     * thread. The decision is a new instance per call, it is handed over between threads.
+     */
+    Mono<RateLimitDecision> acquire(@NotNull String uri, @NotNull String client, @NotNull RateLimit rateLimit);
+}
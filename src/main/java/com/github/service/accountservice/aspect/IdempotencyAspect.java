@@ -0,0 +1,80 @@
+package com.github.service.accountservice.aspect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.idempotency.IdempotencyClaim;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.idempotency.IdempotencyStore;
+import com.github.service.accountservice.idempotency.IdempotentResponse;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Runs {@link Idempotent} endpoints called with an Idempotency-Key through the {@link IdempotencyStore}. The key is
+ * scoped to the request URI and the request is told apart from another one with the same key by the JSON of its
+ * arguments. A repeated request gets the stored JSON with an Idempotent-Replayed header, or, if the first request
+ * failed while it waited for it, the same error. The claimed key is bound to the thread for the
+ * {@link IdempotencyMarker} while the endpoint runs.
+ */
+@Component
+@Aspect
+@Profile("!reactive")
+public class IdempotencyAspect {
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyAspect(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Pointcut("@within(org.springframework.stereotype.Controller)"
+            + " || @within(org.springframework.web.bind.annotation.RestController)")
+    private void controllerMethods() {}
+
+    @Around("controllerMethods() && @annotation(com.github.service.accountservice.aspect.Idempotent)")
+    public Object idempotent(final ProceedingJoinPoint joinPoint) throws Throwable {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return joinPoint.proceed();
+        }
+        String key = ((ServletRequestAttributes) attributes).getRequest().getHeader(IdempotencyStore.HEADER);
+        if (key == null) {
+            return joinPoint.proceed();
+        }
+
+        String fingerprint = IdempotencyStore.fingerprint(objectMapper.writeValueAsBytes(joinPoint.getArgs()));
+        IdempotencyClaim claim = idempotencyStore.begin(((ServletRequestAttributes) attributes).getRequest().getRequestURI(),
+                key, fingerprint);
+        if (!claim.isOwner()) {
+            IdempotentResponse response = claim.await();
+            return ResponseEntity.status(response.getStatus())
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .header(IdempotencyStore.REPLAYED_HEADER, "true")
+                    .body(response.getBody());
+        }
+
+        IdempotencyMarker.bind(claim.getRecordId());
+        try {
+            ResponseEntity<?> result = (ResponseEntity<?>) joinPoint.proceed();
+            claim.complete(new IdempotentResponse(result.getStatusCodeValue(), fingerprint,
+                    objectMapper.writeValueAsString(result.getBody())));
+            return result;
+        } catch (Throwable ex) {
+            claim.fail(ex);
+            throw ex;
+        } finally {
+            IdempotencyMarker.bind(null);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.service.accountservice.aspect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.configuration.DatabaseScheduler;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.exceptions.exceptionHandler.ErrorDetails;
+import com.github.service.accountservice.idempotency.IdempotencyClaim;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.idempotency.IdempotencyStore;
+import com.github.service.accountservice.idempotency.IdempotentResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link IdempotencyAspect} for the reactive endpoints. The body is read up front, so the request can be told apart
+ * from another one with the same key by its bytes, and handed on to the handler from memory; the response is
+ * recorded while it is written. The store's lookups and writes run on the {@link DatabaseScheduler}, which binds the
+ * claimed key, carried in the subscriber context, to the thread the services run on.
+ */
+@Component
+@Profile("reactive")
+public class IdempotencyWebFilter implements WebFilter {
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final IdempotencyStore idempotencyStore;
+    private final DatabaseScheduler database;
+    private final ObjectMapper objectMapper;
+
+    // The application's mapping; the actuator registers one of its own for the endpoints.
+    public IdempotencyWebFilter(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                                IdempotencyStore idempotencyStore, DatabaseScheduler database, ObjectMapper objectMapper) {
+        this.handlerMapping = handlerMapping;
+        this.idempotencyStore = idempotencyStore;
+        this.database = database;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+        String key = exchange.getRequest().getHeaders().getFirst(IdempotencyStore.HEADER);
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+        return handlerMapping.getHandler(exchange)
+                .map(handler -> handler instanceof HandlerMethod && ((HandlerMethod) handler).hasMethodAnnotation(Idempotent.class))
+                .defaultIfEmpty(false)
+                .flatMap(idempotent -> idempotent ? idempotent(exchange, chain, key) : chain.filter(exchange));
+    }
+
+    private Mono<Void> idempotent(ServerWebExchange exchange, WebFilterChain chain, String key) {
+
+        String scope = exchange.getRequest().getPath().value();
+        return DataBufferUtils.join(exchange.getRequest().getBody())
+                .map(IdempotencyWebFilter::bytes)
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> database.call(() -> idempotencyStore.begin(scope, key, IdempotencyStore.fingerprint(body)))
+                        .flatMap(claim -> claim.isOwner()
+                                ? execute(exchange.mutate().request(replayBody(exchange, body)).build(), chain, claim)
+                                : replay(exchange, claim)))
+                .onErrorResume(AccountException.class, ex -> reject(exchange, HttpStatus.valueOf(ex.getErrorCode()), ex.getMessage()))
+                .onErrorResume(RejectedExecutionException.class,
+                        ex -> reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, ErrorMessage.DATABASE_BUSY.getMessage()));
+    }
+
+    private Mono<Void> execute(ServerWebExchange exchange, WebFilterChain chain, IdempotencyClaim claim) {
+
+        RecordingResponse response = new RecordingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .subscriberContext(context -> context.put(IdempotencyMarker.class, claim.getRecordId()))
+                .then(Mono.defer(() -> settle(() -> claim.complete(
+                        new IdempotentResponse(response.status(), claim.getFingerprint(), response.body())))))
+                .onErrorResume(ex -> settle(() -> claim.fail(ex)).then(Mono.error(ex)));
+    }
+
+    // The claim has to be settled even when the database pool is full, or the duplicates would wait for it in vain.
+    private Mono<Void> settle(Runnable settle) {
+
+        Callable<Boolean> call = () -> {
+            settle.run();
+            return true;
+        };
+        return database.call(call)
+                .onErrorResume(RejectedExecutionException.class, ex -> Mono.fromCallable(call).subscribeOn(Schedulers.elastic()))
+                .then();
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, IdempotencyClaim claim) {
+
+        return Mono.fromFuture(claim.getResponse())
+                .timeout(Duration.ofMillis(claim.getWaitMillis()), Mono.error(IdempotencyClaim.inProgress()))
+                .flatMap(stored -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.setStatusCode(HttpStatus.valueOf(stored.getStatus()));
+                    response.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+                    response.getHeaders().set(IdempotencyStore.REPLAYED_HEADER, "true");
+                    return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.getBody().getBytes(StandardCharsets.UTF_8))));
+                });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String message) {
+
+        ServerHttpResponse response = exchange.getResponse();
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), message, "uri=" + exchange.getRequest().getPath().value());
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(errorDetails))));
+        } catch (JsonProcessingException ex) {
+            return Mono.error(ex);
+        }
+    }
+
+    private static ServerHttpRequest replayBody(ServerWebExchange exchange, byte[] body) {
+
+        return new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return (body.length == 0) ? Flux.empty()
+                        : Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    /**
+     * Passes the response on and keeps a copy of its body. The handlers write their JSON in one piece.
+     */
+    private static class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private byte[] body = new byte[0];
+
+        RecordingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body)).flatMap(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.asByteBuffer().get(bytes);
+                this.body = bytes;
+                return super.writeWith(Mono.just(buffer));
+            });
+        }
+
+        int status() {
+            HttpStatus status = getStatusCode();
+            return (status == null) ? HttpStatus.OK.value() : status.value();
+        }
+
+        String body() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
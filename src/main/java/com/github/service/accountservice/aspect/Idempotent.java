@@ -0,0 +1,15 @@
+package com.github.service.accountservice.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint whose requests may carry an Idempotency-Key header. A request repeating a key is answered
+ * with the response of the first request with that key instead of running again.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Idempotent {
+}
@@ -0,0 +1,94 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.RateLimitStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * In-memory limiter. Decisions never leave the JVM; when Redis is available the
+ * {@link RateLimitSynchronizer} shares the counts between nodes in the background.
+ * {@link RateLimitStrategy#SLIDING_LOG} limits are approximated by a weighted sliding window instead
+ * of keeping a log per client. After the first hit of a (uri, client) pair the decision path does
+ * not allocate: the annotation is only read when the window is created, since every annotation
+ * member call clones an array. A window not hit for {@code ratelimit.idle-eviction-ms} is dropped by a
+ * background sweep, whether or not the counts are shared, so clients that come and go do not pile up.
+ */
+@Component
+@ConditionalOnProperty(name = "ratelimit.engine", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements IRateLimiter {
+
+    private static final Function<String, Map<String, RateLimitWindow>> NEW_CLIENT_MAP = uri -> new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, RateLimitWindow>> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ratelimit.idle-eviction-ms:600000}")
+    private long idleEvictionMillis = 600_000;
+
+    @PostConstruct
+    public void start() {
+
+        long interval = Math.max(1, idleEvictionMillis / 2);
+        scheduler.scheduleWithFixedDelay(() -> evictIdle(System.currentTimeMillis()), interval, interval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void acquire(@NotNull String uri, @NotNull String client, @NotNull RateLimit rateLimit, @NotNull RateLimitDecision decision) {
+
+        window(uri, client, rateLimit).acquire(System.currentTimeMillis(), decision);
+    }
+
+    void forEachWindow(BiConsumer<Map<String, RateLimitWindow>, RateLimitWindow> action) {
+
+        for (Map<String, RateLimitWindow> clients : windows.values()) {
+            for (RateLimitWindow window : clients.values()) {
+                action.accept(clients, window);
+            }
+        }
+    }
+
+    void evictIdle(long now) {
+
+        forEachWindow((clients, window) -> {
+            if (now - window.lastAccess() > idleEvictionMillis) {
+                clients.remove(window.client, window);
+            }
+        });
+    }
+
+    private RateLimitWindow window(String uri, String client, RateLimit rateLimit) {
+
+        Map<String, RateLimitWindow> clients = windows.get(uri);
+        if (clients == null) {
+            clients = windows.computeIfAbsent(uri, NEW_CLIENT_MAP);
+        }
+        RateLimitWindow window = clients.get(client);
+        if (window == null) {
+            window = clients.computeIfAbsent(client, c -> new RateLimitWindow(String.format("req:lim:%s:%s", uri, c), c,
+                    rateLimit.unit().toMillis(rateLimit.duration()), rateLimit.limit(),
+                    rateLimit.strategy() != RateLimitStrategy.FIXED_WINDOW));
+        }
+        return window;
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.service.accountservice.aspect;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import javax.validation.constraints.NotNull;
+
+/**
+ * The in-memory limiter for the reactive endpoints. Its decisions never wait on anything, so they are taken
+ * right on the event loop.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ratelimit.engine", havingValue = "local", matchIfMissing = true)
+public class LocalReactiveRateLimiter implements IReactiveRateLimiter {
+
+    private final LocalRateLimiter rateLimiter;
+
+    @Override
+    public Mono<RateLimitDecision> acquire(@NotNull String uri, @NotNull String client, @NotNull RateLimit rateLimit) {
+
+        RateLimitDecision decision = new RateLimitDecision();
+        rateLimiter.acquire(uri, client, rateLimit, decision);
+        return Mono.just(decision);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.service.accountservice.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Re-runs {@link RetryOnOptimisticLock} methods whose transaction failed on a stale version, waiting a
+ * jittered, exponentially growing delay between attempts. The aspect is ordered outside the transaction
+ * interceptor so every attempt gets a fresh transaction; when the method joins a transaction that is
+ * already running, the conflict is left to the outermost retrying method instead.
+ * Retries and exhausted retries are counted per method in the meter registry.
+ */
+@Component
+@Aspect
+@Slf4j
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "concurrency.mode", havingValue = "optimistic")
+public class OptimisticLockRetryAspect {
+
+    static final String RETRY_METRIC = "concurrency.optimistic.retries";
+    static final String EXHAUSTED_METRIC = "concurrency.optimistic.exhausted";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${concurrency.optimistic.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${concurrency.optimistic.backoff-ms:10}")
+    private long backoffMillis;
+
+    @Value("${concurrency.optimistic.max-backoff-ms:200}")
+    private long maxBackoffMillis;
+
+    Logger logger = LoggerFactory.getLogger(OptimisticLockRetryAspect.class);
+
+    @Around("@annotation(com.github.service.accountservice.aspect.RetryOnOptimisticLock)")
+    public Object retry(final ProceedingJoinPoint joinPoint) throws Throwable {
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().toShortString();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException ex) {
+                if (!isOptimisticLockFailure(ex)) {
+                    throw ex;
+                }
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter(EXHAUSTED_METRIC, "method", method).increment();
+                    log.warn("{} gave up after {} optimistic lock failures", method, attempt);
+                    throw ex;
+                }
+                meterRegistry.counter(RETRY_METRIC, "method", method).increment();
+                logger.debug("{} lost an optimistic lock, attempt {}", method, attempt);
+                Thread.sleep(backoff(attempt));
+            }
+        }
+    }
+
+    /**
+     * Full jitter: a random delay up to an exponentially growing ceiling, so the callers that collided
+     * do not all come back at the same moment.
+     */
+    long backoff(int attempt) {
+
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isOptimisticLockFailure(Throwable ex) {
+
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.service.accountservice.aspect;
 
+import com.github.service.accountservice.enums.RateLimitStrategy;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -13,4 +14,5 @@ public @interface RateLimit {
     int limit() default Integer.MAX_VALUE;
     long duration() default 1;
     TimeUnit unit() default TimeUnit.MINUTES;
+    RateLimitStrategy strategy() default RateLimitStrategy.FIXED_WINDOW;
 }
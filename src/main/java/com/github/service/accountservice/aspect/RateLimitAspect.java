@@ -9,19 +9,29 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Aspect
+@Profile("!reactive")
 @Slf4j
 @RequiredArgsConstructor
 public class RateLimitAspect {
 
-    private final StringRedisTemplate redisTemplate;
+    private static final ThreadLocal<RateLimitDecision> DECISION = ThreadLocal.withInitial(RateLimitDecision::new);
+
+    private final IRateLimiter rateLimiter;
+    private final RateLimitMetrics metrics;
     Logger logger = LoggerFactory.getLogger(RateLimitAspect.class);
 
     @Pointcut("@annotation(rateLimit)")
@@ -35,9 +45,10 @@ public class RateLimitAspect {
     public void rateLimitProcess(final JoinPoint joinPoint,
                                  RateLimit rateLimit) throws RateLimiterException {
 
-        logger.info("RateLimitProcess started...");
+        logger.debug("RateLimitProcess started...");
 
         HttpServletRequest request = getRequest(joinPoint.getArgs());
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
 
         if (request == null) {
             logger.error(ErrorMessage.REQUEST_NOT_FOUND.getMessage());
@@ -46,20 +57,32 @@ public class RateLimitAspect {
 
         String ip = request.getRemoteHost();
         String url = request.getRequestURI();
-        String key = String.format("req:lim:%s:%s", url, ip);
-        long count = redisTemplate.opsForValue().increment(key, 1);
 
-        logger.debug("[Redis] {} = {}", key, count);
+        RateLimitDecision decision = DECISION.get();
+        rateLimiter.acquire(url, ip, rateLimit, decision);
+        metrics.record(((MethodSignature) joinPoint.getSignature()).getMethod(), decision.isAllowed());
 
-        if (count == 1) {
-            redisTemplate.expire(key, rateLimit.duration(), rateLimit.unit());
+        if (attributes instanceof ServletRequestAttributes) {
+            writeHeaders(((ServletRequestAttributes) attributes).getResponse(), decision);
         }
-        if (count > rateLimit.limit()) {
-            log.warn("Ip : {}, Try count : {}, url : {}, rateLimit : {}", ip, count, url, rateLimit.limit());
+
+        if (!decision.isAllowed()) {
+            log.warn("Ip : {}, url : {}, rateLimit : {}", ip, url, rateLimit.limit());
             throw new RateLimiterException(ErrorMessage.RATE_LIMITER_FLOW.getMessage(), ErrorCode.Too_many_request.getCode());
         }
     }
 
+    private void writeHeaders(HttpServletResponse response, RateLimitDecision decision) {
+
+        if (response == null) {
+            return;
+        }
+        response.setHeader("X-RateLimit-Remaining", Long.toString(decision.getRemaining()));
+        if (!decision.isAllowed()) {
+            response.setHeader("Retry-After", Long.toString(TimeUnit.MILLISECONDS.toSeconds(decision.getRetryAfterMillis() + 999)));
+        }
+    }
+
     private HttpServletRequest getRequest(Object[] args) {
 
         for (Object arg : args) {
@@ -67,6 +90,11 @@ public class RateLimitAspect {
                 return (HttpServletRequest)arg;
             }
         }
+        // Controllers rarely declare the request, so fall back to the one bound to this thread.
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest();
+        }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.github.service.accountservice.aspect;
+
+/**
+ * Outcome of one rate limit check. Instances are reused per thread by {@link RateLimitAspect}, so
+ * engines fill them in instead of allocating a result per request.
+ */
+public final class RateLimitDecision {
+
+    private boolean allowed;
+    private long remaining;
+    private long retryAfterMillis;
+
+    public void set(boolean allowed, long remaining, long retryAfterMillis) {
+        this.allowed = allowed;
+        this.remaining = Math.max(0, remaining);
+        this.retryAfterMillis = Math.max(0, retryAfterMillis);
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
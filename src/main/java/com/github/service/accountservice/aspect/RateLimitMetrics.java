@@ -0,0 +1,49 @@
+package com.github.service.accountservice.aspect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the decisions {@link RateLimitAspect} and {@link RateLimitWebFilter} take, per endpoint method. The
+ * counters are registered on an endpoint's first request and looked up by its {@link Method} after that, so
+ * counting a request does not build tags.
+ */
+@Component
+public class RateLimitMetrics {
+
+    static final String DECISIONS_METRIC = "ratelimit.decisions";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public RateLimitMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(Method endpoint, boolean allowed) {
+
+        Counter[] decisions = counters.get(endpoint);
+        if (decisions == null) {
+            decisions = counters.computeIfAbsent(endpoint, this::register);
+        }
+        decisions[allowed ? 0 : 1].increment();
+    }
+
+    private Counter[] register(Method endpoint) {
+
+        String name = endpoint.getDeclaringClass().getSimpleName() + "." + endpoint.getName();
+        return new Counter[]{counter(name, "allowed"), counter(name, "denied")};
+    }
+
+    private Counter counter(String endpoint, String decision) {
+
+        return Counter.builder(DECISIONS_METRIC)
+                .description("Requests to rate limited endpoints, by the limiter's decision")
+                .tags("endpoint", endpoint, "decision", decision)
+                .register(meterRegistry);
+    }
+}
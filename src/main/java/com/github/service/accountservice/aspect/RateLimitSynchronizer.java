@@ -0,0 +1,96 @@
+package com.github.service.accountservice.aspect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the local rate limit counts to Redis in one pipelined batch per tick and pulls back the
+ * cluster-wide totals. Runs off the request path, so a slow or missing Redis only makes the limits
+ * node-local until it recovers.
+ */
+@Component
+@ConditionalOnExpression("'${ratelimit.engine:local}' == 'local' and ${ratelimit.redis-sync.enabled:true}")
+public class RateLimitSynchronizer {
+
+    private final LocalRateLimiter rateLimiter;
+    private final StringRedisTemplate redisTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ratelimit.redis-sync.interval-ms:200}")
+    private long intervalMillis;
+
+    private Logger logger = LoggerFactory.getLogger(RateLimitSynchronizer.class);
+
+    public RateLimitSynchronizer(LocalRateLimiter rateLimiter, StringRedisTemplate redisTemplate) {
+        this.rateLimiter = rateLimiter;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::synchronize, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void synchronize() {
+
+        List<RateLimitWindow> batch = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        List<Long> buckets = new ArrayList<>();
+
+        rateLimiter.forEachWindow((clients, window) -> {
+            long delta = window.drainUnsynced();
+            if (delta > 0) {
+                batch.add(window);
+                deltas.add(delta);
+                buckets.add(window.bucketStart());
+            }
+        });
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Object> counts = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < batch.size(); i++) {
+                    String key = batch.get(i).key + ":" + buckets.get(i);
+                    redis.incrBy(key, deltas.get(i));
+                    redis.pExpire(key, batch.get(i).windowMillis * 2);
+                }
+                return null;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).applyRemote(buckets.get(i), deltas.get(i), (Long) counts.get(i * 2));
+            }
+        } catch (DataAccessException ex) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).restoreUnsynced(deltas.get(i));
+            }
+            logger.warn("Rate limit counters could not be synchronized with Redis: {}", ex.getMessage());
+        }
+    }
+}
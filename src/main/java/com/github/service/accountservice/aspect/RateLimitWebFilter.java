@@ -0,0 +1,104 @@
+package com.github.service.accountservice.aspect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.exceptionHandler.ErrorDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimitAspect} for the reactive endpoints. An aspect cannot see the request once the handler runs off
+ * the calling thread, so the limit is checked in front of the handler: the handler method is looked up for the
+ * exchange and its {@link RateLimit} counted. A rejected request gets the same 429 body the servlet endpoints send.
+ */
+@Component
+@Profile("reactive")
+public class RateLimitWebFilter implements WebFilter {
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final IReactiveRateLimiter rateLimiter;
+    private final RateLimitMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private Logger logger = LoggerFactory.getLogger(RateLimitWebFilter.class);
+
+    // The application's mapping; the actuator registers one of its own for the endpoints.
+    public RateLimitWebFilter(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                              IReactiveRateLimiter rateLimiter, RateLimitMetrics metrics, ObjectMapper objectMapper) {
+        this.handlerMapping = handlerMapping;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+        return handlerMapping.getHandler(exchange)
+                .filter(HandlerMethod.class::isInstance)
+                .map(HandlerMethod.class::cast)
+                .filter(handler -> handler.hasMethodAnnotation(RateLimit.class))
+                .flatMap(handler -> acquire(exchange, handler.getMethod(), handler.getMethodAnnotation(RateLimit.class)))
+                .defaultIfEmpty(true)
+                .flatMap(allowed -> allowed ? chain.filter(exchange) : reject(exchange));
+    }
+
+    private Mono<Boolean> acquire(ServerWebExchange exchange, Method endpoint, RateLimit rateLimit) {
+
+        String ip = client(exchange);
+        String url = exchange.getRequest().getPath().value();
+
+        return rateLimiter.acquire(url, ip, rateLimit).map(decision -> {
+            metrics.record(endpoint, decision.isAllowed());
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().set("X-RateLimit-Remaining", Long.toString(decision.getRemaining()));
+            if (!decision.isAllowed()) {
+                logger.warn("Ip : {}, url : {}, rateLimit : {}", ip, url, rateLimit.limit());
+                response.getHeaders().set("Retry-After",
+                        Long.toString(TimeUnit.MILLISECONDS.toSeconds(decision.getRetryAfterMillis() + 999)));
+            }
+            return decision.isAllowed();
+        });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+
+        ServerHttpResponse response = exchange.getResponse();
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ErrorMessage.RATE_LIMITER_FLOW.getMessage(),
+                "uri=" + exchange.getRequest().getPath().value());
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+        try {
+            DataBuffer body = response.bufferFactory().wrap(objectMapper.writeValueAsBytes(errorDetails));
+            return response.writeWith(Mono.just(body));
+        } catch (JsonProcessingException ex) {
+            return Mono.error(ex);
+        }
+    }
+
+    private static String client(ServerWebExchange exchange) {
+
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return (address.getAddress() == null) ? address.getHostString() : address.getAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.service.accountservice.aspect;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding window counter for one (uri, client) pair. The window is split into two epoch-aligned
+ * buckets; the previous bucket is weighted by how much of it still overlaps the sliding window.
+ * Counts are approximate at bucket boundaries, which is the usual trade-off for a lock-free limiter, but the
+ * local hits of a bucket never exceed the limit: a hit is only counted by a compare-and-set against the count of the
+ * bucket it was checked with, and a bucket's count is closed before the next bucket is published, with the closed
+ * count as its previous one. A caller that sees a closed bucket checks again once the next one is published.
+ * Windows of {@link com.github.service.accountservice.enums.RateLimitStrategy#FIXED_WINDOW} limits
+ * skip the weighting and only count the current bucket.
+ */
+final class RateLimitWindow {
+
+    final String key;
+    final String client;
+    final long windowMillis;
+    final int limit;
+    final boolean sliding;
+    private final AtomicReference<Bucket> bucket = new AtomicReference<>(new Bucket(0, 0));
+    private final LongAdder unsynced = new LongAdder();
+    private volatile long lastAccess;
+
+    RateLimitWindow(String key, String client, long windowMillis, int limit, boolean sliding) {
+        this.key = key;
+        this.client = client;
+        this.windowMillis = windowMillis;
+        this.limit = limit;
+        this.sliding = sliding;
+    }
+
+    void acquire(long now, RateLimitDecision decision) {
+
+        lastAccess = now;
+        while (true) {
+            Bucket current = roll(now);
+            long count = current.count.get();
+            if (count < 0) {
+                // Closed by a caller rolling to a later bucket, which it publishes next.
+                Thread.yield();
+                continue;
+            }
+            // A caller whose clock read is older than the bucket it got counts in that bucket.
+            long elapsed = Math.max(0, now - current.start);
+            long estimate = count + current.remoteCurrent;
+            if (sliding) {
+                long overlap = windowMillis - elapsed;
+                // Rounded up so the weighted tail of the previous bucket never lets an extra hit through.
+                estimate += (current.previous * overlap + windowMillis - 1) / windowMillis;
+            }
+
+            if (estimate >= limit) {
+                decision.set(false, 0, windowMillis - elapsed);
+                return;
+            }
+            // Another caller counted a hit (or closed the bucket) since the check, check again.
+            if (current.count.compareAndSet(count, count + 1)) {
+                unsynced.increment();
+                decision.set(true, limit - estimate - 1, 0);
+                return;
+            }
+        }
+    }
+
+    long bucketStart() {
+        return bucket.get().start;
+    }
+
+    long currentCount() {
+        return Bucket.open(bucket.get().count.get());
+    }
+
+    /**
+     * The count the current bucket took over from the previous one, local and remote hits together.
+     */
+    long previousCount() {
+        return bucket.get().previous;
+    }
+
+    long lastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Takes the hits that have not been pushed to the shared tier yet.
+     */
+    long drainUnsynced() {
+        return unsynced.sumThenReset();
+    }
+
+    void restoreUnsynced(long delta) {
+        unsynced.add(delta);
+    }
+
+    /**
+     * Records the cluster-wide count of the bucket that {@code delta} was pushed to, so the hits
+     * of other nodes are taken into account by the next decisions.
+     */
+    void applyRemote(long bucketStart, long delta, long globalCount) {
+
+        Bucket current = bucket.get();
+        if (current.start != bucketStart) {
+            return;
+        }
+        current.pushed += delta;
+        current.remoteCurrent = Math.max(0, globalCount - current.pushed);
+    }
+
+    private Bucket roll(long now) {
+
+        long aligned = now - (now % windowMillis);
+        while (true) {
+            Bucket current = bucket.get();
+            if (aligned <= current.start) {
+                return current;
+            }
+            long finished = current.close();
+            boolean adjacent = (aligned - current.start == windowMillis);
+            Bucket next = new Bucket(aligned, adjacent ? finished + current.remoteCurrent : 0);
+            if (bucket.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * One bucket of the window. Its start and the count it took over are fixed when it is published; only its own
+     * count and the remote count pushed for it change. A count below zero marks the bucket closed, its last value
+     * is kept in the bits.
+     */
+    private static final class Bucket {
+
+        final long start;
+        final long previous;
+        final AtomicLong count = new AtomicLong();
+        volatile long pushed;
+        volatile long remoteCurrent;
+
+        Bucket(long start, long previous) {
+            this.start = start;
+            this.previous = previous;
+        }
+
+        long close() {
+
+            while (true) {
+                long value = count.get();
+                if (value < 0 || count.compareAndSet(value, -value - 1)) {
+                    return open(count.get());
+                }
+            }
+        }
+
+        static long open(long value) {
+            return (value < 0) ? -value - 1 : value;
+        }
+    }
+}
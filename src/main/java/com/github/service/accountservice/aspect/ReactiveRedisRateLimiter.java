@@ -0,0 +1,76 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.RateLimitStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RedisRateLimiter} for the reactive endpoints: the same Lua scripts and keys, called through the reactive
+ * Lettuce API so no thread waits for the reply.
+ */
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(name = "ratelimit.engine", havingValue = "redis")
+public class ReactiveRedisRateLimiter implements IReactiveRateLimiter {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private Logger logger = LoggerFactory.getLogger(ReactiveRedisRateLimiter.class);
+
+    public ReactiveRedisRateLimiter(ReactiveRedisConnectionFactory connectionFactory) {
+        this.redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.string());
+    }
+
+    @Override
+    public Mono<RateLimitDecision> acquire(@NotNull String uri, @NotNull String client, @NotNull RateLimit rateLimit) {
+
+        int limit = rateLimit.limit();
+        long windowMillis = rateLimit.unit().toMillis(rateLimit.duration());
+        Mono<List<Long>> reply;
+
+        if (rateLimit.strategy() == RateLimitStrategy.SLIDING_LOG) {
+            long now = System.currentTimeMillis();
+            reply = collect(redisTemplate.execute(RedisRateLimiter.SLIDING_LOG_SCRIPT,
+                    Collections.singletonList(String.format("req:lim:log:%s:%s", uri, client)),
+                    Arrays.asList(Long.toString(now), Long.toString(windowMillis), Integer.toString(limit),
+                            now + ":" + ThreadLocalRandom.current().nextLong())));
+        } else {
+            reply = collect(redisTemplate.execute(RedisRateLimiter.FIXED_WINDOW_SCRIPT,
+                    Collections.singletonList(String.format("req:lim:%s:%s", uri, client)),
+                    Collections.singletonList(Long.toString(windowMillis))));
+        }
+
+        return reply.map(values -> {
+            long count = values.get(0);
+            long ttl = values.get(1);
+            logger.debug("[Redis] {}:{} = {} (ttl {} ms)", uri, client, count, ttl);
+
+            boolean allowed = count <= limit;
+            RateLimitDecision decision = new RateLimitDecision();
+            decision.set(allowed, limit - count, allowed ? 0 : ttl);
+            return decision;
+        });
+    }
+
+    // A multi-bulk reply may arrive in more than one signal.
+    @SuppressWarnings("unchecked")
+    private static Mono<List<Long>> collect(Flux<List> reply) {
+        return reply.reduceWith(ArrayList::new, (values, part) -> {
+            values.addAll(part);
+            return values;
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.RateLimitStrategy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import javax.validation.constraints.NotNull;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Limiter that keeps every counter in Redis. Each check is a single Lua script call (EVALSHA, with
+ * Spring falling back to EVAL once if the script cache was flushed), so the counter and its expiry
+ * are always written together and the reply already carries the count and the time to reset.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ratelimit.engine", havingValue = "redis")
+public class RedisRateLimiter implements IRateLimiter {
+
+    static final RedisScript<List> FIXED_WINDOW_SCRIPT = script("scripts/rate_limit_fixed_window.lua");
+    static final RedisScript<List> SLIDING_LOG_SCRIPT = script("scripts/rate_limit_sliding_log.lua");
+
+    private final StringRedisTemplate redisTemplate;
+    private Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void acquire(@NotNull String uri, @NotNull String client, @NotNull RateLimit rateLimit, @NotNull RateLimitDecision decision) {
+
+        int limit = rateLimit.limit();
+        long windowMillis = rateLimit.unit().toMillis(rateLimit.duration());
+        List<Long> reply;
+
+        if (rateLimit.strategy() == RateLimitStrategy.SLIDING_LOG) {
+            long now = System.currentTimeMillis();
+            reply = redisTemplate.execute(SLIDING_LOG_SCRIPT,
+                    Collections.singletonList(String.format("req:lim:log:%s:%s", uri, client)),
+                    Long.toString(now), Long.toString(windowMillis), Integer.toString(limit),
+                    now + ":" + ThreadLocalRandom.current().nextLong());
+        } else {
+            reply = redisTemplate.execute(FIXED_WINDOW_SCRIPT,
+                    Collections.singletonList(String.format("req:lim:%s:%s", uri, client)),
+                    Long.toString(windowMillis));
+        }
+
+        long count = reply.get(0);
+        long ttl = reply.get(1);
+        logger.debug("[Redis] {}:{} = {} (ttl {} ms)", uri, client, count, ttl);
+
+        boolean allowed = count <= limit;
+        decision.set(allowed, limit - count, allowed ? 0 : ttl);
+    }
+
+    private static RedisScript<List> script(String location) {
+
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(location)));
+        script.setResultType(List.class);
+        return script;
+    }
+}
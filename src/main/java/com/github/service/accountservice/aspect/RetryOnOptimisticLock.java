@@ -0,0 +1,15 @@
+package com.github.service.accountservice.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that may be re-run from scratch when its commit loses an
+ * optimistic version check. Only honoured when "concurrency.mode=optimistic".
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RetryOnOptimisticLock {
+}
@@ -0,0 +1,22 @@
+package com.github.service.accountservice.cache;
+
+/**
+ * Published by every write that changes what the product lists show: product create, update and delete
+ * ({@link #INSTANCE}) and purchases, which only change stock counts ({@link #STOCK}). {@link ProductCatalog}
+ * handles it after the transaction commits.
+ */
+public class CatalogChangedEvent {
+
+    public static final CatalogChangedEvent INSTANCE = new CatalogChangedEvent(false);
+    public static final CatalogChangedEvent STOCK = new CatalogChangedEvent(true);
+
+    private final boolean stockOnly;
+
+    private CatalogChangedEvent(boolean stockOnly) {
+        this.stockOnly = stockOnly;
+    }
+
+    public boolean isStockOnly() {
+        return stockOnly;
+    }
+}
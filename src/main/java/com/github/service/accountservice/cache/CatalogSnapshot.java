@@ -0,0 +1,77 @@
+package com.github.service.accountservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.service.models.ProductDto;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the product table at one catalog generation, holding both list endpoints.
+ * The ETags only depend on the serialized bodies, so every node serving the same data hands out
+ * the same ETag.
+ */
+public final class CatalogSnapshot {
+
+    final long generation;
+    final long stockGeneration;
+    final long builtAt;
+    private final CatalogView allProducts;
+    private final CatalogView availableProducts;
+
+    private CatalogSnapshot(long generation, long stockGeneration, long builtAt, CatalogView allProducts,
+                            CatalogView availableProducts) {
+        this.generation = generation;
+        this.stockGeneration = stockGeneration;
+        this.builtAt = builtAt;
+        this.allProducts = allProducts;
+        this.availableProducts = availableProducts;
+    }
+
+    public static CatalogSnapshot of(long generation, long stockGeneration, long builtAt, List<ProductDto> products,
+                                     ObjectMapper objectMapper) throws JsonProcessingException {
+
+        List<ProductDto> available = products.stream()
+                .filter(p -> p.getCount() != null && p.getCount() > 0)
+                .collect(Collectors.toList());
+
+        return new CatalogSnapshot(generation, stockGeneration, builtAt, view(products, objectMapper),
+                view(available, objectMapper));
+    }
+
+    /**
+     * Every product, for /product/list.
+     */
+    public CatalogView getAllProducts() {
+        return allProducts;
+    }
+
+    /**
+     * Products still in stock, for /store/list.
+     */
+    public CatalogView getAvailableProducts() {
+        return availableProducts;
+    }
+
+    private static CatalogView view(List<ProductDto> products, ObjectMapper objectMapper) throws JsonProcessingException {
+
+        List<ProductDto> unmodifiable = Collections.unmodifiableList(products);
+        byte[] body = objectMapper.writeValueAsBytes(Collections.singletonMap("products", unmodifiable));
+        return new CatalogView(unmodifiable, body, etag(body));
+    }
+
+    /**
+     * 64-bit FNV-1a over the body. Only a collision between two versions of the catalog could answer a
+     * stale client with 304, which 64 bits make negligible here.
+     */
+    private static String etag(byte[] body) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : body) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.service.accountservice.cache;
+
+import com.github.service.accountservice.service.models.ProductDto;
+import java.util.List;
+
+/**
+ * One product list of a {@link CatalogSnapshot}: the products, the JSON response body serialized once
+ * when the snapshot was built, and a strong ETag derived from that body.
+ */
+public final class CatalogView {
+
+    private final List<ProductDto> products;
+    private final byte[] body;
+    private final String etag;
+
+    CatalogView(List<ProductDto> products, byte[] body, String etag) {
+        this.products = products;
+        this.body = body;
+        this.etag = etag;
+    }
+
+    public List<ProductDto> getProducts() {
+        return products;
+    }
+
+    /**
+     * The shared body; callers write it out and must not modify it.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
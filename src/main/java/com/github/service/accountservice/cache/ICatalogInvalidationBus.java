@@ -0,0 +1,13 @@
+package com.github.service.accountservice.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries catalog invalidations between nodes. Messages carry the id of the node that changed the
+ * catalog, so a node can skip its own, and what changed, see {@link ProductCatalog}.
+ */
+public interface ICatalogInvalidationBus {
+
+    void publish(String origin);
+    void subscribe(Consumer<String> listener);
+}
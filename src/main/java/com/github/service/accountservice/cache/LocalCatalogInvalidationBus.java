@@ -0,0 +1,31 @@
+package com.github.service.accountservice.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the Redis channel: delivers to the catalogs subscribed in this JVM, which is
+ * all a single node needs and lets tests run several catalogs side by side.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.invalidation", havingValue = "local", matchIfMissing = true)
+public class LocalCatalogInvalidationBus implements ICatalogInvalidationBus {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String origin) {
+
+        for (Consumer<String> listener : listeners) {
+            listener.accept(origin);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
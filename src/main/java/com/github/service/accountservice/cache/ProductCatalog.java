@@ -0,0 +1,124 @@
+package com.github.service.accountservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.service.contracts.IProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import javax.annotation.PostConstruct;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory product catalog behind /product/list and /store/list. Reads are served from an immutable
+ * {@link CatalogSnapshot}. Every committed change bumps the generation here and on the other nodes
+ * (through the {@link ICatalogInvalidationBus}); the next read rebuilds the snapshot once with a single
+ * query and swaps it in atomically. A snapshot is tagged with the generation it was read at, so a
+ * rebuild racing with a change is never mistaken for a fresh one.
+ * <p>
+ * Purchases only change stock counts and come far more often than product changes, so they bump a
+ * separate stock generation: a snapshot that is only behind on stock is served until it is
+ * {@code catalog.stock-refresh-ms} old, which bounds the rebuilds under purchase load to one per
+ * interval and node. Product creates, updates and deletes still take effect on the next read.
+ */
+@Slf4j
+@Component
+public class ProductCatalog {
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ICatalogInvalidationBus invalidationBus;
+
+    static final String STOCK_SUFFIX = " stock";
+
+    @Value("${catalog.stock-refresh-ms:1000}")
+    private long stockRefreshMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong stockGeneration = new AtomicLong();
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final Object rebuildLock = new Object();
+    private Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    @PostConstruct
+    void subscribe() {
+
+        invalidationBus.subscribe(message -> {
+            boolean stockOnly = message.endsWith(STOCK_SUFFIX);
+            String origin = stockOnly ? message.substring(0, message.length() - STOCK_SUFFIX.length()) : message;
+            if (nodeId.equals(origin)) {
+                return;
+            }
+            if (stockOnly) {
+                invalidateStock();
+            } else {
+                invalidate();
+            }
+        });
+    }
+
+    public CatalogSnapshot current() throws AccountException {
+
+        CatalogSnapshot current = snapshot.get();
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (rebuildLock) {
+            current = snapshot.get();
+            if (isFresh(current)) {
+                return current;
+            }
+            long target = generation.get();
+            long stockTarget = stockGeneration.get();
+            try {
+                CatalogSnapshot rebuilt = CatalogSnapshot.of(target, stockTarget, System.currentTimeMillis(),
+                        productService.findAll(), objectMapper);
+                snapshot.set(rebuilt);
+                logger.debug("Product catalog rebuilt at generation {}", target);
+                return rebuilt;
+            } catch (JsonProcessingException ex) {
+                throw new AccountException(ex);
+            }
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    public void invalidateStock() {
+        stockGeneration.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+
+        if (event.isStockOnly()) {
+            invalidateStock();
+            invalidationBus.publish(nodeId + STOCK_SUFFIX);
+        } else {
+            invalidate();
+            invalidationBus.publish(nodeId);
+        }
+    }
+
+    private boolean isFresh(CatalogSnapshot current) {
+
+        return current != null && current.generation == generation.get()
+                && (current.stockGeneration == stockGeneration.get()
+                || System.currentTimeMillis() - current.builtAt < stockRefreshMillis);
+    }
+}
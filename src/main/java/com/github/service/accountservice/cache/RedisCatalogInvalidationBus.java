@@ -0,0 +1,60 @@
+package com.github.service.accountservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub channel for catalog invalidations. A lost message only delays a node until the next
+ * change, so publishing is fire-and-forget and a Redis outage is logged rather than failing the write.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.invalidation", havingValue = "redis")
+public class RedisCatalogInvalidationBus implements ICatalogInvalidationBus, DisposableBean {
+
+    static final String CHANNEL = "catalog:invalidate";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private Logger logger = LoggerFactory.getLogger(RedisCatalogInvalidationBus.class);
+
+    public RedisCatalogInvalidationBus(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory) {
+
+        this.redisTemplate = redisTemplate;
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.afterPropertiesSet();
+        this.container.start();
+    }
+
+    @Override
+    public void publish(String origin) {
+
+        try {
+            redisTemplate.convertAndSend(CHANNEL, origin);
+        } catch (DataAccessException ex) {
+            logger.warn("Catalog invalidation could not be published: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+
+        container.addMessageListener((message, pattern) ->
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.service.accountservice.cache;
+
+import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.repository.TransactionTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The process_type rows of the {@link TransactionTypes}, read once at startup. They are seeded by
+ * V2__fill_type_table.sql and never change, so a new transaction takes its type from here instead of asking the
+ * session for a reference, and the type name in its DTO is read without initializing a proxy. Startup fails when a
+ * code of the enum is missing from the table or has another name; rows the enum does not know are left out.
+ * The references are shared, they must not be changed.
+ */
+@Component
+public class TransactionTypeRegistry {
+
+    private final Map<TransactionTypes, TransactionType> references = new EnumMap<>(TransactionTypes.class);
+    private final Map<TransactionTypes, String> names = new EnumMap<>(TransactionTypes.class);
+    private final TransactionType[] byCode;
+
+    @Autowired
+    public TransactionTypeRegistry(TransactionTypeRepository transactionTypeRepository) {
+        this(transactionTypeRepository.findAll());
+    }
+
+    public TransactionTypeRegistry(List<TransactionType> rows) {
+
+        int maxCode = 0;
+        for (TransactionTypes type : TransactionTypes.values()) {
+            maxCode = Math.max(maxCode, type.getCode());
+        }
+        byCode = new TransactionType[maxCode + 1];
+
+        for (TransactionTypes type : TransactionTypes.values()) {
+            TransactionType row = rows.stream().filter(r -> r.getId() == type.getCode()).findFirst().orElse(null);
+            if (row == null || !type.name().equals(row.getType())) {
+                throw new IllegalStateException(String.format("process_type has %s for code %d, expected %s",
+                        (row == null) ? "no row" : row.getType(), type.getCode(), type.name()));
+            }
+            references.put(type, row);
+            names.put(type, row.getType());
+            byCode[type.getCode()] = row;
+        }
+    }
+
+    public TransactionType reference(TransactionTypes type) {
+        return references.get(type);
+    }
+
+    /**
+     * The reference of a code kept outside the database, e.g. in the ledger journal.
+     */
+    public TransactionType reference(int code) {
+
+        TransactionType type = (code >= 0 && code < byCode.length) ? byCode[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown transaction type code " + code);
+        }
+        return type;
+    }
+
+    public String name(TransactionTypes type) {
+        return names.get(type);
+    }
+}
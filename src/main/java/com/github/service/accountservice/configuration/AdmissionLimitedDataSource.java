@@ -0,0 +1,127 @@
+package com.github.service.accountservice.configuration;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most {@code permits} callers hold a connection at once and queues the others in arrival order. A caller
+ * that waits longer than {@code timeoutMillis} gets a {@link SQLTransientConnectionException}.
+ * <p>
+ * Meant for request threads that outnumber the connections, Tomcat's pool and even more so virtual threads: the
+ * waiting happens on a {@link Semaphore}, where a virtual thread unmounts from its carrier, instead of inside the pool.
+ * A thread that already holds an admitted connection is not queued again for another one, such as the connection
+ * BlockIdGenerator reserves its ids on, since it would wait for itself; the pool needs a connection more than there
+ * are permits for that.
+ */
+public class AdmissionLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final ThreadLocal<AtomicBoolean> admitted = ThreadLocal.withInitial(AtomicBoolean::new);
+
+    public AdmissionLimitedDataSource(DataSource targetDataSource, int permits, long timeoutMillis) {
+
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        AtomicBoolean holder = admitted.get();
+        if (holder.get()) {
+            return super.getConnection();
+        }
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(), holder);
+        } catch (SQLException | RuntimeException | Error ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        AtomicBoolean holder = admitted.get();
+        if (holder.get()) {
+            return super.getConnection(username, password);
+        }
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password), holder);
+        } catch (SQLException | RuntimeException | Error ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Callers waiting for a connection right now.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Callers that could be admitted right now without waiting.
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                        "No database connection within %d ms, %d callers are waiting", timeoutMillis, permits.getQueueLength()));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", ex);
+        }
+    }
+
+    // The holder belongs to the borrowing thread, the connection may be closed on another one.
+    private Connection releasingOnClose(Connection connection, AtomicBoolean holder) {
+
+        holder.set(true);
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("close") && method.getParameterCount() == 0 && released.compareAndSet(false, true)) {
+                try {
+                    return method.invoke(connection);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                } finally {
+                    holder.set(false);
+                    permits.release();
+                }
+            }
+            return invoke(connection, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
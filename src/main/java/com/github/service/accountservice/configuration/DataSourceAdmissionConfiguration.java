@@ -0,0 +1,98 @@
+package com.github.service.accountservice.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Puts an {@link AdmissionLimitedDataSource} in front of the connection pool. The limit defaults to one less than
+ * the pool size, which leaves a connection for the id reservations, the timeout to the pool's own connection timeout. The pool is wrapped after everything else post-processed it, so
+ * its metrics are still bound to the pool itself; the admission queue in front of it gets gauges of its own.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.admission.enabled", havingValue = "true")
+public class DataSourceAdmissionConfiguration {
+
+    @Bean
+    public static BeanPostProcessor dataSourceAdmissionPostProcessor(Environment environment) {
+        return new AdmissionPostProcessor(environment);
+    }
+
+    // The registry can be set up while the pool is still being created, so the data source is looked up when read.
+    @Bean
+    public MeterBinder dataSourceAdmissionMetrics(ObjectProvider<DataSource> dataSource) {
+
+        return registry -> {
+            Gauge.builder("datasource.admission.waiting", dataSource, d -> admission(d, AdmissionLimitedDataSource::getWaiting))
+                    .description("Callers waiting to be admitted to the connection pool")
+                    .register(registry);
+            Gauge.builder("datasource.admission.available", dataSource, d -> admission(d, AdmissionLimitedDataSource::getAvailable))
+                    .description("Callers the connection pool could admit right now")
+                    .register(registry);
+        };
+    }
+
+    private static double admission(ObjectProvider<DataSource> dataSource, ToIntFunction<AdmissionLimitedDataSource> value) {
+
+        AdmissionLimitedDataSource admission = unwrap(dataSource.getIfAvailable(), AdmissionLimitedDataSource.class);
+        return (admission == null) ? Double.NaN : value.applyAsInt(admission);
+    }
+
+    // The data source may be wrapped in others, see StatementAccountingConfiguration.
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+
+        try {
+            return (dataSource != null && dataSource.isWrapperFor(type)) ? dataSource.unwrap(type) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    private static class AdmissionPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+        private Logger logger = LoggerFactory.getLogger(DataSourceAdmissionConfiguration.class);
+
+        AdmissionPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+            if (!(bean instanceof DataSource) || unwrap((DataSource) bean, AdmissionLimitedDataSource.class) != null) {
+                return bean;
+            }
+            int permits = environment.getProperty("datasource.admission.permits", Integer.class, 0);
+            long timeoutMillis = environment.getProperty("datasource.admission.timeout-ms", Long.class, 0L);
+            HikariDataSource pool = unwrap((DataSource) bean, HikariDataSource.class);
+            if (pool != null) {
+                permits = (permits > 0) ? permits : Math.max(pool.getMaximumPoolSize() - 1, 1);
+                timeoutMillis = (timeoutMillis > 0) ? timeoutMillis : pool.getConnectionTimeout();
+            }
+            if (permits <= 0 || timeoutMillis <= 0) {
+                logger.warn("Data source {} is not a Hikari pool, set datasource.admission.permits and timeout-ms to limit it", beanName);
+                return bean;
+            }
+            logger.info("Data source {} admits {} callers at once, the others wait up to {} ms", beanName, permits, timeoutMillis);
+            return new AdmissionLimitedDataSource((DataSource) bean, permits, timeoutMillis);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.service.accountservice.configuration;
+
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Where the reactive controllers run the blocking JPA services, so the event loop never waits on JDBC. The pool
+ * is sized like the connection pool; calls beyond it wait in a queue of {@code queue-size}, and once that is full
+ * they fail right away with a {@link java.util.concurrent.RejectedExecutionException}, answered with 503, instead
+ * of piling up behind the database.
+ */
+@Component
+@Profile("reactive")
+public class DatabaseScheduler {
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    public DatabaseScheduler(@Value("${reactive.database.pool-size:50}") int poolSize,
+                             @Value("${reactive.database.queue-size:1000}") int queueSize) {
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "reactive-database-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.scheduler = Schedulers.fromExecutorService(executor);
+    }
+
+    /**
+     * Runs {@code call} on the database pool when subscribed; a null result completes empty. The Idempotency-Key
+     * the request claimed, if any, is bound to the thread for the call.
+     */
+    public <T> Mono<T> call(Callable<T> call) {
+
+        return Mono.subscriberContext().flatMap(context -> {
+            Long recordId = context.getOrDefault(IdempotencyMarker.class, null);
+            return Mono.fromCallable(() -> {
+                IdempotencyMarker.bind(recordId);
+                try {
+                    return call.call();
+                } finally {
+                    IdempotencyMarker.bind(null);
+                }
+            }).subscribeOn(scheduler);
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        scheduler.dispose();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
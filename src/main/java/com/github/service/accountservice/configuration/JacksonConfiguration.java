@@ -0,0 +1,19 @@
+package com.github.service.accountservice.configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request and response bodies are bound through accessors Afterburner generates per class instead of reflection.
+ * Spring Boot registers the module with the ObjectMapper both the servlet and the reactive endpoints use.
+ */
+@Configuration
+public class JacksonConfiguration {
+
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
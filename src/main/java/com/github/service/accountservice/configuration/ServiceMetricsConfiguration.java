@@ -0,0 +1,40 @@
+package com.github.service.accountservice.configuration;
+
+import com.github.service.accountservice.aspect.ServiceMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+
+/**
+ * Times the methods of the account, transaction, product and store services with a
+ * {@link ServiceMetricsInterceptor}. It is ordered outside the optimistic lock retries and the transactions, so a
+ * call's time includes its retries and its commit.
+ * <p>
+ * Advisors are created while the bean post-processors are still being set up, so the registry is only looked up
+ * once the first timer is registered; created that early it would miss the meter filters configured for it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "metrics.services.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMetricsConfiguration {
+
+    static final String SERVICE_METHODS = "execution(* com.github.service.accountservice.service.contracts.IAccountService.*(..))"
+            + " || execution(* com.github.service.accountservice.service.contracts.ITransactionService.*(..))"
+            + " || execution(* com.github.service.accountservice.service.contracts.IProductService.*(..))"
+            + " || execution(* com.github.service.accountservice.service.contracts.IStoreService.*(..))";
+
+    @Bean
+    public Advisor serviceMetricsAdvisor(@Lazy MeterRegistry meterRegistry) {
+
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(SERVICE_METHODS);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ServiceMetricsInterceptor(meterRegistry));
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return advisor;
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.service.accountservice.configuration;
+
+import com.github.service.accountservice.statements.EndpointStatements;
+import com.github.service.accountservice.statements.StatementAccountingDataSource;
+import com.github.service.accountservice.statements.StatementAccountingFilter;
+import com.github.service.accountservice.statements.StatementsEndpoint;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Counts the statements, rows and database time of every servlet request by wrapping the connection pool in a
+ * {@link StatementAccountingDataSource}. Only the execute calls are timed, so it does not matter whether it ends up
+ * in front of the limiter of {@link DataSourceAdmissionConfiguration} or behind it: waiting for a connection never
+ * counts as database time.
+ */
+@Configuration
+@ConditionalOnProperty(name = "statements.accounting.enabled", havingValue = "true")
+public class StatementAccountingConfiguration {
+
+    @Bean
+    public static BeanPostProcessor statementAccountingPostProcessor() {
+        return new StatementAccountingPostProcessor();
+    }
+
+    @Bean
+    public EndpointStatements endpointStatements() {
+        return new EndpointStatements();
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public StatementAccountingFilter statementAccountingFilter(EndpointStatements endpointStatements) {
+        return new StatementAccountingFilter(endpointStatements);
+    }
+
+    @Bean
+    public StatementsEndpoint statementsEndpoint(EndpointStatements endpointStatements) {
+        return new StatementsEndpoint(endpointStatements);
+    }
+
+    private static class StatementAccountingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+            if (!(bean instanceof DataSource) || isAccounted((DataSource) bean)) {
+                return bean;
+            }
+            return new StatementAccountingDataSource((DataSource) bean);
+        }
+
+        private static boolean isAccounted(DataSource dataSource) {
+
+            try {
+                return dataSource.isWrapperFor(StatementAccountingDataSource.class);
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
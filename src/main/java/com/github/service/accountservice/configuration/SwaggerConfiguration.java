@@ -1,18 +1,22 @@
 package com.github.service.accountservice.configuration;
 
+import com.github.service.accountservice.money.Money;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
 @Configuration
+@Profile("!reactive")
 @EnableSwagger2
 public class SwaggerConfiguration {
 
@@ -28,6 +32,8 @@ public class SwaggerConfiguration {
                 .apiInfo(DEFAULT_API_INFO)
                 .produces(DEFAULT_PRODUCES_AND_CONSUMES)
                 .consumes(DEFAULT_PRODUCES_AND_CONSUMES)
+                // Documented as the decimal number it is written as.
+                .directModelSubstitute(Money.class, BigDecimal.class)
                 .select()
                 .apis(RequestHandlerSelectors.basePackage("com.maginteractive.service.accountservice.controller"))
                 .paths(PathSelectors.any())
@@ -0,0 +1,79 @@
+package com.github.service.accountservice.configuration;
+
+import org.apache.coyote.AbstractProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every servlet request, with its JDBC and Redis calls, on a virtual thread of its own instead of Tomcat's
+ * pool of platform threads. Virtual threads need Java 21 while the build targets Java 8, so the JDK API is looked
+ * up reflectively; on an older JVM the profile logs a warning and requests stay on Tomcat's pool. However many
+ * requests there are, the database only sees as many at once as {@link AdmissionLimitedDataSource} admits.
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfiguration implements DisposableBean {
+
+    private Logger logger = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    private ExecutorService requestExecutor;
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadCustomizer() {
+
+        ExecutorService executor = virtualThreadExecutor("http-vt-");
+        if (executor == null) {
+            logger.warn("Virtual threads need Java 21 or newer, running on {}; requests stay on Tomcat's thread pool",
+                    System.getProperty("java.version"));
+            return factory -> { };
+        }
+        requestExecutor = executor;
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(executor);
+            logger.info("Tomcat connector on port {} runs requests on virtual threads", connector.getPort());
+        });
+    }
+
+    @Override
+    public void destroy() {
+
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+        }
+    }
+
+    /**
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())}, or null before
+     * Java 21 (or a Java 19 or 20 without preview features).
+     */
+    static ExecutorService virtualThreadExecutor(String prefix) {
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (NoSuchMethodException | ClassNotFoundException ex) {
+            return null;
+        } catch (InvocationTargetException ex) {
+            // Java 19 and 20 have the API as a preview that is off unless enabled
+            if (ex.getCause() instanceof UnsupportedOperationException) {
+                return null;
+            }
+            throw new IllegalStateException("Virtual threads could not be created", ex.getCause());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads could not be created", ex);
+        }
+    }
+}
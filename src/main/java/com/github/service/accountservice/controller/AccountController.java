@@ -1,37 +1,58 @@
 package com.github.service.accountservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.RateLimiterException;
+import com.github.service.accountservice.service.contracts.IAccountSequencer;
 import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
 import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.aspect.Idempotent;
 import com.github.service.accountservice.aspect.RateLimit;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.service.consumes.AccountAmountRequest;
+import com.github.service.accountservice.service.consumes.BalanceAtRequest;
+import com.github.service.accountservice.service.consumes.BatchRequest;
+import com.github.service.accountservice.service.consumes.TransactionsRequest;
+import com.github.service.accountservice.service.models.AccountBalanceDto;
+import com.github.service.accountservice.service.models.AccountBatchResult;
 import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.AccountResponse;
+import com.github.service.accountservice.service.models.BalanceResponse;
 import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
 import com.github.service.accountservice.validator.IValidator;
 import io.swagger.annotations.*;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/account")
 public class AccountController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     Logger logger = LoggerFactory.getLogger(AccountController.class);
 
     @Autowired
@@ -39,7 +60,19 @@ public class AccountController {
     @Autowired
     private ITransactionService transactionService;
     @Autowired
+    private IAccountSequencer accountSequencer;
+    @Autowired
+    private IReconciliationService reconciliationService;
+    @Autowired
     private IValidator validator;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private ObjectWriter transactionWriter;
+
+    @PostConstruct
+    public void init() {
+        transactionWriter = objectMapper.writerFor(TransactionDto.class);
+    }
 
     @PostMapping("/create")
     @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
@@ -50,60 +83,106 @@ public class AccountController {
 
         AccountDto createdWallet = accountService.createAccount();
         logger.info("WalletController create method was completed successfully and wallet was created");
-        Map<String, Object> walletMap = new HashMap<>();
-        walletMap.put("account", createdWallet);
-        return new ResponseEntity<>(walletMap, HttpStatus.OK);
+        return new ResponseEntity<>(new AccountResponse(createdWallet), HttpStatus.OK);
     }
 
     @PostMapping("/deposit")
     @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @Idempotent
     @ApiOperation(response = AccountDto.class, value = "Deposit operation of related account.")
-    public ResponseEntity<?> deposit(@RequestBody Map<String, String> dataMap) throws RateLimiterException, AccountException{
+    public ResponseEntity<?> deposit(@RequestBody AccountAmountRequest request) throws RateLimiterException, AccountException{
 
         logger.info("AccountController deposit method was called.");
 
-        validator.validate(dataMap, Arrays.asList("accountId", "amount"));
-        String accountId = dataMap.get("accountId");
-        String amount = dataMap.get("amount");
+        validator.validate(request);
 
-        transactionService.createTransaction(Integer.parseInt(accountId), new BigDecimal(amount), TransactionTypes.DEPOSIT);
-        AccountDto accountDto = accountService.findById(Integer.valueOf(accountId));
-        Map<String, Object> resultOrders = new HashMap<>();
-        resultOrders.put("account", accountDto);
-        return new ResponseEntity<>(resultOrders, HttpStatus.OK);
+        AccountDto accountDto = accountSequencer.apply(request.getAccountId(), request.getAmount(), TransactionTypes.DEPOSIT);
+        return new ResponseEntity<>(new AccountResponse(accountDto), HttpStatus.OK);
     }
 
     @PostMapping("/withdraw")
     @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @Idempotent
     @ApiOperation(response = AccountDto.class, value = "Withdraw operation of related account")
-    public ResponseEntity<?> withdraw(@RequestBody Map<String, String> dataMap) throws RateLimiterException, AccountException{
+    public ResponseEntity<?> withdraw(@RequestBody AccountAmountRequest request) throws RateLimiterException, AccountException{
 
         logger.info("AccountController withdraw method was called.");
 
-        validator.validate(dataMap, Arrays.asList("accountId", "amount"));
-        String accountId = dataMap.get("accountId");
-        String amount = dataMap.get("amount");
+        validator.validate(request);
 
-        transactionService.createTransaction(Integer.parseInt(accountId), new BigDecimal(amount), TransactionTypes.WITHDRAW);
+        AccountDto accountDto = accountSequencer.apply(request.getAccountId(), request.getAmount(), TransactionTypes.WITHDRAW);
         logger.info("Transaction was created successfully");
-        AccountDto accountDto = accountService.findById(Integer.valueOf(accountId));
-        Map<String, Object> resultOrders = new HashMap<>();
-        resultOrders.put("account", accountDto);
-        return new ResponseEntity<>(resultOrders, HttpStatus.OK);
+        return new ResponseEntity<>(new AccountResponse(accountDto), HttpStatus.OK);
+    }
+
+    @PostMapping("/batch")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @ApiOperation(response = AccountBatchResult.class, value = "Deposit and withdraw operations of many accounts in one call. " +
+            "Every operation gets its own result; the ones that fail don't stop the others.")
+    public ResponseEntity<?> batch(@RequestBody BatchRequest request) throws RateLimiterException, AccountException{
+
+        logger.info("AccountController batch method was called.");
+
+        validator.validate(request);
+        AccountBatchResult batchResult = transactionService.createTransactions(request.getOperations());
+        return new ResponseEntity<>(batchResult, HttpStatus.OK);
     }
 
     @PostMapping("/listTransactions")
     @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
-    @ApiOperation(response = TransactionDto.class, value = "List all transactions of related account")
-    public ResponseEntity<?> transactions(@RequestBody Map<String, String> dataMap) throws RateLimiterException, AccountException{
+    @ApiOperation(response = TransactionDto.class, value = "List a page of transactions of related account. " +
+            "Optional afterTime and afterId, limit, from and to narrow the page; nextAfterTime and nextAfterId are returned while more rows exist.")
+    public ResponseEntity<?> transactions(@RequestBody TransactionsRequest request) throws RateLimiterException, AccountException{
 
         logger.info("AccountController transactions method was called.");
-        validator.validate(dataMap, Arrays.asList("accountId"));
-        String accountId = dataMap.get("accountId");
+        validator.validate(request);
+
+        TransactionPage page = transactionService.getTransactionsByAccountId(request.getAccountId(), request.getAfterTime(), request.getAfterId(),
+                request.getLimit(), request.getFrom(), request.getTo());
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @PostMapping("/balanceAt")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @ApiOperation(response = AccountBalanceDto.class, value = "Balance of related account as of the optional \"at\" date, " +
+            "derived from the ledger. Meant for audits, the current balance is served by the other endpoints.")
+    public ResponseEntity<?> balanceAt(@RequestBody BalanceAtRequest request) throws RateLimiterException, AccountException{
 
-        List<TransactionDto> transactions = transactionService.getTransactionsByAccountId(Integer.valueOf(accountId));
-        Map<String, Object> resultOrders = new HashMap<>();
-        resultOrders.put("transactions", transactions);
-        return new ResponseEntity<>(resultOrders, HttpStatus.OK);
+        logger.info("AccountController balanceAt method was called.");
+        validator.validate(request);
+
+        AccountBalanceDto balance = reconciliationService.getBalanceAt(request.getAccountId(), request.getAt());
+        return new ResponseEntity<>(new BalanceResponse(balance), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/streamTransactions", produces = APPLICATION_NDJSON_VALUE)
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @ApiOperation(response = TransactionDto.class, value = "Stream all transactions of related account as newline delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@RequestBody TransactionsRequest request) throws RateLimiterException, AccountException{
+
+        logger.info("AccountController streamTransactions method was called.");
+        validator.validate(request);
+        Integer accountId = request.getAccountId();
+
+        // Validated up front: once the first row is written the status can no longer change.
+        validator.isTrue((accountId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
+                ErrorCode.BadRequest.getCode());
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                transactionService.streamTransactionsByAccountId(accountId, request.getFrom(), request.getTo(), transaction -> {
+                    try {
+                        transactionWriter.writeValue(generator, transaction);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (AccountException | UncheckedIOException ex) {
+                throw new IOException(ex);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
     }
 }
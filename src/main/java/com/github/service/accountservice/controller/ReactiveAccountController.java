@@ -0,0 +1,188 @@
+package com.github.service.accountservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.service.accountservice.aspect.Idempotent;
+import com.github.service.accountservice.aspect.RateLimit;
+import com.github.service.accountservice.configuration.DatabaseScheduler;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.service.consumes.AccountAmountRequest;
+import com.github.service.accountservice.service.consumes.BalanceAtRequest;
+import com.github.service.accountservice.service.consumes.BatchRequest;
+import com.github.service.accountservice.service.consumes.TransactionsRequest;
+import com.github.service.accountservice.service.contracts.IAccountSequencer;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountBatchResult;
+import com.github.service.accountservice.service.models.AccountResponse;
+import com.github.service.accountservice.service.models.BalanceResponse;
+import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
+import com.github.service.accountservice.validator.IValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link AccountController} endpoints on WebFlux, active with the {@code reactive} profile. Requests and
+ * responses are the same; the services run on the {@link DatabaseScheduler}.
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/account")
+public class ReactiveAccountController {
+
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    Logger logger = LoggerFactory.getLogger(ReactiveAccountController.class);
+
+    @Autowired
+    private IAccountService accountService;
+    @Autowired
+    private ITransactionService transactionService;
+    @Autowired
+    private IAccountSequencer accountSequencer;
+    @Autowired
+    private IReconciliationService reconciliationService;
+    @Autowired
+    private IValidator validator;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private DatabaseScheduler database;
+    private ObjectWriter transactionWriter;
+
+    @PostConstruct
+    public void init() {
+        transactionWriter = objectMapper.writerFor(TransactionDto.class);
+    }
+
+    @PostMapping("/create")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<AccountResponse>> create() {
+
+        logger.info("ReactiveAccountController create method calls for creating account");
+
+        return database.call(() -> accountService.createAccount())
+                .map(account -> new ResponseEntity<>(new AccountResponse(account), HttpStatus.OK));
+    }
+
+    @PostMapping("/deposit")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @Idempotent
+    public Mono<ResponseEntity<AccountResponse>> deposit(@RequestBody AccountAmountRequest request) throws AccountException {
+
+        logger.info("ReactiveAccountController deposit method was called.");
+        return apply(request, TransactionTypes.DEPOSIT);
+    }
+
+    @PostMapping("/withdraw")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @Idempotent
+    public Mono<ResponseEntity<AccountResponse>> withdraw(@RequestBody AccountAmountRequest request) throws AccountException {
+
+        logger.info("ReactiveAccountController withdraw method was called.");
+        return apply(request, TransactionTypes.WITHDRAW);
+    }
+
+    @PostMapping("/batch")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<AccountBatchResult>> batch(@RequestBody BatchRequest request) throws AccountException {
+
+        logger.info("ReactiveAccountController batch method was called.");
+
+        validator.validate(request);
+        return database.call(() -> transactionService.createTransactions(request.getOperations()))
+                .map(batchResult -> new ResponseEntity<>(batchResult, HttpStatus.OK));
+    }
+
+    @PostMapping("/listTransactions")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<TransactionPage>> transactions(@RequestBody TransactionsRequest request) throws AccountException {
+
+        logger.info("ReactiveAccountController transactions method was called.");
+        validator.validate(request);
+
+        return database.call(() -> transactionService.getTransactionsByAccountId(request.getAccountId(), request.getAfterTime(), request.getAfterId(),
+                request.getLimit(), request.getFrom(), request.getTo()))
+                .map(page -> new ResponseEntity<>(page, HttpStatus.OK));
+    }
+
+    @PostMapping("/balanceAt")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<BalanceResponse>> balanceAt(@RequestBody BalanceAtRequest request) throws AccountException {
+
+        logger.info("ReactiveAccountController balanceAt method was called.");
+        validator.validate(request);
+
+        return database.call(() -> reconciliationService.getBalanceAt(request.getAccountId(), request.getAt()))
+                .map(balance -> new ResponseEntity<>(new BalanceResponse(balance), HttpStatus.OK));
+    }
+
+    /**
+     * Streams the transactions page by page. The next page is only read once the client took the rows of the
+     * previous one, so a slow reader holds neither a database thread nor a connection while it catches up.
+     * The pages have no settle horizon, the stream returns the same rows as the servlet one: every transaction
+     * committed before it started.
+     */
+    @PostMapping(value = "/streamTransactions", produces = APPLICATION_NDJSON_VALUE)
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Flux<String> streamTransactions(@RequestBody TransactionsRequest request) throws AccountException {
+
+        logger.info("ReactiveAccountController streamTransactions method was called.");
+        validator.validate(request);
+        Integer accountId = request.getAccountId();
+        Date from = request.getFrom();
+        Date to = request.getTo();
+
+        // Validated up front: once the first row is written the status can no longer change.
+        validator.isTrue((accountId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
+                ErrorCode.BadRequest.getCode());
+
+        return page(accountId, null, null, from, to)
+                .expand(page -> (page.getNextAfterId() == null) ? Mono.empty()
+                        : page(accountId, page.getNextAfterTime(), page.getNextAfterId(), from, to))
+                .concatMapIterable(TransactionPage::getTransactions)
+                .handle((transaction, sink) -> {
+                    try {
+                        sink.next(transactionWriter.writeValueAsString(transaction) + '\n');
+                    } catch (JsonProcessingException ex) {
+                        sink.error(ex);
+                    }
+                });
+    }
+
+    private Mono<TransactionPage> page(Integer accountId, Date afterTime, Long afterId, Date from, Date to) {
+        return database.call(() -> transactionService.getTransactionStreamPage(accountId, afterTime, afterId, STREAM_PAGE_SIZE, from, to));
+    }
+
+    private Mono<ResponseEntity<AccountResponse>> apply(AccountAmountRequest request, TransactionTypes type) throws AccountException {
+
+        validator.validate(request);
+
+        // The direct sequencer does the work in submit, the striped one only queues it there.
+        return database.call(() -> accountSequencer.submit(request.getAccountId(), request.getAmount(), type))
+                .flatMap(Mono::fromFuture)
+                .map(account -> new ResponseEntity<>(new AccountResponse(account), HttpStatus.OK));
+    }
+}
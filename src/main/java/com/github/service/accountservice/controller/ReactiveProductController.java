@@ -0,0 +1,98 @@
+package com.github.service.accountservice.controller;
+
+import com.github.service.accountservice.aspect.RateLimit;
+import com.github.service.accountservice.cache.ProductCatalog;
+import com.github.service.accountservice.configuration.DatabaseScheduler;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.service.consumes.ProductCreate;
+import com.github.service.accountservice.service.consumes.ProductDelete;
+import com.github.service.accountservice.service.consumes.ProductRequest;
+import com.github.service.accountservice.service.contracts.IProductService;
+import com.github.service.accountservice.service.models.ProductDto;
+import com.github.service.accountservice.service.models.ProductResponse;
+import com.github.service.accountservice.validator.IValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ProductController} endpoints on WebFlux, active with the {@code reactive} profile.
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/product")
+public class ReactiveProductController {
+
+    Logger logger = LoggerFactory.getLogger(ReactiveProductController.class);
+
+    @Autowired
+    IProductService productService;
+    @Autowired
+    IValidator validator;
+    @Autowired
+    ProductCatalog productCatalog;
+    @Autowired
+    DatabaseScheduler database;
+
+    @PostMapping("/create")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<ProductResponse>> create(@RequestBody ProductRequest<ProductCreate> request) throws AccountException {
+
+        logger.info("ReactiveProductController create method calls for creating product");
+
+        validator.validate(request);
+
+        ProductCreate product = request.getProduct();
+        return database.call(() -> productService.createProduct(product)).map(ReactiveProductController::result);
+    }
+
+    @GetMapping("/list")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<byte[]>> getAll(ServerWebExchange exchange) {
+
+        logger.info("ReactiveProductController getAll method was called");
+
+        // The snapshot is only rebuilt from the database after a change, the hop is cheap otherwise.
+        return database.call(() -> productCatalog.current().getAllProducts())
+                .filter(products -> !exchange.checkNotModified(products.getEtag()))
+                .map(products -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(products.getBody()));
+    }
+
+    @PostMapping("/delete")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<ProductResponse>> delete(@RequestBody ProductRequest<ProductDelete> request) throws AccountException {
+
+        logger.info("ReactiveProductController delete method was called");
+
+        validator.validate(request);
+
+        ProductDelete product = request.getProduct();
+        return database.call(() -> productService.deleteProduct(product)).map(ReactiveProductController::result);
+    }
+
+    @PostMapping("/update")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<ProductResponse>> update(@RequestBody ProductRequest<ProductDto> request) throws AccountException {
+
+        logger.debug("ReactiveProductController update method was called");
+
+        validator.validate(request);
+
+        ProductDto product = request.getProduct();
+        return database.call(() -> productService.updateProduct(product)).map(ReactiveProductController::result);
+    }
+
+    private static ResponseEntity<ProductResponse> result(ProductDto product) {
+        return new ResponseEntity<>(new ProductResponse(product), HttpStatus.OK);
+    }
+}
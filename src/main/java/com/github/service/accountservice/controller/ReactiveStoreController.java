@@ -0,0 +1,68 @@
+package com.github.service.accountservice.controller;
+
+import com.github.service.accountservice.aspect.Idempotent;
+import com.github.service.accountservice.aspect.RateLimit;
+import com.github.service.accountservice.cache.ProductCatalog;
+import com.github.service.accountservice.configuration.DatabaseScheduler;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.service.consumes.BuyRequest;
+import com.github.service.accountservice.service.contracts.IStoreService;
+import com.github.service.accountservice.service.models.TransactionResponse;
+import com.github.service.accountservice.validator.IValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link StoreController} endpoints on WebFlux, active with the {@code reactive} profile.
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/store")
+public class ReactiveStoreController {
+
+    Logger logger = LoggerFactory.getLogger(ReactiveStoreController.class);
+
+    @Autowired
+    IStoreService storeService;
+    @Autowired
+    IValidator validator;
+    @Autowired
+    ProductCatalog productCatalog;
+    @Autowired
+    DatabaseScheduler database;
+
+    @GetMapping("/list")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    public Mono<ResponseEntity<byte[]>> getAll(ServerWebExchange exchange) {
+
+        logger.debug("ReactiveStoreController getAll method was called");
+
+        return database.call(() -> productCatalog.current().getAvailableProducts())
+                .filter(products -> !exchange.checkNotModified(products.getEtag()))
+                .map(products -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(products.getBody()));
+    }
+
+    @PostMapping("/buy")
+    @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
+    @Idempotent
+    public Mono<ResponseEntity<TransactionResponse>> buy(@RequestBody BuyRequest request) throws AccountException {
+
+        logger.debug("ReactiveStoreController buy method was called");
+
+        validator.validate(request);
+
+        return database.call(() -> storeService.buyProduct(request.getAccountId(), request.getProductId()))
+                .map(transaction -> new ResponseEntity<>(new TransactionResponse(transaction), HttpStatus.OK));
+    }
+}
@@ -1,28 +1,32 @@
 package com.github.service.accountservice.controller;
 
+import com.github.service.accountservice.aspect.Idempotent;
 import com.github.service.accountservice.aspect.RateLimit;
+import com.github.service.accountservice.cache.CatalogView;
+import com.github.service.accountservice.cache.ProductCatalog;
 import com.github.service.accountservice.exceptions.AccountException;
 import com.github.service.accountservice.exceptions.RateLimiterException;
+import com.github.service.accountservice.service.consumes.BuyRequest;
 import com.github.service.accountservice.service.contracts.IProductService;
 import com.github.service.accountservice.service.contracts.IStoreService;
-import com.github.service.accountservice.service.models.ProductDto;
 import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionResponse;
 import com.github.service.accountservice.validator.IValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import org.springframework.web.context.request.WebRequest;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/store")
 public class StoreController {
 
@@ -34,32 +38,32 @@ public class StoreController {
     IStoreService storeService;
     @Autowired
     IValidator validator;
+    @Autowired
+    ProductCatalog productCatalog;
 
     @GetMapping("/list")
     @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
-    public ResponseEntity<?> getAll() throws RateLimiterException, AccountException {
+    public ResponseEntity<?> getAll(WebRequest request) throws RateLimiterException, AccountException {
 
         logger.debug("StoreController getAll method was called");
 
-        List<ProductDto> products = storeService.listAllAvailableProducts();
-        Map<String, Object> resultOrders = new HashMap<>();
-        resultOrders.put("products", products);
-        return new ResponseEntity<>(resultOrders, HttpStatus.OK);
+        CatalogView products = productCatalog.current().getAvailableProducts();
+        if (request.checkNotModified(products.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(products.getBody());
     }
 
     @PostMapping("/buy")
     @RateLimit(limit = 20, duration = 60, unit = TimeUnit.SECONDS)
-    public ResponseEntity<?> buy(@RequestBody Map<String, String> dataMap) throws RateLimiterException, AccountException {
+    @Idempotent
+    public ResponseEntity<?> buy(@RequestBody BuyRequest request) throws RateLimiterException, AccountException {
 
         logger.debug("StoreController buy method was called");
 
-        validator.validate(dataMap, Arrays.asList("accountId", "productId"));
-        String accountId = dataMap.get("accountId");
-        String productId = dataMap.get("productId");
+        validator.validate(request);
 
-        TransactionDto transaction = storeService.buyProduct(Integer.parseInt(accountId), Integer.parseInt(productId));
-        Map<String, Object> resultOrders = new HashMap<>();
-        resultOrders.put("transaction", transaction);
-        return new ResponseEntity<>(resultOrders, HttpStatus.OK);
+        TransactionDto transaction = storeService.buyProduct(request.getAccountId(), request.getProductId());
+        return new ResponseEntity<>(new TransactionResponse(transaction), HttpStatus.OK);
     }
 }
@@ -1,17 +1,15 @@
 package com.github.service.accountservice.entities;
 
-import lombok.Data;
+import com.github.service.accountservice.money.Money;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.Min;
-import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 
-@Data
 @Getter
 @Setter
 @Entity
@@ -26,7 +24,7 @@ public class Account {
 
     @Min(value = 0, message = "Account balance cannot be negative")
     @Column(name = "balance",nullable = false)
-    private BigDecimal balance;
+    private Money balance;
 
     @Column(name = "created_time")
     @Temporal(TemporalType.TIMESTAMP)
@@ -36,11 +34,15 @@ public class Account {
     @Temporal(TemporalType.TIMESTAMP)
     private Date updatedTime;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transaction> transactions;
 
     public Account(){
-        this.balance = new BigDecimal(0);
+        this.balance = Money.ZERO;
         this.createdTime = new Date();
         this.updatedTime = new Date();
     }
@@ -0,0 +1,45 @@
+package com.github.service.accountservice.entities;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * A share of an account's balance kept apart from user_account, so deposits spread over the slots do not queue for
+ * one row lock. The account row itself is slot 0; its balance is the sum of the row and its buckets.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "account_balance_bucket")
+public class BalanceBucket {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "slot", nullable = false)
+    private int slot;
+
+    @Column(name = "balance", nullable = false)
+    private Money balance;
+
+    @Column(name = "last_updated_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedTime;
+
+    public BalanceBucket(){}
+
+    public BalanceBucket(Integer accountId, int slot){
+        this.accountId = accountId;
+        this.slot = slot;
+        this.balance = Money.ZERO;
+        this.updatedTime = new Date();
+    }
+}
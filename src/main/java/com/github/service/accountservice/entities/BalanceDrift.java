@@ -0,0 +1,41 @@
+package com.github.service.accountservice.entities;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+import javax.persistence.*;
+import java.util.Date;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "balance_drift")
+public class BalanceDrift {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "account_balance", nullable = false)
+    private Money accountBalance;
+
+    @Column(name = "ledger_balance", nullable = false)
+    private Money ledgerBalance;
+
+    @Column(name = "detected_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date detectedTime;
+
+    public BalanceDrift(){}
+
+    public BalanceDrift(Integer accountId, Money accountBalance, Money ledgerBalance){
+        this.accountId = accountId;
+        this.accountBalance = accountBalance;
+        this.ledgerBalance = ledgerBalance;
+        detectedTime = new Date();
+    }
+}
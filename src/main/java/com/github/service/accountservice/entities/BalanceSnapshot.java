@@ -0,0 +1,49 @@
+package com.github.service.accountservice.entities;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * An account's balance derived from the ledger, up to and including the row at (ledgerTime, ledgerId).
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "account_balance_snapshot")
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "balance", nullable = false)
+    private Money balance;
+
+    @Column(name = "ledger_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date ledgerTime;
+
+    @Column(name = "ledger_id", nullable = false)
+    private long ledgerId;
+
+    @Column(name = "created_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdTime;
+
+    public BalanceSnapshot(){}
+
+    public BalanceSnapshot(Integer accountId, Money balance, Date ledgerTime, long ledgerId){
+        this.accountId = accountId;
+        this.balance = balance;
+        this.ledgerTime = ledgerTime;
+        this.ledgerId = ledgerId;
+        createdTime = new Date();
+    }
+}
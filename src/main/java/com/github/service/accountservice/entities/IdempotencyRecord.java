@@ -0,0 +1,59 @@
+package com.github.service.accountservice.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * An Idempotency-Key sent to an endpoint ({@code scope}). The row is inserted when a request claims the key, gets
+ * appliedTime in the transaction that moves the money and the response once the request completed; until then
+ * completedTime is null.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_key")
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "scope", nullable = false)
+    private String scope;
+
+    @Column(name = "request_key", nullable = false)
+    private String requestKey;
+
+    @Column(name = "fingerprint", nullable = false)
+    private String fingerprint;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "created_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdTime;
+
+    @Column(name = "applied_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date appliedTime;
+
+    @Column(name = "completed_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date completedTime;
+
+    public IdempotencyRecord(){}
+
+    public IdempotencyRecord(String scope, String requestKey, String fingerprint){
+        this.scope = scope;
+        this.requestKey = requestKey;
+        this.fingerprint = fingerprint;
+        createdTime = new Date();
+    }
+}
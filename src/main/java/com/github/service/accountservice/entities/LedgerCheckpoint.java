@@ -0,0 +1,34 @@
+package com.github.service.accountservice.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * How far a ledger consumer got, as the (created_time, id) of the last row it processed. A null ledgerTime
+ * means it has not processed any row yet.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "ledger_checkpoint")
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "ledger_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date ledgerTime;
+
+    @Column(name = "ledger_id", nullable = false)
+    private long ledgerId;
+
+    @Column(name = "updated_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedTime;
+
+    public LedgerCheckpoint(){}
+}
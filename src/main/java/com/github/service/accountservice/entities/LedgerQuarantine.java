@@ -0,0 +1,56 @@
+package com.github.service.accountservice.entities;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * A journal ledger entry whose transaction never confirmed its commit, e.g. because the process died between the
+ * journal write and the database commit. It may stand for a balance change that never happened, so it is kept here
+ * under its ledger id instead of in account_transaction; when the change did happen, the reconciliation reports the
+ * account and the row is moved over by hand.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "ledger_quarantine")
+public class LedgerQuarantine {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "type_id", nullable = false)
+    private Integer typeId;
+
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "amount", nullable = false)
+    private Money amount;
+
+    @Column(name = "created_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdTime;
+
+    @Column(name = "quarantined_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date quarantinedTime;
+
+    public LedgerQuarantine(){}
+
+    public LedgerQuarantine(long id, Integer accountId, Integer typeId, Integer productId, Money amount, Date createdTime){
+        this.id = id;
+        this.accountId = accountId;
+        this.typeId = typeId;
+        this.productId = productId;
+        this.amount = amount;
+        this.createdTime = createdTime;
+        quarantinedTime = new Date();
+    }
+}
@@ -1,6 +1,6 @@
 package com.github.service.accountservice.entities;
 
-import lombok.Data;
+import com.github.service.accountservice.money.Money;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -9,10 +9,8 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
-import java.math.BigDecimal;
 import java.util.Date;
 
-@Data
 @Getter
 @Setter
 @Entity
@@ -33,7 +31,7 @@ public class Product {
     @Min(value = 0, message = "Price cannot be negative")
     @Column(name = "price",nullable = false)
     @NotNull(message = "Price must be provided")
-    private BigDecimal price;
+    private Money price;
 
     @Min(value = 0, message = "Product count cannot be negative")
     @NotNull (message = "Product count must be provided")
@@ -48,9 +46,13 @@ public class Product {
     @Temporal(TemporalType.TIMESTAMP)
     private Date lastUpdated;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Product(){}
 
-    public Product(String name, BigDecimal price, Integer productCount){
+    public Product(String name, Money price, Integer productCount){
         this.name = name;
         this.price = price;
         this.productCount = productCount;
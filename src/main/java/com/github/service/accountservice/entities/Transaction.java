@@ -1,16 +1,17 @@
 package com.github.service.accountservice.entities;
 
-import lombok.Data;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.BlockIdGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.util.Date;
 
-@Data
 @Getter
 @Setter
 @Entity
@@ -20,7 +21,11 @@ public class Transaction {
 
     @Id
     @Column(name = "id",nullable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "account_transaction_id")
+    @GenericGenerator(name = "account_transaction_id", strategy = "com.github.service.accountservice.repository.BlockIdGenerator",
+            parameters = {
+                    @Parameter(name = BlockIdGenerator.SEQUENCE_NAME, value = "account_transaction"),
+                    @Parameter(name = BlockIdGenerator.BLOCK_SIZE, value = "100")})
     private long id;
 
     @NotNull(message = "Transaction typeId must be provided")
@@ -31,7 +36,7 @@ public class Transaction {
     @Min(value = 0, message = "Amount should be positive")
     @NotNull(message = "Amount should be positive")
     @Column(name = "amount")
-    private BigDecimal amount;
+    private Money amount;
 
     @NotNull(message = "Account must be provided")
     @ManyToOne(fetch = FetchType.LAZY)
@@ -48,14 +53,14 @@ public class Transaction {
 
     public Transaction(){}
 
-    public Transaction(TransactionType type, BigDecimal amount, Account account){
+    public Transaction(TransactionType type, Money amount, Account account){
         this.type = type;
         this.amount = amount;
         this.account = account;
         createdTime = new Date();
     }
 
-    public Transaction(TransactionType type, BigDecimal amount, Account account, Product product){
+    public Transaction(TransactionType type, Money amount, Account account, Product product){
         this.type = type;
         this.amount = amount;
         this.account = account;
@@ -1,17 +1,26 @@
 package com.github.service.accountservice.entities;
 
-import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.*;
 import javax.validation.constraints.Size;
 
-@Data
+/**
+ * Reference data seeded by V2__fill_type_table.sql, see {@link com.github.service.accountservice.cache.TransactionTypeRegistry}.
+ * The rows never change, so the entity is immutable and sits in the read-only second-level cache region of the
+ * reference tables.
+ */
 @Getter
 @Setter
 @Entity
 @Table(name = "process_type")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "reference")
 @EntityListeners(AuditingEntityListener.class)
 public class TransactionType {
 
@@ -29,4 +38,9 @@ public class TransactionType {
     public TransactionType(String type){
         this.type = type;
     }
+
+    public TransactionType(int id, String type){
+        this.id = id;
+        this.type = type;
+    }
 }
@@ -0,0 +1,11 @@
+package com.github.service.accountservice.enums;
+
+public enum ConcurrencyMode {
+
+    PESSIMISTIC,
+    OPTIMISTIC;
+
+    public static ConcurrencyMode from(String mode){
+        return ConcurrencyMode.valueOf(mode.trim().toUpperCase());
+    }
+}
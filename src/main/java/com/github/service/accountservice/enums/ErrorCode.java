@@ -6,7 +6,8 @@ public enum ErrorCode {
     NotFound(404),
     Conflict(409),
     Unprocessable_entity(422),
-    Too_many_request(429);
+    Too_many_request(429),
+    Service_unavailable(503);
 
     private int code;
 
@@ -12,6 +12,8 @@ public enum ErrorMessage {
     ACCOUNT_NOT_CREATED_EXCEPTION("Account couldn't be created"),
     PRODUCT_NOT_CREATED_EXCEPTION("Product couldn't be created"),
     NUMBER_FORMAT_MISMATCH("%s should be a number"),
+    DATE_FORMAT_MISMATCH("%s should be an ISO-8601 date"),
+    AMOUNT_FORMAT_MISMATCH("%s should be a number with at most two decimals"),
     NAME_SHOULD_BE_FILLED("Name should be filled"),
     PRODUCT_IS_NOT_VALID("Product is not valid"),
     DELETE_PRODUCT_METHOD_NOT_WORKED("Delete product method didn't work"),
@@ -20,7 +22,15 @@ public enum ErrorMessage {
     CURRENT_BALANCE_SHOULD_BE_GREATER_THAN_PRICE("Current balance should be greater than product price"),
     TRANSACTION_NOT_CREATED_EXCEPTION("Transaction couldn't be created"),
     NO_MANDATORY_FIELD("Mandatory field is missing"),
-    NAME_SHOULD_BE_DIFFERENCE("Name should be unique");
+    PAGE_CURSOR_INCOMPLETE("After Time and After Id should be given together"),
+    NAME_SHOULD_BE_DIFFERENCE("Name should be unique"),
+    OPERATION_TYPE_NOT_SUPPORTED("Operation type should be DEPOSIT or WITHDRAW"),
+    BATCH_SIZE_EXCEEDED("A batch should not contain more than %s operations"),
+    DATABASE_BUSY("Too many requests are waiting for the database. Please try again."),
+    IDEMPOTENCY_KEY_TOO_LONG("Idempotency-Key should not be longer than %s characters"),
+    IDEMPOTENCY_KEY_REUSED("Idempotency-Key was already used for a different request"),
+    IDEMPOTENCY_KEY_IN_PROGRESS("A request with this Idempotency-Key is still in progress. Please try again."),
+    IDEMPOTENCY_KEY_APPLIED("The request with this Idempotency-Key was already applied, its response is not available");
 
     private String message;
 
@@ -0,0 +1,7 @@
+package com.github.service.accountservice.enums;
+
+public enum RateLimitStrategy {
+
+    FIXED_WINDOW,
+    SLIDING_LOG
+}
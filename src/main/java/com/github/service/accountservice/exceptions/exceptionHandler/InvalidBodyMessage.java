@@ -0,0 +1,42 @@
+package com.github.service.accountservice.exceptions.exceptionHandler;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.money.Money;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The message for a request body value that does not bind to its field, "limit should be a number", shared by the
+ * servlet and the reactive handlers.
+ */
+final class InvalidBodyMessage {
+
+    private InvalidBodyMessage() {
+    }
+
+    /**
+     * Null when no value of the body had the wrong format.
+     */
+    static String of(Throwable ex) {
+
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidFormatException) {
+                InvalidFormatException invalid = (InvalidFormatException) cause;
+                List<JsonMappingException.Reference> path = invalid.getPath();
+                String field = path.isEmpty() ? "value" : path.get(path.size() - 1).getFieldName();
+                if (Date.class.isAssignableFrom(invalid.getTargetType())) {
+                    return String.format(ErrorMessage.DATE_FORMAT_MISMATCH.getMessage(), field);
+                }
+                if (Money.class.isAssignableFrom(invalid.getTargetType())) {
+                    return String.format(ErrorMessage.AMOUNT_FORMAT_MISMATCH.getMessage(), field);
+                }
+                if (Number.class.isAssignableFrom(invalid.getTargetType()) || invalid.getTargetType().isPrimitive()) {
+                    return String.format(ErrorMessage.NUMBER_FORMAT_MISMATCH.getMessage(), field);
+                }
+            }
+        }
+        return null;
+    }
+}
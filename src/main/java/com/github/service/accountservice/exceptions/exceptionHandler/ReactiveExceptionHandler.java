@@ -0,0 +1,60 @@
+package com.github.service.accountservice.exceptions.exceptionHandler;
+
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.AccountException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link RestResponseEntityExceptionHandler} for the reactive endpoints, answering with the same error bodies.
+ */
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @ExceptionHandler(value
+            = { AccountException.class })
+    protected ResponseEntity<ErrorDetails> AccountException(
+            AccountException ex, ServerWebExchange exchange) {
+        logger.error(ex.toString());
+        HttpStatus status = HttpStatus.valueOf(ex.getErrorCode());
+        return new ResponseEntity<>(errorDetails(ex.getMessage(), exchange), status);
+    }
+
+    @ExceptionHandler(value
+            = { ServerWebInputException.class })
+    protected ResponseEntity<ErrorDetails> ServerWebInputException(
+            ServerWebInputException ex, ServerWebExchange exchange) {
+        logger.error(ex.toString());
+        String message = InvalidBodyMessage.of(ex);
+        return new ResponseEntity<>(errorDetails((message != null) ? message : ex.getReason(), exchange), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * The database pool and its queue are full.
+     */
+    @ExceptionHandler(value
+            = { RejectedExecutionException.class })
+    protected ResponseEntity<ErrorDetails> RejectedExecutionException(
+            RejectedExecutionException ex, ServerWebExchange exchange) {
+        logger.warn(ErrorMessage.DATABASE_BUSY.getMessage());
+        return ResponseEntity.status(ErrorCode.Service_unavailable.getCode()).header("Retry-After", "1")
+                .body(errorDetails(ErrorMessage.DATABASE_BUSY.getMessage(), exchange));
+    }
+
+    private ErrorDetails errorDetails(String message, ServerWebExchange exchange) {
+        return new ErrorDetails(new Date(), message, "uri=" + exchange.getRequest().getPath().value());
+    }
+}
@@ -1,22 +1,30 @@
 package com.github.service.accountservice.exceptions.exceptionHandler;
 
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.exceptions.RateLimiterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.lang.Nullable;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import java.sql.SQLTransientConnectionException;
 import java.util.Date;
 
 
 @ControllerAdvice
+@Profile("!reactive")
 public class RestResponseEntityExceptionHandler
         extends ResponseEntityExceptionHandler {
 
@@ -34,6 +42,13 @@ public class RestResponseEntityExceptionHandler
                 new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
     }
 
+    @Override
+    protected ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException ex,
+                                                                  HttpHeaders headers, HttpStatus status,
+                                                                  WebRequest request) {
+        return handleExceptionInternal(ex, InvalidBodyMessage.of(ex), headers, status, request);
+    }
+
     @ExceptionHandler(value
             = { AccountException.class })
     protected ResponseEntity<ErrorDetails> AccountException(
@@ -44,6 +59,30 @@ public class RestResponseEntityExceptionHandler
         return new ResponseEntity<>(errorDetails, status);
     }
 
+    @ExceptionHandler(value
+            = { RateLimiterException.class })
+    protected ResponseEntity<ErrorDetails> RateLimiterException(
+            RateLimiterException ex, WebRequest request) {
+        logger.warn(ex.getDetail());
+        HttpStatus status = HttpStatus.valueOf(ex.getCode());
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ex.getDetail(),request.getDescription(false));
+        return new ResponseEntity<>(errorDetails, status);
+    }
+
+    /**
+     * No database connection within the pool's timeout, the request can be retried.
+     */
+    @ExceptionHandler(value
+            = { CannotCreateTransactionException.class })
+    protected ResponseEntity<ErrorDetails> CannotCreateTransactionException(
+            CannotCreateTransactionException ex, WebRequest request) {
+        if (!ex.contains(SQLTransientConnectionException.class)) {
+            throw ex;
+        }
+        logger.warn(ErrorMessage.DATABASE_BUSY.getMessage());
+        ErrorDetails errorDetails = new ErrorDetails(new Date(), ErrorMessage.DATABASE_BUSY.getMessage(),request.getDescription(false));
+        return ResponseEntity.status(ErrorCode.Service_unavailable.getCode()).header("Retry-After", "1").body(errorDetails);
+    }
 
     protected ResponseEntity<Object> handleExceptionInternal(Exception ex, @Nullable Object body, HttpHeaders headers, HttpStatus status, WebRequest request) {
         super.handleExceptionInternal(ex,body,headers,status, request);
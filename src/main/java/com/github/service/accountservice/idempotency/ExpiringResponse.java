@@ -0,0 +1,16 @@
+package com.github.service.accountservice.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+class ExpiringResponse {
+
+    private final IdempotentResponse response;
+    private final long expiresAt;
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
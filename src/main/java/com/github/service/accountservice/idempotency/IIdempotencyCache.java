@@ -0,0 +1,11 @@
+package com.github.service.accountservice.idempotency;
+
+/**
+ * Responses of completed idempotent requests shared by all nodes, in front of the idempotency_key table. A miss
+ * only costs the table lookup, so implementations may lose entries.
+ */
+public interface IIdempotencyCache {
+
+    IdempotentResponse get(String key);
+    void put(String key, IdempotentResponse response, long ttlMillis);
+}
@@ -0,0 +1,107 @@
+package com.github.service.accountservice.idempotency;
+
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.AccountException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The outcome of {@link IdempotencyStore#begin}. The owner runs the request and hands its response over with
+ * {@link #complete}; everybody else gets that response, or the error the request failed with, from
+ * {@link #getResponse()}.
+ */
+@Getter
+public class IdempotencyClaim {
+
+    @Getter(AccessLevel.NONE)
+    private final IdempotencyStore store;
+    private final String id;
+    private final String scope;
+    private final String key;
+    private final String fingerprint;
+    private final long waitMillis;
+    private final boolean owner;
+    private final CompletableFuture<IdempotentResponse> response;
+    @Setter(AccessLevel.PACKAGE)
+    private long recordId;
+
+    IdempotencyClaim(IdempotencyStore store, String id, String scope, String key, String fingerprint, long waitMillis) {
+        this(store, id, scope, key, fingerprint, waitMillis, true, new CompletableFuture<>());
+    }
+
+    private IdempotencyClaim(IdempotencyStore store, String id, String scope, String key, String fingerprint,
+                             long waitMillis, boolean owner, CompletableFuture<IdempotentResponse> response) {
+        this.store = store;
+        this.id = id;
+        this.scope = scope;
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.waitMillis = waitMillis;
+        this.owner = owner;
+        this.response = response;
+    }
+
+    static IdempotencyClaim replay(IdempotentResponse stored, String fingerprint, long waitMillis) throws AccountException {
+
+        checkFingerprint(stored.getFingerprint(), fingerprint);
+        return new IdempotencyClaim(null, null, null, null, fingerprint, waitMillis, false,
+                CompletableFuture.completedFuture(stored));
+    }
+
+    /**
+     * A duplicate of this claim's request, answered with its response once it is there.
+     */
+    IdempotencyClaim follow(String fingerprint) throws AccountException {
+
+        checkFingerprint(this.fingerprint, fingerprint);
+        return new IdempotencyClaim(null, id, scope, key, fingerprint, waitMillis, false, response);
+    }
+
+    public void complete(IdempotentResponse response) {
+        store.complete(this, response);
+    }
+
+    public void fail(Throwable error) {
+        store.fail(this, error);
+    }
+
+    /**
+     * The response to replay, once the request holding the key completed. Rethrows what that request failed with.
+     *
+     * @throws AccountException 409 when it did not complete within {@code idempotency.wait-ms}
+     */
+    public IdempotentResponse await() throws Exception {
+
+        try {
+            return response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw inProgress();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw (Error) ex.getCause();
+        }
+    }
+
+    public static AccountException inProgress() {
+        return new AccountException(ErrorCode.Conflict.getCode(), ErrorMessage.IDEMPOTENCY_KEY_IN_PROGRESS.getMessage());
+    }
+
+    static AccountException applied() {
+        return new AccountException(ErrorCode.Conflict.getCode(), ErrorMessage.IDEMPOTENCY_KEY_APPLIED.getMessage());
+    }
+
+    static void checkFingerprint(String stored, String fingerprint) throws AccountException {
+
+        if (!stored.equals(fingerprint)) {
+            throw new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.IDEMPOTENCY_KEY_REUSED.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.service.accountservice.idempotency;
+
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
+import org.springframework.stereotype.Component;
+import java.util.Date;
+
+/**
+ * Sets applied_time on the key of the request running on this thread, in the transaction that moves the money. The
+ * key then commits together with the money movement or not at all, so a key left pending, e.g. because its node went
+ * down, is only handed to a new request when its money movement never committed. The UPDATE only succeeds for the
+ * first request to apply the key; a request that lost its key to another one after {@code pending-timeout-ms} fails
+ * instead of moving the money a second time.
+ * <p>
+ * The key is bound to the thread by {@link #bind}; the reactive endpoints carry it in the subscriber context under
+ * this class and bind it where they run the services.
+ */
+@Component
+public class IdempotencyMarker {
+
+    private static final ThreadLocal<Long> RUNNING = new ThreadLocal<>();
+
+    private final IdempotencyRecordRepository repository;
+
+    public IdempotencyMarker(IdempotencyRecordRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Binds the idempotency_key row of the claim the current request owns to this thread; null unbinds it.
+     */
+    public static void bind(Long recordId) {
+
+        if (recordId == null) {
+            RUNNING.remove();
+        } else {
+            RUNNING.set(recordId);
+        }
+    }
+
+    /**
+     * The idempotency_key row bound to this thread, or null when the request was sent without a key.
+     */
+    public static Long running() {
+        return RUNNING.get();
+    }
+
+    /**
+     * Marks the row bound to this thread as applied. Has to be called inside the transaction that moves the money.
+     *
+     * @return false when the key was applied by another request, true when it was marked or no key is bound
+     */
+    public boolean markApplied() {
+        return markApplied(running());
+    }
+
+    public boolean markApplied(Long recordId) {
+        return recordId == null || repository.markApplied(recordId, new Date()) == 1;
+    }
+}
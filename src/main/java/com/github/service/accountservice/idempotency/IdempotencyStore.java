@@ -0,0 +1,243 @@
+package com.github.service.accountservice.idempotency;
+
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the responses of requests sent with an Idempotency-Key, so a retried request is answered with the
+ * response of the first one instead of moving the money again. A key is looked up in a bounded LRU of this node,
+ * then in the {@link IIdempotencyCache} shared by all nodes, and finally claimed in the idempotency_key table,
+ * whose unique index lets only one request on any node run for the key. Duplicates arriving on this node while
+ * the first request runs wait for its response instead of going to the database at all.
+ * <p>
+ * Only successful responses are kept; a failed request gives its key back, so it can be retried once the client
+ * fixed the cause. The {@link IdempotencyMarker} applies the key in the transaction that moves the money, and an
+ * applied key is never given back or run again: when its response is lost, e.g. because its node went down right
+ * after the commit, a retry gets 409. A key whose request never applied it is handed to a new request after
+ * {@code pending-timeout-ms}.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+    static final int MAX_BODY_LENGTH = 4000;
+
+    private final IdempotencyRecordRepository repository;
+    private final IIdempotencyCache cache;
+    private final Map<String, ExpiringResponse> recent;
+    private final Map<String, IdempotencyClaim> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMillis;
+    @Value("${idempotency.pending-timeout-ms:60000}")
+    private long pendingTimeoutMillis;
+    @Value("${idempotency.wait-ms:30000}")
+    private long waitMillis;
+    @Value("${idempotency.purge-interval-ms:600000}")
+    private long purgeIntervalMillis;
+
+    private Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, IIdempotencyCache cache,
+                            @Value("${idempotency.local.max-entries:10000}") int maxEntries) {
+
+        this.repository = repository;
+        this.cache = cache;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<String, ExpiringResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExpiringResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::purge, purgeIntervalMillis, purgeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Looks the key up for a request to {@code scope} whose body has {@code fingerprint}. The claim either owns the
+     * key, and the request has to run and then {@link IdempotencyClaim#complete complete} or
+     * {@link IdempotencyClaim#fail fail} it, or it carries the response of the request that ran for the key.
+     *
+     * @throws AccountException 422 when the key was sent with a different body, 409 when the request holding the
+     *                          key runs on another node or was applied without its response being stored
+     */
+    public IdempotencyClaim begin(String scope, String key, String fingerprint) throws AccountException {
+
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new AccountException(ErrorCode.BadRequest.getCode(),
+                    String.format(ErrorMessage.IDEMPOTENCY_KEY_TOO_LONG.getMessage(), MAX_KEY_LENGTH));
+        }
+        String id = scope + ' ' + key;
+
+        IdempotentResponse stored = remembered(id);
+        if (stored != null) {
+            return IdempotencyClaim.replay(stored, fingerprint, waitMillis);
+        }
+
+        IdempotencyClaim claim = new IdempotencyClaim(this, id, scope, key, fingerprint, waitMillis);
+        IdempotencyClaim running = inFlight.putIfAbsent(id, claim);
+        if (running != null) {
+            return running.follow(fingerprint);
+        }
+
+        try {
+            stored = cache.get(id);
+            if (stored == null) {
+                stored = claim(claim);
+            }
+        } catch (AccountException | RuntimeException ex) {
+            inFlight.remove(id, claim);
+            claim.getResponse().completeExceptionally(ex);
+            throw ex;
+        }
+        if (stored == null) {
+            return claim;
+        }
+        remember(id, stored);
+        inFlight.remove(id, claim);
+        claim.getResponse().complete(stored);
+        return IdempotencyClaim.replay(stored, fingerprint, waitMillis);
+    }
+
+    /**
+     * Hex SHA-256 of a request body, to tell a retry from a different request sent with the same key.
+     */
+    public static String fingerprint(byte[] body) {
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Inserts first: a new key, by far the common case, costs a single statement.
+    private IdempotentResponse claim(IdempotencyClaim claim) throws AccountException {
+
+        IdempotencyRecord record;
+        try {
+            record = repository.saveAndFlush(new IdempotencyRecord(claim.getScope(), claim.getKey(), claim.getFingerprint()));
+            claim.setRecordId(record.getId());
+            return null;
+        } catch (DataIntegrityViolationException ex) {
+            record = repository.findByScopeAndRequestKey(claim.getScope(), claim.getKey());
+            if (record == null) {
+                throw ex;
+            }
+        }
+
+        IdempotencyClaim.checkFingerprint(record.getFingerprint(), claim.getFingerprint());
+        if (record.getCompletedTime() != null) {
+            return new IdempotentResponse(record.getResponseStatus(), record.getFingerprint(), record.getResponseBody());
+        }
+        if (record.getAppliedTime() != null) {
+            throw IdempotencyClaim.applied();
+        }
+        long now = System.currentTimeMillis();
+        if (repository.takeOver(record.getId(), new Date(now), new Date(now - pendingTimeoutMillis)) == 1) {
+            logger.warn("Idempotency-Key {} of {} was not completed within {} ms and is taken over",
+                    claim.getKey(), claim.getScope(), pendingTimeoutMillis);
+            claim.setRecordId(record.getId());
+            return null;
+        }
+        throw IdempotencyClaim.inProgress();
+    }
+
+    void complete(IdempotencyClaim claim, IdempotentResponse response) {
+
+        try {
+            if (response.isSuccessful() && response.getBody().length() <= MAX_BODY_LENGTH) {
+                repository.complete(claim.getRecordId(), response.getStatus(), response.getBody(), new Date());
+                cache.put(claim.getId(), response, ttlMillis);
+                remember(claim.getId(), response);
+            } else {
+                repository.release(claim.getRecordId());
+            }
+        } catch (RuntimeException ex) {
+            // The table keeps the key applied without a response, a retry gets 409 instead of running the request again.
+            logger.error("Response for Idempotency-Key {} of {} could not be stored: {}",
+                    claim.getKey(), claim.getScope(), ex.getMessage());
+        } finally {
+            inFlight.remove(claim.getId(), claim);
+            claim.getResponse().complete(response);
+        }
+    }
+
+    void fail(IdempotencyClaim claim, Throwable error) {
+
+        try {
+            repository.release(claim.getRecordId());
+        } catch (RuntimeException ex) {
+            logger.error("Idempotency-Key {} of {} could not be released: {}", claim.getKey(), claim.getScope(), ex.getMessage());
+        } finally {
+            inFlight.remove(claim.getId(), claim);
+            claim.getResponse().completeExceptionally(error);
+        }
+    }
+
+    void purge() {
+        try {
+            int purged = repository.deleteCreatedBefore(new Date(System.currentTimeMillis() - ttlMillis));
+            logger.debug("{} expired idempotency keys purged", purged);
+        } catch (Exception ex) {
+            logger.warn("Idempotency key purge failed: {}", ex.getMessage());
+        }
+    }
+
+    private IdempotentResponse remembered(String id) {
+
+        ExpiringResponse response = recent.get(id);
+        if (response == null) {
+            return null;
+        }
+        if (response.isExpired(System.currentTimeMillis())) {
+            recent.remove(id);
+            return null;
+        }
+        return response.getResponse();
+    }
+
+    private void remember(String id, IdempotentResponse response) {
+        recent.put(id, new ExpiringResponse(response, System.currentTimeMillis() + ttlMillis));
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.service.accountservice.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The response a request with an Idempotency-Key was answered with, as the JSON that was sent, and the fingerprint
+ * of the request body it answered.
+ */
+@Getter
+@AllArgsConstructor
+public class IdempotentResponse {
+
+    private final int status;
+    private final String fingerprint;
+    private final String body;
+
+    public boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+}
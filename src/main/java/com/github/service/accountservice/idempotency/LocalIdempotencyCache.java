@@ -0,0 +1,45 @@
+package com.github.service.accountservice.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the Redis cache, for a single node and for tests. Expired entries are dropped when they
+ * are looked up and, every {@value #SWEEP_INTERVAL} puts, from the whole map.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.cache", havingValue = "local", matchIfMissing = true)
+public class LocalIdempotencyCache implements IIdempotencyCache {
+
+    static final int SWEEP_INTERVAL = 1024;
+
+    private final Map<String, ExpiringResponse> responses = new ConcurrentHashMap<>();
+    private final AtomicInteger puts = new AtomicInteger();
+
+    @Override
+    public IdempotentResponse get(String key) {
+
+        ExpiringResponse response = responses.get(key);
+        if (response == null) {
+            return null;
+        }
+        if (response.isExpired(System.currentTimeMillis())) {
+            responses.remove(key, response);
+            return null;
+        }
+        return response.getResponse();
+    }
+
+    @Override
+    public void put(String key, IdempotentResponse response, long ttlMillis) {
+
+        long now = System.currentTimeMillis();
+        responses.put(key, new ExpiringResponse(response, now + ttlMillis));
+        if (puts.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            responses.values().removeIf(entry -> entry.isExpired(now));
+        }
+    }
+}
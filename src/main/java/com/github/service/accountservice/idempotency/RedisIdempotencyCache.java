@@ -0,0 +1,56 @@
+package com.github.service.accountservice.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the responses in Redis as "status:fingerprint:body" under {@code idem:<key>}, expiring with the key. Redis
+ * only saves the table lookup, so an outage is logged and answered from the table.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.cache", havingValue = "redis")
+public class RedisIdempotencyCache implements IIdempotencyCache {
+
+    private final StringRedisTemplate redisTemplate;
+    private Logger logger = LoggerFactory.getLogger(RedisIdempotencyCache.class);
+
+    public RedisIdempotencyCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public IdempotentResponse get(String key) {
+
+        String value;
+        try {
+            value = redisTemplate.opsForValue().get("idem:" + key);
+        } catch (DataAccessException ex) {
+            logger.warn("Idempotent response could not be read: {}", ex.getMessage());
+            return null;
+        }
+        if (value == null) {
+            return null;
+        }
+        int status = value.indexOf(':');
+        int fingerprint = value.indexOf(':', status + 1);
+        return new IdempotentResponse(Integer.parseInt(value.substring(0, status)),
+                value.substring(status + 1, fingerprint), value.substring(fingerprint + 1));
+    }
+
+    @Override
+    public void put(String key, IdempotentResponse response, long ttlMillis) {
+
+        try {
+            redisTemplate.opsForValue().set("idem:" + key,
+                    response.getStatus() + ":" + response.getFingerprint() + ":" + response.getBody(),
+                    ttlMillis, TimeUnit.MILLISECONDS);
+        } catch (DataAccessException ex) {
+            logger.warn("Idempotent response could not be written: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.Date;
+
+/**
+ * Inserts the ledger row in the transaction of the balance change.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseLedger implements ILedger {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Override
+    public void record(Transaction transaction) {
+        transactionRepository.save(transaction);
+    }
+
+    /**
+     * The row commits with its transaction, there is nothing to wait for.
+     */
+    @Override
+    public Date pendingSince() {
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.entities.Transaction;
+import java.util.Date;
+
+public interface ILedger {
+
+    /**
+     * Records the ledger row of a balance change made in the current transaction. The row gets its id right away,
+     * but it is only written if the transaction commits.
+     */
+    void record(Transaction transaction);
+
+    /**
+     * The created time of the oldest row whose transaction ended but which is not in account_transaction yet, null
+     * when there is none. Readers that walk the ledger in created time order must not pass it.
+     */
+    Date pendingSince();
+}
@@ -0,0 +1,259 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.LedgerQuarantine;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.LedgerQuarantineRepository;
+import com.github.service.accountservice.repository.ProductRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind ledger. The row gets its id when recorded; just before the transaction commits it is appended
+ * to the local {@link LedgerJournal} and forced to disk together with the entries of the other committing
+ * transactions, and a background drainer inserts the settled entries into account_transaction in JDBC batches.
+ * Once the transaction completed the entry is marked committed, or cancelled in place after a rollback.
+ * <p>
+ * An entry without either mark is in doubt: its transaction ended with an unknown outcome, or the process died
+ * between the journal write and the database commit, or before the mark was written. Its balance change may never
+ * have happened, so the drainer moves it into ledger_quarantine instead of the ledger. On startup the entries after
+ * the last checkpoint are replayed this way before the application serves requests, skipping the ones the database
+ * already has.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.mode", havingValue = "journal")
+public class JournalLedger implements ILedger {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTypeRegistry transactionTypeRegistry;
+    private final AccountRepository accountRepository;
+    private final ProductRepository productRepository;
+    private final LedgerQuarantineRepository ledgerQuarantineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ledger.journal.dir:ledger-journal}")
+    private String directory;
+
+    @Value("${ledger.journal.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${ledger.drain.interval-ms:100}")
+    private long intervalMillis;
+
+    @Value("${ledger.drain.batch-size:5000}")
+    private int batchSize;
+
+    private LedgerJournal journal;
+    private long recoveredIndex;
+
+    private Logger logger = LoggerFactory.getLogger(JournalLedger.class);
+
+    public JournalLedger(TransactionRepository transactionRepository, TransactionTypeRegistry transactionTypeRegistry,
+                         AccountRepository accountRepository, ProductRepository productRepository,
+                         LedgerQuarantineRepository ledgerQuarantineRepository, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTypeRegistry = transactionTypeRegistry;
+        this.accountRepository = accountRepository;
+        this.productRepository = productRepository;
+        this.ledgerQuarantineRepository = ledgerQuarantineRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+
+        journal = new LedgerJournal(Paths.get(directory), segmentBytes);
+        recoveredIndex = journal.writeIndex();
+        if (recoveredIndex > journal.checkpoint()) {
+            logger.info("Replaying {} ledger journal entries", recoveredIndex - journal.checkpoint());
+            while (drain() > 0) {
+                // replay everything before taking new entries
+            }
+        }
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+
+        scheduler.shutdown();
+        scheduler.awaitTermination(intervalMillis * 10, TimeUnit.MILLISECONDS);
+        while (drain() > 0) {
+            // write out whatever settled since the last tick
+        }
+        journal.close();
+    }
+
+    /**
+     * Must be called inside a transaction.
+     */
+    @Override
+    public void record(Transaction transaction) {
+
+        transactionRepository.assignIds(Collections.singletonList(transaction));
+        TransactionSynchronizationManager.registerSynchronization(new JournalSynchronization(LedgerEntry.of(transaction)));
+    }
+
+    /**
+     * The oldest created time among the settled entries of the next batch to drain. Entries further back in the
+     * journal were appended later, so they were created later but for the length of their transaction.
+     */
+    @Override
+    public synchronized Date pendingSince() {
+
+        long from = journal.checkpoint();
+        long to = Math.min(journal.settledIndex(), from + batchSize);
+        if (from >= to) {
+            return null;
+        }
+        try {
+            return journal.read(from, to).stream().map(LedgerEntry::getCreatedTime).min(Date::compareTo).orElse(null);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Inserts the committed entries of the next settled batch, quarantines the ones in doubt and moves the
+     * checkpoint past them.
+     *
+     * @return how many journal entries were consumed
+     */
+    synchronized int drain() throws IOException {
+
+        long from = journal.checkpoint();
+        long to = Math.min(journal.settledIndex(), from + batchSize);
+        if (from >= to) {
+            return 0;
+        }
+
+        List<LedgerEntry> entries = journal.read(from, to);
+        if (!entries.isEmpty()) {
+            transactionTemplate.execute(status -> {
+                // Replayed entries may have been drained before the crash, the ones in doubt are checked anyway.
+                List<LedgerEntry> checked = (from < recoveredIndex) ? entries
+                        : entries.stream().filter(entry -> !entry.isCommitted()).collect(Collectors.toList());
+                Set<Long> existing = checked.isEmpty() ? Collections.emptySet() : new HashSet<>(transactionRepository.findExistingIds(
+                        checked.stream().map(LedgerEntry::getId).collect(Collectors.toList())));
+
+                List<LedgerEntry> committed = new ArrayList<>(entries.size());
+                List<LedgerQuarantine> inDoubt = new ArrayList<>();
+                for (LedgerEntry entry : entries) {
+                    if (existing.contains(entry.getId())) {
+                        continue;
+                    }
+                    if (entry.isCommitted()) {
+                        committed.add(entry);
+                    } else {
+                        inDoubt.add(new LedgerQuarantine(entry.getId(), entry.getAccountId(), entry.getTypeId(),
+                                entry.getProductId(), entry.getAmount(), entry.getCreatedTime()));
+                    }
+                }
+                transactionRepository.insertAll(toTransactions(committed));
+                if (!inDoubt.isEmpty()) {
+                    logger.warn("{} ledger journal entries without a confirmed commit moved to ledger_quarantine: {}", inDoubt.size(),
+                            inDoubt.stream().map(LedgerQuarantine::getId).collect(Collectors.toList()));
+                    ledgerQuarantineRepository.saveAll(inDoubt);
+                }
+                return null;
+            });
+        }
+        journal.checkpoint(to);
+        return (int) (to - from);
+    }
+
+    private void drainQuietly() {
+        try {
+            while (drain() >= batchSize) {
+                // keep going while the backlog fills whole batches
+            }
+        } catch (Exception ex) {
+            logger.warn("Ledger journal could not be drained: {}", ex.getMessage());
+        }
+    }
+
+    private List<Transaction> toTransactions(List<LedgerEntry> entries) {
+
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            Transaction transaction = new Transaction(transactionTypeRegistry.reference(entry.getTypeId()), entry.getAmount(),
+                    accountRepository.getOne(entry.getAccountId()),
+                    (entry.getProductId() == null) ? null : productRepository.getOne(entry.getProductId()));
+            transaction.setId(entry.getId());
+            transaction.setCreatedTime(entry.getCreatedTime());
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private class JournalSynchronization extends TransactionSynchronizationAdapter {
+
+        private final LedgerEntry entry;
+        private long index = -1;
+
+        JournalSynchronization(LedgerEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                index = journal.append(entry);
+                journal.awaitDurable(index);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+
+            if (index < 0) {
+                return;
+            }
+            try {
+                if (status == STATUS_COMMITTED) {
+                    journal.commit(index);
+                } else if (status == STATUS_ROLLED_BACK) {
+                    journal.cancel(index);
+                } else {
+                    // E.g. a commit that failed in JPA; nobody knows whether the database kept the balance change.
+                    logger.warn("Transaction of ledger journal entry {} ended with an unknown outcome, the entry stays in doubt", index);
+                }
+            } catch (IOException ex) {
+                logger.error("Ledger journal entry {} could not be marked, it stays in doubt", index, ex);
+            } finally {
+                journal.settle(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import java.util.Date;
+
+/**
+ * A ledger row as the journal stores it: the ids of its references instead of the entities. {@code committed} tells
+ * whether an entry read back from the journal had its transaction's commit recorded.
+ */
+@Getter
+public class LedgerEntry {
+
+    private final long id;
+    private final int typeId;
+    private final int accountId;
+    private final Integer productId;
+    private final Money amount;
+    private final Date createdTime;
+    private final boolean committed;
+
+    public LedgerEntry(long id, int typeId, int accountId, Integer productId, Money amount, Date createdTime) {
+        this(id, typeId, accountId, productId, amount, createdTime, false);
+    }
+
+    public LedgerEntry(long id, int typeId, int accountId, Integer productId, Money amount, Date createdTime, boolean committed) {
+        this.id = id;
+        this.typeId = typeId;
+        this.accountId = accountId;
+        this.productId = productId;
+        this.amount = amount;
+        this.createdTime = createdTime;
+        this.committed = committed;
+    }
+
+    public static LedgerEntry of(Transaction transaction) {
+
+        return new LedgerEntry(transaction.getId(), transaction.getType().getId(), transaction.getAccount().getId(),
+                (transaction.getProduct() == null) ? null : transaction.getProduct().getId(),
+                transaction.getAmount(), transaction.getCreatedTime());
+    }
+}
@@ -0,0 +1,322 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of ledger entries in memory-mapped segment files. Entries are addressed by their index
+ * in the journal and stored as fixed-size records:
+ * <pre>
+ *   int crc32 of the payload | byte state | long id | int type id | int account id | int product id (0 = none)
+ *   | long unscaled amount | int scale | long created time
+ * </pre>
+ * Appending only copies the record into the mapping; {@link #awaitDurable(long)} forces it to disk. Callers
+ * waiting at the same time share one force, so the fsync cost is paid once per group instead of once per entry.
+ * A record whose checksum does not match ends the journal, which is how a write torn by a crash is dropped; anywhere
+ * before the end it is corruption, and {@link #read} refuses to go past it.
+ * <p>
+ * A written record is in doubt until it is marked {@link #commit(long) committed} or {@link #cancel(long) cancelled}.
+ * Appended entries stay pending until {@link #settle(long) settled}; {@link #checkpoint(long)} records how far
+ * the entries have been written elsewhere and deletes the segments below it.
+ */
+public class LedgerJournal implements Closeable {
+
+    static final int RECORD_SIZE = 45;
+
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - 5;
+    private static final byte EMPTY = 0;
+    private static final byte WRITTEN = 1;
+    private static final byte CANCELLED = 2;
+    private static final byte COMMITTED = 3;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int segmentBytes;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> pending = new TreeSet<>();
+    private final Object forceLock = new Object();
+
+    private long writeIndex;
+    private volatile long durableIndex;
+    private volatile long checkpoint;
+
+    private Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+
+    public LedgerJournal(Path directory, int segmentBytes) throws IOException {
+
+        if (segmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("A journal segment should hold at least one record");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = segmentBytes / RECORD_SIZE;
+        this.segmentBytes = recordsPerSegment * RECORD_SIZE;
+        this.checkpoint = readCheckpoint();
+        this.writeIndex = recover();
+        this.durableIndex = writeIndex;
+    }
+
+    /**
+     * Copies the entry into the journal and returns its index. The entry stays pending until settled.
+     */
+    public synchronized long append(LedgerEntry entry) throws IOException {
+
+        long index = writeIndex;
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_SIZE);
+        payload.putLong(entry.getId())
+                .putInt(entry.getTypeId())
+                .putInt(entry.getAccountId())
+                .putInt((entry.getProductId() == null) ? 0 : entry.getProductId())
+                .putLong(entry.getAmount().getCents())
+                .putInt(Money.SCALE)
+                .putLong(entry.getCreatedTime().getTime());
+
+        MappedByteBuffer segment = segment(index / recordsPerSegment);
+        int offset = offset(index);
+        for (int i = 0; i < PAYLOAD_SIZE; i++) {
+            segment.put(offset + 5 + i, payload.get(i));
+        }
+        segment.putInt(offset, checksum(payload.array()));
+        segment.put(offset + 4, WRITTEN);
+
+        pending.add(index);
+        writeIndex = index + 1;
+        return index;
+    }
+
+    /**
+     * Returns once the entry at {@code index} is on disk. The thread that gets the lock forces everything
+     * appended so far, so the ones queued behind it usually find their entry already durable.
+     */
+    public void awaitDurable(long index) throws IOException {
+
+        if (durableIndex > index) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durableIndex > index) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = writeIndex;
+            }
+            for (long number = durableIndex / recordsPerSegment; number <= (target - 1) / recordsPerSegment; number++) {
+                segment(number).force();
+            }
+            durableIndex = target;
+        }
+    }
+
+    /**
+     * Marks a pending entry so that it is skipped on drain and replay.
+     */
+    public void cancel(long index) throws IOException {
+        segment(index / recordsPerSegment).put(offset(index) + 4, CANCELLED);
+    }
+
+    /**
+     * Marks a pending entry whose transaction committed. The mark is not forced; it reaches the disk with the next
+     * force or when the operating system writes the page back.
+     */
+    public void commit(long index) throws IOException {
+        segment(index / recordsPerSegment).put(offset(index) + 4, COMMITTED);
+    }
+
+    public synchronized void settle(long index) {
+        pending.remove(index);
+    }
+
+    /**
+     * The end of the durable entries that are not pending any more, up to which the journal can be drained.
+     */
+    public synchronized long settledIndex() {
+        return Math.min(pending.isEmpty() ? writeIndex : pending.first(), durableIndex);
+    }
+
+    public synchronized long writeIndex() {
+        return writeIndex;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * The entries in [from, to) that were not cancelled, committed or still in doubt.
+     *
+     * @throws IOException when a record does not match its checksum, so nothing behind it is drained until the
+     *                     segment is repaired
+     */
+    public List<LedgerEntry> read(long from, long to) throws IOException {
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        for (long index = from; index < to; index++) {
+            MappedByteBuffer segment = segment(index / recordsPerSegment);
+            int offset = offset(index);
+            byte state = segment.get(offset + 4);
+            if (state != WRITTEN && state != COMMITTED) {
+                continue;
+            }
+            for (int i = 0; i < PAYLOAD_SIZE; i++) {
+                payload[i] = segment.get(offset + 5 + i);
+            }
+            if (segment.getInt(offset) != checksum(payload)) {
+                throw new IOException(String.format("Ledger journal record %d in %s does not match its checksum",
+                        index, segmentPath(index / recordsPerSegment)));
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            long id = buffer.getLong();
+            int typeId = buffer.getInt();
+            int accountId = buffer.getInt();
+            int productId = buffer.getInt();
+            // Amounts are written in cents; records from before Money kept the scale the request came with.
+            long unscaled = buffer.getLong();
+            int scale = buffer.getInt();
+            Money amount = (scale == Money.SCALE) ? Money.ofCents(unscaled) : Money.of(BigDecimal.valueOf(unscaled, scale));
+            Date createdTime = new Date(buffer.getLong());
+            entries.add(new LedgerEntry(id, typeId, accountId, (productId == 0) ? null : productId, amount, createdTime,
+                    state == COMMITTED));
+        }
+        return entries;
+    }
+
+    /**
+     * Records that the entries below {@code index} are written elsewhere and deletes the segments they filled.
+     */
+    public void checkpoint(long index) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, index);
+        try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(buffer, 0);
+            channel.force(true);
+        }
+        checkpoint = index;
+
+        for (Long number : new ArrayList<>(segments.keySet())) {
+            if ((number + 1) * recordsPerSegment <= index) {
+                segments.remove(number);
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (MappedByteBuffer segment : segments.values()) {
+            segment.force();
+        }
+        segments.clear();
+    }
+
+    private long readCheckpoint() throws IOException {
+
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(path)).getLong();
+    }
+
+    /**
+     * Finds the end of the journal in its last segment and clears whatever follows it, so that records left
+     * behind a torn one cannot come back after the next crash.
+     */
+    private long recover() throws IOException {
+
+        long last = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long number = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                if ((number + 1) * recordsPerSegment <= checkpoint) {
+                    Files.delete(file);
+                } else {
+                    last = Math.max(last, number);
+                }
+            }
+        }
+        if (last < 0) {
+            return checkpoint;
+        }
+
+        MappedByteBuffer segment = segment(last);
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        int records = 0;
+        while (records < recordsPerSegment) {
+            int offset = records * RECORD_SIZE;
+            if (segment.get(offset + 4) == EMPTY) {
+                break;
+            }
+            for (int i = 0; i < PAYLOAD_SIZE; i++) {
+                payload[i] = segment.get(offset + 5 + i);
+            }
+            if (segment.getInt(offset) != checksum(payload)) {
+                logger.warn("Ledger journal ends with a torn record at index {}", last * recordsPerSegment + records);
+                break;
+            }
+            records++;
+        }
+        for (int offset = records * RECORD_SIZE; offset < segmentBytes; offset++) {
+            segment.put(offset, EMPTY);
+        }
+        segment.force();
+        return Math.max(last * recordsPerSegment + records, checkpoint);
+    }
+
+    private MappedByteBuffer segment(long number) throws IOException {
+
+        MappedByteBuffer segment = segments.get(number);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (segments) {
+            segment = segments.get(number);
+            if (segment == null) {
+                try (FileChannel channel = FileChannel.open(segmentPath(number),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+                }
+                segments.put(number, segment);
+            }
+            return segment;
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private int offset(long index) {
+        return (int) (index % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.service.contracts.IReconciliationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the reconciliation in the background, page after page until it caught up, once per tick.
+ */
+@Component
+@ConditionalOnProperty(name = "reconciliation.enabled", havingValue = "true")
+public class LedgerReconciler {
+
+    private final IReconciliationService reconciliationService;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${reconciliation.interval-ms:60000}")
+    private long intervalMillis;
+
+    private Logger logger = LoggerFactory.getLogger(LedgerReconciler.class);
+
+    public LedgerReconciler(IReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::reconcile, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void reconcile() {
+        try {
+            while (reconciliationService.reconcile() > 0) {
+                // next page
+            }
+        } catch (Exception ex) {
+            logger.warn("Ledger reconciliation failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.service.accountservice.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * An amount of money as a count of cents, the scale of the NUMERIC(15,2) columns it is stored in. Balances, prices
+ * and ledger amounts are added, subtracted and compared as longs instead of BigDecimals, so moving money allocates
+ * at most the one instance holding the result. Arithmetic that leaves the range of a long throws
+ * {@link ArithmeticException} instead of wrapping around.
+ * <p>
+ * Stored through {@link MoneyConverter} and written to JSON as a plain decimal number, "100.50", the format the
+ * BigDecimal fields had.
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long serialVersionUID = 1L;
+    private static final int CENTS = 100;
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return (cents == 0) ? ZERO : new Money(cents);
+    }
+
+    public static Money of(long units) {
+        return ofCents(Math.multiplyExact(units, CENTS));
+    }
+
+    /**
+     * @throws ArithmeticException when the amount has more than two decimals or does not fit
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(SCALE).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Reads "100", "100.5", "-0.25" and the like without going through BigDecimal; anything else, e.g. an
+     * exponent, is left to {@link #of(BigDecimal)}.
+     *
+     * @throws NumberFormatException when the text is not a number
+     * @throws ArithmeticException   when the amount has more than two decimals or does not fit
+     */
+    public static Money parse(String text) {
+
+        int length = text.length();
+        int start = (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) ? 1 : 0;
+        long cents = 0;
+        int decimals = -1;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < SCALE && i - start < 18) {
+                cents = cents * 10 + (c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return of(new BigDecimal(text));
+            }
+        }
+        if (length == start || (decimals >= 0 && length == start + 1)) {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+        for (int i = Math.max(decimals, 0); i < SCALE; i++) {
+            cents = Math.multiplyExact(cents, 10);
+        }
+        return ofCents((text.charAt(0) == '-') ? -cents : cents);
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return (other.cents == 0) ? this : ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return (other.cents == 0) ? this : ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long factor) {
+        return ofCents(Math.multiplyExact(cents, factor));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (this == other) || (other instanceof Money && ((Money) other).cents == cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Always two decimals: "100.50", "-0.05".
+     */
+    @Override
+    public String toString() {
+
+        long units = Math.abs(cents / CENTS);
+        int fraction = (int) Math.abs(cents % CENTS);
+        StringBuilder text = new StringBuilder(24);
+        if (cents < 0) {
+            text.append('-');
+        }
+        return text.append(units).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10))
+                .toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.service.accountservice.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import java.io.IOException;
+
+/**
+ * Reads {@link Money} from a JSON number or a string holding one, 100.5 as well as "100.50". The text is parsed as
+ * it is, a number never passes through a double. A value with more than two decimals is rejected rather than rounded.
+ */
+public class MoneyDeserializer extends StdScalarDeserializer<Money> {
+
+    public MoneyDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+
+        JsonToken token = parser.getCurrentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+        String text = parser.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Money.parse(text);
+        } catch (NumberFormatException | ArithmeticException ex) {
+            return (Money) context.handleWeirdStringValue(Money.class, text, ex.getMessage());
+        }
+    }
+}
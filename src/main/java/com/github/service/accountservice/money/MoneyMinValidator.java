@@ -0,0 +1,24 @@
+package com.github.service.accountservice.money;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.constraints.Min;
+
+/**
+ * {@link Min} for {@link Money} attributes, registered with Hibernate Validator through
+ * META-INF/services/javax.validation.ConstraintValidator. The bound is in whole units, as it is for a BigDecimal.
+ */
+public class MoneyMinValidator implements ConstraintValidator<Min, Money> {
+
+    private Money min;
+
+    @Override
+    public void initialize(Min constraint) {
+        this.min = Money.of(constraint.value());
+    }
+
+    @Override
+    public boolean isValid(Money money, ConstraintValidatorContext context) {
+        return money == null || money.compareTo(min) >= 0;
+    }
+}
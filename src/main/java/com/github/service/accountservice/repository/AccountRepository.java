@@ -2,9 +2,18 @@ package com.github.service.accountservice.repository;
 
 import com.github.service.accountservice.exceptions.AccountException;
 import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.models.AccountDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import javax.persistence.LockModeType;
 import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -12,4 +21,45 @@ import java.util.List;
 public interface AccountRepository extends JpaRepository<Account, Integer> {
 
     List<Account> findAllByOrderByIdAsc();
+
+    /**
+     * The account with its balance: the row's own balance plus what its balance buckets hold, read in one statement.
+     */
+    @Query("SELECT new com.github.service.accountservice.service.models.AccountDto(a.id, " +
+            "a.balance + COALESCE((SELECT SUM(b.balance) FROM BalanceBucket b WHERE b.accountId = a.id), 0)) " +
+            "FROM Account a WHERE a.id = :id")
+    AccountDto findBalanceById(@Param("id") Integer id);
+
+    /**
+     * Adds {@code amount} to the balance in the database, so concurrent deposits never overwrite each other.
+     * The version is bumped as well, so a concurrent load-and-save of the same account fails its version check.
+     * Returns the number of updated rows, 0 when the account does not exist.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.updatedTime = :updatedTime, a.version = a.version + 1 WHERE a.id = :id")
+    int depositAmount(@Param("id") Integer id, @Param("amount") Money amount, @Param("updatedTime") Date updatedTime);
+
+    /**
+     * Subtracts {@code amount} only if the balance covers it; the check and the write are one statement.
+     * Returns the number of updated rows, 0 when the account does not exist or the balance is not enough.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.updatedTime = :updatedTime, a.version = a.version + 1 WHERE a.id = :id AND a.balance >= :amount")
+    int withdrawAmount(@Param("id") Integer id, @Param("amount") Money amount, @Param("updatedTime") Date updatedTime);
+
+    /**
+     * Loads the accounts with SELECT ... FOR UPDATE in id order, so two batches over the same accounts take
+     * their locks in the same order and cannot deadlock each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id ASC")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Applies the net change of a batch, positive or negative, as long as the balance stays non-negative.
+     * Returns the number of updated rows.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :change, a.updatedTime = :updatedTime, a.version = a.version + 1 WHERE a.id = :id AND a.balance + :change >= 0BD")
+    int changeBalance(@Param("id") Integer id, @Param("change") Money change, @Param("updatedTime") Date updatedTime);
 }
@@ -0,0 +1,56 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.entities.BalanceBucket;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.models.AccountDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+@Transactional(rollbackOn = AccountException.class)
+public interface BalanceBucketRepository extends JpaRepository<BalanceBucket, Long> {
+
+    boolean existsByAccountId(Integer accountId);
+
+    /**
+     * Adds {@code amount} to one bucket of the account. Returns the number of updated rows, 0 when the account
+     * has no bucket in that slot yet.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BalanceBucket b SET b.balance = b.balance + :amount, b.updatedTime = :updatedTime " +
+            "WHERE b.accountId = :accountId AND b.slot = :slot")
+    int depositAmount(@Param("accountId") Integer accountId, @Param("slot") int slot, @Param("amount") Money amount,
+                      @Param("updatedTime") Date updatedTime);
+
+    /**
+     * Locks the buckets of the accounts in (account, slot) order. Callers lock the account rows first, the same
+     * order every writer of more than one row follows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BalanceBucket b WHERE b.accountId IN :accountIds ORDER BY b.accountId ASC, b.slot ASC")
+    List<BalanceBucket> findAllByAccountIdForUpdate(@Param("accountIds") Collection<Integer> accountIds);
+
+    /**
+     * Empties the buckets of the accounts once their balance was moved to the account rows.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BalanceBucket b SET b.balance = 0BD, b.updatedTime = :updatedTime WHERE b.accountId IN :accountIds AND b.balance <> 0BD")
+    int empty(@Param("accountIds") Collection<Integer> accountIds, @Param("updatedTime") Date updatedTime);
+
+    /**
+     * What the buckets of each account hold together; accounts without buckets are left out.
+     */
+    @Query("SELECT new com.github.service.accountservice.service.models.AccountDto(b.accountId, SUM(b.balance)) " +
+            "FROM BalanceBucket b WHERE b.accountId IN :accountIds GROUP BY b.accountId")
+    List<AccountDto> sumByAccountIds(@Param("accountIds") Collection<Integer> accountIds);
+}
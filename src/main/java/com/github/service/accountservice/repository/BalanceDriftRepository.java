@@ -0,0 +1,15 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.entities.BalanceDrift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import javax.transaction.Transactional;
+import java.util.List;
+
+@Repository
+@Transactional(rollbackOn = AccountException.class)
+public interface BalanceDriftRepository extends JpaRepository<BalanceDrift, Long> {
+
+    List<BalanceDrift> findByAccountId(Integer accountId);
+}
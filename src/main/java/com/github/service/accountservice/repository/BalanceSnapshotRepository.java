@@ -0,0 +1,30 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.entities.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+@Transactional(rollbackOn = AccountException.class)
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * The newest snapshot of each account. Snapshots are only written in ledger order, so the newest one is
+     * the one with the highest id.
+     */
+    @Query("SELECT s FROM BalanceSnapshot s WHERE s.id IN " +
+            "(SELECT MAX(l.id) FROM BalanceSnapshot l WHERE l.accountId IN :accountIds GROUP BY l.accountId)")
+    List<BalanceSnapshot> findLatestByAccountIds(@Param("accountIds") Collection<Integer> accountIds);
+
+    /**
+     * The last snapshot taken at or before {@code ledgerTime}, served from the (account_id, ledger_time, ledger_id) index.
+     */
+    BalanceSnapshot findFirstByAccountIdAndLedgerTimeLessThanEqualOrderByLedgerTimeDescLedgerIdDesc(Integer accountId, Date ledgerTime);
+}
@@ -0,0 +1,77 @@
+package com.github.service.accountservice.repository;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Id generator backed by the id_generator table. A block of ids is reserved with one UPDATE in a transaction of
+ * its own, so the row lock is released right away instead of at the end of the caller's transaction, and the ids
+ * of the block are then handed out from memory. Unlike IDENTITY, the id is known before the INSERT, which is what
+ * lets Hibernate batch the inserts.
+ *
+ * Parameters: "sequence_name", the row of id_generator, and "block_size", the number of ids per reservation.
+ * Ids are unique but not gapless: a restart drops whatever was left of the current block.
+ */
+public class BlockIdGenerator implements IdentifierGenerator, Configurable {
+
+    public static final String SEQUENCE_NAME = "sequence_name";
+    public static final String BLOCK_SIZE = "block_size";
+
+    private static final String RESERVE = "UPDATE id_generator SET next_id = next_id + ? WHERE name = ?";
+    private static final String READ = "SELECT next_id FROM id_generator WHERE name = ?";
+
+    private String sequenceName;
+    private IdBlockAllocator allocator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+
+        sequenceName = ConfigurationHelper.getString(SEQUENCE_NAME, params);
+        if (sequenceName == null) {
+            throw new MappingException(SEQUENCE_NAME + " is required for " + BlockIdGenerator.class.getSimpleName());
+        }
+        allocator = new IdBlockAllocator(ConfigurationHelper.getInt(BLOCK_SIZE, params, 100));
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        return allocator.next(size -> reserve(session, size));
+    }
+
+    private long reserve(SharedSessionContractImplementor session, int size) {
+
+        return session.getTransactionCoordinator().createIsolationDelegate().delegateWork(new AbstractReturningWork<Long>() {
+            @Override
+            public Long execute(Connection connection) throws SQLException {
+
+                try (PreparedStatement update = connection.prepareStatement(RESERVE)) {
+                    update.setInt(1, size);
+                    update.setString(2, sequenceName);
+                    if (update.executeUpdate() != 1) {
+                        throw new HibernateException("id_generator has no row named " + sequenceName);
+                    }
+                }
+                try (PreparedStatement read = connection.prepareStatement(READ)) {
+                    read.setString(1, sequenceName);
+                    try (ResultSet resultSet = read.executeQuery()) {
+                        resultSet.next();
+                        return resultSet.getLong(1) - size;
+                    }
+                }
+            }
+        }, true);
+    }
+}
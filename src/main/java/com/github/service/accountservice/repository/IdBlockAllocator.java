@@ -0,0 +1,63 @@
+package com.github.service.accountservice.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out ids from blocks reserved in advance. Taking an id is a single atomic increment; only the thread
+ * that finds the current block used up reserves the next one, once every {@code blockSize} ids.
+ */
+public class IdBlockAllocator {
+
+    @FunctionalInterface
+    public interface BlockSource {
+
+        /**
+         * Reserves {@code size} consecutive ids and returns the first one.
+         */
+        long reserve(int size);
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+
+    public IdBlockAllocator(int blockSize) {
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize should be greater than zero");
+        }
+        this.blockSize = blockSize;
+    }
+
+    public long next(BlockSource source) {
+
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block, source);
+        }
+    }
+
+    private synchronized void refill(Block exhausted, BlockSource source) {
+
+        // Another thread may have refilled while this one waited for the lock.
+        if (current.get() == exhausted) {
+            long first = source.reserve(blockSize);
+            current.set(new Block(first, first + blockSize));
+        }
+    }
+}
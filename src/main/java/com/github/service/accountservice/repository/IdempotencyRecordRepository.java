@@ -0,0 +1,51 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import javax.transaction.Transactional;
+import java.util.Date;
+
+@Repository
+@Transactional(rollbackOn = AccountException.class)
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    IdempotencyRecord findByScopeAndRequestKey(String scope, String requestKey);
+
+    /**
+     * Hands a key whose request never moved the money and never completed, e.g. because its node went down before,
+     * to a new request. Returns 0 when the key was applied, completed or taken over by another request in the meantime.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdTime = :now " +
+            "WHERE r.id = :id AND r.appliedTime IS NULL AND r.completedTime IS NULL AND r.createdTime < :staleBefore")
+    int takeOver(@Param("id") long id, @Param("now") Date now, @Param("staleBefore") Date staleBefore);
+
+    /**
+     * Joins the caller's transaction, so the key is applied together with the money movement. Returns 0 when
+     * another request applied the key first.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.appliedTime = :now WHERE r.id = :id AND r.appliedTime IS NULL")
+    int markApplied(@Param("id") long id, @Param("now") Date now);
+
+    /**
+     * Gives a key back for a retry, unless its money movement committed.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.appliedTime IS NULL")
+    int release(@Param("id") long id);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseBody = :body, r.completedTime = :now " +
+            "WHERE r.id = :id")
+    int complete(@Param("id") long id, @Param("status") int status, @Param("body") String body, @Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdTime < :before")
+    int deleteCreatedBefore(@Param("before") Date before);
+}
@@ -0,0 +1,23 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.entities.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+
+@Repository
+@Transactional(rollbackOn = AccountException.class)
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+
+    /**
+     * Loads the checkpoint with SELECT ... FOR UPDATE, so only one instance moves it at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM LedgerCheckpoint c WHERE c.name = :name")
+    LedgerCheckpoint findForUpdate(@Param("name") String name);
+}
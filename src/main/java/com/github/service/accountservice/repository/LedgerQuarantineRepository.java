@@ -0,0 +1,20 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.entities.LedgerQuarantine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import javax.transaction.Transactional;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+@Transactional(rollbackOn = AccountException.class)
+public interface LedgerQuarantineRepository extends JpaRepository<LedgerQuarantine, Long> {
+
+    List<LedgerQuarantine> findByAccountId(Integer accountId);
+
+    @Query("SELECT MIN(q.createdTime) FROM LedgerQuarantine q")
+    Date findOldestCreatedTime();
+}
@@ -2,18 +2,56 @@ package com.github.service.accountservice.repository;
 
 import com.github.service.accountservice.entities.Product;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.models.ProductDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import javax.persistence.LockModeType;
 import javax.transaction.Transactional;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 @Transactional(rollbackOn = AccountException.class)
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
-    List<Product> findAllByOrderByIdAsc();
+    String PRODUCT_DTO_SELECT = "SELECT new com.github.service.accountservice.service.models.ProductDto(" +
+            "p.id, p.name, p.price, p.productCount) FROM Product p ";
 
-    @Query("SELECT p FROM Product p WHERE p.productCount>0")
-    List<Product> findAllAvailableByOrderByIdAsc();
+    /**
+     * The catalog read straight into DTOs, so the products are neither hydrated nor kept for dirty checking.
+     */
+    @Query(PRODUCT_DTO_SELECT + "ORDER BY p.id ASC")
+    List<ProductDto> findAllProducts();
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.productCount > 0 ORDER BY p.id ASC")
+    List<ProductDto> findAvailableProducts();
+
+    /**
+     * Name checks are answered by the UNIQUE(product_name) index instead of loading the catalog.
+     */
+    boolean existsByName(String name);
+
+    boolean existsByNameAndIdNot(String name, Integer id);
+
+    /**
+     * Loads the product with SELECT ... FOR UPDATE, used by the pessimistic concurrency mode.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Integer id);
+
+    /**
+     * Takes one item out of stock, only while it is still in stock and still sold at {@code price}, so a
+     * purchase never charges a price the product no longer has. Returns the number of updated rows.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.productCount = p.productCount - 1, p.lastUpdated = :updatedTime, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.price = :price AND p.productCount > 0")
+    int decrementStock(@Param("id") Integer id, @Param("price") Money price, @Param("updatedTime") Date updatedTime);
 }
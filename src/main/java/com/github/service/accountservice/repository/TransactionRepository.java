@@ -2,14 +2,94 @@ package com.github.service.accountservice.repository;
 
 import com.github.service.accountservice.exceptions.AccountException;
 import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.service.models.LedgerRow;
+import com.github.service.accountservice.service.models.LedgerSum;
+import com.github.service.accountservice.service.models.TransactionDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @Transactional(rollbackOn = AccountException.class)
-public interface TransactionRepository extends JpaRepository<Transaction, Integer> {
+public interface TransactionRepository extends JpaRepository<Transaction, Integer>, TransactionRepositoryCustom {
+
+    String TRANSACTION_DTO_SELECT = "SELECT new com.github.service.accountservice.service.models.TransactionDto(" +
+            "t.id, t.account.id, t.amount, t.createdTime, ty.type, p.id) " +
+            "FROM Transaction t JOIN t.type ty LEFT JOIN t.product p " +
+            "WHERE t.account.id = :accountId " +
+            "AND (:from IS NULL OR t.createdTime >= :from) AND (:to IS NULL OR t.createdTime < :to) ";
+
+    /**
+     * Rows after the (afterTime, afterId) position in ledger order; a null afterTime starts at the beginning.
+     */
+    String LEDGER_AFTER = "(:afterTime IS NULL OR t.createdTime > :afterTime OR (t.createdTime = :afterTime AND t.id > :afterId)) ";
+
+    String LEDGER_SUM_SELECT = "SELECT new com.github.service.accountservice.service.models.LedgerSum(" +
+            "t.account.id, t.type.id, SUM(t.amount)) FROM Transaction t ";
 
     List<Transaction> findByAccountId(Integer accountId);
-}
\ No newline at end of file
+
+    /**
+     * An account's whole history as DTOs in one statement, the type and the product joined in, in the
+     * (created_time, id) order of the pages and read along the (account_id, created_time) index.
+     */
+    @Query(TRANSACTION_DTO_SELECT + "ORDER BY t.createdTime ASC, t.id ASC")
+    List<TransactionDto> findAllByAccountId(@Param("accountId") Integer accountId,
+                                            @Param("from") Date from, @Param("to") Date to);
+
+    @Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The next page of the ledger in (created_time, id) order, up to rows created before {@code before}.
+     */
+    @Query("SELECT new com.github.service.accountservice.service.models.LedgerRow(t.id, t.account.id, t.type.id, t.amount, t.createdTime) " +
+            "FROM Transaction t WHERE " + LEDGER_AFTER + "AND t.createdTime < :before ORDER BY t.createdTime ASC, t.id ASC")
+    List<LedgerRow> findLedgerPage(@Param("afterTime") Date afterTime, @Param("afterId") long afterId,
+                                   @Param("before") Date before, Pageable pageable);
+
+    /**
+     * Per account and type totals of the rows after a ledger position.
+     */
+    @Query(LEDGER_SUM_SELECT + "WHERE t.account.id IN :accountIds AND " + LEDGER_AFTER + "GROUP BY t.account.id, t.type.id")
+    List<LedgerSum> sumLedgerAfter(@Param("accountIds") Collection<Integer> accountIds,
+                                   @Param("afterTime") Date afterTime, @Param("afterId") long afterId);
+
+    /**
+     * Per type totals of an account's rows after a ledger position and created until {@code until}, served
+     * from the (account_id, created_time) index.
+     */
+    @Query(LEDGER_SUM_SELECT + "WHERE t.account.id = :accountId AND " + LEDGER_AFTER + "AND t.createdTime <= :until " +
+            "GROUP BY t.account.id, t.type.id")
+    List<LedgerSum> sumAccountLedgerUntil(@Param("accountId") Integer accountId, @Param("afterTime") Date afterTime,
+                                          @Param("afterId") long afterId, @Param("until") Date until);
+
+    /**
+     * Keyset page of an account's history: rows after the (afterTime, afterId) position and created before
+     * {@code before} (no bound when null), in (created_time, id) order and served from the (account_id, created_time)
+     * index, so the cost does not grow with the page number.
+     */
+    @Query(TRANSACTION_DTO_SELECT + "AND " + LEDGER_AFTER + "AND (:before IS NULL OR t.createdTime < :before) " +
+            "ORDER BY t.createdTime ASC, t.id ASC")
+    List<TransactionDto> findPageByAccountId(@Param("accountId") Integer accountId, @Param("afterTime") Date afterTime,
+                                             @Param("afterId") long afterId, @Param("before") Date before,
+                                             @Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    /**
+     * Streams an account's history as detached DTOs straight off the JDBC cursor. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TRANSACTION_DTO_SELECT + "ORDER BY t.createdTime ASC, t.id ASC")
+    Stream<TransactionDto> streamByAccountId(@Param("accountId") Integer accountId,
+                                             @Param("from") Date from, @Param("to") Date to);
+}
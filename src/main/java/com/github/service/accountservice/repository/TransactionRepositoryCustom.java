@@ -0,0 +1,14 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.entities.Transaction;
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Gives every transaction without an id the next one from the entity's generator.
+     */
+    void assignIds(List<Transaction> transactions);
+
+    void insertAll(List<Transaction> transactions);
+}
@@ -0,0 +1,61 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.entities.Transaction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Ledger inserts for the batch path, in JDBC batches of {@link #BATCH_SIZE} without going through the
+ * persistence context. The ids come from the entity's own generator, so they never collide with the ones
+ * Hibernate assigns; rows that already carry an id keep it. With rewriteBatchedStatements=true, MySQL sends each batch as one multi-row INSERT.
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO account_transaction " +
+            "(id, type_id, amount, account_id, product_id, created_time) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void assignIds(List<Transaction> transactions) {
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = session.getFactory().getMetamodel().entityPersister(Transaction.class).getIdentifierGenerator();
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() == 0) {
+                transaction.setId((Long) generator.generate(session, transaction));
+            }
+        }
+    }
+
+    @Override
+    public void insertAll(List<Transaction> transactions) {
+
+        assignIds(transactions);
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, BATCH_SIZE, (statement, transaction) -> {
+            statement.setLong(1, transaction.getId());
+            statement.setInt(2, transaction.getType().getId());
+            statement.setBigDecimal(3, transaction.getAmount().toBigDecimal());
+            statement.setInt(4, transaction.getAccount().getId());
+            if (transaction.getProduct() == null) {
+                statement.setNull(5, Types.INTEGER);
+            } else {
+                statement.setInt(5, transaction.getProduct().getId());
+            }
+            statement.setTimestamp(6, new Timestamp(transaction.getCreatedTime().getTime()));
+        });
+    }
+}
@@ -1,28 +1,35 @@
 package com.github.service.accountservice.service;
 
 import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.BalanceBucket;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
+import com.github.service.accountservice.service.mappers.DtoMapper;
 import com.github.service.accountservice.service.contracts.IAccountService;
 import com.github.service.accountservice.service.models.AccountDto;
 import com.github.service.accountservice.validator.IValidator;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Service
@@ -32,14 +39,20 @@ public class AccountServiceImp implements IAccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
     @Autowired
     private IValidator validator;
 
-    private ModelMapper modelMapper = new ModelMapper();
+    // Balance rows per account, the account row included; 1 keeps the whole balance on the account row.
+    @Value("${account.balance-buckets:1}")
+    private int balanceBuckets;
+
     private Logger logger = LoggerFactory.getLogger(AccountServiceImp.class);
 
     @Override
-    @Transactional(rollbackFor = AccountException.class)
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
     public AccountDto findById(@NotNull int id) throws AccountException {
 
         logger.info("findById method was called");
@@ -48,12 +61,12 @@ public class AccountServiceImp implements IAccountService {
             validator.isTrue((id < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
                     ErrorCode.BadRequest.getCode());
 
-            Optional<Account> optionalAccount = accountRepository.findById(id);
+            AccountDto account = accountRepository.findBalanceById(id);
 
-            validator.isTrue(!optionalAccount.isPresent(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
+            validator.isTrue(account == null, ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
                     ErrorCode.BadRequest.getCode());
 
-            return modelMapper.map(optionalAccount.get(), AccountDto.class);
+            return account;
         }catch (NumberFormatException ex){
             throw new AccountException(ErrorCode.NotFound.getCode(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage());
         }
@@ -67,54 +80,149 @@ public class AccountServiceImp implements IAccountService {
 
         try{
             Account createdAccount = accountRepository.save(new Account());
-            return modelMapper.map(createdAccount, AccountDto.class);
+            if (balanceBuckets > 1) {
+                balanceBucketRepository.saveAll(missingBuckets(createdAccount.getId(), new boolean[balanceBuckets]));
+            }
+            return DtoMapper.toDto(createdAccount);
         }
         catch (NumberFormatException ex){
             throw new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.ACCOUNT_NOT_CREATED_EXCEPTION.getMessage());
         }
     }
 
+    /**
+     * Applies the amount with a single guarded UPDATE instead of loading, changing and saving the account,
+     * so deposits and withdrawals on the same account don't need range locks and can run at READ COMMITTED.
+     * DEPOSIT credits the account; WITHDRAW and PURCHASE debit it only if the balance covers the amount.
+     * <p>
+     * With {@code account.balance-buckets} above 1 a deposit goes to a random one of the account's balance rows,
+     * and a debit the account row cannot cover first moves the buckets into it. The returned account is the row
+     * itself; its balance leaves the buckets out.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE, rollbackFor = AccountException.class)
-    public Account updateAccountAmount(@NotNull Integer accountIdInt, @NotNull BigDecimal amountDecimal, @NotNull TransactionTypes type) throws AccountException{
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
+    public Account updateAccountAmount(@NotNull Integer accountIdInt, @NotNull Money amount, @NotNull TransactionTypes type) throws AccountException{
 
         logger.info("updateAccountAmount method was called");
 
         try {
-            Optional<Account> existAccount = accountRepository.findById(accountIdInt);
-
             boolean validAmountCase = (type == TransactionTypes.DEPOSIT || type == TransactionTypes.WITHDRAW) ?
-                    amountDecimal.compareTo(BigDecimal.ZERO) <= 0 :
-                    amountDecimal.compareTo(BigDecimal.ZERO) < 0;
-
-            validator.isTrue(!existAccount.isPresent(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
-                    ErrorCode.BadRequest.getCode());
+                    !amount.isPositive() : amount.isNegative();
 
             validator.isTrue(validAmountCase, String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Amount"),
                     ErrorCode.BadRequest.getCode());
 
-            Account account = existAccount.get();
+            Date updatedTime = new Date();
 
             if(type == TransactionTypes.DEPOSIT){
-                account.setBalance(account.getBalance().add(amountDecimal));
+                int slot = (balanceBuckets > 1) ? ThreadLocalRandom.current().nextInt(balanceBuckets) : 0;
+                if(slot == 0 || balanceBucketRepository.depositAmount(accountIdInt, slot, amount, updatedTime) == 0){
+                    if(slot > 0){
+                        addBuckets(accountIdInt);
+                    }
+                    int updated = accountRepository.depositAmount(accountIdInt, amount, updatedTime);
+
+                    validator.isTrue(updated == 0, ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
+                            ErrorCode.BadRequest.getCode());
+                }
+            }
+            else{
+                debitAmount(accountIdInt, amount, type, updatedTime);
             }
-            else if(type == TransactionTypes.WITHDRAW){
 
-                BigDecimal balance = account.getBalance();
+            Optional<Account> updatedAccount = accountRepository.findById(accountIdInt);
+
+            validator.isTrue(!updatedAccount.isPresent(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
+                    ErrorCode.BadRequest.getCode());
+
+            return updatedAccount.get();
+
+        } catch(NumberFormatException e){
+            throw new AccountException(ErrorCode.BadRequest.getCode(), String.format(ErrorMessage.NUMBER_FORMAT_MISMATCH.getMessage(),amount));
+        }
+    }
+
+    /**
+     * Takes {@code amount} off the account with one guarded UPDATE. When the account row alone cannot cover it, the
+     * buckets are moved into the row first and the UPDATE is tried again, so withdrawals and purchases are checked
+     * against the whole balance that {@link #findById} shows. Joins the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
+    public void debitAmount(@NotNull Integer accountId, @NotNull Money amount, @NotNull TransactionTypes type,
+                            @NotNull Date updatedTime) throws AccountException {
+
+        int updated = accountRepository.withdrawAmount(accountId, amount, updatedTime);
 
-                validator.isTrue((balance.subtract(amountDecimal).compareTo(BigDecimal.ZERO) < 0), ErrorMessage.NO_ENOUGH_BALANCE.getMessage(),
-                        ErrorCode.BadRequest.getCode());
+        if(updated == 0 && collectBuckets(accountId, updatedTime)){
+            updated = accountRepository.withdrawAmount(accountId, amount, updatedTime);
+        }
+
+        if(updated == 0){
+            // The guard failed; only a missing account needs a second look to tell the cases apart.
+            validator.isTrue(!accountRepository.existsById(accountId), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
+                    ErrorCode.BadRequest.getCode());
+
+            ErrorMessage message = (type == TransactionTypes.PURCHASE) ?
+                    ErrorMessage.CURRENT_BALANCE_SHOULD_BE_GREATER_THAN_PRICE : ErrorMessage.NO_ENOUGH_BALANCE;
+            throw new AccountException(ErrorCode.BadRequest.getCode(), message.getMessage());
+        }
+    }
+
+    /**
+     * Creates the buckets an account made before {@code account.balance-buckets} was raised is missing, under the
+     * account row's lock so two deposits cannot both insert one. The lock is held until the caller commits; its
+     * deposit goes to the account row.
+     */
+    private void addBuckets(Integer accountId) throws AccountException {
+
+        List<Account> locked = accountRepository.findAllByIdForUpdate(Collections.singletonList(accountId));
+        validator.isTrue(locked.isEmpty(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(), ErrorCode.BadRequest.getCode());
 
-                account.setBalance(account.getBalance().subtract(amountDecimal));
+        boolean[] present = new boolean[balanceBuckets];
+        for (BalanceBucket bucket : balanceBucketRepository.findAllByAccountIdForUpdate(Collections.singletonList(accountId))) {
+            if (bucket.getSlot() < balanceBuckets) {
+                present[bucket.getSlot()] = true;
             }
-            else{
-                account.setBalance(amountDecimal);
+        }
+        List<BalanceBucket> missing = missingBuckets(accountId, present);
+        balanceBucketRepository.saveAll(missing);
+        logger.info("{} balance buckets were added to account {}", missing.size(), accountId);
+    }
+
+    private List<BalanceBucket> missingBuckets(Integer accountId, boolean[] present) {
+
+        List<BalanceBucket> missing = new ArrayList<>();
+        for (int slot = 1; slot < balanceBuckets; slot++) {
+            if (!present[slot]) {
+                missing.add(new BalanceBucket(accountId, slot));
             }
-            account.setUpdatedTime(new Date());
-            return accountRepository.save(account);
+        }
+        return missing;
+    }
 
-        } catch(NumberFormatException e){
-            throw new AccountException(ErrorCode.BadRequest.getCode(), String.format(ErrorMessage.NUMBER_FORMAT_MISMATCH.getMessage(),amountDecimal));
+    /**
+     * Moves what the account's buckets hold to the account row, so a debit can be checked against the whole
+     * balance. Returns whether anything was moved. Runs whatever {@code account.balance-buckets} is now, so
+     * buckets left from a higher setting are still spent.
+     */
+    private boolean collectBuckets(Integer accountId, Date updatedTime) {
+
+        if (!balanceBucketRepository.existsByAccountId(accountId)) {
+            return false;
+        }
+        if (accountRepository.findAllByIdForUpdate(Collections.singletonList(accountId)).isEmpty()) {
+            return false;
+        }
+        Money collected = Money.ZERO;
+        for (BalanceBucket bucket : balanceBucketRepository.findAllByAccountIdForUpdate(Collections.singletonList(accountId))) {
+            collected = collected.plus(bucket.getBalance());
+        }
+        if (collected.signum() == 0) {
+            return false;
         }
+        balanceBucketRepository.empty(Collections.singletonList(accountId), updatedTime);
+        accountRepository.depositAmount(accountId, collected, updatedTime);
+        return true;
     }
 }
@@ -0,0 +1,42 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.contracts.IAccountSequencer;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Applies every change on the calling thread in a transaction of its own, then reads the account.
+ */
+@Component
+@ConditionalOnProperty(name = "sequencer.enabled", havingValue = "false", matchIfMissing = true)
+public class DirectAccountSequencer implements IAccountSequencer {
+
+    private final ITransactionService transactionService;
+    private final IAccountService accountService;
+
+    public DirectAccountSequencer(ITransactionService transactionService, IAccountService accountService) {
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+    }
+
+    @Override
+    public CompletableFuture<AccountDto> submit(@NotNull Integer accountId, @NotNull Money amount, @NotNull TransactionTypes type) {
+
+        CompletableFuture<AccountDto> account = new CompletableFuture<>();
+        try {
+            transactionService.createTransaction(accountId, amount, type);
+            account.complete(accountService.findById(accountId));
+        } catch (AccountException | RuntimeException ex) {
+            account.completeExceptionally(ex);
+        }
+        return account;
+    }
+}
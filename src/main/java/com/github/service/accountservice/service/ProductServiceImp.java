@@ -1,31 +1,37 @@
 package com.github.service.accountservice.service;
 
+import com.github.service.accountservice.aspect.RetryOnOptimisticLock;
+import com.github.service.accountservice.cache.CatalogChangedEvent;
 import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.enums.ConcurrencyMode;
 import com.github.service.accountservice.exceptions.AccountException;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.repository.ProductRepository;
 import com.github.service.accountservice.service.consumes.ProductCreate;
 import com.github.service.accountservice.service.consumes.ProductDelete;
+import com.github.service.accountservice.service.mappers.DtoMapper;
 import com.github.service.accountservice.service.contracts.IProductService;
 import com.github.service.accountservice.service.models.ProductDto;
 import com.github.service.accountservice.validator.IValidator;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -38,39 +44,47 @@ public class ProductServiceImp implements IProductService {
     @Autowired
     private IValidator validator;
 
-    private ModelMapper modelMapper = new ModelMapper();
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final String DUPLICATE_KEY_SQL_STATE = "23505";
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+
+    private ConcurrencyMode concurrencyMode = ConcurrencyMode.PESSIMISTIC;
     private Logger logger = LoggerFactory.getLogger(ProductServiceImp.class);
 
+    @Value("${concurrency.mode:pessimistic}")
+    void setConcurrencyMode(String concurrencyMode) {
+        this.concurrencyMode = ConcurrencyMode.from(concurrencyMode);
+    }
+
     @Override
-    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE, rollbackFor = AccountException.class)
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
     public ProductDto createProduct(@NotNull ProductCreate product) throws AccountException {
 
         logger.info("CreateProduct method was called");
 
         try{
-            List<Product> productListWithSameName = productRepository.findAll().stream().
-                    filter(p -> p.getName().equals(product.getName())).
-                    collect(Collectors.toList());
-
-            validator.isTrue(!productListWithSameName.isEmpty() && productListWithSameName.size() > 0,
+            validator.isTrue(productRepository.existsByName(product.getName()),
                     ErrorMessage.NAME_SHOULD_BE_DIFFERENCE.getMessage(), ErrorCode.BadRequest.getCode());
 
             String name = product.getName();
-            BigDecimal priceDecimal = product.getPrice();
+            Money price = product.getPrice();
             Integer countInt = product.getCount();
 
             validator.isTrue((name.trim().isEmpty() || name.trim().length() <= 0), ErrorMessage.NAME_SHOULD_BE_FILLED.getMessage(),
                     ErrorCode.BadRequest.getCode());
 
-            validator.isTrue((priceDecimal.compareTo(BigDecimal.ZERO) <=0),
+            validator.isTrue(!price.isPositive(),
                     String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Product Price"), ErrorCode.BadRequest.getCode());
 
             validator.isTrue((countInt < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Product Count"),
                     ErrorCode.BadRequest.getCode());
 
-            Product newProduct = new Product(name, priceDecimal, countInt);
-            Product createdProduct = productRepository.save(newProduct);
-            return modelMapper.map(createdProduct, ProductDto.class);
+            Product newProduct = new Product(name, price, countInt);
+            Product createdProduct = saveUniqueName(newProduct);
+            eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+            return DtoMapper.toDto(createdProduct);
         }
         catch (NumberFormatException ex){
             throw new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.PRODUCT_NOT_CREATED_EXCEPTION.getMessage());
@@ -78,15 +92,16 @@ public class ProductServiceImp implements IProductService {
     }
 
     @Override
-    @Transactional(rollbackFor = AccountException.class)
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
     public List<ProductDto> findAll() throws AccountException {
 
         logger.info("FindAll method was called for getting all product");
-        return productRepository.findAllByOrderByIdAsc().stream().map(w -> modelMapper.map(w, ProductDto.class)).collect(Collectors.toList());
+        return productRepository.findAllProducts();
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE, rollbackFor = AccountException.class)
+    @RetryOnOptimisticLock
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
     public ProductDto deleteProduct(@NotNull ProductDelete product) throws AccountException {
 
         logger.info("deleteProduct method was called");
@@ -97,7 +112,7 @@ public class ProductServiceImp implements IProductService {
             validator.isTrue(id < 1, String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Product Id"),
                     ErrorCode.BadRequest.getCode());
 
-            Optional<Product> currentProduct = productRepository.findById(id);
+            Optional<Product> currentProduct = findForUpdate(id);
 
             validator.isTrue(!currentProduct.isPresent(), ErrorMessage.PRODUCT_IS_NOT_VALID.getMessage(),
                     ErrorCode.BadRequest.getCode());
@@ -110,7 +125,8 @@ public class ProductServiceImp implements IProductService {
             currentProduct.get().setProductCount(currentCount-1);
             currentProduct.get().setLastUpdated(new Date());
             Product updatedProduct = productRepository.save(currentProduct.get());
-            return modelMapper.map(updatedProduct, ProductDto.class);
+            eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+            return DtoMapper.toDto(updatedProduct);
         }
         catch (NumberFormatException ex){
             throw  new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.DELETE_PRODUCT_METHOD_NOT_WORKED.getMessage());
@@ -118,7 +134,8 @@ public class ProductServiceImp implements IProductService {
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE, rollbackFor = AccountException.class)
+    @RetryOnOptimisticLock
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
     public ProductDto updateProduct(@NotNull ProductDto product) throws AccountException {
 
         logger.info("UpdateProduct method was called");
@@ -126,7 +143,7 @@ public class ProductServiceImp implements IProductService {
         try{
             Integer idInt = product.getId();
             String name = product.getName();
-            BigDecimal priceDecimal = product.getPrice();
+            Money price = product.getPrice();
             Integer countInt = product.getCount();
 
             validator.isTrue((idInt < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Product Id"),
@@ -135,34 +152,69 @@ public class ProductServiceImp implements IProductService {
             validator.isTrue((name.trim().isEmpty() || name.trim().length() == 0), ErrorMessage.NAME_SHOULD_BE_FILLED.getMessage(),
                     ErrorCode.BadRequest.getCode());
 
-            validator.isTrue((priceDecimal.compareTo(BigDecimal.ZERO) < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Amount"),
+            validator.isTrue(price.isNegative(), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Amount"),
                     ErrorCode.BadRequest.getCode());
 
             validator.isTrue((countInt < 0), String.format(ErrorMessage.SHOULD_NOT_BE_SMALLER_THAN_ZERO.getMessage(), "Product Count"),
                     ErrorCode.BadRequest.getCode());
 
-            Optional<Product> currentOptionalProduct = productRepository.findById(idInt);
+            Optional<Product> currentOptionalProduct = findForUpdate(idInt);
             validator.isTrue(!currentOptionalProduct.isPresent(), ErrorMessage.PRODUCT_IS_NOT_VALID.getMessage(),
                     ErrorCode.BadRequest.getCode());
 
             Product currentProduct = currentOptionalProduct.get();
 
-            List<Product> productListWithSameName = productRepository.findAll().stream().
-                    filter(p -> p.getName().equals(name) && p.getId() != idInt).
-                    collect(Collectors.toList());
-
-            validator.isTrue(!productListWithSameName.isEmpty() && productListWithSameName.size() > 0,
+            validator.isTrue(productRepository.existsByNameAndIdNot(name, idInt),
                     ErrorMessage.NAME_SHOULD_BE_DIFFERENCE.getMessage(), ErrorCode.BadRequest.getCode());
 
             currentProduct.setName(name);
-            currentProduct.setPrice(priceDecimal);
+            currentProduct.setPrice(price);
             currentProduct.setProductCount(countInt);
             currentProduct.setLastUpdated(new Date());
-            Product updatedProduct = productRepository.save(currentProduct);
-            return modelMapper.map(updatedProduct, ProductDto.class);
+            Product updatedProduct = saveUniqueName(currentProduct);
+            eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+            return DtoMapper.toDto(updatedProduct);
         }
         catch (NumberFormatException ex){
             throw  new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.METHOD_NOT_WORKED.getMessage());
         }
     }
+
+    /**
+     * The name check before the write can race with another writer taking the same name; the UNIQUE(product_name)
+     * constraint settles that race, so its violation is reported as the same error the check gives.
+     */
+    private Product saveUniqueName(Product product) throws AccountException {
+
+        try{
+            return productRepository.saveAndFlush(product);
+        }
+        catch (DataIntegrityViolationException ex){
+            validator.isTrue(isDuplicateKey(ex), ErrorMessage.NAME_SHOULD_BE_DIFFERENCE.getMessage(), ErrorCode.BadRequest.getCode());
+            throw ex;
+        }
+    }
+
+    /**
+     * H2 reports a unique key violation with SQL state 23505, MySQL with error code 1062.
+     */
+    private static boolean isDuplicateKey(DataIntegrityViolationException ex) {
+
+        Throwable cause = ex.getMostSpecificCause();
+        if (!(cause instanceof SQLException)) {
+            return false;
+        }
+        SQLException sqlException = (SQLException) cause;
+        return DUPLICATE_KEY_SQL_STATE.equals(sqlException.getSQLState()) || sqlException.getErrorCode() == MYSQL_DUPLICATE_KEY;
+    }
+
+    /**
+     * In pessimistic mode the row stays locked until the transaction ends; in optimistic mode a concurrent
+     * change is caught by the version check at commit and the method is retried.
+     */
+    private Optional<Product> findForUpdate(Integer id) {
+
+        return (concurrencyMode == ConcurrencyMode.PESSIMISTIC) ?
+                productRepository.findByIdForUpdate(id) : productRepository.findById(id);
+    }
 }
@@ -0,0 +1,236 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.BalanceDrift;
+import com.github.service.accountservice.entities.BalanceSnapshot;
+import com.github.service.accountservice.entities.LedgerCheckpoint;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.ledger.ILedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
+import com.github.service.accountservice.repository.BalanceDriftRepository;
+import com.github.service.accountservice.repository.BalanceSnapshotRepository;
+import com.github.service.accountservice.repository.LedgerCheckpointRepository;
+import com.github.service.accountservice.repository.LedgerQuarantineRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
+import com.github.service.accountservice.service.models.AccountBalanceDto;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.LedgerRow;
+import com.github.service.accountservice.service.models.LedgerSum;
+import com.github.service.accountservice.validator.IValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives account balances from the ledger. {@link #reconcile()} walks the ledger in (created_time, id) order from
+ * a checkpoint, adds each page onto the accounts' last snapshots and compares the result with user_account.
+ * Ledger ids are handed out in blocks and do not follow commit order, so the walk stays {@code settle-ms} behind
+ * the clock to let rows still in flight commit first. Rows can also reach account_transaction long after they were
+ * created: the journal ledger drains them behind the commit, and quarantined ones are only moved over by hand.
+ * The walk stops short of the oldest of those, so a snapshot never passes a row that is still to come.
+ */
+@Slf4j
+@Service
+@Validated
+public class ReconciliationServiceImp implements IReconciliationService {
+
+    static final String CHECKPOINT_NAME = "reconciliation";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private BalanceDriftRepository balanceDriftRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private LedgerQuarantineRepository ledgerQuarantineRepository;
+
+    @Autowired
+    private ILedger ledger;
+
+    @Autowired
+    private IValidator validator;
+
+    @Value("${reconciliation.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${reconciliation.settle-ms:60000}")
+    private long settleMillis;
+
+    // Mismatches seen but not reported yet; one has to outlast settle-ms before it counts as drift.
+    private final Map<Integer, Suspect> suspects = new ConcurrentHashMap<>();
+
+    private Logger logger = LoggerFactory.getLogger(ReconciliationServiceImp.class);
+
+    /**
+     * Processes the next page of the ledger and checks the accounts it touched, plus the ones that did not
+     * match last time.
+     *
+     * @return the number of ledger rows processed, 0 once the walk caught up
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.REPEATABLE_READ, rollbackFor = AccountException.class)
+    public int reconcile() {
+
+        LedgerCheckpoint checkpoint = ledgerCheckpointRepository.findForUpdate(CHECKPOINT_NAME);
+        Date horizon = earliest(earliest(new Date(System.currentTimeMillis() - settleMillis), ledger.pendingSince()),
+                ledgerQuarantineRepository.findOldestCreatedTime());
+        List<LedgerRow> rows = transactionRepository.findLedgerPage(checkpoint.getLedgerTime(), checkpoint.getLedgerId(),
+                horizon, PageRequest.of(0, batchSize));
+
+        Map<Integer, Money> changes = new HashMap<>();
+        for (LedgerRow row : rows) {
+            changes.merge(row.getAccountId(), signed(row.getTypeId(), row.getAmount()), Money::plus);
+        }
+
+        Set<Integer> accountIds = new TreeSet<>(suspects.keySet());
+        if (!rows.isEmpty()) {
+            LedgerRow last = rows.get(rows.size() - 1);
+            Map<Integer, Money> balances = latestBalances(changes.keySet());
+            List<BalanceSnapshot> snapshots = new ArrayList<>(changes.size());
+            changes.forEach((accountId, change) -> snapshots.add(new BalanceSnapshot(accountId,
+                    balances.getOrDefault(accountId, Money.ZERO).plus(change), last.getCreatedTime(), last.getId())));
+            balanceSnapshotRepository.saveAll(snapshots);
+
+            checkpoint.setLedgerTime(last.getCreatedTime());
+            checkpoint.setLedgerId(last.getId());
+            checkpoint.setUpdatedTime(new Date());
+            accountIds.addAll(changes.keySet());
+        }
+
+        if (!accountIds.isEmpty()) {
+            verify(checkpoint, accountIds);
+        }
+        return rows.size();
+    }
+
+    /**
+     * The balance as of {@code at} (now when null): the last snapshot taken at or before it plus the account's
+     * ledger rows in between.
+     */
+    @Override
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
+    public AccountBalanceDto getBalanceAt(@NotNull Integer accountId, Date at) throws AccountException {
+
+        logger.info("getBalanceAt method was called");
+
+        validator.isTrue((accountId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
+                ErrorCode.BadRequest.getCode());
+        validator.isTrue(!accountRepository.existsById(accountId), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
+                ErrorCode.BadRequest.getCode());
+
+        Date until = (at == null) ? new Date() : at;
+        BalanceSnapshot snapshot = balanceSnapshotRepository
+                .findFirstByAccountIdAndLedgerTimeLessThanEqualOrderByLedgerTimeDescLedgerIdDesc(accountId, until);
+
+        Money balance = (snapshot == null) ? Money.ZERO : snapshot.getBalance();
+        List<LedgerSum> sums = transactionRepository.sumAccountLedgerUntil(accountId,
+                (snapshot == null) ? null : snapshot.getLedgerTime(), (snapshot == null) ? 0 : snapshot.getLedgerId(), until);
+        for (LedgerSum sum : sums) {
+            balance = balance.plus(signed(sum.getTypeId(), sum.getAmount()));
+        }
+        return new AccountBalanceDto(accountId, balance, until);
+    }
+
+    /**
+     * Compares each account's ledger balance, its last snapshot plus the rows after the checkpoint, with the
+     * balance column plus its balance buckets. All are read in the same repeatable-read transaction.
+     */
+    private void verify(LedgerCheckpoint checkpoint, Set<Integer> accountIds) {
+
+        Map<Integer, Money> ledgerBalances = latestBalances(accountIds);
+        for (LedgerSum sum : transactionRepository.sumLedgerAfter(accountIds, checkpoint.getLedgerTime(), checkpoint.getLedgerId())) {
+            ledgerBalances.merge(sum.getAccountId(), signed(sum.getTypeId(), sum.getAmount()), Money::plus);
+        }
+
+        Map<Integer, Money> bucketBalances = new HashMap<>();
+        for (AccountDto buckets : balanceBucketRepository.sumByAccountIds(accountIds)) {
+            bucketBalances.put(buckets.getId(), buckets.getBalance());
+        }
+
+        long now = System.currentTimeMillis();
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            Money ledgerBalance = ledgerBalances.getOrDefault(account.getId(), Money.ZERO);
+            Money balance = account.getBalance().plus(bucketBalances.getOrDefault(account.getId(), Money.ZERO));
+            if (ledgerBalance.equals(balance)) {
+                suspects.remove(account.getId());
+                continue;
+            }
+
+            Money difference = balance.minus(ledgerBalance);
+            Suspect suspect = suspects.get(account.getId());
+            if (suspect == null || !suspect.difference.equals(difference)) {
+                suspects.put(account.getId(), new Suspect(difference, now));
+            } else if (!suspect.reported && now - suspect.since >= settleMillis) {
+                balanceDriftRepository.save(new BalanceDrift(account.getId(), balance, ledgerBalance));
+                suspect.reported = true;
+                logger.warn("Balance of account {} is {} but its ledger adds up to {}", account.getId(),
+                        balance, ledgerBalance);
+            }
+        }
+    }
+
+    private Map<Integer, Money> latestBalances(Set<Integer> accountIds) {
+
+        Map<Integer, Money> balances = new HashMap<>();
+        for (BalanceSnapshot snapshot : balanceSnapshotRepository.findLatestByAccountIds(accountIds)) {
+            balances.put(snapshot.getAccountId(), snapshot.getBalance());
+        }
+        return balances;
+    }
+
+    private static Date earliest(Date first, Date second) {
+        return (second != null && second.before(first)) ? second : first;
+    }
+
+    private static Money signed(int typeId, Money amount) {
+        return (typeId == TransactionTypes.DEPOSIT.getCode()) ? amount : amount.negate();
+    }
+
+    private static class Suspect {
+
+        private final Money difference;
+        private final long since;
+        private boolean reported;
+
+        Suspect(Money difference, long since) {
+            this.difference = difference;
+            this.since = since;
+        }
+    }
+}
@@ -1,39 +1,38 @@
 package com.github.service.accountservice.service;
 
-import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.cache.CatalogChangedEvent;
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
 import com.github.service.accountservice.entities.Product;
 import com.github.service.accountservice.entities.Transaction;
-import com.github.service.accountservice.entities.TransactionType;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.ILedger;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.repository.AccountRepository;
 import com.github.service.accountservice.repository.ProductRepository;
-import com.github.service.accountservice.repository.TransactionRepository;
-import com.github.service.accountservice.repository.TransactionTypeRepository;
+import com.github.service.accountservice.service.mappers.DtoMapper;
 import com.github.service.accountservice.service.contracts.IAccountService;
-import com.github.service.accountservice.service.contracts.IProductService;
 import com.github.service.accountservice.service.contracts.IStoreService;
-import com.github.service.accountservice.service.consumes.ProductDelete;
 import com.github.service.accountservice.service.models.ProductDto;
 import com.github.service.accountservice.service.models.TransactionDto;
 import com.github.service.accountservice.validator.IValidator;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -43,29 +42,36 @@ public class StoreServiceImp implements IStoreService {
     @Autowired
     AccountRepository accountRepository;
 
+    @Autowired
+    ProductRepository productRepository;
+
     @Autowired
     IAccountService accountService;
 
     @Autowired
-    ProductRepository productRepository;
+    TransactionTypeRegistry transactionTypeRegistry;
 
     @Autowired
-    TransactionTypeRepository transactionTypeRepository;
+    ILedger ledger;
 
     @Autowired
-    TransactionRepository transactionRepository;
+    private IValidator validator;
 
     @Autowired
-    IProductService productService;
+    private IdempotencyMarker idempotencyMarker;
 
     @Autowired
-    private IValidator validator;
+    private ApplicationEventPublisher eventPublisher;
 
-    private ModelMapper modelMapper = new ModelMapper();
     private Logger logger = LoggerFactory.getLogger(StoreServiceImp.class);
 
+    /**
+     * One read and three statements: a guarded stock decrement, a guarded balance debit and the ledger insert, plus
+     * the applied mark of the request's Idempotency-Key when it has one. A failed guard rolls back whatever the
+     * earlier statements changed.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE, rollbackFor = AccountException.class)
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
     public TransactionDto buyProduct(@NotNull Integer accountId, @NotNull Integer productId) throws AccountException {
 
         logger.info("buyProduct method was called");
@@ -77,33 +83,35 @@ public class StoreServiceImp implements IStoreService {
             validator.isTrue((productId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Product Id"),
                     ErrorCode.BadRequest.getCode());
 
-            Optional<Account> optionalAccount =  accountRepository.findById(accountId);
-            validator.isTrue(!optionalAccount.isPresent(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(),
-                    ErrorCode.BadRequest.getCode());
-
-            Account account = optionalAccount.get();
+            // The only read of the purchase: the price to charge and a quick sold-out check.
             Optional<Product> optionalProduct =  productRepository.findById(productId);
-            validator.isTrue(!optionalProduct.isPresent(), ErrorMessage.PRODUCT_IS_NOT_VALID.getMessage(),
-                    ErrorCode.BadRequest.getCode());
+            validator.isTrue(!optionalProduct.isPresent() || optionalProduct.get().getProductCount() <= 0,
+                    ErrorMessage.PRODUCT_IS_NOT_VALID.getMessage(), ErrorCode.BadRequest.getCode());
+
+            Money productPrice = optionalProduct.get().getPrice();
+            Date now = new Date();
 
-            Product product = optionalProduct.get();
+            // Guarded on stock and price, so a concurrent buyer or a price change makes it update nothing.
+            validator.isTrue(productRepository.decrementStock(productId, productPrice, now) == 0,
+                    ErrorMessage.PRODUCT_IS_NOT_VALID.getMessage(), ErrorCode.BadRequest.getCode());
 
-            BigDecimal currentBalance = account.getBalance();
-            BigDecimal productPrice = product.getPrice();
+            // Falls back to the balance buckets when the account row alone cannot pay.
+            accountService.debitAmount(accountId, productPrice, TransactionTypes.PURCHASE, now);
 
-            validator.isTrue((currentBalance.subtract(productPrice).compareTo(BigDecimal.ZERO) < 0),
-                    ErrorMessage.CURRENT_BALANCE_SHOULD_BE_GREATER_THAN_PRICE.getMessage(), ErrorCode.BadRequest.getCode());
+            // Commits with the purchase, so a retry with the same Idempotency-Key can never buy twice.
+            validator.isTrue(!idempotencyMarker.markApplied(), ErrorMessage.IDEMPOTENCY_KEY_APPLIED.getMessage(),
+                    ErrorCode.Conflict.getCode());
 
-            TransactionType transactionType = transactionTypeRepository.getOne(TransactionTypes.PURCHASE.getCode());
+            // References only, the ledger insert needs their ids and nothing else.
+            Transaction transaction = new Transaction(transactionTypeRegistry.reference(TransactionTypes.PURCHASE),
+                    productPrice, accountRepository.getOne(accountId), productRepository.getOne(productId));
+            ledger.record(transaction);
 
-            logger.info("updateAccountAmount method is starting in buyProduct method");
+            // The stock count is part of the catalog.
+            eventPublisher.publishEvent(CatalogChangedEvent.STOCK);
 
-            Account updatedAccount = accountService.updateAccountAmount(accountId, currentBalance.subtract(productPrice), TransactionTypes.PURCHASE);
-            ProductDto updatedProduct = productService.deleteProduct(new ProductDelete(productId));
-            Product existsProduct = productRepository.getOne(updatedProduct.getId());
-            Transaction transaction = new Transaction(transactionType, productPrice, updatedAccount, existsProduct);
-            transactionRepository.save(transaction);
-            return modelMapper.map(transaction, TransactionDto.class);
+            return new TransactionDto(transaction.getId(), accountId, productPrice, transaction.getCreatedTime(),
+                    transactionTypeRegistry.name(TransactionTypes.PURCHASE), productId);
         }
         catch (NumberFormatException ex){
             throw  new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.METHOD_NOT_WORKED.getMessage());
@@ -111,14 +119,11 @@ public class StoreServiceImp implements IStoreService {
     }
 
     @Override
-    @Transactional(rollbackFor = AccountException.class)
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
     public List<ProductDto> listAllAvailableProducts() throws AccountException {
 
         logger.info("listAllAvailableProducts method was called");
 
-        return productRepository.findAllAvailableByOrderByIdAsc().
-                stream().
-                map(w -> modelMapper.map(w, ProductDto.class))
-                .collect(Collectors.toList());
+        return productRepository.findAvailableProducts();
     }
 }
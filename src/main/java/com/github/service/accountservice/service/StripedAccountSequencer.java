@@ -0,0 +1,175 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.consumes.AccountOperation;
+import com.github.service.accountservice.service.contracts.IAccountSequencer;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountBatchResult;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.AccountOperationResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Sends every change of an account through the same single-writer stripe, chosen by the account id. A stripe's
+ * worker takes what queued up while the previous batch was written and applies it with
+ * {@link ITransactionService#createTransactions}: a hot account gets one UPDATE and one JDBC batch of ledger rows
+ * for all its waiting deposits and withdrawals, instead of every request queueing for the row lock with a
+ * connection of its own. The database connections in use are bounded by the number of stripes.
+ * <p>
+ * The changes of a batch commit together, each request is still answered on its own: with the account as the batch
+ * left it, or with the reason its change was rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "sequencer.enabled", havingValue = "true")
+public class StripedAccountSequencer implements IAccountSequencer {
+
+    private final ITransactionService transactionService;
+    private final DistributionSummary batchSizes;
+    private final Stripe[] stripes;
+    private final int maxBatch;
+
+    private Logger logger = LoggerFactory.getLogger(StripedAccountSequencer.class);
+
+    public StripedAccountSequencer(ITransactionService transactionService, MeterRegistry meterRegistry,
+                                   @Value("${sequencer.stripes:8}") int stripes,
+                                   @Value("${sequencer.max-batch:500}") int maxBatch,
+                                   @Value("${sequencer.queue-size:10000}") int queueSize) {
+
+        this.transactionService = transactionService;
+        this.batchSizes = DistributionSummary.builder("sequencer.batch.size")
+                .description("Deposits and withdrawals applied per transaction by the account sequencer")
+                .register(meterRegistry);
+        this.maxBatch = Math.min(maxBatch, TransactionServiceImp.MAX_BATCH_SIZE);
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(i, queueSize);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Stripe stripe : stripes) {
+            stripe.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+
+        for (Stripe stripe : stripes) {
+            stripe.thread.interrupt();
+        }
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.thread.join(5_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            List<PendingOperation> left = new ArrayList<>();
+            stripe.queue.drainTo(left);
+            left.forEach(pending -> pending.account.completeExceptionally(busy()));
+        }
+    }
+
+    @Override
+    public CompletableFuture<AccountDto> submit(@NotNull Integer accountId, @NotNull Money amount, @NotNull TransactionTypes type) {
+
+        AccountOperation operation = new AccountOperation(accountId, type.name(), amount);
+        // Applied by the stripe's transaction, on another thread.
+        operation.setIdempotencyRecordId(IdempotencyMarker.running());
+        PendingOperation pending = new PendingOperation(operation);
+        if (!stripes[Math.floorMod(accountId.hashCode(), stripes.length)].queue.offer(pending)) {
+            pending.account.completeExceptionally(busy());
+        }
+        return pending.account;
+    }
+
+    private void run(Stripe stripe) {
+
+        List<PendingOperation> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(stripe.queue.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            stripe.queue.drainTo(batch, maxBatch - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingOperation> batch) {
+
+        List<AccountOperation> operations = new ArrayList<>(batch.size());
+        batch.forEach(pending -> operations.add(pending.operation));
+        batchSizes.record(batch.size());
+
+        AccountBatchResult batchResult;
+        try {
+            batchResult = transactionService.createTransactions(operations);
+        } catch (AccountException | RuntimeException ex) {
+            logger.error("Batch of {} account operations failed: {}", batch.size(), ex.getMessage());
+            batch.forEach(pending -> pending.account.completeExceptionally(ex));
+            return;
+        }
+
+        Map<Integer, AccountDto> accounts = new HashMap<>();
+        batchResult.getAccounts().forEach(account -> accounts.put(account.getId(), account));
+        for (AccountOperationResult result : batchResult.getResults()) {
+            PendingOperation pending = batch.get(result.getIndex());
+            if (result.isSuccess()) {
+                pending.account.complete(accounts.get(result.getAccountId()));
+            } else {
+                pending.account.completeExceptionally(new AccountException(result.getErrorCode(), result.getMessage()));
+            }
+        }
+    }
+
+    private static AccountException busy() {
+        return new AccountException(ErrorCode.Service_unavailable.getCode(), ErrorMessage.DATABASE_BUSY.getMessage());
+    }
+
+    private class Stripe {
+
+        private final BlockingQueue<PendingOperation> queue;
+        private final Thread thread;
+
+        Stripe(int index, int queueSize) {
+            this.queue = new LinkedBlockingQueue<>(queueSize);
+            this.thread = new Thread(() -> run(this), "account-sequencer-" + index);
+            this.thread.setDaemon(true);
+        }
+    }
+
+    private static class PendingOperation {
+
+        private final AccountOperation operation;
+        private final CompletableFuture<AccountDto> account = new CompletableFuture<>();
+
+        PendingOperation(AccountOperation operation) {
+            this.operation = operation;
+        }
+    }
+}
@@ -1,38 +1,62 @@
 package com.github.service.accountservice.service;
 
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
 import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.BalanceBucket;
 import com.github.service.accountservice.entities.Transaction;
-import com.github.service.accountservice.entities.TransactionType;
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.ILedger;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
 import com.github.service.accountservice.repository.TransactionRepository;
-import com.github.service.accountservice.repository.TransactionTypeRepository;
+import com.github.service.accountservice.service.consumes.AccountOperation;
+import com.github.service.accountservice.service.mappers.DtoMapper;
 import com.github.service.accountservice.service.contracts.IAccountService;
 import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountBatchResult;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.AccountOperationResult;
 import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
 import com.github.service.accountservice.validator.IValidator;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @Validated
 public class TransactionServiceImp implements ITransactionService {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10_000;
+    static final int LOCK_CHUNK_SIZE = 1000;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
@@ -40,16 +64,33 @@ public class TransactionServiceImp implements ITransactionService {
     private IAccountService accountService;
 
     @Autowired
-    private TransactionTypeRepository transactionTypeRepository;
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private ILedger ledger;
+
+    @Autowired
+    private TransactionTypeRegistry transactionTypeRegistry;
 
     @Autowired
     private IValidator validator;
 
-    private ModelMapper modelMapper = new ModelMapper();
+    @Autowired
+    private IdempotencyMarker idempotencyMarker;
+
+    @Value("${account.balance-buckets:1}")
+    private int balanceBuckets;
+
+    @Value("${transactions.settle-ms:5000}")
+    private long settleMillis;
+
     private Logger logger = LoggerFactory.getLogger(TransactionServiceImp.class);
 
     @Override
-    @Transactional(rollbackFor = AccountException.class)
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
     public List<TransactionDto> getTransactionsByAccountId(@NotNull Integer accountId) throws AccountException {
 
         logger.info("getTransactionsByAccountId method was called");
@@ -58,17 +99,85 @@ public class TransactionServiceImp implements ITransactionService {
             validator.isTrue((accountId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
                     ErrorCode.BadRequest.getCode());
 
-            List<Transaction> transactions = transactionRepository.findByAccountId(accountId);
-            return transactions.stream().map(w -> modelMapper.map(w, TransactionDto.class)).collect(Collectors.toList());
+            return transactionRepository.findAllByAccountId(accountId, null, null);
         }
         catch (NumberFormatException ex){
             throw new AccountException(ErrorCode.NotFound.getCode(), ErrorMessage.METHOD_NOT_WORKED.getMessage());
         }
     }
 
+    /**
+     * Ledger ids are handed out in blocks and do not follow commit order, so pages stop {@code settle-ms} short of
+     * the clock: a row still in flight commits before a page can move past it.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE, rollbackFor = AccountException.class)
-    public TransactionDto createTransaction(@NotNull Integer accountIdInt, @NotNull BigDecimal amountDecimal, @NotNull TransactionTypes type) throws AccountException{
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
+    public TransactionPage getTransactionsByAccountId(@NotNull Integer accountId, Date afterTime, Long afterId, Integer limit, Date from, Date to) throws AccountException {
+
+        logger.info("getTransactionsByAccountId page method was called");
+
+        return page(accountId, afterTime, afterId, limit, from, to, new Date(System.currentTimeMillis() - settleMillis));
+    }
+
+    /**
+     * A page of a stream read in one go, such as the reactive streamTransactions. Like the single query of
+     * {@link #streamTransactionsByAccountId} it returns every row committed before the stream started, so it needs
+     * no settle horizon: a row that commits behind the cursor while the stream runs was not committed when it started.
+     */
+    @Override
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
+    public TransactionPage getTransactionStreamPage(@NotNull Integer accountId, Date afterTime, Long afterId, Integer limit, Date from, Date to) throws AccountException {
+
+        logger.info("getTransactionStreamPage method was called");
+
+        return page(accountId, afterTime, afterId, limit, from, to, null);
+    }
+
+    private TransactionPage page(Integer accountId, Date afterTime, Long afterId, Integer limit, Date from, Date to, Date before) throws AccountException {
+
+        validator.isTrue((accountId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
+                ErrorCode.BadRequest.getCode());
+
+        validator.isTrue((afterId != null && afterId < 0), String.format(ErrorMessage.SHOULD_NOT_BE_SMALLER_THAN_ZERO.getMessage(), "After Id"),
+                ErrorCode.BadRequest.getCode());
+
+        validator.isTrue(((afterTime == null) != (afterId == null)), ErrorMessage.PAGE_CURSOR_INCOMPLETE.getMessage(),
+                ErrorCode.BadRequest.getCode());
+
+        validator.isTrue((limit != null && limit <= 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Limit"),
+                ErrorCode.BadRequest.getCode());
+
+        int pageSize = (limit == null) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        // One extra row tells us whether another page exists without a count query.
+        List<TransactionDto> transactions = transactionRepository.findPageByAccountId(accountId, afterTime,
+                (afterId == null) ? 0L : afterId, before, from, to, PageRequest.of(0, pageSize + 1));
+
+        if (transactions.size() <= pageSize) {
+            return new TransactionPage(transactions, null, null);
+        }
+        List<TransactionDto> page = transactions.subList(0, pageSize);
+        TransactionDto last = page.get(pageSize - 1);
+        return new TransactionPage(page, last.getDate(), last.getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = AccountException.class)
+    public void streamTransactionsByAccountId(@NotNull Integer accountId, Date from, Date to, @NotNull Consumer<TransactionDto> consumer) throws AccountException {
+
+        logger.info("streamTransactionsByAccountId method was called");
+
+        validator.isTrue((accountId < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
+                ErrorCode.BadRequest.getCode());
+
+        try (Stream<TransactionDto> transactions = transactionRepository.streamByAccountId(accountId, from, to)) {
+            transactions.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
+    public TransactionDto createTransaction(@NotNull Integer accountIdInt, @NotNull Money amount, @NotNull TransactionTypes type) throws AccountException{
 
         logger.info("createTransaction method was called");
 
@@ -76,17 +185,160 @@ public class TransactionServiceImp implements ITransactionService {
             validator.isTrue((accountIdInt < 0), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id"),
                     ErrorCode.BadRequest.getCode());
 
-            validator.isTrue((amountDecimal.compareTo(BigDecimal.ZERO) <= 0),
+            validator.isTrue(!amount.isPositive(),
                     String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Amount"), ErrorCode.BadRequest.getCode());
 
-            TransactionType transactionType = transactionTypeRepository.getOne(type.getCode());
-            Account account = accountService.updateAccountAmount(accountIdInt, amountDecimal, type);
-            Transaction transaction = new Transaction(transactionType, amountDecimal, account);
-            transactionRepository.save(transaction);
-            return modelMapper.map(transaction, TransactionDto.class);
+            Account account = accountService.updateAccountAmount(accountIdInt, amount, type);
+
+            // Commits with the balance change, so a retry with the same Idempotency-Key can never apply it twice.
+            validator.isTrue(!idempotencyMarker.markApplied(), ErrorMessage.IDEMPOTENCY_KEY_APPLIED.getMessage(),
+                    ErrorCode.Conflict.getCode());
+
+            Transaction transaction = new Transaction(transactionTypeRegistry.reference(type), amount, account);
+            ledger.record(transaction);
+            return DtoMapper.toDto(transaction);
         }
         catch (NumberFormatException ex){
             throw new AccountException(ErrorCode.Unprocessable_entity.getCode(), ErrorMessage.TRANSACTION_NOT_CREATED_EXCEPTION.getMessage());
         }
     }
+
+    /**
+     * Applies many deposits and withdrawals in one transaction. The accounts are locked once, the operations are
+     * checked in order against each account's running balance, and only then is the net change written with one
+     * UPDATE per account and the ledger rows inserted in JDBC batches. An operation that fails its checks, or whose
+     * Idempotency-Key another request applied first, is reported in its result and skipped; it does not affect the
+     * other operations.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED, rollbackFor = AccountException.class)
+    public AccountBatchResult createTransactions(@NotNull List<AccountOperation> operations) throws AccountException {
+
+        logger.info("createTransactions method was called for {} operations", operations.size());
+
+        validator.isTrue(operations.size() > MAX_BATCH_SIZE, String.format(ErrorMessage.BATCH_SIZE_EXCEEDED.getMessage(), MAX_BATCH_SIZE),
+                ErrorCode.BadRequest.getCode());
+
+        List<AccountOperationResult> results = new ArrayList<>(operations.size());
+        Set<Integer> accountIds = new TreeSet<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            AccountOperation operation = operations.get(i);
+            AccountOperationResult result = new AccountOperationResult(i, (operation == null) ? null : operation.getAccountId());
+            String error = checkOperation(operation);
+            if (error != null) {
+                result.reject(ErrorCode.BadRequest.getCode(), error);
+            } else {
+                accountIds.add(operation.getAccountId());
+            }
+            results.add(result);
+        }
+
+        Map<Integer, Account> accounts = new HashMap<>();
+        List<Integer> sortedIds = new ArrayList<>(accountIds);
+        for (int from = 0; from < sortedIds.size(); from += LOCK_CHUNK_SIZE) {
+            List<Integer> chunk = sortedIds.subList(from, Math.min(from + LOCK_CHUNK_SIZE, sortedIds.size()));
+            accountRepository.findAllByIdForUpdate(chunk).forEach(account -> accounts.put(account.getId(), account));
+        }
+
+        Date createdTime = new Date();
+        Map<Integer, Money> balances = new HashMap<>();
+        Map<Integer, Money> changes = new TreeMap<>();
+        if (balanceBuckets > 1 && !accounts.isEmpty()) {
+            collectBuckets(accounts, balances, changes, createdTime);
+        }
+        List<Transaction> ledger = new ArrayList<>();
+
+        for (AccountOperationResult result : results) {
+            if (!result.isSuccess()) {
+                continue;
+            }
+            AccountOperation operation = operations.get(result.getIndex());
+            Account account = accounts.get(operation.getAccountId());
+            if (account == null) {
+                result.reject(ErrorCode.BadRequest.getCode(), ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage());
+                continue;
+            }
+
+            TransactionTypes type = TransactionTypes.valueOf(operation.getType());
+            Money amount = operation.getAmount();
+            Money balance = balances.getOrDefault(account.getId(), account.getBalance());
+            if (type == TransactionTypes.WITHDRAW && balance.compareTo(amount) < 0) {
+                result.reject(ErrorCode.BadRequest.getCode(), ErrorMessage.NO_ENOUGH_BALANCE.getMessage());
+                continue;
+            }
+
+            if (!idempotencyMarker.markApplied(operation.getIdempotencyRecordId())) {
+                result.reject(ErrorCode.Conflict.getCode(), ErrorMessage.IDEMPOTENCY_KEY_APPLIED.getMessage());
+                continue;
+            }
+
+            Money change = (type == TransactionTypes.DEPOSIT) ? amount : amount.negate();
+            balances.put(account.getId(), balance.plus(change));
+            changes.merge(account.getId(), change, Money::plus);
+
+            Transaction transaction = new Transaction(transactionTypeRegistry.reference(type), amount, account);
+            transaction.setCreatedTime(createdTime);
+            ledger.add(transaction);
+        }
+
+        List<AccountDto> updatedAccounts = new ArrayList<>(changes.size());
+        for (Map.Entry<Integer, Money> change : changes.entrySet()) {
+            int updated = accountRepository.changeBalance(change.getKey(), change.getValue(), createdTime);
+
+            // The rows are locked, so this only fails if the lock was not honoured; nothing of the batch is kept then.
+            validator.isTrue(updated == 0, ErrorMessage.NO_ENOUGH_BALANCE.getMessage(), ErrorCode.Conflict.getCode());
+            updatedAccounts.add(new AccountDto(change.getKey(), balances.get(change.getKey())));
+        }
+        transactionRepository.insertAll(ledger);
+
+        return new AccountBatchResult(results, updatedAccounts);
+    }
+
+    /**
+     * Moves the balance buckets of the locked accounts into the batch's changes, so the operations are checked
+     * against the whole balance and the buckets are folded into the account rows by the same UPDATE.
+     */
+    private void collectBuckets(Map<Integer, Account> accounts, Map<Integer, Money> balances,
+                                Map<Integer, Money> changes, Date updatedTime) {
+
+        List<Integer> sortedIds = new ArrayList<>(new TreeSet<>(accounts.keySet()));
+        for (int from = 0; from < sortedIds.size(); from += LOCK_CHUNK_SIZE) {
+            List<Integer> chunk = sortedIds.subList(from, Math.min(from + LOCK_CHUNK_SIZE, sortedIds.size()));
+            Map<Integer, Money> collected = new HashMap<>();
+            for (BalanceBucket bucket : balanceBucketRepository.findAllByAccountIdForUpdate(chunk)) {
+                if (bucket.getBalance().signum() != 0) {
+                    collected.merge(bucket.getAccountId(), bucket.getBalance(), Money::plus);
+                }
+            }
+            if (collected.isEmpty()) {
+                continue;
+            }
+            collected.forEach((accountId, amount) -> {
+                balances.put(accountId, accounts.get(accountId).getBalance().plus(amount));
+                changes.put(accountId, amount);
+            });
+            balanceBucketRepository.empty(chunk, updatedTime);
+        }
+    }
+
+    /**
+     * Returns why the operation can be rejected without looking at the account, or null when it is well formed.
+     */
+    private static String checkOperation(AccountOperation operation) {
+
+        if (operation == null || operation.getAccountId() == null || operation.getType() == null || operation.getAmount() == null) {
+            return ErrorMessage.NO_MANDATORY_FIELD.getMessage();
+        }
+        if (operation.getAccountId() < 1) {
+            return String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Account Id");
+        }
+        if (!operation.getAmount().isPositive()) {
+            return String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Amount");
+        }
+        if (!TransactionTypes.DEPOSIT.name().equals(operation.getType()) && !TransactionTypes.WITHDRAW.name().equals(operation.getType())) {
+            return ErrorMessage.OPERATION_TYPE_NOT_SUPPORTED.getMessage();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,23 @@
+package com.github.service.accountservice.service.consumes;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+public class AccountAmountRequest {
+
+    @NotNull
+    private Integer accountId;
+    @NotNull
+    private Money amount;
+
+    public AccountAmountRequest(){}
+
+    public AccountAmountRequest(Integer accountId, Money amount){
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.service.accountservice.service.consumes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class AccountOperation {
+
+    private Integer accountId;
+    private String type;
+    private Money amount;
+    // The Idempotency-Key of the request the account sequencer queued the operation for; never read from a body.
+    @JsonIgnore
+    private Long idempotencyRecordId;
+
+    public AccountOperation(){}
+
+    public AccountOperation(Integer accountId, String type, Money amount){
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.service.accountservice.service.consumes;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+@Getter
+@Setter
+public class BalanceAtRequest {
+
+    @NotNull
+    private Integer accountId;
+    private Date at;
+
+    public BalanceAtRequest(){}
+
+    public BalanceAtRequest(Integer accountId, Date at){
+        this.accountId = accountId;
+        this.at = at;
+    }
+}
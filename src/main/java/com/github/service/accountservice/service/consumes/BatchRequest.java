@@ -0,0 +1,20 @@
+package com.github.service.accountservice.service.consumes;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchRequest {
+
+    @NotEmpty
+    private List<AccountOperation> operations;
+
+    public BatchRequest(){}
+
+    public BatchRequest(List<AccountOperation> operations){
+        this.operations = operations;
+    }
+}
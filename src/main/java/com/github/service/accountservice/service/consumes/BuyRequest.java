@@ -0,0 +1,22 @@
+package com.github.service.accountservice.service.consumes;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+public class BuyRequest {
+
+    @NotNull
+    private Integer accountId;
+    @NotNull
+    private Integer productId;
+
+    public BuyRequest(){}
+
+    public BuyRequest(Integer accountId, Integer productId){
+        this.accountId = accountId;
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.service.accountservice.service.consumes;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.validation.constraints.NotNull;
+
+/**
+ * The {"product": {...}} body of the product endpoints, {@code T} being what the endpoint takes.
+ */
+@Getter
+@Setter
+public class ProductRequest<T> {
+
+    @NotNull
+    private T product;
+
+    public ProductRequest(){}
+
+    public ProductRequest(T product){
+        this.product = product;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.service.accountservice.service.consumes;
+
+import lombok.Getter;
+import lombok.Setter;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+@Getter
+@Setter
+public class TransactionsRequest {
+
+    @NotNull
+    private Integer accountId;
+    private Date afterTime;
+    private Long afterId;
+    private Integer limit;
+    private Date from;
+    private Date to;
+
+    public TransactionsRequest(){}
+
+    public TransactionsRequest(Integer accountId){
+        this.accountId = accountId;
+    }
+}
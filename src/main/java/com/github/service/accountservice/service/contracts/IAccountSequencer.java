@@ -0,0 +1,45 @@
+package com.github.service.accountservice.service.contracts;
+
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.models.AccountDto;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Where the deposit and withdraw endpoints send their balance changes. Each change is applied in a transaction of
+ * its own or together with other changes, depending on the implementation; the account comes back as it is once the
+ * change is committed.
+ */
+public interface IAccountSequencer {
+
+    /**
+     * Queues a DEPOSIT or WITHDRAW. The future fails with the {@link AccountException} the change was rejected with.
+     */
+    CompletableFuture<AccountDto> submit(@NotNull Integer accountId, @NotNull Money amount, @NotNull TransactionTypes type);
+
+    /**
+     * {@link #submit} for callers that can wait on their thread.
+     */
+    default AccountDto apply(@NotNull Integer accountId, @NotNull Money amount, @NotNull TransactionTypes type) throws AccountException {
+
+        try {
+            return submit(accountId, amount, type).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.Service_unavailable.getCode(), ErrorMessage.DATABASE_BUSY.getMessage());
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof AccountException) {
+                throw (AccountException) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.service.accountservice.service.contracts;
+
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.service.models.AccountBalanceDto;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+public interface IReconciliationService {
+
+    int reconcile();
+    AccountBalanceDto getBalanceAt(@NotNull Integer accountId, Date at) throws AccountException;
+}
@@ -2,13 +2,22 @@ package com.github.service.accountservice.service.contracts;
 
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.consumes.AccountOperation;
+import com.github.service.accountservice.service.models.AccountBatchResult;
 import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
 import javax.validation.constraints.NotNull;
-import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ITransactionService {
 
     List<TransactionDto> getTransactionsByAccountId(@NotNull Integer walletId) throws AccountException;
-    TransactionDto createTransaction(@NotNull Integer accountIdInt,@NotNull BigDecimal amountDecimal,@NotNull TransactionTypes transactionType) throws AccountException;
+    TransactionPage getTransactionsByAccountId(@NotNull Integer accountId, Date afterTime, Long afterId, Integer limit, Date from, Date to) throws AccountException;
+    TransactionPage getTransactionStreamPage(@NotNull Integer accountId, Date afterTime, Long afterId, Integer limit, Date from, Date to) throws AccountException;
+    void streamTransactionsByAccountId(@NotNull Integer accountId, Date from, Date to, @NotNull Consumer<TransactionDto> consumer) throws AccountException;
+    TransactionDto createTransaction(@NotNull Integer accountIdInt,@NotNull Money amount,@NotNull TransactionTypes transactionType) throws AccountException;
+    AccountBatchResult createTransactions(@NotNull List<AccountOperation> operations) throws AccountException;
 }
@@ -0,0 +1,56 @@
+package com.github.service.accountservice.service.mappers;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.ProductDto;
+import com.github.service.accountservice.service.models.TransactionDto;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity to DTO mapping written out by hand: plain getter calls, no reflection and no per-call type
+ * resolution, so mapping a row costs one DTO allocation. Lazy associations are only asked for their
+ * id, which Hibernate answers from the proxy without loading the row.
+ */
+public final class DtoMapper {
+
+    private DtoMapper() {}
+
+    public static AccountDto toDto(Account account) {
+        return new AccountDto(account.getId(), account.getBalance());
+    }
+
+    public static ProductDto toDto(Product product) {
+        return new ProductDto(product.getId(), product.getName(), product.getPrice(), product.getProductCount());
+    }
+
+    public static TransactionDto toDto(Transaction transaction) {
+
+        return new TransactionDto(transaction.getId(),
+                (transaction.getAccount() == null) ? null : transaction.getAccount().getId(),
+                transaction.getAmount(),
+                transaction.getCreatedTime(),
+                (transaction.getType() == null) ? null : transaction.getType().getType(),
+                (transaction.getProduct() == null) ? null : transaction.getProduct().getId());
+    }
+
+    public static List<ProductDto> toProductDtos(List<Product> products) {
+
+        List<ProductDto> dtos = new ArrayList<>(products.size());
+        for (Product product : products) {
+            dtos.add(toDto(product));
+        }
+        return dtos;
+    }
+
+    public static List<TransactionDto> toTransactionDtos(List<Transaction> transactions) {
+
+        List<TransactionDto> dtos = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            dtos.add(toDto(transaction));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.service.accountservice.service.models;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import lombok.Setter;
+import java.util.Date;
+
+@Getter
+@Setter
+public class AccountBalanceDto {
+
+    private Integer accountId;
+    private Money balance;
+    private Date at;
+
+    public AccountBalanceDto(){}
+
+    public AccountBalanceDto(Integer accountId, Money balance, Date at){
+        this.accountId = accountId;
+        this.balance = balance;
+        this.at = at;
+    }
+}
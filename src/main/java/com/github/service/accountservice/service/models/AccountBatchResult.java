@@ -0,0 +1,20 @@
+package com.github.service.accountservice.service.models;
+
+import lombok.Getter;
+import lombok.Setter;
+import java.util.List;
+
+@Getter
+@Setter
+public class AccountBatchResult {
+
+    private List<AccountOperationResult> results;
+    private List<AccountDto> accounts;
+
+    public AccountBatchResult(){}
+
+    public AccountBatchResult(List<AccountOperationResult> results, List<AccountDto> accounts){
+        this.results = results;
+        this.accounts = accounts;
+    }
+}
@@ -1,19 +1,19 @@
 package com.github.service.accountservice.service.models;
 
+import com.github.service.accountservice.money.Money;
 import lombok.Getter;
 import lombok.Setter;
-import java.math.BigDecimal;
 
 @Getter
 @Setter
 public class AccountDto {
 
     private Integer id;
-    private BigDecimal balance;
+    private Money balance;
 
     public AccountDto(){}
 
-    public AccountDto(Integer id, BigDecimal balance){
+    public AccountDto(Integer id, Money balance){
         this.id = id;
         this.balance = balance;
     }
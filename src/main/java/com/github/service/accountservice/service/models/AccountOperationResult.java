@@ -0,0 +1,32 @@
+package com.github.service.accountservice.service.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class AccountOperationResult {
+
+    private int index;
+    private Integer accountId;
+    private boolean success;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer errorCode;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+
+    public AccountOperationResult(){}
+
+    public AccountOperationResult(int index, Integer accountId){
+        this.index = index;
+        this.accountId = accountId;
+        this.success = true;
+    }
+
+    public void reject(int errorCode, String message){
+        this.success = false;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+}
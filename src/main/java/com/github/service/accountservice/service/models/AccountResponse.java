@@ -0,0 +1,17 @@
+package com.github.service.accountservice.service.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class AccountResponse {
+
+    private AccountDto account;
+
+    public AccountResponse(){}
+
+    public AccountResponse(AccountDto account){
+        this.account = account;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.service.accountservice.service.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BalanceResponse {
+
+    private AccountBalanceDto balance;
+
+    public BalanceResponse(){}
+
+    public BalanceResponse(AccountBalanceDto balance){
+        this.balance = balance;
+    }
+}
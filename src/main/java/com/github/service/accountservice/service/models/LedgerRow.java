@@ -0,0 +1,26 @@
+package com.github.service.accountservice.service.models;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+import java.util.Date;
+
+/**
+ * The columns of a ledger row that make up a balance.
+ */
+@Getter
+public class LedgerRow {
+
+    private final long id;
+    private final Integer accountId;
+    private final int typeId;
+    private final Money amount;
+    private final Date createdTime;
+
+    public LedgerRow(long id, Integer accountId, int typeId, Money amount, Date createdTime){
+        this.id = id;
+        this.accountId = accountId;
+        this.typeId = typeId;
+        this.amount = amount;
+        this.createdTime = createdTime;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.service.accountservice.service.models;
+
+import com.github.service.accountservice.money.Money;
+import lombok.Getter;
+
+/**
+ * The total amount of an account's ledger rows of one type.
+ */
+@Getter
+public class LedgerSum {
+
+    private final Integer accountId;
+    private final int typeId;
+    private final Money amount;
+
+    public LedgerSum(Integer accountId, int typeId, Money amount){
+        this.accountId = accountId;
+        this.typeId = typeId;
+        this.amount = amount;
+    }
+}
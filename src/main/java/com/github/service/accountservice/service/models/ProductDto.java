@@ -1,8 +1,8 @@
 package com.github.service.accountservice.service.models;
 
+import com.github.service.accountservice.money.Money;
 import lombok.Getter;
 import lombok.Setter;
-import java.math.BigDecimal;
 
 @Getter
 @Setter
@@ -10,12 +10,12 @@ public class ProductDto {
 
     private Integer id;
     private String name;
-    private BigDecimal price;
+    private Money price;
     private Integer count;
 
     public ProductDto(){}
 
-    public ProductDto(Integer id, String name, BigDecimal price, Integer count){
+    public ProductDto(Integer id, String name, Money price, Integer count){
         this.id = id;
         this.name = name;
         this.price = price;
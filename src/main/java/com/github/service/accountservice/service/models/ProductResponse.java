@@ -0,0 +1,17 @@
+package com.github.service.accountservice.service.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProductResponse {
+
+    private ProductDto product;
+
+    public ProductResponse(){}
+
+    public ProductResponse(ProductDto product){
+        this.product = product;
+    }
+}
@@ -1,9 +1,9 @@
 package com.github.service.accountservice.service.models;
 
+import com.github.service.accountservice.money.Money;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
-import java.math.BigDecimal;
 import java.util.Date;
 
 @Getter
@@ -12,7 +12,7 @@ public class TransactionDto {
 
     private long id;
     private Integer accountId;
-    private BigDecimal amount;
+    private Money amount;
     private Date date;
     private String type;
     @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -21,4 +21,13 @@ public class TransactionDto {
     public TransactionDto(){
         this.date = new Date();
     }
+
+    public TransactionDto(long id, Integer accountId, Money amount, Date date, String type, Integer productId){
+        this.id = id;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.date = date;
+        this.type = type;
+        this.productId = productId;
+    }
 }
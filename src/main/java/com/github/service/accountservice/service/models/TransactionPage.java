@@ -0,0 +1,26 @@
+package com.github.service.accountservice.service.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@Setter
+public class TransactionPage {
+
+    private List<TransactionDto> transactions;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Date nextAfterTime;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long nextAfterId;
+
+    public TransactionPage(){}
+
+    public TransactionPage(List<TransactionDto> transactions, Date nextAfterTime, Long nextAfterId){
+        this.transactions = transactions;
+        this.nextAfterTime = nextAfterTime;
+        this.nextAfterId = nextAfterId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.service.accountservice.service.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TransactionResponse {
+
+    private TransactionDto transaction;
+
+    public TransactionResponse(){}
+
+    public TransactionResponse(TransactionDto transaction){
+        this.transaction = transaction;
+    }
+}
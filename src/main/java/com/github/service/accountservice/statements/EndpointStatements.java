@@ -0,0 +1,87 @@
+package com.github.service.accountservice.statements;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link RequestStatements} of every request added up per endpoint, "POST /store/buy", since the start or the
+ * last {@link #reset()}. Served on /actuator/statements.
+ */
+public class EndpointStatements {
+
+    private final Map<String, Totals> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, RequestStatements request) {
+
+        Totals totals = endpoints.get(endpoint);
+        if (totals == null) {
+            totals = endpoints.computeIfAbsent(endpoint, e -> new Totals());
+        }
+        totals.add(request);
+    }
+
+    /**
+     * The totals of one endpoint, or null when it was not called.
+     */
+    public Totals get(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    public Map<String, Totals> snapshot() {
+        return new TreeMap<>(endpoints);
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public static class Totals {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        void add(RequestStatements request) {
+
+            requests.increment();
+            statements.add(request.getStatements());
+            rows.add(request.getRows());
+            nanos.add(request.getNanos());
+            maxStatements.accumulate(request.getStatements());
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public double getDbMillis() {
+            return nanos.sum() / 1_000_000.0;
+        }
+
+        public double getStatementsPerRequest() {
+
+            long count = requests.sum();
+            return (count == 0) ? 0 : (double) statements.sum() / count;
+        }
+
+        /**
+         * The most statements a single request took.
+         */
+        public long getMaxStatements() {
+            return maxStatements.get();
+        }
+    }
+}
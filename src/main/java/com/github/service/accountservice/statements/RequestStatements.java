@@ -0,0 +1,65 @@
+package com.github.service.accountservice.statements;
+
+import java.util.Locale;
+
+/**
+ * The statements one request sent to the database: how many round trips, the rows they returned or changed and
+ * the time spent executing them. Bound to the thread serving the request between {@link #begin()} and
+ * {@link #end()}; connections handed out by {@link StatementAccountingDataSource} in between count into it.
+ */
+public class RequestStatements {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    public static RequestStatements begin() {
+
+        RequestStatements request = new RequestStatements();
+        CURRENT.set(request);
+        return request;
+    }
+
+    /**
+     * The request bound to this thread, or null outside of one.
+     */
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void executed(long nanos, long rows) {
+
+        this.statements++;
+        this.nanos += nanos;
+        this.rows += rows;
+    }
+
+    void fetched() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * The value of the Server-Timing header: {@code db;dur=1.234;desc="4 statements, 7 rows"}, in milliseconds.
+     */
+    public String serverTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements, %d rows\"", nanos / 1_000_000.0, statements, rows);
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.service.accountservice.statements;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts what the statements of the current {@link RequestStatements} do: every execute call is one statement,
+ * a batch included, and is timed; its rows are the update counts it returns and the rows read from its result
+ * sets. Outside of a request, e.g. on the ledger drainer or the reconciliation, connections are handed out as they
+ * come from the pool, so the background work pays nothing for it.
+ */
+public class StatementAccountingDataSource extends DelegatingDataSource {
+
+    public StatementAccountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        RequestStatements request = RequestStatements.current();
+        Connection connection = super.getConnection();
+        return (request == null) ? connection : accounting(connection, request);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        RequestStatements request = RequestStatements.current();
+        Connection connection = super.getConnection(username, password);
+        return (request == null) ? connection : accounting(connection, request);
+    }
+
+    private static Connection accounting(Connection connection, RequestStatements request) {
+
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return accounting((Statement) result, method.getReturnType(), request);
+            }
+            return result;
+        };
+        return proxy(Connection.class, handler);
+    }
+
+    private static Object accounting(Statement statement, Class<?> type, RequestStatements request) {
+
+        Object[] self = new Object[1];
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return (result instanceof ResultSet) ? accounting((ResultSet) result, self[0], request) : result;
+            }
+            long start = System.nanoTime();
+            Object result = invoke(statement, method, args);
+            request.executed(System.nanoTime() - start, updated(result));
+            return (result instanceof ResultSet) ? accounting((ResultSet) result, self[0], request) : result;
+        };
+        self[0] = proxy(type, handler);
+        return self[0];
+    }
+
+    // getStatement answers with the proxy, Hibernate finds the result set's statement by it.
+    private static ResultSet accounting(ResultSet resultSet, Object statement, RequestStatements request) {
+
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("getStatement") && method.getParameterCount() == 0) {
+                return statement;
+            }
+            Object result = invoke(resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                request.fetched();
+            }
+            return result;
+        };
+        return proxy(ResultSet.class, handler);
+    }
+
+    private static long updated(Object result) {
+
+        if (result instanceof Number) {
+            return Math.max(((Number) result).longValue(), 0);
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.service.accountservice.statements;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Accounts the statements of every servlet request and answers with them in a Server-Timing header. The header
+ * goes out when the body starts, the services are done with the database by then; a response without a body gets
+ * it at the end. The totals are kept per handler mapping, requests no handler took are left out.
+ */
+public class StatementAccountingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final EndpointStatements endpointStatements;
+
+    public StatementAccountingFilter(EndpointStatements endpointStatements) {
+        this.endpointStatements = endpointStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        RequestStatements statements = RequestStatements.begin();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, statements);
+        try {
+            chain.doFilter(request, timedResponse);
+        } finally {
+            RequestStatements.end();
+            timedResponse.writeHeader();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                endpointStatements.record(request.getMethod() + " " + pattern, statements);
+            }
+        }
+    }
+
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestStatements statements;
+        private boolean written;
+
+        ServerTimingResponse(HttpServletResponse response, RequestStatements statements) {
+            super(response);
+            this.statements = statements;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        void writeHeader() {
+
+            if (!written && !isCommitted()) {
+                setHeader(HEADER, statements.serverTiming());
+            }
+            written = true;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.service.accountservice.statements;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import java.util.Map;
+
+/**
+ * /actuator/statements: statements, rows and database time per endpoint. A DELETE starts the counts over.
+ */
+@Endpoint(id = "statements")
+public class StatementsEndpoint {
+
+    private final EndpointStatements endpointStatements;
+
+    public StatementsEndpoint(EndpointStatements endpointStatements) {
+        this.endpointStatements = endpointStatements;
+    }
+
+    @ReadOperation
+    public Map<String, EndpointStatements.Totals> statements() {
+        return endpointStatements.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        endpointStatements.reset();
+    }
+}
@@ -2,59 +2,46 @@ package com.github.service.accountservice.validator;
 
 import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.exceptions.AccountException;
-import com.github.service.accountservice.service.consumes.ProductCreate;
-import com.github.service.accountservice.service.consumes.ProductDelete;
-import com.github.service.accountservice.service.models.ProductDto;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
-import java.util.List;
-import java.util.Map;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
 
 @Validated
 @Component
-public class ValidatorImp implements IValidator<String,String> {
-
-    @Override
-    public void validate(@NotNull Map<String, String> input, @NotNull List<String> required) throws AccountException {
-
-        for (String parameter : required) {
-            if (!input.containsKey(parameter) || (input.get(parameter) == null) || (input.get(parameter).isEmpty())) {
-                String message = String.format(ErrorMessage.NO_MANDATORY_FIELD.getMessage(), parameter);
-                throw new AccountException(400, message);
-            }
+public class ValidatorImp implements IValidator {
+
+    // The fields marked mandatory in each request class, looked up once per class.
+    private static final ClassValue<Field[]> MANDATORY_FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            return Arrays.stream(type.getDeclaredFields())
+                    .filter(field -> field.isAnnotationPresent(NotNull.class) || field.isAnnotationPresent(NotEmpty.class))
+                    .peek(field -> field.setAccessible(true))
+                    .toArray(Field[]::new);
         }
-    }
+    };
 
+    /**
+     * Checks that the fields of a request body marked {@link NotNull} or {@link NotEmpty} are there; whether the
+     * values make sense is up to the services. Only these two constraints are read, a full Bean Validation run costs
+     * more than binding the body did.
+     */
     @Override
-    public void createProductValidate(@NotNull Map<String, ProductCreate> input, @NotNull List<String> required) throws AccountException {
-
-        for (String parameter : required) {
-            if (!input.containsKey(parameter) || (input.get(parameter) == null)) {
-                String message = String.format(ErrorMessage.NO_MANDATORY_FIELD.getMessage(), parameter);
-                throw new AccountException(400, message);
+    public void validate(@NotNull Object request) throws AccountException {
+
+        for (Field field : MANDATORY_FIELDS.get(request.getClass())) {
+            Object value;
+            try {
+                value = field.get(request);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
             }
-        }
-    }
-
-    @Override
-    public void deleteProductValidate(@NotNull Map<String, ProductDelete> input, @NotNull List<String> required) throws AccountException {
-
-        for (String parameter : required) {
-            if (!input.containsKey(parameter) || (input.get(parameter) == null)) {
-                String message = String.format(ErrorMessage.NO_MANDATORY_FIELD.getMessage(), parameter);
-                throw new AccountException(400, message);
-            }
-        }
-    }
-
-    @Override
-    public void updateProductValidate(@NotNull Map<String, ProductDto> input, @NotNull List<String> required) throws AccountException {
-
-        for (String parameter : required) {
-            if (!input.containsKey(parameter) || (input.get(parameter) == null)) {
-                String message = String.format(ErrorMessage.NO_MANDATORY_FIELD.getMessage(), parameter);
-                throw new AccountException(400, message);
+            if (value == null || (value instanceof Collection && ((Collection<?>) value).isEmpty())) {
+                throw new AccountException(400, ErrorMessage.NO_MANDATORY_FIELD.getMessage());
             }
         }
     }
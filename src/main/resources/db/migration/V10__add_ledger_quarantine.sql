@@ -0,0 +1,18 @@
+/*
+ * Server: MySQl
+ * Version: V10
+ * Description: Journal ledger entries whose transaction never confirmed its commit, kept apart from account_transaction
+*/
+CREATE TABLE IF NOT EXISTS ledger_quarantine
+(
+    id BIGINT NOT NULL,
+    account_id INT NOT NULL,
+    type_id INT NOT NULL,
+    product_id INT NULL,
+    amount NUMERIC(15,2) NOT NULL,
+    created_time TIMESTAMP NULL,
+    quarantined_time TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY(id)
+);
+
+CREATE INDEX idx_ledger_quarantine_account ON ledger_quarantine (account_id);
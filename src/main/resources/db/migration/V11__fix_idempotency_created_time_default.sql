@@ -0,0 +1,8 @@
+/*
+ * Server: MySQl
+ * Version: V11
+ * Description: Give idempotency_key.created_time an explicit default. As the table's first TIMESTAMP NOT NULL column,
+ *              MySQL without explicit_defaults_for_timestamp made it ON UPDATE CURRENT_TIMESTAMP, so marking a key
+ *              applied or completed moved its creation time.
+*/
+ALTER TABLE idempotency_key MODIFY COLUMN created_time TIMESTAMP NOT NULL DEFAULT NOW();
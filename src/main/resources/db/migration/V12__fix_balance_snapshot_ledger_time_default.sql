@@ -0,0 +1,8 @@
+/*
+ * Server: MySQl
+ * Version: V12
+ * Description: Give account_balance_snapshot.ledger_time an explicit default. As the table's first TIMESTAMP NOT NULL
+ *              column, MySQL without explicit_defaults_for_timestamp made it ON UPDATE CURRENT_TIMESTAMP, so any update
+ *              of a snapshot row would move the ledger position it stands for.
+*/
+ALTER TABLE account_balance_snapshot MODIFY COLUMN ledger_time TIMESTAMP NOT NULL DEFAULT NOW();
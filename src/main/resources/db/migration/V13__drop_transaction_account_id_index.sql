@@ -0,0 +1,7 @@
+/*
+ * Server: MySQl
+ * Version: V13
+ * Description: Drop the (account_id, id) index of V3. Every read of an account's history now runs in (created_time, id)
+ *              order on the (account_id, created_time) index of V6, which also serves the account_id reference.
+*/
+ALTER TABLE account_transaction DROP INDEX idx_account_transaction_account_id;
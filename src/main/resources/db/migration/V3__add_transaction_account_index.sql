@@ -0,0 +1,6 @@
+/*
+ * Server: MySQl
+ * Version: V3
+ * Description: Composite index for keyset pagination of account transactions
+*/
+CREATE INDEX idx_account_transaction_account_id ON account_transaction (account_id, id);
@@ -0,0 +1,8 @@
+/*
+ * Server: MySQl
+ * Version: V4
+ * Description: Version columns for optimistic locking of accounts and products
+*/
+ALTER TABLE user_account ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE product ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,13 @@
+/*
+ * Server: MySQl
+ * Version: V5
+ * Description: Table-backed id blocks for account_transaction, so inserts can be batched
+*/
+CREATE TABLE IF NOT EXISTS id_generator
+(
+    name VARCHAR(64) NOT NULL,
+    next_id BIGINT NOT NULL,
+    PRIMARY KEY(name)
+);
+
+INSERT INTO id_generator (name, next_id) SELECT 'account_transaction', COALESCE(MAX(id), 0) + 1 FROM account_transaction;
@@ -0,0 +1,42 @@
+/*
+ * Server: MySQl
+ * Version: V6
+ * Description: Ledger reconciliation: per-account balance snapshots, the reconciler checkpoint and detected drifts
+*/
+CREATE TABLE IF NOT EXISTS account_balance_snapshot
+(
+    id BIGINT AUTO_INCREMENT,
+    account_id INT NOT NULL,
+    balance NUMERIC(15,2) NOT NULL,
+    ledger_time TIMESTAMP NOT NULL,
+    ledger_id BIGINT NOT NULL,
+    created_time TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY(id)
+);
+
+CREATE INDEX idx_account_balance_snapshot_account ON account_balance_snapshot (account_id, ledger_time, ledger_id);
+
+CREATE TABLE IF NOT EXISTS ledger_checkpoint
+(
+    name VARCHAR(64) NOT NULL,
+    ledger_time TIMESTAMP NULL,
+    ledger_id BIGINT NOT NULL,
+    updated_time TIMESTAMP NULL,
+    PRIMARY KEY(name)
+);
+
+INSERT INTO ledger_checkpoint (name, ledger_time, ledger_id) VALUES ('reconciliation', NULL, 0);
+
+CREATE TABLE IF NOT EXISTS balance_drift
+(
+    id BIGINT AUTO_INCREMENT,
+    account_id INT NOT NULL,
+    account_balance NUMERIC(15,2) NOT NULL,
+    ledger_balance NUMERIC(15,2) NOT NULL,
+    detected_time TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY(id)
+);
+
+-- The reconciler walks the ledger in (created_time, id) order, balance lookups read one account's rows after a time.
+CREATE INDEX idx_account_transaction_created_time ON account_transaction (created_time, id);
+CREATE INDEX idx_account_transaction_account_created_time ON account_transaction (account_id, created_time);
@@ -0,0 +1,21 @@
+/*
+ * Server: MySQl
+ * Version: V7
+ * Description: Idempotency keys of the money-moving endpoints with the response they were answered with
+*/
+CREATE TABLE IF NOT EXISTS idempotency_key
+(
+    id BIGINT AUTO_INCREMENT,
+    scope VARCHAR(64) NOT NULL,
+    request_key VARCHAR(255) NOT NULL,
+    fingerprint VARCHAR(64) NOT NULL,
+    response_status INT NULL,
+    response_body VARCHAR(4000) NULL,
+    created_time TIMESTAMP NOT NULL,
+    completed_time TIMESTAMP NULL,
+    PRIMARY KEY(id)
+);
+
+-- Only one request claims a key, on every node; the purge of expired keys walks created_time.
+CREATE UNIQUE INDEX uq_idempotency_key_scope_key ON idempotency_key (scope, request_key);
+CREATE INDEX idx_idempotency_key_created_time ON idempotency_key (created_time);
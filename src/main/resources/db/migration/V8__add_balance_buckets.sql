@@ -0,0 +1,17 @@
+/*
+ * Server: MySQl
+ * Version: V8
+ * Description: Balance buckets: extra balance rows of an account, so concurrent deposits do not all wait for its row lock
+*/
+CREATE TABLE IF NOT EXISTS account_balance_bucket
+(
+    id BIGINT AUTO_INCREMENT,
+    account_id INT NOT NULL REFERENCES user_account(id),
+    slot INT NOT NULL,
+    balance NUMERIC(15,2) DEFAULT 0 NOT NULL,
+    last_updated_time TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY(id)
+);
+
+-- A deposit updates one (account_id, slot) row; reads and sweeps take all rows of an account.
+CREATE UNIQUE INDEX uq_account_balance_bucket_slot ON account_balance_bucket (account_id, slot);
@@ -0,0 +1,6 @@
+/*
+ * Server: MySQl
+ * Version: V9
+ * Description: When the money movement of an idempotency key's request committed; set in that same transaction
+*/
+ALTER TABLE idempotency_key ADD COLUMN applied_time TIMESTAMP NULL;
@@ -0,0 +1,11 @@
+-- Fixed window counter in one round trip.
+-- KEYS[1] counter key, ARGV[1] window length in milliseconds.
+-- Returns {count, milliseconds until the window resets}.
+local count = redis.call('INCR', KEYS[1])
+local ttl = redis.call('PTTL', KEYS[1])
+-- Also heals counters left without an expiry by the old INCR-then-EXPIRE sequence.
+if ttl < 0 then
+    ttl = tonumber(ARGV[1])
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+return {count, ttl}
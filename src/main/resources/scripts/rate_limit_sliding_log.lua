@@ -0,0 +1,20 @@
+-- Sliding log in one round trip: one sorted set member per accepted request, scored by its time.
+-- KEYS[1] log key, ARGV[1] now in milliseconds, ARGV[2] window length in milliseconds,
+-- ARGV[3] limit, ARGV[4] unique member for this request.
+-- Returns {count including this request, milliseconds until the oldest entry leaves the window}.
+-- Rejected requests are not logged, so they do not extend the wait.
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local limit = tonumber(ARGV[3])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+local count = redis.call('ZCARD', KEYS[1])
+if count < limit then
+    redis.call('ZADD', KEYS[1], now, ARGV[4])
+    redis.call('PEXPIRE', KEYS[1], window)
+end
+local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+local ttl = window
+if oldest[2] then
+    ttl = tonumber(oldest[2]) + window - now
+end
+return {count + 1, ttl}
@@ -0,0 +1,194 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.RateLimitStrategy;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LocalRateLimiterTest {
+
+    @RateLimit(limit = 3, duration = 60, unit = TimeUnit.SECONDS)
+    private void limited() {}
+
+    private final RateLimitDecision decision = new RateLimitDecision();
+
+    private RateLimit rateLimit() throws NoSuchMethodException {
+        return LocalRateLimiterTest.class.getDeclaredMethod("limited").getAnnotation(RateLimit.class);
+    }
+
+    private boolean tryAcquire(LocalRateLimiter rateLimiter, String uri, String client, RateLimit rateLimit) {
+        rateLimiter.acquire(uri, client, rateLimit, decision);
+        return decision.isAllowed();
+    }
+
+    private boolean tryAcquire(RateLimitWindow window, long now) {
+        window.acquire(now, decision);
+        return decision.isAllowed();
+    }
+
+    @Test
+    public void testTryAcquire_DeniesAfterLimit() throws Exception {
+
+        LocalRateLimiter rateLimiter = new LocalRateLimiter();
+        RateLimit rateLimit = rateLimit();
+
+        assertTrue(tryAcquire(rateLimiter, "/account/create", "10.0.0.1", rateLimit));
+        assertTrue(tryAcquire(rateLimiter, "/account/create", "10.0.0.1", rateLimit));
+        assertTrue(tryAcquire(rateLimiter, "/account/create", "10.0.0.1", rateLimit));
+        assertFalse(tryAcquire(rateLimiter, "/account/create", "10.0.0.1", rateLimit));
+
+        assertTrue(tryAcquire(rateLimiter, "/account/create", "10.0.0.2", rateLimit));
+        assertTrue(tryAcquire(rateLimiter, "/account/deposit", "10.0.0.1", rateLimit));
+    }
+
+    @Test
+    public void testWindow_PreviousBucketIsWeightedBySlidingOverlap() {
+
+        RateLimitWindow window = new RateLimitWindow("req:lim:/store/buy:10.0.0.1", "10.0.0.1", 1000, 4, true);
+
+        assertTrue(tryAcquire(window, 10_000));
+        assertTrue(tryAcquire(window, 10_100));
+        assertTrue(tryAcquire(window, 10_200));
+        assertTrue(tryAcquire(window, 10_300));
+        assertFalse(tryAcquire(window, 10_900));
+
+        // 25% into the next bucket, 75% of the previous 4 hits still count.
+        assertTrue(tryAcquire(window, 11_250));
+        assertFalse(tryAcquire(window, 11_260));
+
+        // A gap of more than one window forgets everything.
+        assertTrue(tryAcquire(window, 20_000));
+    }
+
+    @Test
+    public void testWindow_RemoteCountsReduceLocalBudget() {
+
+        RateLimitWindow window = new RateLimitWindow("req:lim:/store/buy:10.0.0.1", "10.0.0.1", 1000, 3, true);
+
+        assertTrue(tryAcquire(window, 10_000));
+        long delta = window.drainUnsynced();
+        window.applyRemote(window.bucketStart(), delta, 3);
+
+        assertFalse(tryAcquire(window, 10_010));
+    }
+
+    @Test
+    public void testWindow_FixedWindowReportsRemainingAndRetryAfter() {
+
+        RateLimitWindow window = new RateLimitWindow("req:lim:/store/buy:10.0.0.1", "10.0.0.1", 1000, 2, false);
+
+        assertTrue(tryAcquire(window, 10_000));
+        assertEquals(1, decision.getRemaining());
+        assertTrue(tryAcquire(window, 10_100));
+        assertEquals(0, decision.getRemaining());
+
+        assertFalse(tryAcquire(window, 10_400));
+        assertEquals(600, decision.getRetryAfterMillis());
+
+        // Unlike the sliding strategy, the previous bucket is forgotten as soon as a new one starts.
+        assertTrue(tryAcquire(window, 11_000));
+    }
+
+    @Test
+    public void testWindow_ConcurrentCallersNeverExceedLimit() throws Exception {
+
+        RateLimitWindow window = new RateLimitWindow("req:lim:/store/buy:10.0.0.1", "10.0.0.1", 60_000, 100, false);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                RateLimitDecision threadDecision = new RateLimitDecision();
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    window.acquire(120_000, threadDecision);
+                    if (threadDecision.isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, allowed.get());
+        assertEquals(100, window.drainUnsynced());
+    }
+
+    @Test
+    public void testWindow_HitsRacingTheRollAreCountedInTheNextBucket() throws Exception {
+
+        for (int round = 0; round < 200; round++) {
+            RateLimitWindow window = new RateLimitWindow("req:lim:/store/buy:10.0.0.1", "10.0.0.1", 1000, 64, true);
+            for (int i = 0; i < 64; i++) {
+                assertTrue(tryAcquire(window, 10_000));
+            }
+            assertFalse(tryAcquire(window, 10_999));
+
+            // Far enough into the next bucket that none of the full previous one overlaps, every hit fits.
+            AtomicInteger allowed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread thread = new Thread(() -> {
+                    RateLimitDecision threadDecision = new RateLimitDecision();
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < 8; i++) {
+                        window.acquire(11_999, threadDecision);
+                        if (threadDecision.isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(63, allowed.get());
+            assertEquals(64, window.previousCount());
+            assertEquals(63, window.currentCount());
+        }
+    }
+
+    @Test
+    public void testEvictIdle_DropsWindowsNotHitSinceTheIdleTime() throws Exception {
+
+        LocalRateLimiter rateLimiter = new LocalRateLimiter();
+        RateLimit rateLimit = rateLimit();
+        tryAcquire(rateLimiter, "/account/create", "10.0.0.1", rateLimit);
+        tryAcquire(rateLimiter, "/account/create", "10.0.0.2", rateLimit);
+        AtomicInteger windows = new AtomicInteger();
+
+        rateLimiter.evictIdle(System.currentTimeMillis());
+        rateLimiter.forEachWindow((clients, window) -> windows.incrementAndGet());
+        assertEquals(2, windows.get());
+
+        rateLimiter.evictIdle(System.currentTimeMillis() + 600_001);
+        windows.set(0);
+        rateLimiter.forEachWindow((clients, window) -> windows.incrementAndGet());
+        assertEquals(0, windows.get());
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.service.accountservice.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OptimisticLockRetryAspectTest {
+
+    private MeterRegistry meterRegistry;
+    private ConflictingService service;
+    private ConflictingService proxy;
+
+    public static class ConflictingService {
+
+        int conflicts;
+        int calls;
+
+        @RetryOnOptimisticLock
+        public int update() {
+            calls++;
+            if (calls <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1);
+            }
+            return calls;
+        }
+
+        @RetryOnOptimisticLock
+        public int fail() {
+            calls++;
+            throw new IllegalStateException("not a conflict");
+        }
+    }
+
+    @Before
+    public void setUp() {
+
+        meterRegistry = new SimpleMeterRegistry();
+        OptimisticLockRetryAspect aspect = new OptimisticLockRetryAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(aspect, "maxAttempts", 3);
+        ReflectionTestUtils.setField(aspect, "backoffMillis", 1L);
+        ReflectionTestUtils.setField(aspect, "maxBackoffMillis", 5L);
+
+        service = new ConflictingService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(service);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    public void testRetry_SucceedsAfterConflicts() {
+
+        service.conflicts = 2;
+
+        assertEquals(3, proxy.update());
+        assertEquals(2.0, meterRegistry.counter(OptimisticLockRetryAspect.RETRY_METRIC, "method", "ConflictingService.update()").count(), 0);
+    }
+
+    @Test
+    public void testRetry_GivesUpAfterMaxAttempts() {
+
+        service.conflicts = 10;
+
+        try {
+            proxy.update();
+            fail();
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            assertEquals(3, service.calls);
+            assertEquals(1.0, meterRegistry.counter(OptimisticLockRetryAspect.EXHAUSTED_METRIC, "method", "ConflictingService.update()").count(), 0);
+        }
+    }
+
+    @Test
+    public void testRetry_OtherExceptionsAreNotRetried() {
+
+        try {
+            proxy.fail();
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals(1, service.calls);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.RateLimitStrategy;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReactiveRedisRateLimiterTest {
+
+    private static final int REDIS_PORT = 16381;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private ReactiveRedisRateLimiter rateLimiter;
+
+    @RateLimit(limit = 2, duration = 60, unit = TimeUnit.SECONDS)
+    private void fixedWindow() {}
+
+    @RateLimit(limit = 2, duration = 60, unit = TimeUnit.SECONDS, strategy = RateLimitStrategy.SLIDING_LOG)
+    private void slidingLog() {}
+
+    private RateLimit rateLimit(String method) throws NoSuchMethodException {
+        return ReactiveRedisRateLimiterTest.class.getDeclaredMethod(method).getAnnotation(RateLimit.class);
+    }
+
+    @BeforeClass
+    public static void startRedis() {
+
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterClass
+    public static void stopRedis() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Before
+    public void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().flushAll();
+        rateLimiter = new ReactiveRedisRateLimiter(connectionFactory);
+    }
+
+    @Test
+    public void testAcquire_FixedWindowSharesCounterWithBlockingLimiter() throws Exception {
+
+        RateLimit rateLimit = rateLimit("fixedWindow");
+        new RedisRateLimiter(redisTemplate).acquire("/account/create", "10.0.0.1", rateLimit, new RateLimitDecision());
+
+        RateLimitDecision decision = rateLimiter.acquire("/account/create", "10.0.0.1", rateLimit).block();
+        assertTrue(decision.isAllowed());
+        assertEquals(0, decision.getRemaining());
+
+        decision = rateLimiter.acquire("/account/create", "10.0.0.1", rateLimit).block();
+        assertFalse(decision.isAllowed());
+        assertTrue(decision.getRetryAfterMillis() > 0 && decision.getRetryAfterMillis() <= 60_000);
+    }
+
+    @Test
+    public void testAcquire_SlidingLogDeniesWithoutLoggingRejectedHits() throws Exception {
+
+        RateLimit rateLimit = rateLimit("slidingLog");
+
+        assertTrue(rateLimiter.acquire("/store/buy", "10.0.0.1", rateLimit).block().isAllowed());
+        assertTrue(rateLimiter.acquire("/store/buy", "10.0.0.1", rateLimit).block().isAllowed());
+        assertFalse(rateLimiter.acquire("/store/buy", "10.0.0.1", rateLimit).block().isAllowed());
+
+        assertEquals(Long.valueOf(2), redisTemplate.opsForZSet().zCard("req:lim:log:/store/buy:10.0.0.1"));
+        assertTrue(rateLimiter.acquire("/store/buy", "10.0.0.2", rateLimit).block().isAllowed());
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.RateLimitStrategy;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RedisRateLimiterTest {
+
+    private static final int REDIS_PORT = 16380;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final RateLimitDecision decision = new RateLimitDecision();
+    private RedisRateLimiter rateLimiter;
+
+    @RateLimit(limit = 2, duration = 60, unit = TimeUnit.SECONDS)
+    private void fixedWindow() {}
+
+    @RateLimit(limit = 2, duration = 60, unit = TimeUnit.SECONDS, strategy = RateLimitStrategy.SLIDING_LOG)
+    private void slidingLog() {}
+
+    private RateLimit rateLimit(String method) throws NoSuchMethodException {
+        return RedisRateLimiterTest.class.getDeclaredMethod(method).getAnnotation(RateLimit.class);
+    }
+
+    @BeforeClass
+    public static void startRedis() {
+
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterClass
+    public static void stopRedis() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Before
+    public void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().flushAll();
+        rateLimiter = new RedisRateLimiter(redisTemplate);
+    }
+
+    @Test
+    public void testAcquire_FixedWindowCountsAndExpiresInOneCall() throws Exception {
+
+        RateLimit rateLimit = rateLimit("fixedWindow");
+
+        rateLimiter.acquire("/account/create", "10.0.0.1", rateLimit, decision);
+        assertTrue(decision.isAllowed());
+        assertEquals(1, decision.getRemaining());
+
+        long ttl = redisTemplate.getExpire("req:lim:/account/create:10.0.0.1", TimeUnit.MILLISECONDS);
+        assertTrue(ttl > 0 && ttl <= 60_000);
+
+        rateLimiter.acquire("/account/create", "10.0.0.1", rateLimit, decision);
+        assertTrue(decision.isAllowed());
+        rateLimiter.acquire("/account/create", "10.0.0.1", rateLimit, decision);
+        assertFalse(decision.isAllowed());
+        assertEquals(0, decision.getRemaining());
+        assertTrue(decision.getRetryAfterMillis() > 0 && decision.getRetryAfterMillis() <= 60_000);
+    }
+
+    @Test
+    public void testAcquire_FixedWindowHealsCounterWithoutExpiry() throws Exception {
+
+        redisTemplate.opsForValue().set("req:lim:/account/create:10.0.0.1", "5");
+
+        rateLimiter.acquire("/account/create", "10.0.0.1", rateLimit("fixedWindow"), decision);
+
+        assertFalse(decision.isAllowed());
+        assertTrue(redisTemplate.getExpire("req:lim:/account/create:10.0.0.1", TimeUnit.MILLISECONDS) > 0);
+    }
+
+    @Test
+    public void testAcquire_SlidingLogDeniesWithoutLoggingRejectedHits() throws Exception {
+
+        RateLimit rateLimit = rateLimit("slidingLog");
+
+        rateLimiter.acquire("/store/buy", "10.0.0.1", rateLimit, decision);
+        assertTrue(decision.isAllowed());
+        rateLimiter.acquire("/store/buy", "10.0.0.1", rateLimit, decision);
+        assertTrue(decision.isAllowed());
+        rateLimiter.acquire("/store/buy", "10.0.0.1", rateLimit, decision);
+        assertFalse(decision.isAllowed());
+        assertTrue(decision.getRetryAfterMillis() > 0 && decision.getRetryAfterMillis() <= 60_000);
+
+        assertEquals(Long.valueOf(2), redisTemplate.opsForZSet().zCard("req:lim:log:/store/buy:10.0.0.1"));
+
+        rateLimiter.acquire("/store/buy", "10.0.0.2", rateLimit, decision);
+        assertTrue(decision.isAllowed());
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.service.accountservice.aspect;
+
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.exceptions.AccountException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ServiceMetricsInterceptorTest {
+
+    private MeterRegistry meterRegistry;
+    private TimedService proxy;
+
+    public static class TimedService {
+
+        public int succeed() {
+            return 1;
+        }
+
+        public int reject(int errorCode) throws AccountException {
+            throw new AccountException(errorCode, "rejected");
+        }
+
+        public int crash() {
+            throw new IllegalStateException("crashed");
+        }
+    }
+
+    @Before
+    public void setUp() {
+
+        meterRegistry = new SimpleMeterRegistry();
+        ProxyFactory factory = new ProxyFactory(new TimedService());
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new ServiceMetricsInterceptor(meterRegistry));
+        proxy = (TimedService) factory.getProxy();
+    }
+
+    @Test
+    public void testSuccess_thenTimedAsSuccess() {
+
+        proxy.succeed();
+        proxy.succeed();
+
+        assertEquals(2, timer("succeed", "SUCCESS", "None").count());
+    }
+
+    @Test
+    public void testAccountException_thenTimedByErrorCode() {
+
+        reject(ErrorCode.NotFound.getCode());
+        reject(ErrorCode.NotFound.getCode());
+        reject(ErrorCode.Service_unavailable.getCode());
+        reject(500);
+
+        assertEquals(2, timer("reject", "CLIENT_ERROR", "NotFound").count());
+        assertEquals(1, timer("reject", "SERVER_ERROR", "Service_unavailable").count());
+        assertEquals(1, timer("reject", "SERVER_ERROR", "AccountException").count());
+    }
+
+    @Test
+    public void testUnexpectedException_thenTimedByItsClass() {
+
+        try {
+            proxy.crash();
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals(1, timer("crash", "SERVER_ERROR", "IllegalStateException").count());
+        }
+    }
+
+    private void reject(int errorCode) {
+
+        try {
+            proxy.reject(errorCode);
+            fail();
+        } catch (AccountException ex) {
+            assertEquals(errorCode, ex.getErrorCode());
+        }
+    }
+
+    private Timer timer(String method, String outcome, String error) {
+
+        return meterRegistry.get(ServiceMetricsInterceptor.CALLS_METRIC)
+                .tags("class", "TimedService", "method", method, "outcome", outcome, "error", error)
+                .timer();
+    }
+}
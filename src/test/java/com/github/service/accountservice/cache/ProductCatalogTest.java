@@ -0,0 +1,128 @@
+package com.github.service.accountservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.contracts.IProductService;
+import com.github.service.accountservice.service.models.ProductDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProductCatalogTest {
+
+    private IProductService productService;
+    private LocalCatalogInvalidationBus invalidationBus;
+    private ProductCatalog catalog;
+
+    private final ProductDto inStock = new ProductDto(1, "Name1", Money.of(100), 10);
+    private final ProductDto soldOut = new ProductDto(2, "Name2", Money.of(50), 0);
+
+    @Before
+    public void setUp() throws Exception {
+
+        productService = Mockito.mock(IProductService.class);
+        Mockito.when(productService.findAll()).thenReturn(Arrays.asList(inStock, soldOut));
+        invalidationBus = new LocalCatalogInvalidationBus();
+        catalog = catalog();
+    }
+
+    private ProductCatalog catalog() {
+
+        ProductCatalog productCatalog = new ProductCatalog();
+        ReflectionTestUtils.setField(productCatalog, "productService", productService);
+        ReflectionTestUtils.setField(productCatalog, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(productCatalog, "invalidationBus", invalidationBus);
+        productCatalog.subscribe();
+        return productCatalog;
+    }
+
+    @Test
+    public void testCurrent_ServesSnapshotUntilChanged() throws Exception {
+
+        CatalogSnapshot snapshot = catalog.current();
+
+        assertSame(snapshot, catalog.current());
+        assertEquals(2, snapshot.getAllProducts().getProducts().size());
+        assertEquals(1, snapshot.getAvailableProducts().getProducts().size());
+        assertTrue(new String(snapshot.getAvailableProducts().getBody(), "UTF-8").startsWith("{\"products\":[{\"id\":1,"));
+        Mockito.verify(productService, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    public void testOnCatalogChanged_RebuildsWithNewEtag() throws Exception {
+
+        String etag = catalog.current().getAllProducts().getEtag();
+        String availableEtag = catalog.current().getAvailableProducts().getEtag();
+
+        Mockito.when(productService.findAll()).thenReturn(Collections.singletonList(inStock));
+        catalog.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+
+        CatalogSnapshot rebuilt = catalog.current();
+        assertEquals(1, rebuilt.getAllProducts().getProducts().size());
+        assertNotEquals(etag, rebuilt.getAllProducts().getEtag());
+        // The in-stock list did not change, neither does its ETag.
+        assertEquals(availableEtag, rebuilt.getAvailableProducts().getEtag());
+    }
+
+    @Test
+    public void testOnCatalogChanged_InvalidatesOtherNodes() throws Exception {
+
+        ProductCatalog otherNode = catalog();
+        CatalogSnapshot otherSnapshot = otherNode.current();
+
+        catalog.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+
+        CatalogSnapshot rebuilt = otherNode.current();
+        assertTrue(rebuilt != otherSnapshot);
+        assertEquals(otherSnapshot.getAllProducts().getEtag(), rebuilt.getAllProducts().getEtag());
+    }
+
+    @Test
+    public void testOnStockChanged_ServesSnapshotUntilRefreshInterval() throws Exception {
+
+        ReflectionTestUtils.setField(catalog, "stockRefreshMillis", 60_000L);
+        CatalogSnapshot snapshot = catalog.current();
+
+        catalog.onCatalogChanged(CatalogChangedEvent.STOCK);
+        assertSame(snapshot, catalog.current());
+        Mockito.verify(productService, Mockito.times(1)).findAll();
+
+        // A product change is not held back by the stock interval.
+        catalog.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+        assertNotEquals(snapshot, catalog.current());
+        Mockito.verify(productService, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    public void testOnStockChanged_RebuildsOnceIntervalPassed() throws Exception {
+
+        CatalogSnapshot snapshot = catalog.current();
+
+        catalog.onCatalogChanged(CatalogChangedEvent.STOCK);
+
+        assertNotEquals(snapshot, catalog.current());
+        Mockito.verify(productService, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    public void testOnStockChanged_InvalidatesStockOfOtherNodes() throws Exception {
+
+        ProductCatalog otherNode = catalog();
+        ReflectionTestUtils.setField(otherNode, "stockRefreshMillis", 60_000L);
+        CatalogSnapshot otherSnapshot = otherNode.current();
+
+        catalog.onCatalogChanged(CatalogChangedEvent.STOCK);
+        assertSame(otherSnapshot, otherNode.current());
+
+        ReflectionTestUtils.setField(otherNode, "stockRefreshMillis", 0L);
+        assertNotEquals(otherSnapshot, otherNode.current());
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.service.accountservice.cache;
+
+import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.enums.TransactionTypes;
+import org.junit.Test;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TransactionTypeRegistryTest {
+
+    private final TransactionType deposit = new TransactionType(1, "DEPOSIT");
+    private final TransactionType withdraw = new TransactionType(2, "WITHDRAW");
+    private final TransactionType purchase = new TransactionType(3, "PURCHASE");
+
+    @Test
+    public void testReference_ServedFromTheRows() {
+
+        TransactionTypeRegistry registry = new TransactionTypeRegistry(Arrays.asList(purchase, deposit, withdraw,
+                new TransactionType(4, "REFUND")));
+
+        assertSame(deposit, registry.reference(TransactionTypes.DEPOSIT));
+        assertSame(purchase, registry.reference(TransactionTypes.PURCHASE.getCode()));
+        assertEquals("WITHDRAW", registry.name(TransactionTypes.WITHDRAW));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReference_UnknownCode() {
+        new TransactionTypeRegistry(Arrays.asList(deposit, withdraw, purchase)).reference(4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNew_CodeMissing() {
+        new TransactionTypeRegistry(Arrays.asList(deposit, withdraw));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNew_CodeWithAnotherName() {
+        new TransactionTypeRegistry(Arrays.asList(deposit, new TransactionType(2, "PURCHASE"), new TransactionType(3, "WITHDRAW")));
+    }
+}
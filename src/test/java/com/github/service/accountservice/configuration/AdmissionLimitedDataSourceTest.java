@@ -0,0 +1,116 @@
+package com.github.service.accountservice.configuration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+
+public class AdmissionLimitedDataSourceTest {
+
+    private DataSource pool;
+    private AdmissionLimitedDataSource dataSource;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        pool = Mockito.mock(DataSource.class);
+        given(pool.getConnection()).willAnswer(invocation -> Mockito.mock(Connection.class));
+        dataSource = new AdmissionLimitedDataSource(pool, 2, 200);
+    }
+
+    @Test
+    public void testGetConnection_TimesOutOnceAllPermitsAreTaken() throws Exception {
+
+        borrow().get();
+        borrow().get();
+
+        try {
+            borrow().get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof SQLTransientConnectionException);
+        }
+        Mockito.verify(pool, Mockito.times(2)).getConnection();
+    }
+
+    @Test
+    public void testClose_ReleasesThePermitOnceToTheNextWaiter() throws Exception {
+
+        Connection first = borrow().get();
+        borrow().get();
+
+        CompletableFuture<Connection> waiter = borrow();
+        while (dataSource.getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(waiter.isDone());
+
+        first.close();
+        first.close();
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+
+        // The second close gave nothing back, both permits are taken again.
+        try {
+            borrow().get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof SQLTransientConnectionException);
+        }
+    }
+
+    @Test
+    public void testGetConnection_HolderIsNotQueuedForItself() throws SQLException {
+
+        dataSource = new AdmissionLimitedDataSource(pool, 1, 50);
+        Connection outer = dataSource.getConnection();
+
+        // e.g. the id reservation, on a connection of its own inside the request's transaction
+        dataSource.getConnection().close();
+        outer.close();
+
+        dataSource.getConnection();
+        Mockito.verify(pool, Mockito.times(3)).getConnection();
+    }
+
+    @Test
+    public void testGetConnection_FailedBorrowGivesThePermitBack() throws SQLException {
+
+        given(pool.getConnection()).willThrow(new SQLException("down"))
+                .willAnswer(invocation -> Mockito.mock(Connection.class));
+        dataSource = new AdmissionLimitedDataSource(pool, 1, 50);
+
+        try {
+            dataSource.getConnection();
+            fail();
+        } catch (SQLException expected) {
+            // the pool failed
+        }
+        dataSource.getConnection();
+    }
+
+    // Every borrower is a thread of its own, a thread holding a connection is not limited again.
+    private CompletableFuture<Connection> borrow() {
+
+        CompletableFuture<Connection> connection = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                connection.complete(dataSource.getConnection());
+            } catch (SQLException ex) {
+                connection.completeExceptionally(ex);
+            }
+        }).start();
+        return connection;
+    }
+}
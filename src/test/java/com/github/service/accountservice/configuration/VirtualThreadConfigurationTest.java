@@ -0,0 +1,42 @@
+package com.github.service.accountservice.configuration;
+
+import org.junit.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualThreadConfigurationTest {
+
+    private final boolean virtualThreads = Arrays.stream(Thread.class.getMethods())
+            .anyMatch(method -> method.getName().equals("ofVirtual"));
+
+    @Test
+    public void testVirtualThreadCustomizer_KeepsTomcatsPoolWithoutVirtualThreads() throws Exception {
+
+        VirtualThreadConfiguration configuration = new VirtualThreadConfiguration();
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+
+        configuration.virtualThreadCustomizer().customize(factory);
+
+        assertEquals(virtualThreads ? 1 : 0, factory.getTomcatConnectorCustomizers().size());
+        configuration.destroy();
+    }
+
+    @Test
+    public void testVirtualThreadExecutor_NamesItsThreadsWithThePrefix() throws Exception {
+
+        ExecutorService executor = VirtualThreadConfiguration.virtualThreadExecutor("test-vt-");
+        if (!virtualThreads) {
+            assertNull(executor);
+            return;
+        }
+        String name = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertTrue(name, name.startsWith("test-vt-"));
+        executor.shutdown();
+    }
+}
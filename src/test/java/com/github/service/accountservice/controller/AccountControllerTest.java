@@ -1,24 +1,37 @@
 package com.github.service.accountservice.controller;
 
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.DirectAccountSequencer;
 import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
 import com.github.service.accountservice.service.contracts.ITransactionService;
 import com.google.gson.GsonBuilder;
 import com.github.service.accountservice.entities.Account;
 import com.github.service.accountservice.entities.Transaction;
 import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.service.models.AccountBalanceDto;
+import com.github.service.accountservice.service.models.AccountBatchResult;
 import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.AccountOperationResult;
 import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
 import com.github.service.accountservice.validator.IValidator;
 import com.github.service.accountservice.validator.ValidatorImp;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -26,18 +39,23 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.context.WebApplicationContext;
-import java.math.BigDecimal;
+import java.sql.SQLTransientConnectionException;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(AccountController.class)
+@Import(DirectAccountSequencer.class)
 public class AccountControllerTest {
 
     @TestConfiguration
@@ -58,6 +76,8 @@ public class AccountControllerTest {
     private IAccountService accountService;
     @MockBean
     private ITransactionService transactionService;
+    @MockBean
+    private IReconciliationService reconciliationService;
 
     private ModelMapper modelMapper = new ModelMapper();
     private Account account;
@@ -71,14 +91,61 @@ public class AccountControllerTest {
         transactionType.setId(1);
         account = new Account();
         account.setId(1);
-        transaction = new Transaction(transactionType,new BigDecimal(100), account);
+        transaction = new Transaction(transactionType,Money.of(100), account);
+    }
+
+    @Test
+    public void testBatch_thenReturnResultPerOperation() throws Exception {
+
+        AccountOperationResult rejected = new AccountOperationResult(1, 1);
+        rejected.reject(ErrorCode.BadRequest.getCode(), ErrorMessage.NO_ENOUGH_BALANCE.getMessage());
+        given( transactionService.createTransactions(ArgumentMatchers.anyList())).willReturn(new AccountBatchResult(
+                Arrays.asList(new AccountOperationResult(0, 1), rejected), Arrays.asList(new AccountDto(1, Money.of(100)))));
+        String uri = "/account/batch";
+        String json = "{\"operations\":[{\"accountId\":1,\"type\":\"DEPOSIT\",\"amount\":100}," +
+                "{\"accountId\":1,\"type\":\"WITHDRAW\",\"amount\":500}]}";
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(json)).andReturn();
+
+        String content = mvcResult.getResponse().getContentAsString();
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertTrue(content.contains("{\"index\":0,\"accountId\":1,\"success\":true}"));
+        assertTrue(content.contains("\"message\":\"" + ErrorMessage.NO_ENOUGH_BALANCE.getMessage() + "\""));
+        assertTrue(content.contains("\"balance\":100"));
+    }
+
+    @Test
+    public void testDepositFail_whenNoConnectionInTime() throws Exception {
+
+        given( transactionService.createTransaction(1, Money.of(100), TransactionTypes.DEPOSIT)).willThrow(
+                new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                        new SQLTransientConnectionException("No database connection within 30000 ms")));
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post("/account/deposit")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("{\"accountId\":\"1\",\"amount\":\"100\"}")).andReturn();
+
+        assertEquals(503, mvcResult.getResponse().getStatus());
+        assertEquals("1", mvcResult.getResponse().getHeader("Retry-After"));
+        assertTrue(mvcResult.getResponse().getContentAsString().contains(ErrorMessage.DATABASE_BUSY.getMessage()));
+    }
+
+    @Test
+    public void testBatchFail_whenOperationsMissing() throws Exception {
+
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post("/account/batch")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("{\"operations\":[]}")).andReturn();
+
+        assertEquals(400, mvcResult.getResponse().getStatus());
     }
 
     @Test
     public void testGetTransactionsById_thenReturnJsonArray() throws Exception {
 
         List<TransactionDto> allTransactions = Arrays.asList(modelMapper.map(transaction, TransactionDto.class));
-        given( transactionService.getTransactionsByAccountId(account.getId())).willReturn(allTransactions);
+        given( transactionService.getTransactionsByAccountId(account.getId(), null, null, null, null, null))
+                .willReturn(new TransactionPage(allTransactions, null, null));
         String uri = "/account/listTransactions";
         Map<String, Integer> dataMap = new HashMap<>();
         dataMap.put("accountId",account.getId());
@@ -92,7 +159,100 @@ public class AccountControllerTest {
         assertEquals(200, status);
         assertTrue(content.contains("\"accountId\":1"));
         assertTrue(content.contains("\"amount\":100"));
+        assertFalse(content.contains("nextAfterId"));
+    }
+
+    @Test
+    public void testGetTransactionsById_thenReturnNextCursor() throws Exception {
+
+        TransactionDto transactionDto = modelMapper.map(transaction, TransactionDto.class);
+        transactionDto.setId(7);
+        given( transactionService.getTransactionsByAccountId(account.getId(), new Date(1538391324845L), 5L, 1, null, null))
+                .willReturn(new TransactionPage(Arrays.asList(transactionDto), new Date(1538391401517L), 7L));
+        String uri = "/account/listTransactions";
+        Map<String, String> dataMap = new HashMap<>();
+        dataMap.put("accountId","1");
+        dataMap.put("afterTime","2018-10-01T10:55:24.845+0000");
+        dataMap.put("afterId","5");
+        dataMap.put("limit","1");
+        String json = new GsonBuilder().create().toJson(dataMap);
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(json)).andReturn();
+
+        String content = mvcResult.getResponse().getContentAsString();
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertTrue(content.contains("\"id\":7"));
+        assertTrue(content.contains("\"nextAfterTime\":\"2018-10-01T10:56:41.517+0000\""));
+        assertTrue(content.contains("\"nextAfterId\":7"));
+    }
+
+    @Test
+    public void testGetTransactionsByIdFail_whenDateIsInvalid() throws Exception {
+
+        String uri = "/account/listTransactions";
+        Map<String, String> dataMap = new HashMap<>();
+        dataMap.put("accountId","1");
+        dataMap.put("from","yesterday");
+        String json = new GsonBuilder().create().toJson(dataMap);
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(json)).andReturn();
+
+        assertEquals(400, mvcResult.getResponse().getStatus());
+        assertTrue(mvcResult.getResponse().getContentAsString().contains(String.format(ErrorMessage.DATE_FORMAT_MISMATCH.getMessage(), "from")));
+    }
+
+    @Test
+    public void testGetTransactionsByIdFail_whenLimitIsNotANumber() throws Exception {
+
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post("/account/listTransactions")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("{\"accountId\":\"1\",\"limit\":\"ten\"}")).andReturn();
+
+        assertEquals(400, mvcResult.getResponse().getStatus());
+        assertTrue(mvcResult.getResponse().getContentAsString().contains(String.format(ErrorMessage.NUMBER_FORMAT_MISMATCH.getMessage(), "limit")));
+    }
+
+    @Test
+    public void testDepositAccountFail_whenAmountHasMoreThanTwoDecimals() throws Exception {
+
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post("/account/deposit")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("{\"accountId\":1,\"amount\":10.005}")).andReturn();
+
+        assertEquals(400, mvcResult.getResponse().getStatus());
+        assertTrue(mvcResult.getResponse().getContentAsString().contains(String.format(ErrorMessage.AMOUNT_FORMAT_MISMATCH.getMessage(), "amount")));
+        Mockito.verifyZeroInteractions(accountService, transactionService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamTransactions_thenReturnNdjson() throws Exception {
+
+        TransactionDto transactionDto = modelMapper.map(transaction, TransactionDto.class);
+        Mockito.doAnswer(invocation -> {
+            Consumer<TransactionDto> consumer = invocation.getArgument(3);
+            consumer.accept(transactionDto);
+            consumer.accept(transactionDto);
+            return null;
+        }).when(transactionService).streamTransactionsByAccountId(ArgumentMatchers.eq(account.getId()),
+                ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.any(Consumer.class));
+
+        String uri = "/account/streamTransactions";
+        Map<String, Integer> dataMap = new HashMap<>();
+        dataMap.put("accountId",account.getId());
+        String json = new GsonBuilder().create().toJson(dataMap);
+        MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(json)).andReturn();
+        mvcResult = mvc.perform(asyncDispatch(mvcResult)).andReturn();
 
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"accountId\":1"));
+        assertTrue(lines[1].startsWith("{") && lines[1].contains("\"amount\":100"));
     }
 
     @Test
@@ -124,7 +284,7 @@ public class AccountControllerTest {
     @Test
     public void testDepositAccount_thenReturnJson() throws Exception {
 
-        given(accountService.updateAccountAmount(account.getId(), new BigDecimal(500), TransactionTypes.DEPOSIT)).willReturn(account);
+        given(accountService.updateAccountAmount(account.getId(), Money.of(500), TransactionTypes.DEPOSIT)).willReturn(account);
         given(accountService.findById(Integer.valueOf(account.getId()))).willReturn(modelMapper.map(account, AccountDto.class));
 
         String uri = "/account/deposit";
@@ -148,7 +308,7 @@ public class AccountControllerTest {
     @Test
     public void testWithdrawAccount_thenReturnJson() throws Exception {
 
-        given(accountService.updateAccountAmount(account.getId(), new BigDecimal(500), TransactionTypes.WITHDRAW)).willReturn(account);
+        given(accountService.updateAccountAmount(account.getId(), Money.of(500), TransactionTypes.WITHDRAW)).willReturn(account);
         given(accountService.findById(Integer.valueOf(account.getId()))).willReturn(modelMapper.map(account, AccountDto.class));
 
         String uri = "/account/withdraw";
@@ -1,7 +1,11 @@
 package com.github.service.accountservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.service.accountservice.cache.ICatalogInvalidationBus;
+import com.github.service.accountservice.cache.LocalCatalogInvalidationBus;
+import com.github.service.accountservice.cache.ProductCatalog;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.service.contracts.IProductService;
-import com.google.gson.GsonBuilder;
 import com.github.service.accountservice.entities.Product;
 import com.github.service.accountservice.service.consumes.ProductCreate;
 import com.github.service.accountservice.service.consumes.ProductDelete;
@@ -17,6 +21,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,16 +29,19 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
-import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(SpringRunner.class)
+@Import(ProductCatalog.class)
 @WebMvcTest(ProductController.class)
 public class ProductControllerTest {
 
@@ -43,6 +51,11 @@ public class ProductControllerTest {
         public IValidator validator() {
             return new ValidatorImp();
         }
+
+        @Bean
+        public ICatalogInvalidationBus catalogInvalidationBus() {
+            return new LocalCatalogInvalidationBus();
+        }
     }
 
     @Autowired
@@ -51,6 +64,10 @@ public class ProductControllerTest {
     @Autowired
     WebApplicationContext webApplicationContext;
 
+    // The application's mapper, so prices are written the way clients send them.
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private IProductService productService;
 
@@ -63,7 +80,7 @@ public class ProductControllerTest {
     @Before
     public void before(){
         mvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
-        product = new Product("Name1", new BigDecimal(100), 10);
+        product = new Product("Name1", Money.of(100), 10);
         product.setId(1);
         productCreate = new ProductCreate(product.getName(), product.getPrice(), product.getProductCount());
         productDelete = new ProductDelete(product.getId());
@@ -77,7 +94,7 @@ public class ProductControllerTest {
         dataMap.put("product", productCreate);
         given(productService.createProduct(productCreate)).willReturn(modelMapper.map(product, ProductDto.class));
         String uri = "/product/create";
-        String json = new GsonBuilder().create().toJson(dataMap);
+        String json = objectMapper.writeValueAsString(dataMap);
 
         MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -110,7 +127,7 @@ public class ProductControllerTest {
         dataMap.put("product", productDelete);
         given(productService.deleteProduct(productDelete)).willReturn(modelMapper.map(product, ProductDto.class));
         String uri = "/product/delete";
-        String json = new GsonBuilder().create().toJson(dataMap);
+        String json = objectMapper.writeValueAsString(dataMap);
 
         MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -130,7 +147,7 @@ public class ProductControllerTest {
 
         String uri = "/product/update";
 
-        String json = new GsonBuilder().create().toJson(dataMap);
+        String json = objectMapper.writeValueAsString(dataMap);
 
         MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.post(uri)
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -139,4 +156,20 @@ public class ProductControllerTest {
         int status = mvcResult.getResponse().getStatus();
         assertEquals(200, status);
     }
+
+    @Test
+    public void testListProducts_NotModifiedWhenEtagMatches() throws Exception{
+
+        List<ProductDto> productList = Arrays.asList(modelMapper.map(product, ProductDto.class));
+        given( productService.findAll()).willReturn(productList);
+        String uri = "/product/list";
+        MvcResult first = mvc.perform(MockMvcRequestBuilders.get(uri)).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        MvcResult second = mvc.perform(MockMvcRequestBuilders.get(uri).header("If-None-Match", etag)).andReturn();
+        assertEquals(304, second.getResponse().getStatus());
+        assertEquals(0, second.getResponse().getContentLength());
+        verify(productService, times(1)).findAll();
+    }
 }
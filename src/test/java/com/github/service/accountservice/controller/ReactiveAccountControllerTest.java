@@ -0,0 +1,241 @@
+package com.github.service.accountservice.controller;
+
+import com.github.service.accountservice.aspect.IdempotencyWebFilter;
+import com.github.service.accountservice.aspect.LocalRateLimiter;
+import com.github.service.accountservice.aspect.LocalReactiveRateLimiter;
+import com.github.service.accountservice.aspect.RateLimitMetrics;
+import com.github.service.accountservice.aspect.RateLimitWebFilter;
+import com.github.service.accountservice.configuration.DatabaseScheduler;
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.idempotency.IIdempotencyCache;
+import com.github.service.accountservice.idempotency.IdempotencyStore;
+import com.github.service.accountservice.idempotency.LocalIdempotencyCache;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
+import com.github.service.accountservice.service.DirectAccountSequencer;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
+import com.github.service.accountservice.validator.IValidator;
+import com.github.service.accountservice.validator.ValidatorImp;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(SpringRunner.class)
+@WebFluxTest(ReactiveAccountController.class)
+@ActiveProfiles("reactive")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({LocalRateLimiter.class, LocalReactiveRateLimiter.class, RateLimitWebFilter.class, RateLimitMetrics.class,
+        IdempotencyWebFilter.class, IdempotencyStore.class, DirectAccountSequencer.class})
+public class ReactiveAccountControllerTest {
+
+    @TestConfiguration
+    static class ReactiveAccountControllerTestContextConfiguration {
+        @Bean
+        public IValidator validator() {
+            return new ValidatorImp();
+        }
+
+        // One thread and two waiting calls, so a test can fill it; an idempotent request needs the second slot.
+        @Bean
+        public DatabaseScheduler databaseScheduler() {
+            return new DatabaseScheduler(1, 2);
+        }
+
+        @Bean
+        public IIdempotencyCache idempotencyCache() {
+            return new LocalIdempotencyCache();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseScheduler databaseScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private IAccountService accountService;
+    @MockBean
+    private ITransactionService transactionService;
+    @MockBean
+    private IReconciliationService reconciliationService;
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    public void testDeposit_thenReturnAccount() throws Exception {
+
+        given(accountService.findById(1)).willReturn(new AccountDto(1, Money.of(100)));
+
+        webTestClient.post().uri("/account/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody("{\"accountId\":\"1\",\"amount\":\"100\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("X-RateLimit-Remaining")
+                .expectBody()
+                .jsonPath("$.account.id").isEqualTo(1)
+                .jsonPath("$.account.balance").isEqualTo(100);
+    }
+
+    @Test
+    public void testWithdrawFail_whenAmountMissing() {
+
+        webTestClient.post().uri("/account/withdraw")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody("{\"accountId\":\"1\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo(ErrorMessage.NO_MANDATORY_FIELD.getMessage())
+                .jsonPath("$.details").isEqualTo("uri=/account/withdraw");
+    }
+
+    @Test
+    public void testCreate_whenLimitIsExceededThenTooManyRequests() throws Exception {
+
+        given(accountService.createAccount()).willReturn(new AccountDto(1, Money.ZERO));
+        for (int i = 0; i < 20; i++) {
+            webTestClient.post().uri("/account/create").exchange().expectStatus().isOk();
+        }
+
+        webTestClient.post().uri("/account/create")
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("X-RateLimit-Remaining", "0")
+                .expectHeader().exists("Retry-After")
+                .expectBody()
+                .jsonPath("$.message").isEqualTo(ErrorMessage.RATE_LIMITER_FLOW.getMessage());
+
+        assertEquals(20, meterRegistry.get("ratelimit.decisions")
+                .tags("endpoint", "ReactiveAccountController.create", "decision", "allowed").counter().count(), 0);
+        assertEquals(1, meterRegistry.get("ratelimit.decisions")
+                .tags("endpoint", "ReactiveAccountController.create", "decision", "denied").counter().count(), 0);
+    }
+
+    @Test
+    public void testStreamTransactions_thenReadPageAfterPage() throws Exception {
+
+        TransactionDto first = transaction(5);
+        TransactionDto second = transaction(9);
+        given(transactionService.getTransactionStreamPage(1, null, null, 500, null, null))
+                .willReturn(new TransactionPage(Collections.singletonList(first), first.getDate(), 5L));
+        given(transactionService.getTransactionStreamPage(1, first.getDate(), 5L, 500, null, null))
+                .willReturn(new TransactionPage(Collections.singletonList(second), null, null));
+
+        String content = webTestClient.post().uri("/account/streamTransactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody("{\"accountId\":1}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("Content-Type", "application/x-ndjson.*")
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        String[] lines = content.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":5"));
+        assertTrue(lines[1].contains("\"id\":9"));
+    }
+
+    @Test
+    public void testDeposit_whenDatabaseQueueIsFullThenServiceUnavailable() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(3);
+        // One call holds the only thread, the next two the queue slots.
+        for (int i = 0; i < 3; i++) {
+            databaseScheduler.call(() -> release.await(1, TimeUnit.MINUTES)).subscribe(done -> released.countDown());
+        }
+        try {
+            webTestClient.post().uri("/account/deposit")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .syncBody("{\"accountId\":\"1\",\"amount\":\"100\"}")
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectHeader().exists("Retry-After")
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo(ErrorMessage.DATABASE_BUSY.getMessage());
+        } finally {
+            release.countDown();
+            // The next test needs the thread and the queue slot back.
+            assertTrue(released.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testDeposit_whenRetriedWithSameKey_thenReplayFirstResponse() throws Exception {
+
+        given(accountService.findById(1)).willReturn(new AccountDto(1, Money.of(100)));
+        given(idempotencyRecordRepository.saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.post().uri("/account/deposit")
+                    .header("Idempotency-Key", "deposit-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .syncBody("{\"accountId\":\"1\",\"amount\":\"100\"}")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.account.balance").isEqualTo(100);
+        }
+        webTestClient.post().uri("/account/deposit")
+                .header("Idempotency-Key", "deposit-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody("{\"accountId\":\"1\",\"amount\":\"100\"}")
+                .exchange()
+                .expectHeader().valueEquals("Idempotent-Replayed", "true");
+        webTestClient.post().uri("/account/deposit")
+                .header("Idempotency-Key", "deposit-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody("{\"accountId\":\"1\",\"amount\":\"200\"}")
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo(ErrorMessage.IDEMPOTENCY_KEY_REUSED.getMessage());
+
+        Mockito.verify(transactionService, Mockito.times(1)).createTransaction(1, Money.of(100), TransactionTypes.DEPOSIT);
+    }
+
+    private static TransactionDto transaction(long id) {
+        return new TransactionDto(id, 1, Money.of(10), new Date(), TransactionTypes.DEPOSIT.name(), null);
+    }
+}
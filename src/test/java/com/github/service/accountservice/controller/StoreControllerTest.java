@@ -1,11 +1,21 @@
 package com.github.service.accountservice.controller;
 
+import com.github.service.accountservice.aspect.IdempotencyAspect;
+import com.github.service.accountservice.cache.ICatalogInvalidationBus;
+import com.github.service.accountservice.cache.LocalCatalogInvalidationBus;
+import com.github.service.accountservice.cache.ProductCatalog;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.service.contracts.IProductService;
 import com.google.gson.GsonBuilder;
 import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.IdempotencyRecord;
 import com.github.service.accountservice.entities.Product;
 import com.github.service.accountservice.entities.Transaction;
 import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.idempotency.IIdempotencyCache;
+import com.github.service.accountservice.idempotency.IdempotencyStore;
+import com.github.service.accountservice.idempotency.LocalIdempotencyCache;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
 import com.github.service.accountservice.service.contracts.IStoreService;
 import com.github.service.accountservice.service.models.ProductDto;
 import com.github.service.accountservice.service.models.TransactionDto;
@@ -14,12 +24,17 @@ import com.github.service.accountservice.validator.ValidatorImp;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -27,7 +42,6 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
-import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +52,8 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 
 @RunWith(SpringRunner.class)
+@Import({ProductCatalog.class, IdempotencyAspect.class, IdempotencyStore.class})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
 @WebMvcTest(StoreController.class)
 public class StoreControllerTest {
 
@@ -47,6 +63,16 @@ public class StoreControllerTest {
         public IValidator validator() {
             return new ValidatorImp();
         }
+
+        @Bean
+        public ICatalogInvalidationBus catalogInvalidationBus() {
+            return new LocalCatalogInvalidationBus();
+        }
+
+        @Bean
+        public IIdempotencyCache idempotencyCache() {
+            return new LocalIdempotencyCache();
+        }
     }
 
     @Autowired
@@ -59,6 +85,8 @@ public class StoreControllerTest {
     private IStoreService storeService;
     @MockBean
     private IProductService productService;
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
 
     private ModelMapper modelMapper = new ModelMapper();
     private Product product;
@@ -69,19 +97,19 @@ public class StoreControllerTest {
     @Before
     public void before(){
         mvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
-        product = new Product("Name1", new BigDecimal(100), 10);
+        product = new Product("Name1", Money.of(100), 10);
         product.setId(1);
         account = new Account();
         account.setId(1);
         transactionType = new TransactionType("PURCHASE");
-        transaction = new Transaction(transactionType, new BigDecimal(100), account, product);
+        transaction = new Transaction(transactionType, Money.of(100), account, product);
     }
 
     @Test
     public void testGetListAvailableProduct_thenReturnJsonArray() throws Exception{
 
         List<ProductDto> productList = Arrays.asList(modelMapper.map(product, ProductDto.class));
-        given( storeService.listAllAvailableProducts()).willReturn(productList);
+        given( productService.findAll()).willReturn(productList);
         String uri = "/store/list";
         MvcResult mvcResult = mvc.perform(MockMvcRequestBuilders.get(uri)).andReturn();
 
@@ -113,4 +141,31 @@ public class StoreControllerTest {
         assertTrue(content.contains("\"accountId\":1"));
         assertTrue(content.contains("\"amount\":100"));
     }
+
+    @Test
+    public void testBuyProduct_whenRetriedWithSameKey_thenReplayFirstResponse() throws Exception{
+
+        given(storeService.buyProduct(account.getId(), product.getId())).willReturn(modelMapper.map(transaction, TransactionDto.class));
+        given(idempotencyRecordRepository.saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class))).willAnswer(invocation -> invocation.getArgument(0));
+        String json = "{\"accountId\":1,\"productId\":1}";
+
+        MvcResult first = mvc.perform(MockMvcRequestBuilders.post("/store/buy")
+                .header("Idempotency-Key", "buy-1")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(json)).andReturn();
+        MvcResult retry = mvc.perform(MockMvcRequestBuilders.post("/store/buy")
+                .header("Idempotency-Key", "buy-1")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(json)).andReturn();
+        MvcResult otherProduct = mvc.perform(MockMvcRequestBuilders.post("/store/buy")
+                .header("Idempotency-Key", "buy-1")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("{\"accountId\":1,\"productId\":2}")).andReturn();
+
+        assertEquals(200, retry.getResponse().getStatus());
+        assertEquals("true", retry.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+        assertEquals(422, otherProduct.getResponse().getStatus());
+        Mockito.verify(storeService, Mockito.times(1)).buyProduct(1, 1);
+    }
 }
@@ -0,0 +1,134 @@
+package com.github.service.accountservice.idempotency;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.AccountServiceImp;
+import com.github.service.accountservice.service.StripedAccountSequencer;
+import com.github.service.accountservice.service.TransactionServiceImp;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.validator.ValidatorImp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Moves money with an Idempotency-Key bound to the thread, each call committing on its own, and checks that the key
+ * is applied exactly when the money movement commits.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({TransactionServiceImp.class, AccountServiceImp.class, ValidatorImp.class, DatabaseLedger.class, TransactionTypeRegistry.class,
+        IdempotencyMarker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdempotencyMarkerTest {
+
+    @Autowired
+    private ITransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private Account account;
+    private IdempotencyRecord record;
+
+    @Before
+    public void setUp() {
+
+        account = accountRepository.save(new Account());
+        record = idempotencyRecordRepository.save(new IdempotencyRecord("/account/deposit", "k1", "f1"));
+        IdempotencyMarker.bind(record.getId());
+    }
+
+    @After
+    public void tearDown() {
+
+        IdempotencyMarker.bind(null);
+        idempotencyRecordRepository.deleteById(record.getId());
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+        accountRepository.deleteById(account.getId());
+    }
+
+    @Test
+    public void testCreateTransaction_AppliesTheKeyOnlyOnce() throws AccountException {
+
+        transactionService.createTransaction(account.getId(), Money.of(10), TransactionTypes.DEPOSIT);
+        assertNotNull(idempotencyRecordRepository.findById(record.getId()).get().getAppliedTime());
+
+        // Another request that took the key over must not move the money again.
+        try {
+            transactionService.createTransaction(account.getId(), Money.of(10), TransactionTypes.DEPOSIT);
+            fail();
+        } catch (AccountException expected) {
+            assertEquals(ErrorCode.Conflict.getCode(), expected.getErrorCode());
+        }
+        assertEquals(0, accountRepository.findById(account.getId()).get().getBalance().compareTo(Money.of(10)));
+        assertEquals(1, transactionRepository.findByAccountId(account.getId()).size());
+        assertEquals(0, idempotencyRecordRepository.takeOver(record.getId(), new Date(), new Date(System.currentTimeMillis() + 60000)));
+        assertEquals(0, idempotencyRecordRepository.release(record.getId()));
+    }
+
+    @Test
+    public void testCreateTransaction_KeyOfRolledBackRequestStaysFree() {
+
+        try {
+            transactionService.createTransaction(account.getId(), Money.of(10), TransactionTypes.WITHDRAW);
+            fail();
+        } catch (AccountException expected) {
+            assertEquals(ErrorCode.BadRequest.getCode(), expected.getErrorCode());
+        }
+        assertNull(idempotencyRecordRepository.findById(record.getId()).get().getAppliedTime());
+        assertEquals(1, idempotencyRecordRepository.takeOver(record.getId(), new Date(), new Date(System.currentTimeMillis() + 60000)));
+    }
+
+    @Test
+    public void testSubmit_SequencerAppliesTheKeyInTheStripeTransaction() throws Exception {
+
+        StripedAccountSequencer sequencer = new StripedAccountSequencer(transactionService, new SimpleMeterRegistry(), 1, 100, 100);
+        sequencer.start();
+        try {
+            sequencer.submit(account.getId(), Money.of(10), TransactionTypes.DEPOSIT).get();
+            CompletableFuture<?> again = sequencer.submit(account.getId(), Money.of(10), TransactionTypes.DEPOSIT);
+            try {
+                again.get();
+                fail();
+            } catch (ExecutionException expected) {
+                assertEquals(ErrorCode.Conflict.getCode(), ((AccountException) expected.getCause()).getErrorCode());
+            }
+        } finally {
+            sequencer.stop();
+        }
+        assertEquals(0, accountRepository.findById(account.getId()).get().getBalance().compareTo(Money.of(10)));
+        assertNotNull(idempotencyRecordRepository.findById(record.getId()).get().getAppliedTime());
+    }
+}
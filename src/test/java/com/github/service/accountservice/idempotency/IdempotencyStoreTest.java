@@ -0,0 +1,210 @@
+package com.github.service.accountservice.idempotency;
+
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+
+public class IdempotencyStoreTest {
+
+    private static final String SCOPE = "/account/deposit";
+    private static final String BODY = "{\"account\":{\"id\":1,\"balance\":100}}";
+
+    private IdempotencyRecordRepository repository;
+    private LocalIdempotencyCache cache;
+    private IdempotencyStore store;
+
+    @Before
+    public void setUp() {
+
+        repository = Mockito.mock(IdempotencyRecordRepository.class);
+        given(repository.saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class))).willAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            record.setId(7);
+            return record;
+        });
+        cache = new LocalIdempotencyCache();
+        store = store();
+    }
+
+    private IdempotencyStore store() {
+
+        IdempotencyStore idempotencyStore = new IdempotencyStore(repository, cache, 2);
+        ReflectionTestUtils.setField(idempotencyStore, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(idempotencyStore, "pendingTimeoutMillis", 60000L);
+        ReflectionTestUtils.setField(idempotencyStore, "waitMillis", 200L);
+        return idempotencyStore;
+    }
+
+    @Test
+    public void testBegin_ReplaysCompletedKeyFromMemory() throws Exception {
+
+        IdempotencyClaim claim = store.begin(SCOPE, "k1", "f1");
+        assertTrue(claim.isOwner());
+        claim.complete(new IdempotentResponse(200, "f1", BODY));
+
+        IdempotencyClaim retry = store.begin(SCOPE, "k1", "f1");
+        assertFalse(retry.isOwner());
+        assertEquals(BODY, retry.await().getBody());
+        Mockito.verify(repository, Mockito.times(1)).saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class));
+        Mockito.verify(repository).complete(ArgumentMatchers.eq(7L), ArgumentMatchers.eq(200), ArgumentMatchers.eq(BODY),
+                ArgumentMatchers.any(Date.class));
+    }
+
+    @Test
+    public void testBegin_KeysAreScopedToTheEndpoint() throws Exception {
+
+        store.begin(SCOPE, "k1", "f1").complete(new IdempotentResponse(200, "f1", BODY));
+
+        assertTrue(store.begin("/account/withdraw", "k1", "f1").isOwner());
+    }
+
+    @Test
+    public void testBegin_DifferentBodyWithSameKeyIsRejected() throws Exception {
+
+        store.begin(SCOPE, "k1", "f1").complete(new IdempotentResponse(200, "f1", BODY));
+
+        try {
+            store.begin(SCOPE, "k1", "f2");
+            fail();
+        } catch (AccountException expected) {
+            assertEquals(422, expected.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testBegin_DuplicateWaitsForTheRunningRequest() throws Exception {
+
+        IdempotencyClaim claim = store.begin(SCOPE, "k1", "f1");
+        IdempotencyClaim duplicate = store.begin(SCOPE, "k1", "f1");
+        assertFalse(duplicate.isOwner());
+        assertFalse(duplicate.getResponse().isDone());
+
+        IdempotentResponse response = new IdempotentResponse(200, "f1", BODY);
+        claim.complete(response);
+        assertSame(response, duplicate.await());
+        Mockito.verify(repository, Mockito.times(1)).saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void testBegin_DuplicateGivesUpWhenTheRunningRequestTakesTooLong() throws Exception {
+
+        store.begin(SCOPE, "k1", "f1");
+
+        try {
+            store.begin(SCOPE, "k1", "f1").await();
+            fail();
+        } catch (AccountException expected) {
+            assertEquals(409, expected.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testFail_ReleasesTheKeyAndFailsTheDuplicates() throws Exception {
+
+        IdempotencyClaim claim = store.begin(SCOPE, "k1", "f1");
+        IdempotencyClaim duplicate = store.begin(SCOPE, "k1", "f1");
+        AccountException error = new AccountException(400, "There is no enough balance");
+
+        claim.fail(error);
+        try {
+            duplicate.await();
+            fail();
+        } catch (AccountException expected) {
+            assertSame(error, expected);
+        }
+        Mockito.verify(repository).release(7L);
+        assertTrue(store.begin(SCOPE, "k1", "f1").isOwner());
+    }
+
+    @Test
+    public void testComplete_ErrorResponseIsNotKept() throws Exception {
+
+        store.begin(SCOPE, "k1", "f1").complete(new IdempotentResponse(400, "f1", "{\"message\":\"x\"}"));
+
+        Mockito.verify(repository).release(7L);
+        assertTrue(store.begin(SCOPE, "k1", "f1").isOwner());
+    }
+
+    @Test
+    public void testBegin_OtherNodeReplaysFromSharedCache() throws Exception {
+
+        store.begin(SCOPE, "k1", "f1").complete(new IdempotentResponse(200, "f1", BODY));
+
+        IdempotencyClaim retry = store().begin(SCOPE, "k1", "f1");
+        assertEquals(BODY, retry.await().getBody());
+        Mockito.verify(repository, Mockito.times(1)).saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void testBegin_ReplaysKeyCompletedInTheTable() throws Exception {
+
+        IdempotencyRecord record = record(SCOPE, "k1", "f1");
+        record.setResponseStatus(200);
+        record.setResponseBody(BODY);
+        record.setCompletedTime(new Date());
+        given(repository.saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class))).willThrow(new DataIntegrityViolationException("duplicate"));
+        given(repository.findByScopeAndRequestKey(SCOPE, "k1")).willReturn(record);
+
+        IdempotencyClaim retry = store.begin(SCOPE, "k1", "f1");
+        assertFalse(retry.isOwner());
+        assertEquals(BODY, retry.await().getBody());
+    }
+
+    @Test
+    public void testBegin_KeyRunningOnAnotherNodeIsRejected() throws Exception {
+
+        given(repository.saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class))).willThrow(new DataIntegrityViolationException("duplicate"));
+        given(repository.findByScopeAndRequestKey(SCOPE, "k1")).willReturn(record(SCOPE, "k1", "f1"));
+
+        try {
+            store.begin(SCOPE, "k1", "f1");
+            fail();
+        } catch (AccountException expected) {
+            assertEquals(409, expected.getErrorCode());
+        }
+        // Nothing is left behind for the next attempt on this node.
+        given(repository.takeOver(ArgumentMatchers.eq(3L), ArgumentMatchers.any(Date.class), ArgumentMatchers.any(Date.class))).willReturn(1);
+        assertTrue(store.begin(SCOPE, "k1", "f1").isOwner());
+    }
+
+    @Test
+    public void testBegin_AppliedKeyIsNeverRunAgain() throws Exception {
+
+        // Its money movement committed, but the node went down before the response was stored.
+        IdempotencyRecord record = record(SCOPE, "k1", "f1");
+        record.setCreatedTime(new Date(System.currentTimeMillis() - 120000));
+        record.setAppliedTime(new Date());
+        given(repository.saveAndFlush(ArgumentMatchers.any(IdempotencyRecord.class))).willThrow(new DataIntegrityViolationException("duplicate"));
+        given(repository.findByScopeAndRequestKey(SCOPE, "k1")).willReturn(record);
+
+        try {
+            store.begin(SCOPE, "k1", "f1");
+            fail();
+        } catch (AccountException expected) {
+            assertEquals(409, expected.getErrorCode());
+        }
+        Mockito.verify(repository, Mockito.never()).takeOver(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Date.class),
+                ArgumentMatchers.any(Date.class));
+    }
+
+    private static IdempotencyRecord record(String scope, String key, String fingerprint) {
+
+        IdempotencyRecord record = new IdempotencyRecord(scope, key, fingerprint);
+        record.setId(3);
+        return record;
+    }
+}
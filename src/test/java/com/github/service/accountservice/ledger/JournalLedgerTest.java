@@ -0,0 +1,249 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.LedgerQuarantine;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.LedgerQuarantineRepository;
+import com.github.service.accountservice.repository.ProductRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.AccountServiceImp;
+import com.github.service.accountservice.service.ReconciliationServiceImp;
+import com.github.service.accountservice.service.TransactionServiceImp;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the service against the journal ledger with committed transactions. The drainer is scheduled far apart,
+ * the tests drain by hand.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({TransactionServiceImp.class, AccountServiceImp.class, ValidatorImp.class, JournalLedger.class, TransactionTypeRegistry.class,
+        IdempotencyMarker.class, ReconciliationServiceImp.class})
+@TestPropertySource(properties = {
+        "ledger.mode=journal",
+        "ledger.journal.dir=" + JournalLedgerTest.DIRECTORY,
+        "ledger.drain.interval-ms=3600000",
+        "reconciliation.settle-ms=0"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JournalLedgerTest {
+
+    static final String DIRECTORY = "target/ledger-journal-test";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private ITransactionService transactionService;
+
+    @Autowired
+    private JournalLedger ledger;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTypeRegistry transactionTypeRegistry;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LedgerQuarantineRepository ledgerQuarantineRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IReconciliationService reconciliationService;
+
+    private Account account;
+
+    @BeforeClass
+    public static void clearJournal() {
+        FileSystemUtils.deleteRecursively(new File(DIRECTORY));
+    }
+
+    @Before
+    public void setUp() {
+        account = accountRepository.save(new Account());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        while (ledger.drain() > 0) {
+            // nothing may reference the account once it is deleted
+        }
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+        ledgerQuarantineRepository.deleteAll(ledgerQuarantineRepository.findByAccountId(account.getId()));
+        accountRepository.deleteById(account.getId());
+    }
+
+    @Test
+    public void testCreateTransaction_WrittenToTheDatabaseOnDrain() throws Exception {
+
+        TransactionDto first = transactionService.createTransaction(account.getId(), Money.of(10), TransactionTypes.DEPOSIT);
+        TransactionDto second = transactionService.createTransaction(account.getId(), Money.of(4), TransactionTypes.WITHDRAW);
+
+        assertTrue(transactionRepository.findByAccountId(account.getId()).isEmpty());
+        assertEquals(Money.parse("6.00"), accountRepository.findById(account.getId()).get().getBalance());
+
+        assertEquals(2, ledger.drain());
+
+        List<Transaction> transactions = transactionRepository.findByAccountId(account.getId());
+        assertEquals(2, transactions.size());
+        assertTrue(transactions.stream().anyMatch(t -> t.getId() == first.getId() && t.getAmount().compareTo(Money.of(10)) == 0));
+        assertTrue(transactions.stream().anyMatch(t -> t.getId() == second.getId() && t.getType().getId() == TransactionTypes.WITHDRAW.getCode()));
+    }
+
+    // The drain is late, e.g. after the database was down, so the entry's created time is already past the settle window.
+    @Test
+    public void testReconcile_WaitsForEntriesDrainedAfterTheHorizon() throws Exception {
+
+        transactionService.createTransaction(account.getId(), Money.of(10), TransactionTypes.DEPOSIT);
+        Thread.sleep(5);
+        Transaction later = new Transaction(transactionTypeRegistry.reference(TransactionTypes.DEPOSIT), Money.of(5),
+                accountRepository.getOne(account.getId()));
+        later.setCreatedTime(new Date());
+        new TransactionTemplate(transactionManager).execute(status -> transactionRepository.save(later));
+        accountRepository.findById(account.getId()).ifPresent(updated -> {
+            updated.setBalance(Money.of(15));
+            accountRepository.save(updated);
+        });
+        Thread.sleep(5);
+
+        // The row created after the journal entry is in the database, the walk still waits for the entry.
+        assertEquals(0, reconciliationService.reconcile());
+
+        assertEquals(1, ledger.drain());
+        assertEquals(2, reconciliationService.reconcile());
+        assertEquals(0, reconciliationService.getBalanceAt(account.getId(), null).getBalance().compareTo(Money.of(15)));
+    }
+
+    @Test
+    public void testRecord_EntryOfRollbackIsCancelled() throws Exception {
+
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                ledger.record(new Transaction(transactionTypeRegistry.reference(TransactionTypes.DEPOSIT),
+                        Money.of(10), accountRepository.getOne(account.getId())));
+                // Runs after the entry was appended and forced, the transaction rolls back.
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        throw new IllegalStateException("commit refused");
+                    }
+                });
+                return null;
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+            // rolled back
+        }
+
+        assertEquals(1, ledger.drain());
+        assertTrue(transactionRepository.findByAccountId(account.getId()).isEmpty());
+        assertTrue(ledgerQuarantineRepository.findByAccountId(account.getId()).isEmpty());
+    }
+
+    // JPA reports a failed commit as unknown, so the entry can not be told from one whose commit went through.
+    @Test
+    public void testRecord_EntryOfFailedCommitIsQuarantined() throws Exception {
+
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                ledger.record(new Transaction(transactionTypeRegistry.reference(TransactionTypes.DEPOSIT),
+                        Money.of(10), accountRepository.getOne(account.getId())));
+                // Fails when flushed on commit, after the entry was appended and forced.
+                accountRepository.findById(account.getId()).get().setBalance(Money.of(-1));
+                return null;
+            });
+            fail();
+        } catch (TransactionSystemException expected) {
+            // the commit failed
+        }
+
+        assertEquals(1, ledger.drain());
+        assertTrue(transactionRepository.findByAccountId(account.getId()).isEmpty());
+        assertEquals(1, ledgerQuarantineRepository.findByAccountId(account.getId()).size());
+    }
+
+    @Test
+    public void testStart_ReplaysEntriesTheDatabaseIsMissing() throws Exception {
+
+        TransactionDto drained = transactionService.createTransaction(account.getId(), Money.of(10), TransactionTypes.DEPOSIT);
+        ledger.drain();
+
+        Path directory = folder.getRoot().toPath();
+        try (LedgerJournal journal = new LedgerJournal(directory, LedgerJournal.RECORD_SIZE * 100)) {
+            // Left behind by a crash: one entry already drained, one that was not, one that rolled back and one
+            // forced to disk before a database commit that never happened.
+            journal.commit(journal.append(new LedgerEntry(drained.getId(), TransactionTypes.DEPOSIT.getCode(), account.getId(),
+                    null, Money.parse("10.00"), new Date())));
+            journal.commit(journal.append(new LedgerEntry(drained.getId() + 1_000_000, TransactionTypes.DEPOSIT.getCode(),
+                    account.getId(), null, Money.parse("7.00"), new Date())));
+            journal.cancel(journal.append(new LedgerEntry(drained.getId() + 1_000_001, TransactionTypes.DEPOSIT.getCode(),
+                    account.getId(), null, Money.parse("8.00"), new Date())));
+            journal.append(new LedgerEntry(drained.getId() + 1_000_002, TransactionTypes.DEPOSIT.getCode(), account.getId(),
+                    null, Money.parse("9.00"), new Date()));
+        }
+
+        JournalLedger restarted = new JournalLedger(transactionRepository, transactionTypeRegistry, accountRepository,
+                productRepository, ledgerQuarantineRepository, transactionManager);
+        ReflectionTestUtils.setField(restarted, "directory", directory.toString());
+        ReflectionTestUtils.setField(restarted, "segmentBytes", LedgerJournal.RECORD_SIZE * 100);
+        ReflectionTestUtils.setField(restarted, "intervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(restarted, "batchSize", 5000);
+        restarted.start();
+        restarted.stop();
+
+        List<Transaction> transactions = transactionRepository.findByAccountId(account.getId());
+        assertEquals(2, transactions.size());
+        assertTrue(transactions.stream().anyMatch(t -> t.getId() == drained.getId() + 1_000_000
+                && t.getAmount().compareTo(Money.of(7)) == 0));
+        List<LedgerQuarantine> quarantined = ledgerQuarantineRepository.findByAccountId(account.getId());
+        assertEquals(1, quarantined.size());
+        assertEquals(drained.getId() + 1_000_002, quarantined.get(0).getId());
+        assertEquals(0, quarantined.get(0).getAmount().compareTo(Money.of(9)));
+    }
+}
@@ -0,0 +1,238 @@
+package com.github.service.accountservice.ledger;
+
+import com.github.service.accountservice.money.Money;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LedgerJournalTest {
+
+    private static final int SEGMENT_BYTES = LedgerJournal.RECORD_SIZE * 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRead_ReturnsAppendedEntries() throws IOException {
+
+        try (LedgerJournal journal = new LedgerJournal(folder.getRoot().toPath(), SEGMENT_BYTES)) {
+            journal.append(entry(1, 7));
+            journal.append(new LedgerEntry(2, 3, 8, null, Money.parse("-12.34"), new Date(1000L)));
+
+            List<LedgerEntry> entries = journal.read(0, 2);
+
+            assertEquals(2, entries.size());
+            assertEquals(1, entries.get(0).getId());
+            assertEquals(7, (int) entries.get(0).getProductId());
+            LedgerEntry second = entries.get(1);
+            assertEquals(2, second.getId());
+            assertEquals(3, second.getTypeId());
+            assertEquals(8, second.getAccountId());
+            assertNull(second.getProductId());
+            assertEquals(Money.parse("-12.34"), second.getAmount());
+            assertEquals(1000L, second.getCreatedTime().getTime());
+        }
+    }
+
+    @Test
+    public void testSettledIndex_StopsAtFirstPendingEntry() throws IOException {
+
+        try (LedgerJournal journal = new LedgerJournal(folder.getRoot().toPath(), SEGMENT_BYTES)) {
+            long first = journal.append(entry(1, 1));
+            long second = journal.append(entry(2, 1));
+            journal.awaitDurable(second);
+
+            journal.settle(second);
+            assertEquals(first, journal.settledIndex());
+
+            journal.settle(first);
+            assertEquals(2, journal.settledIndex());
+        }
+    }
+
+    @Test
+    public void testSettledIndex_StopsAtEntriesNotForcedYet() throws IOException {
+
+        try (LedgerJournal journal = new LedgerJournal(folder.getRoot().toPath(), SEGMENT_BYTES)) {
+            long index = journal.append(entry(1, 1));
+            journal.settle(index);
+
+            assertEquals(0, journal.settledIndex());
+            journal.awaitDurable(index);
+            assertEquals(1, journal.settledIndex());
+        }
+    }
+
+    @Test
+    public void testCancel_EntryIsSkippedOnReadAndReplay() throws IOException {
+
+        Path directory = folder.getRoot().toPath();
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            journal.append(entry(1, 1));
+            journal.cancel(journal.append(entry(2, 1)));
+            journal.append(entry(3, 1));
+
+            assertEquals(ids(1, 3), idsOf(journal.read(0, 3)));
+        }
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(3, journal.writeIndex());
+            assertEquals(ids(1, 3), idsOf(journal.read(0, 3)));
+        }
+    }
+
+    @Test
+    public void testCommit_EntriesWithoutTheMarkAreReadAsInDoubt() throws IOException {
+
+        Path directory = folder.getRoot().toPath();
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            journal.commit(journal.append(entry(1, 1)));
+            journal.append(entry(2, 1));
+        }
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            List<LedgerEntry> entries = journal.read(0, 2);
+            assertEquals(2, entries.size());
+            assertTrue(entries.get(0).isCommitted());
+            assertFalse(entries.get(1).isCommitted());
+        }
+    }
+
+    @Test
+    public void testReopen_ContinuesAfterCheckpointAcrossSegments() throws IOException {
+
+        Path directory = folder.getRoot().toPath();
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            for (int id = 1; id <= 25; id++) {
+                journal.append(entry(id, 1));
+            }
+            journal.checkpoint(12);
+        }
+        // The first segment holds entries 0 to 9 and was fully drained.
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".journal")).count());
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(12, journal.checkpoint());
+            assertEquals(25, journal.writeIndex());
+            assertEquals(13, journal.read(journal.checkpoint(), journal.writeIndex()).size());
+            assertEquals(26, journal.read(25, journal.append(entry(26, 1)) + 1).get(0).getId());
+        }
+    }
+
+    @Test
+    public void testReopen_TornRecordEndsTheJournal() throws IOException {
+
+        Path directory = folder.getRoot().toPath();
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            for (int id = 1; id <= 4; id++) {
+                journal.append(entry(id, 1));
+            }
+        }
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("ledger-000000000000.journal").toFile(), "rw")) {
+            file.seek(2 * LedgerJournal.RECORD_SIZE + 10);
+            file.write(0x5a);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(2, journal.writeIndex());
+            assertEquals(ids(1, 2), idsOf(journal.read(0, 2)));
+        }
+        // The records behind the torn one are cleared, a second recovery does not bring them back.
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(2, journal.writeIndex());
+        }
+    }
+
+    @Test
+    public void testRead_CorruptRecordBeforeTheEndStopsTheRead() throws IOException {
+
+        Path directory = folder.getRoot().toPath();
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            for (int id = 1; id <= 15; id++) {
+                journal.append(entry(id, 1));
+            }
+        }
+        // Recovery only looks for a torn write in the last segment, this one is in the first.
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("ledger-000000000000.journal").toFile(), "rw")) {
+            file.seek(3 * LedgerJournal.RECORD_SIZE + 10);
+            file.write(0x5a);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(15, journal.writeIndex());
+            assertEquals(ids(1, 2, 3), idsOf(journal.read(0, 3)));
+            try {
+                journal.read(0, 15);
+                fail();
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().contains("record 3 "));
+            }
+        }
+    }
+
+    @Test
+    public void testAwaitDurable_ConcurrentAppendersAreAllDurable() throws Exception {
+
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (LedgerJournal journal = new LedgerJournal(folder.getRoot().toPath(), LedgerJournal.RECORD_SIZE * 1000)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long index = journal.append(entry(thread * perThread + i + 1, 1));
+                        journal.awaitDurable(index);
+                        journal.settle(index);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertEquals(threads * perThread, journal.settledIndex());
+            assertEquals(threads * perThread, idsOf(journal.read(0, threads * perThread)).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static LedgerEntry entry(long id, Integer productId) {
+        return new LedgerEntry(id, 3, 1, productId, Money.parse("10.00"), new Date());
+    }
+
+    private static Set<Long> ids(long... ids) {
+        Set<Long> set = new HashSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    private static Set<Long> idsOf(List<LedgerEntry> entries) {
+        return entries.stream().map(LedgerEntry::getId).collect(Collectors.toSet());
+    }
+}
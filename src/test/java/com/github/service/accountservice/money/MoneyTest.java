@@ -0,0 +1,123 @@
+package com.github.service.accountservice.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.github.service.accountservice.service.consumes.AccountAmountRequest;
+import com.github.service.accountservice.service.models.AccountDto;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MoneyTest {
+
+    // The ObjectMapper as Spring Boot configures it for the controllers.
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().modules(new AfterburnerModule()).build();
+
+    @Test
+    public void testParse_thenMatchesBigDecimal() {
+
+        for (String text : new String[]{"0", "100", "100.5", "100.50", "-0.25", "+7.05", ".5", "5.", "1.500", "1E+2", "92233720368547758.07"}) {
+            assertEquals(text, Money.of(new BigDecimal(text)), Money.parse(text));
+        }
+        assertEquals(10050, Money.parse("100.5").getCents());
+    }
+
+    @Test
+    public void testParse_whenNotAnAmount_thenThrow() {
+
+        for (String text : new String[]{"", "-", ".", "1.2.3", "ten", "1,5"}) {
+            try {
+                Money.parse(text);
+                fail(text);
+            } catch (NumberFormatException ex) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testParse_whenMoreThanTwoDecimalsOrTooLarge_thenThrow() {
+
+        for (String text : new String[]{"10.005", "0.001", "92233720368547758.08", "1E+30"}) {
+            try {
+                Money.parse(text);
+                fail(text);
+            } catch (ArithmeticException ex) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testArithmetic() {
+
+        Money balance = Money.parse("100.50");
+
+        assertEquals(Money.parse("101.25"), balance.plus(Money.parse("0.75")));
+        assertEquals(Money.parse("-0.50"), balance.minus(Money.of(101)));
+        assertEquals(Money.parse("301.50"), balance.times(3));
+        assertEquals(Money.parse("-100.50"), balance.negate());
+        assertTrue(balance.compareTo(Money.of(100)) > 0);
+        assertEquals(new BigDecimal("100.50"), balance.toBigDecimal());
+        assertEquals("100.50", balance.toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+    }
+
+    @Test
+    public void testArithmetic_whenOverflow_thenThrow() {
+
+        Money max = Money.ofCents(Long.MAX_VALUE);
+        try {
+            max.plus(Money.ofCents(1));
+            fail();
+        } catch (ArithmeticException ex) {
+            // expected
+        }
+        try {
+            Money.ofCents(Long.MIN_VALUE).negate();
+            fail();
+        } catch (ArithmeticException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testJson_thenWrittenAsDecimalNumber() throws Exception {
+
+        assertEquals("{\"id\":1,\"balance\":100.50}", objectMapper.writeValueAsString(new AccountDto(1, Money.parse("100.5"))));
+    }
+
+    @Test
+    public void testJson_thenReadFromNumberOrString() throws Exception {
+
+        AccountAmountRequest number = objectMapper.readValue("{\"accountId\":1,\"amount\":100.5}", AccountAmountRequest.class);
+        AccountAmountRequest string = objectMapper.readValue("{\"accountId\":1,\"amount\":\"100.50\"}", AccountAmountRequest.class);
+        AccountAmountRequest empty = objectMapper.readValue("{\"accountId\":1,\"amount\":\"\"}", AccountAmountRequest.class);
+
+        assertEquals(Money.parse("100.50"), number.getAmount());
+        assertEquals(Money.parse("100.50"), string.getAmount());
+        assertNull(empty.getAmount());
+    }
+
+    @Test(expected = InvalidFormatException.class)
+    public void testJson_whenMoreThanTwoDecimals_thenThrow() throws Exception {
+        objectMapper.readValue("{\"accountId\":1,\"amount\":10.005}", AccountAmountRequest.class);
+    }
+
+    @Test
+    public void testConverter() {
+
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("12.30"), converter.convertToDatabaseColumn(Money.parse("12.3")));
+        assertEquals(Money.parse("12.30"), converter.convertToEntityAttribute(new BigDecimal("12.3")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
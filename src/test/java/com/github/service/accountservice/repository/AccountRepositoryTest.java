@@ -1,6 +1,7 @@
 package com.github.service.accountservice.repository;
 
 import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.money.Money;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,7 +10,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit4.SpringRunner;
 import javax.validation.ConstraintViolationException;
-import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
@@ -68,7 +71,7 @@ public class AccountRepositoryTest {
     public void testUpdateBalance_Success(){
         Optional<Account> optionalAccount = accountRepository.findById(account1.getId());
         assertTrue(optionalAccount.isPresent());
-        BigDecimal depositAmount = new BigDecimal(100000);
+        Money depositAmount = Money.of(100000);
         Account account = optionalAccount.get();
         account.setBalance(depositAmount);
         Account updatedAccount = accountRepository.save(account);
@@ -80,7 +83,7 @@ public class AccountRepositoryTest {
 
         Optional<Account> optionalAccount = accountRepository.findById(account1.getId());
         assertTrue(optionalAccount.isPresent());
-        BigDecimal depositAmount = new BigDecimal(-500);
+        Money depositAmount = Money.of(-500);
         Account account = optionalAccount.get();
         account.setBalance(depositAmount);
         accountRepository.save(account);
@@ -93,4 +96,43 @@ public class AccountRepositoryTest {
             assertTrue(ex.getConstraintViolations().iterator().next().getMessage().contains("Account balance cannot be negative"));
         }
     }
+
+    @Test
+    public void testDepositAmount_AddsToStoredBalance(){
+
+        int updated = accountRepository.depositAmount(account1.getId(), Money.of(250), new Date());
+        assertEquals(1, updated);
+        assertEquals(0, accountRepository.findById(account1.getId()).get().getBalance().compareTo(Money.of(250)));
+
+        assertEquals(0, accountRepository.depositAmount(100, Money.of(250), new Date()));
+    }
+
+    @Test
+    public void testWithdrawAmount_OnlyWhenBalanceCoversAmount(){
+
+        accountRepository.depositAmount(account1.getId(), Money.of(100), new Date());
+
+        assertEquals(0, accountRepository.withdrawAmount(account1.getId(), Money.of(101), new Date()));
+        assertEquals(1, accountRepository.withdrawAmount(account1.getId(), Money.of(100), new Date()));
+        assertEquals(0, accountRepository.findById(account1.getId()).get().getBalance().compareTo(Money.ZERO));
+    }
+
+    @Test
+    public void testChangeBalance_KeepsBalanceNonNegative(){
+
+        assertEquals(1, accountRepository.changeBalance(account1.getId(), Money.of(100), new Date()));
+        assertEquals(0, accountRepository.changeBalance(account1.getId(), Money.of(-101), new Date()));
+        assertEquals(1, accountRepository.changeBalance(account1.getId(), Money.of(-40), new Date()));
+        assertEquals(0, accountRepository.findById(account1.getId()).get().getBalance().compareTo(Money.of(60)));
+    }
+
+    @Test
+    public void testFindAllByIdForUpdate_OrderedById(){
+
+        Account account2 = accountRepository.save(new Account());
+        List<Account> accounts = accountRepository.findAllByIdForUpdate(Arrays.asList(account2.getId(), account1.getId(), 100));
+        assertEquals(2, accounts.size());
+        assertEquals(account1.getId(), accounts.get(0).getId());
+        assertEquals(account2.getId(), accounts.get(1).getId());
+    }
 }
@@ -0,0 +1,98 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.money.Money;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50"})
+public class BlockIdGeneratorTest {
+
+    private static final int ROWS = 120;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionTypeRepository transactionTypeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Account account;
+    private TransactionType type;
+
+    @Before
+    public void before() {
+
+        account = entityManager.persist(new Account());
+        type = transactionTypeRepository.findById(1).get();
+        entityManager.flush();
+    }
+
+    @Test
+    public void testSaveAll_InsertsInBatches() {
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionRepository.saveAll(newTransactions(ROWS));
+        entityManager.flush();
+
+        // One prepared INSERT per batch of 50 instead of one per row, plus at most two block reservations.
+        assertTrue("statements: " + statistics.getPrepareStatementCount(), statistics.getPrepareStatementCount() <= 3 + 2 * 2);
+        assertEquals(ROWS, transactionRepository.findByAccountId(account.getId()).size());
+    }
+
+    @Test
+    public void testIds_UniqueAcrossHibernateAndJdbcInsertsAndBelowNextBlock() {
+
+        List<Transaction> saved = transactionRepository.saveAll(newTransactions(ROWS));
+        List<Transaction> inserted = newTransactions(ROWS);
+        transactionRepository.insertAll(inserted);
+        entityManager.flush();
+
+        Set<Long> ids = new HashSet<>();
+        saved.forEach(transaction -> ids.add(transaction.getId()));
+        inserted.forEach(transaction -> ids.add(transaction.getId()));
+        assertEquals(2 * ROWS, ids.size());
+
+        Long nextId = jdbcTemplate.queryForObject("SELECT next_id FROM id_generator WHERE name = 'account_transaction'", Long.class);
+        assertTrue(ids.stream().allMatch(id -> id > 0 && id < nextId));
+        assertEquals(2 * ROWS, transactionRepository.findByAccountId(account.getId()).size());
+    }
+
+    private List<Transaction> newTransactions(int count) {
+
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(new Transaction(type, Money.of(1), account));
+        }
+        return transactions;
+    }
+}
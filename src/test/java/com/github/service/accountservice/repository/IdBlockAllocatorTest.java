@@ -0,0 +1,80 @@
+package com.github.service.accountservice.repository;
+
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdBlockAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 10_000;
+    private static final int BLOCK_SIZE = 100;
+
+    @Test
+    public void testNext_HandsOutTheReservedBlockInOrder() {
+
+        AtomicLong table = new AtomicLong(41);
+        IdBlockAllocator allocator = new IdBlockAllocator(3);
+
+        for (long expected = 41; expected < 50; expected++) {
+            assertEquals(expected, allocator.next(size -> table.getAndAdd(size)));
+        }
+        assertEquals(50, table.get());
+    }
+
+    @Test
+    public void testNext_ConcurrentIdsAreUniqueAndBlocksAreNotWasted() throws Exception {
+
+        AtomicLong table = new AtomicLong(1);
+        AtomicInteger reservations = new AtomicInteger();
+        IdBlockAllocator allocator = new IdBlockAllocator(BLOCK_SIZE);
+        IdBlockAllocator.BlockSource source = size -> {
+            reservations.incrementAndGet();
+            return table.getAndAdd(size);
+        };
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Void> worker = () -> {
+                    start.await();
+                    for (int j = 0; j < IDS_PER_THREAD; j++) {
+                        assertTrue(ids.add(allocator.next(source)));
+                    }
+                    return null;
+                };
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        assertEquals(THREADS * IDS_PER_THREAD / BLOCK_SIZE, reservations.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_FailWhenBlockSizeIsZero() {
+        new IdBlockAllocator(0);
+    }
+}
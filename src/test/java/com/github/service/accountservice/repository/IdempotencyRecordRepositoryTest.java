@@ -0,0 +1,87 @@
+package com.github.service.accountservice.repository;
+
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringRunner;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class IdempotencyRecordRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    public void testSave_SecondClaimOfAKeyIsRejected() {
+
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("/account/deposit", "k1", "f1"));
+        idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("/account/withdraw", "k1", "f1"));
+
+        try {
+            idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("/account/deposit", "k1", "f2"));
+            fail();
+        } catch (DataIntegrityViolationException expected) {
+            // the unique index on (scope, request_key)
+        }
+    }
+
+    @Test
+    public void testTakeOver_OnlyStalePendingKeys() {
+
+        long now = System.currentTimeMillis();
+        IdempotencyRecord stale = pending("stale", new Date(now - 120000));
+        IdempotencyRecord fresh = pending("fresh", new Date(now));
+        IdempotencyRecord completed = pending("completed", new Date(now - 120000));
+        completed.setCompletedTime(new Date(now - 110000));
+        entityManager.flush();
+
+        Date staleBefore = new Date(now - 60000);
+        assertEquals(1, idempotencyRecordRepository.takeOver(stale.getId(), new Date(now), staleBefore));
+        assertEquals(0, idempotencyRecordRepository.takeOver(stale.getId(), new Date(now), staleBefore));
+        assertEquals(0, idempotencyRecordRepository.takeOver(fresh.getId(), new Date(now), staleBefore));
+        assertEquals(0, idempotencyRecordRepository.takeOver(completed.getId(), new Date(now), staleBefore));
+    }
+
+    @Test
+    public void testComplete_ThenFoundWithResponse() {
+
+        IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord("/store/buy", "k1", "f1"));
+
+        idempotencyRecordRepository.complete(record.getId(), 200, "{\"transaction\":{}}", new Date());
+        entityManager.clear();
+
+        IdempotencyRecord found = idempotencyRecordRepository.findByScopeAndRequestKey("/store/buy", "k1");
+        assertEquals(Integer.valueOf(200), found.getResponseStatus());
+        assertEquals("{\"transaction\":{}}", found.getResponseBody());
+    }
+
+    @Test
+    public void testDeleteCreatedBefore() {
+
+        long now = System.currentTimeMillis();
+        pending("old", new Date(now - 120000));
+        pending("new", new Date(now));
+        entityManager.flush();
+
+        assertEquals(1, idempotencyRecordRepository.deleteCreatedBefore(new Date(now - 60000)));
+        assertEquals(1, idempotencyRecordRepository.count());
+    }
+
+    private IdempotencyRecord pending(String key, Date createdTime) {
+
+        IdempotencyRecord record = new IdempotencyRecord("/account/deposit", key, "f1");
+        record.setCreatedTime(createdTime);
+        return entityManager.persist(record);
+    }
+}
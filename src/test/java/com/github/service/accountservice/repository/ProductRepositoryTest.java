@@ -1,15 +1,18 @@
 package com.github.service.accountservice.repository;
 
 import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.money.Money;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit4.SpringRunner;
 import javax.validation.ConstraintViolationException;
-import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,9 +34,9 @@ public class ProductRepositoryTest {
     @Before
     public void before(){
 
-        product1 = new Product("Name1", new BigDecimal(500), 100);
-        product2 = new Product("Name2", new BigDecimal(1000), 200);
-        product3 = new Product("Name3", new BigDecimal(2000), 0);
+        product1 = new Product("Name1", Money.of(500), 100);
+        product2 = new Product("Name2", Money.of(1000), 200);
+        product3 = new Product("Name3", Money.of(2000), 0);
 
         entityManager.persist(product1);
         entityManager.persist(product2);
@@ -45,7 +48,7 @@ public class ProductRepositoryTest {
     public void testCreateProduct(){
 
         long totalCount = productRepository.count();
-        Product testProduct = new Product("Name4", new BigDecimal(5000), 100);
+        Product testProduct = new Product("Name4", Money.of(5000), 100);
         productRepository.save(testProduct);
         long finalCount = productRepository.count();
         Optional<Product> optionalProduct = productRepository.findById(testProduct.getId());
@@ -78,6 +81,33 @@ public class ProductRepositoryTest {
         assertTrue(!optionalProduct.isPresent());
     }
 
+    @Test
+    public void testExistsByName() {
+
+        assertTrue(productRepository.existsByName(product1.getName()));
+        assertFalse(productRepository.existsByName("Name4"));
+    }
+
+    @Test
+    public void testExistsByNameAndIdNot() {
+
+        assertTrue(productRepository.existsByNameAndIdNot(product1.getName(), product2.getId()));
+        assertFalse(productRepository.existsByNameAndIdNot(product1.getName(), product1.getId()));
+    }
+
+    @Test
+    public void testCreate_FailWhenNameExists() {
+
+        try{
+            productRepository.saveAndFlush(new Product(product1.getName(), Money.of(10), 1));
+            fail();
+        }
+        catch(DataIntegrityViolationException ex){
+            assertTrue(ex.getMostSpecificCause() instanceof SQLException);
+            assertEquals("23505", ((SQLException) ex.getMostSpecificCause()).getSQLState());
+        }
+    }
+
     @Test
     public void testList() {
 
@@ -132,13 +162,13 @@ public class ProductRepositoryTest {
         assertTrue(optionalProduct.isPresent());
         Product product = optionalProduct.get();
         product.setName("updatedName");
-        product.setPrice(new BigDecimal(10));
+        product.setPrice(Money.of(10));
         product.setProductCount(10);
         Product updatedProduct = productRepository.save(product);
         assertEquals(updatedProduct.getId(), product1.getId());
         assertTrue(updatedProduct.getName().equals("updatedName"));
         assertEquals(updatedProduct.getProductCount(), 10);
-        assertTrue(updatedProduct.getPrice().equals(new BigDecimal(10)));
+        assertTrue(updatedProduct.getPrice().equals(Money.of(10)));
     }
 
     @Test
@@ -171,7 +201,7 @@ public class ProductRepositoryTest {
         Optional<Product> optionalProduct = productRepository.findById(product1.getId());
         assertTrue(optionalProduct.isPresent());
         Product product = optionalProduct.get();
-        product.setPrice(new BigDecimal(-100));
+        product.setPrice(Money.of(-100));
         productRepository.save(product);
         try{
             entityManager.flush();
@@ -200,4 +230,34 @@ public class ProductRepositoryTest {
             assertTrue(ex.getConstraintViolations().iterator().next().getMessage().contains("Product count cannot be negative"));
         }
     }
+
+    @Test
+    public void testSave_FailWhenVersionIsStale(){
+
+        entityManager.clear();
+        Product stale = productRepository.findById(product1.getId()).get();
+        entityManager.detach(stale);
+
+        Product current = productRepository.findById(product1.getId()).get();
+        current.setProductCount(99);
+        entityManager.flush();
+        assertEquals(1, current.getVersion());
+
+        stale.setProductCount(98);
+        try{
+            productRepository.saveAndFlush(stale);
+            fail();
+        }
+        catch(ObjectOptimisticLockingFailureException ex){
+            assertEquals(99, productRepository.findById(product1.getId()).get().getProductCount());
+        }
+    }
+
+    @Test
+    public void testFindByIdForUpdate(){
+
+        Optional<Product> product = productRepository.findByIdForUpdate(product2.getId());
+        assertTrue(product.isPresent());
+        assertEquals(product2.getName(), product.get().getName());
+    }
 }
@@ -4,16 +4,21 @@ import com.github.service.accountservice.entities.Product;
 import com.github.service.accountservice.entities.Account;
 import com.github.service.accountservice.entities.Transaction;
 import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.models.TransactionDto;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 import javax.validation.ConstraintViolationException;
-import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -55,19 +60,35 @@ public class TransactionRepositoryTest {
         entityManager.persist(account2);
         entityManager.flush();
 
-        product1 = new Product("Name1", new BigDecimal(100), 200);
+        product1 = new Product("Name1", Money.of(100), 200);
         entityManager.persist(product1);
         entityManager.flush();
 
-        transaction1 = new Transaction(type1, new BigDecimal(50), account1);
-        transaction2 = new Transaction(type2, new BigDecimal(50), account2, product1);
-        transaction3 = new Transaction(type3, new BigDecimal(100), account2);
+        transaction1 = new Transaction(type1, Money.of(50), account1);
+        transaction2 = new Transaction(type2, Money.of(50), account2, product1);
+        transaction3 = new Transaction(type3, Money.of(100), account2);
         entityManager.persist(transaction1);
         entityManager.persist(transaction2);
         entityManager.persist(transaction3);
         entityManager.flush();
     }
 
+    @Test
+    public void testInsertAll(){
+
+        Date createdTime = new Date();
+        List<Transaction> batch = Stream.generate(() -> new Transaction(type1, Money.of(5), account1))
+                .limit(1200).collect(Collectors.toList());
+        batch.forEach(transaction -> transaction.setCreatedTime(createdTime));
+        batch.add(new Transaction(type3, Money.of(100), account1, product1));
+
+        transactionRepository.insertAll(batch);
+
+        List<Transaction> stored = transactionRepository.findByAccountId(account1.getId());
+        assertEquals(1 + 1201, stored.size());
+        assertEquals(1, stored.stream().filter(transaction -> transaction.getProduct() != null).count());
+    }
+
     @Test
     public void testFindByAccountId(){
 
@@ -77,14 +98,81 @@ public class TransactionRepositoryTest {
         assertTrue(transactions.get(0).getProduct().getPrice().equals(product1.getPrice()));
         assertEquals(transactions.get(0).getProduct().getProductCount(), product1.getProductCount());
         assertEquals(transactions.get(0).getAccount().getId(), account2.getId());
-        assertTrue(transactions.get(0).getAmount().equals(new BigDecimal(50)));
-        assertTrue(transactions.get(1).getAmount().equals(new BigDecimal(100)));
+        assertTrue(transactions.get(0).getAmount().equals(Money.of(50)));
+        assertTrue(transactions.get(1).getAmount().equals(Money.of(100)));
+    }
+
+    @Test
+    public void testFindPageByAccountId_KeysetAfterTimeAndId(){
+
+        Date before = new Date(System.currentTimeMillis() + 1000);
+        List<TransactionDto> firstPage = transactionRepository.findPageByAccountId(account2.getId(), null, 0L, before,
+                null, null, PageRequest.of(0, 1));
+        assertEquals(1, firstPage.size());
+        assertEquals(transaction2.getId(), firstPage.get(0).getId());
+        assertEquals(account2.getId(), firstPage.get(0).getAccountId());
+        assertEquals(Integer.valueOf(product1.getId()), firstPage.get(0).getProductId());
+        assertEquals("WITHDRAW", firstPage.get(0).getType());
+
+        List<TransactionDto> secondPage = transactionRepository.findPageByAccountId(account2.getId(), firstPage.get(0).getDate(),
+                firstPage.get(0).getId(), before, null, null, PageRequest.of(0, 10));
+        assertEquals(1, secondPage.size());
+        assertEquals(transaction3.getId(), secondPage.get(0).getId());
+        assertNull(secondPage.get(0).getProductId());
+        assertEquals(transaction3.getCreatedTime().getTime(), secondPage.get(0).getDate().getTime());
+    }
+
+    @Test
+    public void testFindPageByAccountId_CreatedTimeOrderUpToBefore(){
+
+        // Took its id after the others but was created before them, like a row that committed late.
+        Transaction late = new Transaction(type1, Money.of(10), account2);
+        late.setCreatedTime(new Date(transaction2.getCreatedTime().getTime() - 1000));
+        entityManager.persist(late);
+        entityManager.flush();
+
+        List<TransactionDto> page = transactionRepository.findPageByAccountId(account2.getId(), null, 0L,
+                new Date(transaction3.getCreatedTime().getTime() + 1), null, null, PageRequest.of(0, 10));
+        assertEquals(3, page.size());
+        assertEquals(late.getId(), page.get(0).getId());
+        assertEquals(transaction2.getId(), page.get(1).getId());
+        assertEquals(transaction3.getId(), page.get(2).getId());
+
+        page = transactionRepository.findPageByAccountId(account2.getId(), null, 0L, transaction2.getCreatedTime(),
+                null, null, PageRequest.of(0, 10));
+        assertEquals(1, page.size());
+        assertEquals(late.getId(), page.get(0).getId());
+
+        page = transactionRepository.findPageByAccountId(account2.getId(), null, 0L, null, null, null, PageRequest.of(0, 10));
+        assertEquals(3, page.size());
+    }
+
+    @Test
+    public void testFindPageByAccountId_DateRange(){
+
+        Date before = new Date(System.currentTimeMillis() + 1000);
+        Date to = new Date(transaction1.getCreatedTime().getTime() - 1);
+        assertTrue(transactionRepository.findPageByAccountId(account1.getId(), null, 0L, before, null, to,
+                PageRequest.of(0, 10)).isEmpty());
+        assertEquals(1, transactionRepository.findPageByAccountId(account1.getId(), null, 0L, before,
+                transaction1.getCreatedTime(), null, PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    public void testStreamByAccountId(){
+
+        try (Stream<TransactionDto> stream = transactionRepository.streamByAccountId(account2.getId(), null, null)) {
+            List<Long> ids = stream.map(TransactionDto::getId).collect(Collectors.toList());
+            assertEquals(2, ids.size());
+            assertEquals(transaction2.getId(), ids.get(0).longValue());
+            assertEquals(transaction3.getId(), ids.get(1).longValue());
+        }
     }
 
     @Test
     public void testSave_SuccessWithoutProduct(){
 
-        Transaction transaction = new Transaction(type1, new BigDecimal(200), account2);
+        Transaction transaction = new Transaction(type1, Money.of(200), account2);
         Transaction addedTransaction = transactionRepository.save(transaction);
         assertEquals(addedTransaction.getId(), transaction.getId());
         assertEquals(addedTransaction.getAccount().getId(), transaction.getAccount().getId());
@@ -95,7 +183,7 @@ public class TransactionRepositoryTest {
     @Test
     public void testSave_SuccessWithProduct(){
 
-        Transaction transaction = new Transaction(type1, new BigDecimal(200), account2, product1);
+        Transaction transaction = new Transaction(type1, Money.of(200), account2, product1);
         Transaction addedTransaction = transactionRepository.save(transaction);
         assertEquals(addedTransaction.getId(), transaction.getId());
         assertEquals(addedTransaction.getAccount().getId(), transaction.getAccount().getId());
@@ -109,9 +197,11 @@ public class TransactionRepositoryTest {
     @Test
     public void testSave_FailWhenAccountNotExists(){
 
-        Transaction transaction = new Transaction(type1, new BigDecimal(200), null, product1);
+        Transaction transaction = new Transaction(type1, Money.of(200), null, product1);
         try{
             transactionRepository.save(transaction);
+            // The id comes from a block, so the INSERT and its validation wait for the flush.
+            entityManager.flush();
             fail();
         }
         catch(ConstraintViolationException ex){
@@ -122,9 +212,10 @@ public class TransactionRepositoryTest {
     @Test
     public void testSave_FailWhenAmountIsNegative(){
 
-        Transaction transaction = new Transaction(type1, new BigDecimal(-200), account2);
+        Transaction transaction = new Transaction(type1, Money.of(-200), account2);
         try{
             transactionRepository.save(transaction);
+            entityManager.flush();
             fail();
         }
         catch(ConstraintViolationException ex){
@@ -41,6 +41,14 @@ public class TransactionTypeRepositoryTest {
         assertTrue(type.getType().equals(type1.getType()));
     }
 
+    @Test
+    public void testFindById_KeptInSecondLevelCache() {
+
+        transactionTypeRepository.findById(1);
+
+        assertTrue(entityManager.getEntityManager().getEntityManagerFactory().getCache().contains(TransactionType.class, 1));
+    }
+
     @Test
     public void testFindById_NotFound() {
 
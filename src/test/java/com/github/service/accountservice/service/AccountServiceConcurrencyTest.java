@@ -0,0 +1,124 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the real service against the database from many threads at once. Each call commits on its own,
+ * so a lost update or an overdraft shows up in the final balance.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({AccountServiceImp.class, ValidatorImp.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AccountServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITS_PER_THREAD = 100;
+    private static final int WITHDRAWS_PER_THREAD = 150;
+    private static final Money AMOUNT = Money.of(10);
+
+    @Autowired
+    private IAccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private Account account;
+
+    @Before
+    public void setUp() {
+        account = accountRepository.save(new Account());
+    }
+
+    @After
+    public void tearDown() {
+        accountRepository.deleteById(account.getId());
+    }
+
+    @Test
+    public void testUpdateAccountAmount_ConcurrentDepositsAndWithdrawsAreExact() throws Exception {
+
+        assertEquals(0, run(DEPOSITS_PER_THREAD, TransactionTypes.DEPOSIT));
+
+        Money deposited = AMOUNT.times(THREADS * DEPOSITS_PER_THREAD);
+        assertEquals(0, balance().compareTo(deposited));
+
+        // More withdrawals than the balance can cover: exactly the covered ones may succeed.
+        int rejected = run(WITHDRAWS_PER_THREAD, TransactionTypes.WITHDRAW);
+
+        assertEquals(THREADS * (WITHDRAWS_PER_THREAD - DEPOSITS_PER_THREAD), rejected);
+        assertEquals(0, balance().compareTo(Money.ZERO));
+    }
+
+    /**
+     * Calls the service {@code perThread} times from every thread and returns how many calls were rejected
+     * for lack of balance.
+     */
+    private int run(int perThread, TransactionTypes type) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Integer> worker = () -> {
+                    start.await();
+                    int rejected = 0;
+                    for (int j = 0; j < perThread; j++) {
+                        try {
+                            accountService.updateAccountAmount(account.getId(), AMOUNT, type);
+                        } catch (AccountException ex) {
+                            assertEquals(ErrorMessage.NO_ENOUGH_BALANCE.getMessage(), ex.getMessage());
+                            rejected++;
+                        }
+                    }
+                    return rejected;
+                };
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+
+            int rejected = 0;
+            for (Future<Integer> result : results) {
+                rejected += result.get(60, TimeUnit.SECONDS);
+            }
+            return rejected;
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private Money balance() {
+        return accountRepository.findById(account.getId()).get().getBalance();
+    }
+}
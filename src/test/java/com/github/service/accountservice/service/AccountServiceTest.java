@@ -4,9 +4,12 @@ import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.service.contracts.IAccountService;
 import com.github.service.accountservice.entities.Account;
 import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.service.mappers.DtoMapper;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
 import com.github.service.accountservice.service.models.AccountDto;
 import com.github.service.accountservice.validator.IValidator;
 import com.github.service.accountservice.validator.ValidatorImp;
@@ -21,8 +24,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
-import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
@@ -55,6 +58,9 @@ public class AccountServiceTest {
     @MockBean
     private AccountRepository accountRepository;
 
+    @MockBean
+    private BalanceBucketRepository balanceBucketRepository;
+
     private Account account1;
     private Account account2;
 
@@ -70,9 +76,27 @@ public class AccountServiceTest {
 
         Mockito.when(accountRepository.findById(account1.getId())).thenReturn(Optional.of(account1));
         Mockito.when(accountRepository.findById(100)).thenReturn(Optional.empty());
+        Mockito.when(accountRepository.findBalanceById(account1.getId())).thenAnswer(invocation -> DtoMapper.toDto(account1));
 
         Mockito.when(accountRepository.save(account1)).thenReturn(account1);
         Mockito.when(accountRepository.save(account2)).thenReturn(account2);
+
+        // The guarded UPDATE statements, applied to the in-memory account.
+        Mockito.when(accountRepository.existsById(account1.getId())).thenReturn(true);
+        Mockito.when(accountRepository.depositAmount(Mockito.eq(account1.getId()), Mockito.any(Money.class), Mockito.any(Date.class)))
+                .thenAnswer(invocation -> {
+                    account1.setBalance(account1.getBalance().plus(invocation.getArgument(1)));
+                    return 1;
+                });
+        Mockito.when(accountRepository.withdrawAmount(Mockito.eq(account1.getId()), Mockito.any(Money.class), Mockito.any(Date.class)))
+                .thenAnswer(invocation -> {
+                    Money amount = invocation.getArgument(1);
+                    if (account1.getBalance().compareTo(amount) < 0) {
+                        return 0;
+                    }
+                    account1.setBalance(account1.getBalance().minus(amount));
+                    return 1;
+                });
     }
 
     @Test
@@ -109,27 +133,27 @@ public class AccountServiceTest {
     @Test
     public void testUpdateAccountAmount_isDepositSuccess() throws AccountException {
 
-        Account account = accountService.updateAccountAmount(account1.getId(), new BigDecimal(100), TransactionTypes.DEPOSIT);
+        Account account = accountService.updateAccountAmount(account1.getId(), Money.of(100), TransactionTypes.DEPOSIT);
         assertEquals(account.getId(),account1.getId());
-        assertEquals(account.getBalance(),new BigDecimal(100));
+        assertEquals(account.getBalance(),Money.of(100));
     }
 
     @Test
     public void testUpdateAccountAmount_isWithdrawSuccess() throws AccountException {
 
-        Account account = accountService.updateAccountAmount(account1.getId(), new BigDecimal(100), TransactionTypes.DEPOSIT);
+        Account account = accountService.updateAccountAmount(account1.getId(), Money.of(100), TransactionTypes.DEPOSIT);
         assertEquals(account.getId(),account1.getId());
-        assertEquals(account.getBalance(),new BigDecimal(100));
+        assertEquals(account.getBalance(),Money.of(100));
 
-        account = accountService.updateAccountAmount(account1.getId(), new BigDecimal(50), TransactionTypes.WITHDRAW);
+        account = accountService.updateAccountAmount(account1.getId(), Money.of(50), TransactionTypes.WITHDRAW);
         assertEquals(account.getId(),account1.getId());
-        assertEquals(account.getBalance(),new BigDecimal(50));
+        assertEquals(account.getBalance(),Money.of(50));
     }
 
     @Test
     public void testUpdateAccountAmount_isDepositFailWhenNumberNegative() throws  AccountException{
         try{
-            accountService.updateAccountAmount(account1.getId(), new BigDecimal(-100), TransactionTypes.DEPOSIT);
+            accountService.updateAccountAmount(account1.getId(), Money.of(-100), TransactionTypes.DEPOSIT);
             fail();
         }
         catch(AccountException ex){
@@ -142,7 +166,7 @@ public class AccountServiceTest {
     public void testUpdateAccountAmount_isWithdrawFailWhenNumberNegative() throws AccountException{
 
         try{
-            accountService.updateAccountAmount(account1.getId(), new BigDecimal(-100), TransactionTypes.WITHDRAW);
+            accountService.updateAccountAmount(account1.getId(), Money.of(-100), TransactionTypes.WITHDRAW);
             fail();
         }
         catch(AccountException ex){
@@ -155,7 +179,7 @@ public class AccountServiceTest {
     public void testUpdateAccountAmount_isWithdrawFailWhenBalanceNotEnough() throws AccountException{
 
         try{
-            accountService.updateAccountAmount(account1.getId(), new BigDecimal(100), TransactionTypes.WITHDRAW);
+            accountService.updateAccountAmount(account1.getId(), Money.of(100), TransactionTypes.WITHDRAW);
             fail();
         }
         catch(AccountException ex){
@@ -0,0 +1,224 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.BalanceBucket;
+import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
+import com.github.service.accountservice.repository.ProductRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.consumes.AccountOperation;
+import com.github.service.accountservice.service.contracts.IAccountService;
+import com.github.service.accountservice.service.contracts.IStoreService;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountBatchResult;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Spreads balances over four rows per account and checks, with committed transactions, that deposits, debits,
+ * purchases and batches still add up to the exact balance and ledger.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({TransactionServiceImp.class, AccountServiceImp.class, StoreServiceImp.class, ValidatorImp.class, DatabaseLedger.class, TransactionTypeRegistry.class,
+        IdempotencyMarker.class})
+@TestPropertySource(properties = "account.balance-buckets=4")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BalanceBucketTest {
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITS_PER_THREAD = 50;
+    private static final Money AMOUNT = Money.of(10);
+
+    @Autowired
+    private IAccountService accountService;
+
+    @Autowired
+    private ITransactionService transactionService;
+
+    @Autowired
+    private IStoreService storeService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Account account;
+    private Product product;
+
+    @Before
+    public void setUp() {
+        account = accountRepository.save(new Account());
+    }
+
+    @After
+    public void tearDown() {
+
+        balanceBucketRepository.deleteAll(balanceBucketRepository.findAll());
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+        if (product != null) {
+            productRepository.deleteById(product.getId());
+        }
+        accountRepository.deleteById(account.getId());
+    }
+
+    @Test
+    public void testDeposit_ConcurrentDepositsAreSpreadAndAddUp() throws Exception {
+
+        deposit(THREADS, DEPOSITS_PER_THREAD);
+
+        Money deposited = AMOUNT.times(THREADS * DEPOSITS_PER_THREAD);
+        assertEquals(0, accountService.findById(account.getId()).getBalance().compareTo(deposited));
+        assertEquals(THREADS * DEPOSITS_PER_THREAD, transactionRepository.findByAccountId(account.getId()).size());
+
+        List<BalanceBucket> buckets = buckets();
+        assertEquals(3, buckets.size());
+        assertTrue(buckets.stream().anyMatch(bucket -> bucket.getBalance().signum() > 0));
+        assertTrue(accountRepository.findById(account.getId()).get().getBalance().compareTo(deposited) < 0);
+    }
+
+    @Test
+    public void testWithdraw_CollectsBucketsWhenTheAccountRowFallsShort() throws Exception {
+
+        deposit(1, 40);
+        Money deposited = AMOUNT.times(40);
+
+        transactionService.createTransaction(account.getId(), deposited.minus(AMOUNT), TransactionTypes.WITHDRAW);
+
+        assertEquals(0, accountService.findById(account.getId()).getBalance().compareTo(AMOUNT));
+        assertEquals(0, accountRepository.findById(account.getId()).get().getBalance().compareTo(AMOUNT));
+        assertTrue(buckets().stream().allMatch(bucket -> bucket.getBalance().signum() == 0));
+
+        try {
+            transactionService.createTransaction(account.getId(), AMOUNT.plus(AMOUNT), TransactionTypes.WITHDRAW);
+            fail("Expected AccountException");
+        } catch (AccountException ex) {
+            assertEquals(ErrorMessage.NO_ENOUGH_BALANCE.getMessage(), ex.getMessage());
+        }
+        assertEquals(0, accountService.findById(account.getId()).getBalance().compareTo(AMOUNT));
+    }
+
+    @Test
+    public void testBuyProduct_CollectsBucketsWhenTheAccountRowFallsShort() throws Exception {
+
+        deposit(1, 40);
+        Money deposited = AMOUNT.times(40);
+        product = productRepository.save(new Product("BucketPurchaseProduct", deposited.minus(AMOUNT), 2));
+
+        storeService.buyProduct(account.getId(), product.getId());
+
+        assertEquals(0, accountService.findById(account.getId()).getBalance().compareTo(AMOUNT));
+        assertTrue(buckets().stream().allMatch(bucket -> bucket.getBalance().signum() == 0));
+
+        try {
+            storeService.buyProduct(account.getId(), product.getId());
+            fail("Expected AccountException");
+        } catch (AccountException ex) {
+            assertEquals(ErrorMessage.CURRENT_BALANCE_SHOULD_BE_GREATER_THAN_PRICE.getMessage(), ex.getMessage());
+        }
+        assertEquals(0, accountService.findById(account.getId()).getBalance().compareTo(AMOUNT));
+        assertEquals(1, productRepository.findById(product.getId()).get().getProductCount());
+    }
+
+    @Test
+    public void testCreateTransactions_ChecksWithdrawalsAgainstTheWholeBalance() throws Exception {
+
+        deposit(1, 40);
+        Money deposited = AMOUNT.times(40);
+
+        AccountBatchResult result = transactionService.createTransactions(Arrays.asList(
+                new AccountOperation(account.getId(), "WITHDRAW", deposited),
+                new AccountOperation(account.getId(), "WITHDRAW", AMOUNT)));
+
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals(ErrorMessage.NO_ENOUGH_BALANCE.getMessage(), result.getResults().get(1).getMessage());
+        assertEquals(0, result.getAccounts().get(0).getBalance().compareTo(Money.ZERO));
+        assertEquals(0, accountService.findById(account.getId()).getBalance().compareTo(Money.ZERO));
+        assertTrue(buckets().stream().allMatch(bucket -> bucket.getBalance().signum() == 0));
+    }
+
+    @Test
+    public void testCreateAccount_AddsTheBuckets() throws Exception {
+
+        Integer created = accountService.createAccount().getId();
+        try {
+            assertEquals(3, balanceBucketRepository.findAllByAccountIdForUpdate(Collections.singletonList(created)).size());
+            assertEquals(0, accountService.findById(created).getBalance().compareTo(Money.ZERO));
+        } finally {
+            balanceBucketRepository.deleteAll(balanceBucketRepository.findAllByAccountIdForUpdate(Collections.singletonList(created)));
+            accountRepository.deleteById(created);
+        }
+    }
+
+    private void deposit(int threads, int perThread) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                Callable<Void> worker = () -> {
+                    start.await();
+                    for (int j = 0; j < perThread; j++) {
+                        transactionService.createTransaction(account.getId(), AMOUNT, TransactionTypes.DEPOSIT);
+                    }
+                    return null;
+                };
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private List<BalanceBucket> buckets() {
+        return balanceBucketRepository.findAllByAccountIdForUpdate(Collections.singletonList(account.getId()));
+    }
+}
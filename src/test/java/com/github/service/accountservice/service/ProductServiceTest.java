@@ -3,11 +3,13 @@ package com.github.service.accountservice.service;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.service.contracts.IProductService;
 import com.github.service.accountservice.entities.Product;
 import com.github.service.accountservice.repository.ProductRepository;
 import com.github.service.accountservice.service.consumes.ProductCreate;
 import com.github.service.accountservice.service.consumes.ProductDelete;
+import com.github.service.accountservice.service.mappers.DtoMapper;
 import com.github.service.accountservice.service.models.ProductDto;
 import com.github.service.accountservice.validator.IValidator;
 import com.github.service.accountservice.validator.ValidatorImp;
@@ -20,9 +22,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
-import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -63,22 +66,25 @@ public class ProductServiceTest {
     @Before
     public void setUp(){
 
-        product1 = new Product("Name1", new BigDecimal(100), 10);
+        product1 = new Product("Name1", Money.of(100), 10);
         product1.setId(1);
-        product2 = new Product("Name2", new BigDecimal(200), 0);
+        product2 = new Product("Name2", Money.of(200), 0);
         product2.setId(2);
-        product3 = new Product("Name3", new BigDecimal(200), 0);
+        product3 = new Product("Name3", Money.of(200), 0);
         product3.setId(3);
 
-        Mockito.when(productRepository.findAll()).thenReturn(Arrays.asList(product1, product2));
-        Mockito.when(productRepository.findAllByOrderByIdAsc()).thenReturn(Arrays.asList(product1, product2));
+        Mockito.when(productRepository.existsByName(product1.getName())).thenReturn(true);
+        Mockito.when(productRepository.existsByNameAndIdNot(product2.getName(), product1.getId())).thenReturn(true);
+        Mockito.when(productRepository.findAllProducts()).thenReturn(DtoMapper.toProductDtos(Arrays.asList(product1, product2)));
 
         Mockito.when(productRepository.findById(product1.getId())).thenReturn(Optional.of(product1));
         Mockito.when(productRepository.findById(100)).thenReturn(Optional.empty());
+        Mockito.when(productRepository.findByIdForUpdate(product1.getId())).thenReturn(Optional.of(product1));
 
         Mockito.when(productRepository.save(product1)).thenReturn(product1);
         Mockito.when(productRepository.save(product2)).thenReturn(product2);
         Mockito.when(productRepository.save(product3)).thenReturn(product3);
+        Mockito.when(productRepository.saveAndFlush(product1)).thenReturn(product1);
     }
 
     @Test
@@ -99,7 +105,7 @@ public class ProductServiceTest {
     @Test
     public void testCreateProduct_Success() throws AccountException {
 
-        Mockito.when(productRepository.save(Mockito.any(Product.class))).thenReturn(product3);
+        Mockito.when(productRepository.saveAndFlush(Mockito.any(Product.class))).thenReturn(product3);
         ProductCreate create = new ProductCreate(product3.getName(), product3.getPrice(), product3.getProductCount());
         ProductDto product = productService.createProduct(create);
         assertTrue(product.getId().equals(product3.getId()));
@@ -107,6 +113,37 @@ public class ProductServiceTest {
         assertTrue(product.getName().equals(product3.getName()));
     }
 
+    @Test
+    public void testCreateProduct_FailWhenNameExists() throws AccountException {
+
+        try{
+            productService.createProduct(new ProductCreate(product1.getName(), Money.of(100), 1));
+            fail();
+        }
+        catch(AccountException ex){
+            assertEquals(ex.getMessage(), ErrorMessage.NAME_SHOULD_BE_DIFFERENCE.getMessage());
+            assertEquals(ex.getErrorCode(), ErrorCode.BadRequest.getCode());
+        }
+        Mockito.verify(productRepository, Mockito.never()).findAll();
+        Mockito.verify(productRepository, Mockito.never()).saveAndFlush(Mockito.any(Product.class));
+    }
+
+    @Test
+    public void testCreateProduct_FailWhenNameTakenConcurrently() throws AccountException {
+
+        SQLException duplicateKey = new SQLException("Unique index or primary key violation", "23505");
+        Mockito.when(productRepository.saveAndFlush(Mockito.any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", duplicateKey));
+        try{
+            productService.createProduct(new ProductCreate(product3.getName(), Money.of(100), 1));
+            fail();
+        }
+        catch(AccountException ex){
+            assertEquals(ex.getMessage(), ErrorMessage.NAME_SHOULD_BE_DIFFERENCE.getMessage());
+            assertEquals(ex.getErrorCode(), ErrorCode.BadRequest.getCode());
+        }
+    }
+
     @Test
     public void testDeleteProduct_Success() throws AccountException{
 
@@ -144,18 +181,31 @@ public class ProductServiceTest {
     @Test
     public void testUpdateProduct_Success() throws AccountException{
 
-        ProductDto product = productService.updateProduct(new ProductDto(product1.getId(), "UpdateName", new BigDecimal(200), 150));
+        ProductDto product = productService.updateProduct(new ProductDto(product1.getId(), "UpdateName", Money.of(200), 150));
         assertTrue(product.getId().equals(product1.getId()));
         assertTrue(product.getCount().equals(150));
         assertTrue(product.getName().equals("UpdateName"));
-        assertTrue(product.getPrice().equals(new BigDecimal(200)));
+        assertTrue(product.getPrice().equals(Money.of(200)));
+    }
+
+    @Test
+    public void testUpdateProduct_FailWhenNameBelongsToOtherProduct() throws AccountException{
+
+        try{
+            productService.updateProduct(new ProductDto(product1.getId(), product2.getName(), Money.of(200), 150));
+            fail();
+        }
+        catch(AccountException ex){
+            assertEquals(ex.getMessage(),ErrorMessage.NAME_SHOULD_BE_DIFFERENCE.getMessage());
+            assertEquals(ex.getErrorCode(),ErrorCode.BadRequest.getCode());
+        }
     }
 
     @Test
     public void testUpdateProduct_FailWhenIdNotFound() throws AccountException{
 
         try{
-            productService.updateProduct(new ProductDto(500, "UpdateName", new BigDecimal(200), 150));
+            productService.updateProduct(new ProductDto(500, "UpdateName", Money.of(200), 150));
             fail();
         }
         catch(AccountException ex){
@@ -168,7 +218,7 @@ public class ProductServiceTest {
     public void testUpdateProduct_FailWhenPriceIsNegative() throws AccountException{
 
         try{
-            productService.updateProduct(new ProductDto(product1.getId(), "UpdateName", new BigDecimal(-200), 150));
+            productService.updateProduct(new ProductDto(product1.getId(), "UpdateName", Money.of(-200), 150));
             fail();
         }
         catch(AccountException ex){
@@ -181,7 +231,7 @@ public class ProductServiceTest {
     public void testUpdateProduct_FailWhenCountIsNegative() throws AccountException{
 
         try{
-            productService.updateProduct(new ProductDto(product1.getId(), "UpdateName", new BigDecimal(200), -50));
+            productService.updateProduct(new ProductDto(product1.getId(), "UpdateName", Money.of(200), -50));
             fail();
         }
         catch(AccountException ex){
@@ -0,0 +1,230 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.BalanceDrift;
+import com.github.service.accountservice.entities.LedgerCheckpoint;
+import com.github.service.accountservice.entities.LedgerQuarantine;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceDriftRepository;
+import com.github.service.accountservice.repository.BalanceSnapshotRepository;
+import com.github.service.accountservice.repository.LedgerCheckpointRepository;
+import com.github.service.accountservice.repository.LedgerQuarantineRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.repository.TransactionTypeRepository;
+import com.github.service.accountservice.service.contracts.IReconciliationService;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the reconciliation against the database with committed transactions, on ledger rows created a few
+ * minutes in the past so none of them is inside the settle window.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({ReconciliationServiceImp.class, ValidatorImp.class, DatabaseLedger.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "reconciliation.batch-size=3",
+        "reconciliation.settle-ms=0"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReconciliationServiceTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Autowired
+    private IReconciliationService reconciliationService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTypeRepository transactionTypeRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private BalanceDriftRepository balanceDriftRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private LedgerQuarantineRepository ledgerQuarantineRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Account> accounts = new ArrayList<>();
+    private long start;
+
+    @Before
+    public void setUp() {
+        start = System.currentTimeMillis() - 20 * MINUTE;
+    }
+
+    @After
+    public void tearDown() {
+
+        for (Account account : accounts) {
+            transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+            accountRepository.deleteById(account.getId());
+        }
+        balanceSnapshotRepository.deleteAll();
+        balanceDriftRepository.deleteAll();
+        ledgerQuarantineRepository.deleteAll();
+        LedgerCheckpoint checkpoint = ledgerCheckpointRepository.findById(ReconciliationServiceImp.CHECKPOINT_NAME).get();
+        checkpoint.setLedgerTime(null);
+        checkpoint.setLedgerId(0);
+        ledgerCheckpointRepository.save(checkpoint);
+    }
+
+    @Test
+    public void testReconcile_SnapshotsFollowTheLedgerIncrementally() throws AccountException {
+
+        Account first = account(75);
+        Account second = account(50);
+        ledger(first, TransactionTypes.DEPOSIT, 100, 0);
+        ledger(first, TransactionTypes.WITHDRAW, 30, 1);
+        ledger(second, TransactionTypes.DEPOSIT, 50, 2);
+        ledger(first, TransactionTypes.DEPOSIT, 5, 3);
+
+        assertEquals(3, reconciliationService.reconcile());
+        assertEquals(1, reconciliationService.reconcile());
+        assertEquals(0, reconciliationService.reconcile());
+
+        // One snapshot per account and page, positioned at the last row of the page.
+        assertEquals(3, balanceSnapshotRepository.count());
+        LedgerCheckpoint checkpoint = ledgerCheckpointRepository.findById(ReconciliationServiceImp.CHECKPOINT_NAME).get();
+        assertEquals(start + 3 * MINUTE, checkpoint.getLedgerTime().getTime());
+        assertTrue(balanceDriftRepository.findAll().isEmpty());
+
+        assertEquals(0, balanceAt(first, start - MINUTE).compareTo(Money.ZERO));
+        assertEquals(0, balanceAt(first, start + MINUTE).compareTo(Money.of(70)));
+        assertEquals(0, balanceAt(first, start + 2 * MINUTE + 1).compareTo(Money.of(70)));
+        assertEquals(0, balanceAt(second, start + 3 * MINUTE).compareTo(Money.of(50)));
+        assertEquals(0, reconciliationService.getBalanceAt(first.getId(), null).getBalance().compareTo(Money.of(75)));
+    }
+
+    @Test
+    public void testGetBalanceAt_SnapshotPlusLaterRowsInFixedStatements() throws AccountException {
+
+        Account account = account(0);
+        for (int i = 0; i < 10; i++) {
+            ledger(account, TransactionTypes.DEPOSIT, 10, i);
+        }
+        while (reconciliationService.reconcile() > 0) {
+            // snapshots up to the tenth row
+        }
+        ledger(account, TransactionTypes.WITHDRAW, 25, 11);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Money balance = reconciliationService.getBalanceAt(account.getId(), null).getBalance();
+
+        // The account check, the snapshot lookup and one aggregate over the rows after it.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, balance.compareTo(Money.of(75)));
+    }
+
+    @Test
+    public void testReconcile_FlagsDriftOnce() {
+
+        Account account = account(90);
+        ledger(account, TransactionTypes.DEPOSIT, 100, 0);
+
+        reconciliationService.reconcile();
+        assertTrue(balanceDriftRepository.findByAccountId(account.getId()).isEmpty());
+
+        // Seen again with the same difference: a drift, reported once.
+        reconciliationService.reconcile();
+        reconciliationService.reconcile();
+
+        List<BalanceDrift> drifts = balanceDriftRepository.findByAccountId(account.getId());
+        assertEquals(1, drifts.size());
+        assertEquals(0, drifts.get(0).getAccountBalance().compareTo(Money.of(90)));
+        assertEquals(0, drifts.get(0).getLedgerBalance().compareTo(Money.of(100)));
+    }
+
+    @Test
+    public void testReconcile_StopsShortOfQuarantinedRows() throws AccountException {
+
+        Account account = account(110);
+        ledger(account, TransactionTypes.DEPOSIT, 100, 0);
+        ledger(account, TransactionTypes.DEPOSIT, 5, 2);
+        ledgerQuarantineRepository.save(new LedgerQuarantine(Long.MAX_VALUE, account.getId(), TransactionTypes.DEPOSIT.getCode(),
+                null, Money.of(5), new Date(start + MINUTE)));
+
+        assertEquals(1, reconciliationService.reconcile());
+        assertEquals(0, reconciliationService.reconcile());
+
+        // Moved over by hand: the row lands behind the quarantine time, which the checkpoint has not passed.
+        ledger(account, TransactionTypes.DEPOSIT, 5, 1);
+        ledgerQuarantineRepository.deleteById(Long.MAX_VALUE);
+
+        assertEquals(2, reconciliationService.reconcile());
+        assertEquals(0, balanceAt(account, start + 3 * MINUTE).compareTo(Money.of(110)));
+    }
+
+    @Test(expected = AccountException.class)
+    public void testGetBalanceAt_UnknownAccount() throws AccountException {
+        reconciliationService.getBalanceAt(Integer.MAX_VALUE, null);
+    }
+
+    @Test
+    public void testReconcile_NothingToDo() {
+
+        assertEquals(0, reconciliationService.reconcile());
+        assertNull(ledgerCheckpointRepository.findById(ReconciliationServiceImp.CHECKPOINT_NAME).get().getLedgerTime());
+    }
+
+    private Money balanceAt(Account account, long time) throws AccountException {
+        return reconciliationService.getBalanceAt(account.getId(), new Date(time)).getBalance();
+    }
+
+    private Account account(int balance) {
+
+        Account account = new Account();
+        account.setBalance(Money.of(balance));
+        account = accountRepository.save(account);
+        accounts.add(account);
+        return account;
+    }
+
+    private Transaction ledger(Account account, TransactionTypes type, int amount, int minute) {
+
+        Transaction transaction = new Transaction(transactionTypeRepository.findById(type.getCode()).get(),
+                Money.of(amount), account);
+        transaction.setCreatedTime(new Date(start + minute * MINUTE));
+        return transactionRepository.save(transaction);
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.ProductRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.contracts.IStoreService;
+import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs purchases against the database with committed transactions, counting the JDBC statements
+ * Hibernate prepares for each of them.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({StoreServiceImp.class, AccountServiceImp.class, ProductServiceImp.class, ValidatorImp.class, DatabaseLedger.class, TransactionTypeRegistry.class,
+        IdempotencyMarker.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StoreServicePurchaseTest {
+
+    private static final int MAX_STATEMENTS_PER_PURCHASE = 4;
+
+    @Autowired
+    private IStoreService storeService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Account account;
+    private Product product;
+
+    @Before
+    public void setUp() {
+
+        Account newAccount = new Account();
+        newAccount.setBalance(Money.of(1000));
+        account = accountRepository.save(newAccount);
+        product = productRepository.save(new Product("PurchaseTestProduct", Money.of(150), 5));
+    }
+
+    @After
+    public void tearDown() {
+
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+        productRepository.deleteById(product.getId());
+        accountRepository.deleteById(account.getId());
+    }
+
+    @Test
+    public void testBuyProduct_SucceedsWithinStatementBudget() throws AccountException {
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        TransactionDto transaction = storeService.buyProduct(account.getId(), product.getId());
+
+        assertTrue("statements: " + statistics.getPrepareStatementCount(),
+                statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_PURCHASE);
+        assertTrue(transaction.getId() > 0);
+        assertEquals(account.getId(), transaction.getAccountId());
+        assertEquals(Integer.valueOf(product.getId()), transaction.getProductId());
+        assertEquals(TransactionTypes.PURCHASE.name(), transaction.getType());
+        assertEquals(0, transaction.getAmount().compareTo(product.getPrice()));
+
+        assertEquals(0, balance().compareTo(Money.of(850)));
+        assertEquals(4, stock());
+        assertEquals(1, transactionRepository.findByAccountId(account.getId()).size());
+    }
+
+    @Test
+    public void testBuyProduct_FailWhenBalanceNotEnoughLeavesStockUntouched() throws AccountException {
+
+        accountRepository.withdrawAmount(account.getId(), Money.of(900), new java.util.Date());
+
+        try {
+            storeService.buyProduct(account.getId(), product.getId());
+            fail();
+        } catch (AccountException ex) {
+            assertEquals(ErrorMessage.CURRENT_BALANCE_SHOULD_BE_GREATER_THAN_PRICE.getMessage(), ex.getMessage());
+        }
+        assertEquals(5, stock());
+        assertEquals(0, balance().compareTo(Money.of(100)));
+    }
+
+    @Test
+    public void testBuyProduct_ConcurrentBuyersNeverOversell() throws Exception {
+
+        int buyers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < buyers; i++) {
+                Callable<Boolean> buyer = () -> {
+                    start.await();
+                    try {
+                        storeService.buyProduct(account.getId(), product.getId());
+                        return true;
+                    } catch (AccountException ex) {
+                        return false;
+                    }
+                };
+                results.add(executor.submit(buyer));
+            }
+            start.countDown();
+
+            int bought = 0;
+            for (Future<Boolean> result : results) {
+                bought += result.get(60, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertEquals(5, bought);
+            assertEquals(0, stock());
+            assertEquals(0, balance().compareTo(Money.of(250)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Money balance() {
+        return accountRepository.findById(account.getId()).get().getBalance();
+    }
+
+    private int stock() {
+        return productRepository.findById(product.getId()).get().getProductCount();
+    }
+}
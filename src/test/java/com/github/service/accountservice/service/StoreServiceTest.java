@@ -1,17 +1,25 @@
 package com.github.service.accountservice.service;
 
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
 import com.github.service.accountservice.exceptions.AccountException;
-import com.github.service.accountservice.repository.TransactionTypeRepository;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.ledger.ILedger;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.service.contracts.IAccountService;
 import com.github.service.accountservice.service.contracts.IProductService;
 import com.github.service.accountservice.entities.Account;
 import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.entities.TransactionType;
 import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
 import com.github.service.accountservice.repository.ProductRepository;
 import com.github.service.accountservice.repository.TransactionRepository;
 import com.github.service.accountservice.service.contracts.IStoreService;
+import com.github.service.accountservice.service.mappers.DtoMapper;
 import com.github.service.accountservice.service.models.ProductDto;
 import com.github.service.accountservice.service.models.TransactionDto;
 import com.github.service.accountservice.validator.IValidator;
@@ -28,8 +36,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
-import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,6 +62,20 @@ public class StoreServiceTest {
         @Bean
         public IValidator validator() {return new ValidatorImp(); }
 
+        @Bean
+        public ILedger ledger() {return new DatabaseLedger(); }
+
+        @Bean
+        public IdempotencyMarker idempotencyMarker(IdempotencyRecordRepository idempotencyRecordRepository) {
+            return new IdempotencyMarker(idempotencyRecordRepository);
+        }
+
+        @Bean
+        public TransactionTypeRegistry transactionTypeRegistry() {
+            return new TransactionTypeRegistry(Arrays.asList(new TransactionType(1, "DEPOSIT"), new TransactionType(2, "WITHDRAW"),
+                    new TransactionType(3, "PURCHASE")));
+        }
+
         @Bean
         public MethodValidationPostProcessor methodValidationPostProcessor() {
             return new MethodValidationPostProcessor();
@@ -73,7 +95,10 @@ public class StoreServiceTest {
     private AccountRepository accountRepository;
 
     @MockBean
-    TransactionTypeRepository transactionTypeRepository;
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
 
     @MockBean
     TransactionRepository transactionRepository;
@@ -93,26 +118,49 @@ public class StoreServiceTest {
     public void setUp(){
         account1 = new Account();
         account1.setId(1);
-        account1.setBalance(new BigDecimal(100));
+        account1.setBalance(Money.of(100));
         account2 = new Account();
         account2.setId(2);
 
-        product1 = new Product("Name1", new BigDecimal(100), 100);
+        product1 = new Product("Name1", Money.of(100), 100);
         product1.setId(1);
-        product2 = new Product("Name2", new BigDecimal(50), 50);
+        product2 = new Product("Name2", Money.of(50), 50);
         product2.setId(2);
-        product3 = new Product("Name3", new BigDecimal(100), 0);
+        product3 = new Product("Name3", Money.of(100), 0);
         product3.setId(3);
 
         Mockito.when(accountRepository.findAllByOrderByIdAsc()).thenReturn(Arrays.asList(account1, account2));
-        Mockito.when(productRepository.findAllAvailableByOrderByIdAsc()).thenReturn(Arrays.asList(product1, product2));
+        Mockito.when(productRepository.findAvailableProducts()).thenReturn(DtoMapper.toProductDtos(Arrays.asList(product1, product2)));
         Mockito.when(productRepository.findById(product1.getId())).thenReturn(Optional.of(product1));
+        Mockito.when(productRepository.findByIdForUpdate(product1.getId())).thenReturn(Optional.of(product1));
+        Mockito.when(productRepository.decrementStock(Mockito.eq(product1.getId()), Mockito.eq(product1.getPrice()), Mockito.any(Date.class)))
+                .thenAnswer(invocation -> {
+                    product1.setProductCount(product1.getProductCount() - 1);
+                    return 1;
+                });
         Mockito.when(accountRepository.findById(account1.getId())).thenReturn(Optional.of(account1));
         Mockito.when(accountRepository.findById(100)).thenReturn(Optional.empty());
 
         Mockito.when(accountRepository.save(account1)).thenReturn(account1);
         Mockito.when(accountRepository.save(account2)).thenReturn(account2);
 
+        // The guarded UPDATE statements, applied to the in-memory account.
+        Mockito.when(accountRepository.existsById(account1.getId())).thenReturn(true);
+        Mockito.when(accountRepository.depositAmount(Mockito.eq(account1.getId()), Mockito.any(Money.class), Mockito.any(Date.class)))
+                .thenAnswer(invocation -> {
+                    account1.setBalance(account1.getBalance().plus(invocation.getArgument(1)));
+                    return 1;
+                });
+        Mockito.when(accountRepository.withdrawAmount(Mockito.eq(account1.getId()), Mockito.any(Money.class), Mockito.any(Date.class)))
+                .thenAnswer(invocation -> {
+                    Money amount = invocation.getArgument(1);
+                    if (account1.getBalance().compareTo(amount) < 0) {
+                        return 0;
+                    }
+                    account1.setBalance(account1.getBalance().minus(amount));
+                    return 1;
+                });
+
         Mockito.when(productRepository.save(product1)).thenReturn(product1);
         Mockito.when(productRepository.getOne(product1.getId())).thenReturn(product1);
     }
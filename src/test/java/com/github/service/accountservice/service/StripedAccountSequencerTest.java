@@ -0,0 +1,254 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.IdempotencyRecord;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.enums.TransactionTypes;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.validator.ValidatorImp;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Hammers one hot account through the sequencer from many threads while a second account shares the stripes.
+ * Every batch commits on its own, so a lost update, an overdraft or a ledger row without its balance change shows
+ * up in the final state.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({TransactionServiceImp.class, AccountServiceImp.class, ValidatorImp.class, DatabaseLedger.class, TransactionTypeRegistry.class,
+        IdempotencyMarker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StripedAccountSequencerTest {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 50;
+    private static final int WITHDRAWS_PER_THREAD = 75;
+    private static final Money AMOUNT = Money.of(10);
+
+    @Autowired
+    private ITransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private MeterRegistry meterRegistry;
+    private StripedAccountSequencer sequencer;
+    private Account hot;
+    private Account other;
+
+    @Before
+    public void setUp() {
+
+        meterRegistry = new SimpleMeterRegistry();
+        sequencer = new StripedAccountSequencer(transactionService, meterRegistry, 4, 100, 10_000);
+        sequencer.start();
+        hot = accountRepository.save(new Account());
+        other = accountRepository.save(new Account());
+    }
+
+    @After
+    public void tearDown() {
+
+        sequencer.stop();
+        for (Account account : Arrays.asList(hot, other)) {
+            transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+            accountRepository.deleteById(account.getId());
+        }
+    }
+
+    @Test
+    public void testApply_ConcurrentDepositsAndWithdrawsOnHotAccountAreExact() throws Exception {
+
+        assertEquals(0, run(DEPOSITS_PER_THREAD, TransactionTypes.DEPOSIT));
+
+        Money deposited = AMOUNT.times(THREADS * DEPOSITS_PER_THREAD);
+        assertEquals(0, balance(hot).compareTo(deposited));
+
+        // More withdrawals than the balance can cover: exactly the covered ones may succeed.
+        int rejected = run(WITHDRAWS_PER_THREAD, TransactionTypes.WITHDRAW);
+
+        assertEquals(THREADS * (WITHDRAWS_PER_THREAD - DEPOSITS_PER_THREAD), rejected);
+        assertEquals(0, balance(hot).compareTo(Money.ZERO));
+        assertEquals(2 * THREADS * DEPOSITS_PER_THREAD, transactionRepository.findByAccountId(hot.getId()).size());
+
+        // The other account went through the same stripes untouched by the hot one's rejections.
+        Money otherDeposited = AMOUNT.times(THREADS * (DEPOSITS_PER_THREAD + WITHDRAWS_PER_THREAD));
+        assertEquals(0, balance(other).compareTo(otherDeposited));
+        assertEquals(THREADS * (DEPOSITS_PER_THREAD + WITHDRAWS_PER_THREAD), transactionRepository.findByAccountId(other.getId()).size());
+    }
+
+    @Test
+    public void testSubmit_QueuedOperationsAreCoalescedIntoBatches() throws Exception {
+
+        int operations = 1_000;
+        List<CompletableFuture<AccountDto>> accounts = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            accounts.add(sequencer.submit(hot.getId(), AMOUNT, TransactionTypes.DEPOSIT));
+        }
+        CompletableFuture.allOf(accounts.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        Money deposited = AMOUNT.times(operations);
+        assertEquals(0, balance(hot).compareTo(deposited));
+        assertEquals(0, accounts.get(operations - 1).get().getBalance().compareTo(deposited));
+
+        DistributionSummary batchSizes = meterRegistry.get("sequencer.batch.size").summary();
+        assertEquals(operations, (long) batchSizes.totalAmount());
+        assertTrue(batchSizes.count() < operations);
+        assertTrue(batchSizes.max() > 1);
+    }
+
+    @Test
+    public void testSubmit_RejectedOperationFailsAlone() throws Exception {
+
+        CompletableFuture<AccountDto> deposit = sequencer.submit(hot.getId(), AMOUNT, TransactionTypes.DEPOSIT);
+        CompletableFuture<AccountDto> overdraft = sequencer.submit(hot.getId(), AMOUNT.plus(AMOUNT), TransactionTypes.WITHDRAW);
+        CompletableFuture<AccountDto> missing = sequencer.submit(Integer.MAX_VALUE, AMOUNT, TransactionTypes.DEPOSIT);
+
+        assertEquals(0, deposit.get(10, TimeUnit.SECONDS).getBalance().compareTo(AMOUNT));
+        assertRejected(overdraft, ErrorCode.BadRequest, ErrorMessage.NO_ENOUGH_BALANCE);
+        assertRejected(missing, ErrorCode.BadRequest, ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION);
+        assertEquals(0, balance(hot).compareTo(AMOUNT));
+    }
+
+    @Test
+    public void testSubmit_KeyAppliedByAnotherRequestIsAConflict() throws Exception {
+
+        IdempotencyRecord record = idempotencyRecordRepository.save(new IdempotencyRecord("deposit", "sequenced-key", "fingerprint"));
+        idempotencyRecordRepository.markApplied(record.getId(), new Date());
+        CompletableFuture<AccountDto> deposit;
+        IdempotencyMarker.bind(record.getId());
+        try {
+            deposit = sequencer.submit(hot.getId(), AMOUNT, TransactionTypes.DEPOSIT);
+        } finally {
+            IdempotencyMarker.bind(null);
+        }
+
+        try {
+            assertRejected(deposit, ErrorCode.Conflict, ErrorMessage.IDEMPOTENCY_KEY_APPLIED);
+            assertEquals(0, balance(hot).compareTo(Money.ZERO));
+        } finally {
+            idempotencyRecordRepository.deleteById(record.getId());
+        }
+    }
+
+    @Test
+    public void testSubmit_FullQueueIsRejected() throws Exception {
+
+        sequencer.stop();
+        sequencer = new StripedAccountSequencer(transactionService, meterRegistry, 1, 100, 1);
+
+        // Not started: the first operation fills the queue.
+        CompletableFuture<AccountDto> queued = sequencer.submit(hot.getId(), AMOUNT, TransactionTypes.DEPOSIT);
+        try {
+            sequencer.apply(hot.getId(), AMOUNT, TransactionTypes.DEPOSIT);
+            fail("Expected AccountException");
+        } catch (AccountException ex) {
+            assertEquals(503, ex.getErrorCode());
+            assertEquals(ErrorMessage.DATABASE_BUSY.getMessage(), ex.getMessage());
+        }
+
+        sequencer.start();
+        assertEquals(0, queued.get(10, TimeUnit.SECONDS).getBalance().compareTo(AMOUNT));
+    }
+
+    /**
+     * Applies {@code perThread} operations of {@code type} to the hot account from every thread, each followed by a
+     * deposit to the other account, and returns how many were rejected for lack of balance.
+     */
+    private int run(int perThread, TransactionTypes type) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Integer> worker = () -> {
+                    start.await();
+                    int rejected = 0;
+                    for (int j = 0; j < perThread; j++) {
+                        try {
+                            sequencer.apply(hot.getId(), AMOUNT, type);
+                        } catch (AccountException ex) {
+                            assertEquals(ErrorMessage.NO_ENOUGH_BALANCE.getMessage(), ex.getMessage());
+                            rejected++;
+                        }
+                        sequencer.apply(other.getId(), AMOUNT, TransactionTypes.DEPOSIT);
+                    }
+                    return rejected;
+                };
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+
+            int rejected = 0;
+            for (Future<Integer> result : results) {
+                rejected += result.get(60, TimeUnit.SECONDS);
+            }
+            return rejected;
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void assertRejected(CompletableFuture<AccountDto> account, ErrorCode code, ErrorMessage message) throws Exception {
+
+        try {
+            account.get(10, TimeUnit.SECONDS);
+            fail("Expected AccountException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof AccountException);
+            assertEquals(code.getCode(), ((AccountException) ex.getCause()).getErrorCode());
+            assertEquals(message.getMessage(), ex.getCause().getMessage());
+        }
+    }
+
+    private Money balance(Account account) {
+        return accountRepository.findById(account.getId()).get().getBalance();
+    }
+}
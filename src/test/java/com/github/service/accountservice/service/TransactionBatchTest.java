@@ -0,0 +1,161 @@
+package com.github.service.accountservice.service;
+
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.enums.ErrorCode;
+import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import com.github.service.accountservice.service.consumes.AccountOperation;
+import com.github.service.accountservice.service.contracts.ITransactionService;
+import com.github.service.accountservice.service.models.AccountBatchResult;
+import com.github.service.accountservice.service.models.AccountOperationResult;
+import com.github.service.accountservice.validator.ValidatorImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs batches against the database with committed transactions, checking the balances, the ledger and
+ * the number of statements Hibernate prepares for the balance side of a batch.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({TransactionServiceImp.class, AccountServiceImp.class, ValidatorImp.class, DatabaseLedger.class, TransactionTypeRegistry.class,
+        IdempotencyMarker.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransactionBatchTest {
+
+    @Autowired
+    private ITransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Account first;
+    private Account second;
+
+    @Before
+    public void setUp() {
+
+        first = accountRepository.save(new Account());
+        Account funded = new Account();
+        funded.setBalance(Money.of(100));
+        second = accountRepository.save(funded);
+    }
+
+    @After
+    public void tearDown() {
+
+        for (Account account : Arrays.asList(first, second)) {
+            transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+            accountRepository.deleteById(account.getId());
+        }
+    }
+
+    @Test
+    public void testCreateTransactions_OneUpdatePerAccount() throws AccountException {
+
+        List<AccountOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            operations.add(new AccountOperation(first.getId(), "DEPOSIT", Money.of(10)));
+            operations.add(new AccountOperation(second.getId(), "WITHDRAW", Money.of(1)));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AccountBatchResult result = transactionService.createTransactions(operations);
+
+        // One locking read for both accounts and one UPDATE each; the ledger goes through JDBC batches.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertTrue(result.getResults().stream().allMatch(AccountOperationResult::isSuccess));
+        assertEquals(2, result.getAccounts().size());
+        assertEquals(0, balance(first).compareTo(Money.of(1000)));
+        assertEquals(0, balance(second).compareTo(Money.ZERO));
+        assertEquals(0, result.getAccounts().get(0).getBalance().compareTo(Money.of(1000)));
+
+        List<Transaction> ledger = transactionRepository.findByAccountId(first.getId());
+        assertEquals(100, ledger.size());
+        assertEquals("DEPOSIT", ledger.get(0).getType().getType());
+        assertEquals(100, transactionRepository.findByAccountId(second.getId()).size());
+    }
+
+    @Test
+    public void testCreateTransactions_ReportsFailuresPerOperation() throws AccountException {
+
+        List<AccountOperation> operations = Arrays.asList(
+                new AccountOperation(second.getId(), "WITHDRAW", Money.of(150)),
+                new AccountOperation(second.getId(), "DEPOSIT", Money.of(60)),
+                new AccountOperation(second.getId(), "WITHDRAW", Money.of(150)),
+                new AccountOperation(first.getId(), "PURCHASE", Money.of(1)),
+                new AccountOperation(first.getId(), "DEPOSIT", Money.of(-1)),
+                new AccountOperation(Integer.MAX_VALUE, "DEPOSIT", Money.of(1)),
+                null);
+
+        List<AccountOperationResult> results = transactionService.createTransactions(operations).getResults();
+
+        assertEquals(ErrorMessage.NO_ENOUGH_BALANCE.getMessage(), results.get(0).getMessage());
+        assertEquals(Integer.valueOf(ErrorCode.BadRequest.getCode()), results.get(0).getErrorCode());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(ErrorMessage.OPERATION_TYPE_NOT_SUPPORTED.getMessage(), results.get(3).getMessage());
+        assertEquals(String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Amount"), results.get(4).getMessage());
+        assertEquals(ErrorMessage.ACCOUNT_NOT_FOUND_EXCEPTION.getMessage(), results.get(5).getMessage());
+        assertEquals(ErrorMessage.NO_MANDATORY_FIELD.getMessage(), results.get(6).getMessage());
+        assertFalse(results.get(6).isSuccess());
+
+        assertEquals(0, balance(second).compareTo(Money.of(10)));
+        assertEquals(0, balance(first).compareTo(Money.ZERO));
+        assertEquals(2, transactionRepository.findByAccountId(second.getId()).size());
+        assertTrue(transactionRepository.findByAccountId(first.getId()).isEmpty());
+    }
+
+    @Test
+    public void testCreateTransactions_FailWhenBatchTooLarge() {
+
+        try {
+            transactionService.createTransactions(Collections.nCopies(TransactionServiceImp.MAX_BATCH_SIZE + 1,
+                    new AccountOperation(first.getId(), "DEPOSIT", Money.of(1))));
+            fail();
+        } catch (AccountException ex) {
+            assertEquals(String.format(ErrorMessage.BATCH_SIZE_EXCEEDED.getMessage(), TransactionServiceImp.MAX_BATCH_SIZE), ex.getMessage());
+        }
+    }
+
+    private Money balance(Account account) {
+        return accountRepository.findById(account.getId()).get().getBalance();
+    }
+}
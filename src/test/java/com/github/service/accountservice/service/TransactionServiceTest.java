@@ -1,7 +1,9 @@
 package com.github.service.accountservice.service;
 
+import com.github.service.accountservice.cache.TransactionTypeRegistry;
 import com.github.service.accountservice.enums.TransactionTypes;
 import com.github.service.accountservice.exceptions.AccountException;
+import com.github.service.accountservice.money.Money;
 import com.github.service.accountservice.service.contracts.IAccountService;
 import com.github.service.accountservice.service.contracts.ITransactionService;
 import com.github.service.accountservice.entities.Account;
@@ -10,27 +12,36 @@ import com.github.service.accountservice.entities.Transaction;
 import com.github.service.accountservice.entities.TransactionType;
 import com.github.service.accountservice.enums.ErrorCode;
 import com.github.service.accountservice.enums.ErrorMessage;
+import com.github.service.accountservice.idempotency.IdempotencyMarker;
+import com.github.service.accountservice.ledger.DatabaseLedger;
+import com.github.service.accountservice.ledger.ILedger;
 import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.BalanceBucketRepository;
+import com.github.service.accountservice.repository.IdempotencyRecordRepository;
 import com.github.service.accountservice.repository.TransactionRepository;
-import com.github.service.accountservice.repository.TransactionTypeRepository;
 import com.github.service.accountservice.service.models.TransactionDto;
+import com.github.service.accountservice.service.models.TransactionPage;
 import com.github.service.accountservice.validator.IValidator;
 import com.github.service.accountservice.validator.ValidatorImp;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
 import javax.validation.ConstraintViolationException;
-import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -48,7 +59,21 @@ public class TransactionServiceTest {
         public IAccountService accountService() {return new AccountServiceImp();}
 
         @Bean
-        public IValidator<String, String> validator() {return new ValidatorImp(); }
+        public IValidator validator() {return new ValidatorImp(); }
+
+        @Bean
+        public ILedger ledger() {return new DatabaseLedger(); }
+
+        @Bean
+        public IdempotencyMarker idempotencyMarker(IdempotencyRecordRepository idempotencyRecordRepository) {
+            return new IdempotencyMarker(idempotencyRecordRepository);
+        }
+
+        @Bean
+        public TransactionTypeRegistry transactionTypeRegistry() {
+            return new TransactionTypeRegistry(Arrays.asList(new TransactionType(1, "DEPOSIT"), new TransactionType(2, "WITHDRAW"),
+                    new TransactionType(3, "PURCHASE")));
+        }
 
         @Bean
         public MethodValidationPostProcessor methodValidationPostProcessor() {
@@ -69,7 +94,10 @@ public class TransactionServiceTest {
     private AccountRepository accountRepository;
 
     @MockBean
-    private TransactionTypeRepository transactionTypeRepository;
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
 
     private Transaction transaction1;
     private Transaction transaction2;
@@ -88,38 +116,37 @@ public class TransactionServiceTest {
         account1.setId(1);
         account2 = new Account();
         account2.setId(1);
-        account2.setBalance(new BigDecimal(1000));
+        account2.setBalance(Money.of(1000));
         type1 = new TransactionType("DEPOSIT");
         type1.setId(1);
         type2 = new TransactionType("WITHDRAW");
         type2.setId(2);
         type3 = new TransactionType("PURCHASE");
         type3.setId(3);
-        product1 = new Product("Name1", new BigDecimal(50), 100);
+        product1 = new Product("Name1", Money.of(50), 100);
 
-        transaction1 = new Transaction(type1, new BigDecimal(100), account1);
+        transaction1 = new Transaction(type1, Money.of(100), account1);
         transaction1.setId(1);
-        transaction2 = new Transaction(type2, new BigDecimal(100), account1);
+        transaction2 = new Transaction(type2, Money.of(100), account1);
         transaction2.setId(2);
-        transaction3 = new Transaction(type3, new BigDecimal(100), account1, product1);
+        transaction3 = new Transaction(type3, Money.of(100), account1, product1);
         transaction2.setId(3);
 
-        Mockito.when(transactionTypeRepository.getOne(type1.getId())).thenReturn(type1);
-        Mockito.when(transactionTypeRepository.getOne(type2.getId())).thenReturn(type2);
-        Mockito.when(transactionTypeRepository.getOne(type3.getId())).thenReturn(type3);
-
         Mockito.when(accountRepository.findById(account1.getId())).thenReturn(Optional.of(account1));
         Mockito.when(accountRepository.save(account1)).thenReturn(account1);
 
         Mockito.when(accountRepository.findById(account2.getId())).thenReturn(Optional.of(account2));
         Mockito.when(accountRepository.save(account2)).thenReturn(account2);
+
+        Mockito.when(accountRepository.depositAmount(Mockito.eq(account2.getId()), Mockito.any(Money.class), Mockito.any(Date.class))).thenReturn(1);
+        Mockito.when(accountRepository.withdrawAmount(Mockito.eq(account2.getId()), Mockito.any(Money.class), Mockito.any(Date.class))).thenReturn(1);
     }
 
    @Test
     public void testCreateTransaction_SuccessIfTypeDEPOSIT() throws AccountException {
 
        Mockito.when(transactionRepository.save(Mockito.any(Transaction.class))).thenReturn(transaction1);
-       TransactionDto transaction = transactionService.createTransaction(account1.getId(), new BigDecimal(100), TransactionTypes.DEPOSIT);
+       TransactionDto transaction = transactionService.createTransaction(account1.getId(), Money.of(100), TransactionTypes.DEPOSIT);
        assertTrue(transaction.getAmount().equals(transaction1.getAmount()));
        assertTrue(transaction.getAccountId().equals(transaction1.getAccount().getId()));
    }
@@ -128,7 +155,7 @@ public class TransactionServiceTest {
     public void testCreateTransaction_SuccessIfTypeWITHDRAW() throws AccountException{
 
         Mockito.when(transactionRepository.save(Mockito.any(Transaction.class))).thenReturn(transaction1);
-        TransactionDto transaction = transactionService.createTransaction(account1.getId(), new BigDecimal(100), TransactionTypes.WITHDRAW);
+        TransactionDto transaction = transactionService.createTransaction(account1.getId(), Money.of(100), TransactionTypes.WITHDRAW);
         assertTrue(transaction.getAmount().equals(transaction1.getAmount()));
         assertTrue(transaction.getAccountId().equals(transaction1.getAccount().getId()));
     }
@@ -137,7 +164,7 @@ public class TransactionServiceTest {
     public void testCreateTransaction_SuccessIfTypePURCHASE() throws AccountException{
 
         Mockito.when(transactionRepository.save(Mockito.any(Transaction.class))).thenReturn(transaction1);
-        TransactionDto transaction = transactionService.createTransaction(account1.getId(), new BigDecimal(100), TransactionTypes.PURCHASE);
+        TransactionDto transaction = transactionService.createTransaction(account1.getId(), Money.of(100), TransactionTypes.PURCHASE);
         assertTrue(transaction.getAmount().equals(transaction1.getAmount()));
         assertTrue(transaction.getAccountId().equals(transaction1.getAccount().getId()));
     }
@@ -146,7 +173,7 @@ public class TransactionServiceTest {
     public void testCreateTransaction_FailWhenAccountNotFound() throws AccountException{
 
        try{
-           TransactionDto transaction = transactionService.createTransaction(100, new BigDecimal(100), TransactionTypes.PURCHASE);
+           TransactionDto transaction = transactionService.createTransaction(100, Money.of(100), TransactionTypes.PURCHASE);
            fail();
        }
        catch(AccountException ex){
@@ -171,7 +198,7 @@ public class TransactionServiceTest {
     public void testCreateTransaction_FailWhenAmountSmallerThanZero() throws AccountException{
 
        try{
-           TransactionDto transaction = transactionService.createTransaction(account1.getId(), new BigDecimal(-100), TransactionTypes.PURCHASE);
+           TransactionDto transaction = transactionService.createTransaction(account1.getId(), Money.of(-100), TransactionTypes.PURCHASE);
            fail();
        }
        catch(AccountException ex){
@@ -179,4 +206,78 @@ public class TransactionServiceTest {
            assertEquals(ex.getErrorCode(), ErrorCode.BadRequest.getCode());
        }
    }
+
+    @Test
+    public void testGetTransactionsPage_ReturnsNextCursorWhenMoreRows() throws AccountException{
+
+        Date firstDate = new Date(System.currentTimeMillis() - 60000);
+        TransactionDto first = new TransactionDto(9, account1.getId(), Money.of(100), firstDate, "DEPOSIT", null);
+        TransactionDto second = new TransactionDto(4, account1.getId(), Money.of(100), new Date(), "DEPOSIT", null);
+        Mockito.when(transactionRepository.findPageByAccountId(Mockito.eq(account1.getId()), Mockito.isNull(), Mockito.eq(0L),
+                Mockito.any(Date.class), Mockito.isNull(), Mockito.isNull(), Mockito.eq(PageRequest.of(0, 2))))
+                .thenReturn(Arrays.asList(first, second));
+
+        TransactionPage page = transactionService.getTransactionsByAccountId(account1.getId(), null, null, 1, null, null);
+        assertEquals(1, page.getTransactions().size());
+        assertEquals(firstDate, page.getNextAfterTime());
+        assertEquals(Long.valueOf(9), page.getNextAfterId());
+
+        Mockito.when(transactionRepository.findPageByAccountId(Mockito.eq(account1.getId()), Mockito.eq(firstDate), Mockito.eq(9L),
+                Mockito.any(Date.class), Mockito.isNull(), Mockito.isNull(), Mockito.eq(PageRequest.of(0, 2))))
+                .thenReturn(Arrays.asList(second));
+
+        page = transactionService.getTransactionsByAccountId(account1.getId(), firstDate, 9L, 1, null, null);
+        assertEquals(1, page.getTransactions().size());
+        assertNull(page.getNextAfterTime());
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    public void testGetTransactionsPage_StopsSettleMillisBeforeNow() throws AccountException{
+
+        long now = System.currentTimeMillis();
+        transactionService.getTransactionsByAccountId(account1.getId(), null, null, 1, null, null);
+
+        ArgumentCaptor<Date> before = ArgumentCaptor.forClass(Date.class);
+        Mockito.verify(transactionRepository).findPageByAccountId(Mockito.eq(account1.getId()), Mockito.isNull(), Mockito.eq(0L),
+                before.capture(), Mockito.isNull(), Mockito.isNull(), Mockito.any(PageRequest.class));
+        assertTrue(before.getValue().getTime() <= now - 5000 + 1000);
+        assertTrue(before.getValue().getTime() >= now - 5000);
+    }
+
+    // Read in one go, the stream shows the client's own transactions that just committed.
+    @Test
+    public void testGetTransactionStreamPage_NoSettleHorizon() throws AccountException{
+
+        transactionService.getTransactionStreamPage(account1.getId(), null, null, 1, null, null);
+
+        Mockito.verify(transactionRepository).findPageByAccountId(Mockito.eq(account1.getId()), Mockito.isNull(), Mockito.eq(0L),
+                Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.any(PageRequest.class));
+    }
+
+    @Test
+    public void testGetTransactionsPage_FailWhenCursorIsIncomplete() throws AccountException{
+
+        try{
+            transactionService.getTransactionsByAccountId(account1.getId(), null, 9L, 1, null, null);
+            fail();
+        }
+        catch(AccountException ex){
+            assertEquals(ErrorMessage.PAGE_CURSOR_INCOMPLETE.getMessage(), ex.getMessage());
+            assertEquals(ErrorCode.BadRequest.getCode(), ex.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testGetTransactionsPage_FailWhenLimitIsZero() throws AccountException{
+
+        try{
+            transactionService.getTransactionsByAccountId(account1.getId(), null, null, 0, null, null);
+            fail();
+        }
+        catch(AccountException ex){
+            assertEquals(ex.getMessage(), String.format(ErrorMessage.SHOULD_GREATER_THAN_ZERO.getMessage(), "Limit"));
+            assertEquals(ex.getErrorCode(), ErrorCode.BadRequest.getCode());
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.github.service.accountservice.service.mappers;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.entities.Transaction;
+import com.github.service.accountservice.entities.TransactionType;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.service.models.AccountDto;
+import com.github.service.accountservice.service.models.ProductDto;
+import com.github.service.accountservice.service.models.TransactionDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.modelmapper.ModelMapper;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks DtoMapper field by field against the ModelMapper mapping the services used before.
+ */
+public class DtoMapperTest {
+
+    private ModelMapper modelMapper = new ModelMapper();
+    private Account account;
+    private Product product;
+    private Transaction purchase;
+    private Transaction deposit;
+
+    @Before
+    public void setUp() {
+
+        account = new Account();
+        account.setId(7);
+        account.setBalance(Money.parse("12.50"));
+
+        product = new Product("Name1", Money.parse("3.20"), 4);
+        product.setId(9);
+
+        TransactionType purchaseType = new TransactionType("PURCHASE");
+        purchaseType.setId(3);
+        purchase = new Transaction(purchaseType, Money.parse("3.20"), account, product);
+        purchase.setId(55);
+        purchase.setCreatedTime(new Date(5000));
+
+        TransactionType depositType = new TransactionType("DEPOSIT");
+        depositType.setId(1);
+        deposit = new Transaction(depositType, Money.of(100), account);
+        deposit.setId(56);
+    }
+
+    @Test
+    public void testAccount_MatchesModelMapper() {
+
+        AccountDto expected = modelMapper.map(account, AccountDto.class);
+        AccountDto actual = DtoMapper.toDto(account);
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getBalance(), actual.getBalance());
+    }
+
+    @Test
+    public void testProduct_MatchesModelMapper() {
+
+        List<ProductDto> actual = DtoMapper.toProductDtos(Arrays.asList(product));
+        ProductDto expected = modelMapper.map(product, ProductDto.class);
+
+        assertEquals(1, actual.size());
+        assertEquals(expected.getId(), actual.get(0).getId());
+        assertEquals(expected.getName(), actual.get(0).getName());
+        assertEquals(expected.getPrice(), actual.get(0).getPrice());
+        assertEquals(expected.getCount(), actual.get(0).getCount());
+    }
+
+    @Test
+    public void testTransaction_MatchesModelMapper() {
+
+        for (Transaction transaction : Arrays.asList(purchase, deposit)) {
+            TransactionDto expected = modelMapper.map(transaction, TransactionDto.class);
+            TransactionDto actual = DtoMapper.toDto(transaction);
+
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getAccountId(), actual.getAccountId());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getProductId(), actual.getProductId());
+        }
+        assertNull(DtoMapper.toDto(deposit).getProductId());
+    }
+
+    @Test
+    public void testTransaction_DateIsCreatedTime() {
+
+        // ModelMapper found no source for "date" and left the DTO's construction time in it; the
+        // mapper returns when the transaction happened, like the repository projections do.
+        assertEquals(purchase.getCreatedTime(), DtoMapper.toDto(purchase).getDate());
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.service.accountservice.statements;
+
+import com.github.service.accountservice.entities.Account;
+import com.github.service.accountservice.entities.Product;
+import com.github.service.accountservice.money.Money;
+import com.github.service.accountservice.repository.AccountRepository;
+import com.github.service.accountservice.repository.ProductRepository;
+import com.github.service.accountservice.repository.TransactionRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.context.TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS;
+
+/**
+ * Calls the endpoints through the whole application on H2 and holds them to their {@link StatementBudget}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "ratelimit.redis-sync.enabled=false",
+        "reconciliation.enabled=false",
+        "catalog.invalidation=local",
+        "idempotency.cache=local",
+        "transactions.settle-ms=0"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@TestExecutionListeners(listeners = StatementBudgetListener.class, mergeMode = MERGE_WITH_DEFAULTS)
+public class EndpointStatementsTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Account account;
+    private Product product;
+
+    @Before
+    public void setUp() {
+
+        Account newAccount = new Account();
+        newAccount.setBalance(Money.of(1000));
+        account = accountRepository.save(newAccount);
+        product = productRepository.save(new Product("StatementBudgetProduct", Money.of(100), 5));
+    }
+
+    @After
+    public void tearDown() {
+
+        transactionRepository.deleteAll(transactionRepository.findByAccountId(account.getId()));
+        productRepository.deleteById(product.getId());
+        accountRepository.deleteById(account.getId());
+    }
+
+    // The product read, the stock decrement, the debit and the ledger insert, and the two statements of an id block
+    // reservation when the block runs out.
+    @Test
+    @StatementBudget(endpoint = "POST /store/buy", max = 6)
+    public void testBuy_thenWithinStatementBudget() throws Exception {
+
+        MvcResult result = buy();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getHeader(StatementAccountingFilter.HEADER).matches("db;dur=[0-9.]+;desc=\"[4-6] statements, [0-9]+ rows\""));
+    }
+
+    // The account read, the balance update and the ledger insert, and an id block reservation; the transaction type
+    // comes from the registry without a query.
+    @Test
+    @StatementBudget(endpoint = "POST /account/deposit", max = 6)
+    public void testDeposit_thenWithinStatementBudget() throws Exception {
+
+        MvcResult result = post("/account/deposit", "{\"accountId\":" + account.getId() + ",\"amount\":10}");
+
+        assertEquals(200, result.getResponse().getStatus());
+    }
+
+    // One query however many transactions there are.
+    @Test
+    @StatementBudget(endpoint = "POST /account/listTransactions", max = 1)
+    public void testListTransactions_thenWithinStatementBudget() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            buy();
+        }
+
+        MvcResult result = post("/account/listTransactions", "{\"accountId\":" + account.getId() + "}");
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getHeader(StatementAccountingFilter.HEADER).endsWith("\"1 statements, 3 rows\""));
+    }
+
+    @Test
+    public void testActuator_thenTotalsPerEndpoint() throws Exception {
+
+        buy();
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/actuator/statements")).andReturn();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString().contains("\"POST /store/buy\":{\"requests\":"));
+    }
+
+    private MvcResult buy() throws Exception {
+        return post("/store/buy", "{\"accountId\":" + account.getId() + ",\"productId\":" + product.getId() + "}");
+    }
+
+    private MvcResult post(String uri, String json) throws Exception {
+
+        return mvc.perform(MockMvcRequestBuilders.post(uri).contentType(MediaType.APPLICATION_JSON_VALUE).content(json))
+                .andReturn();
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.service.accountservice.statements;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most statements one request to {@link #endpoint()} may send to the database, e.g.
+ * {@code @StatementBudget(endpoint = "POST /store/buy", max = 6)}. A test method carrying it fails when a request to
+ * the endpoint went over the budget while it ran, which is what an N+1 query looks like, or when it did not call the
+ * endpoint at all. Checked by {@link StatementBudgetListener}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StatementBudget {
+
+    /**
+     * The HTTP method and the handler's mapping, "POST /account/listTransactions".
+     */
+    String endpoint();
+
+    int max();
+}
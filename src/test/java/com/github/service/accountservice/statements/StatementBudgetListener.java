@@ -0,0 +1,38 @@
+package com.github.service.accountservice.statements;
+
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Checks the {@link StatementBudget} of each test method against the {@link EndpointStatements} of the application
+ * under test, which are started over before the method runs. Add it to a test class with
+ * {@code @TestExecutionListeners(listeners = StatementBudgetListener.class, mergeMode = MERGE_WITH_DEFAULTS)}.
+ */
+public class StatementBudgetListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+
+        if (testContext.getTestMethod().isAnnotationPresent(StatementBudget.class)) {
+            testContext.getApplicationContext().getBean(EndpointStatements.class).reset();
+        }
+    }
+
+    @Override
+    public void afterTestMethod(TestContext testContext) {
+
+        StatementBudget budget = testContext.getTestMethod().getAnnotation(StatementBudget.class);
+        if (budget == null || testContext.getTestException() != null) {
+            return;
+        }
+        EndpointStatements.Totals totals = testContext.getApplicationContext().getBean(EndpointStatements.class)
+                .get(budget.endpoint());
+        if (totals == null) {
+            throw new AssertionError(budget.endpoint() + " was not called");
+        }
+        if (totals.getMaxStatements() > budget.max()) {
+            throw new AssertionError(String.format("%s sent %d statements in one request, its budget is %d",
+                    budget.endpoint(), totals.getMaxStatements(), budget.max()));
+        }
+    }
+}